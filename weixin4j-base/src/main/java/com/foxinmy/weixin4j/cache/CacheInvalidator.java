@@ -0,0 +1,45 @@
+package com.foxinmy.weixin4j.cache;
+
+/**
+ * 缓存失效通知:在多个节点之间广播缓存的变更,用于清除各节点的本地缓存
+ *
+ * @className CacheInvalidator
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see TieredCacheStorager
+ * @see RedisCacheInvalidator
+ */
+public interface CacheInvalidator {
+
+	/**
+	 * 广播缓存失效
+	 *
+	 * @param key
+	 *            失效的缓存key,为空时表示清除所有缓存
+	 */
+	void publish(String key);
+
+	/**
+	 * 注册失效通知的监听(本节点发出的通知不会回调)
+	 *
+	 * @param listener
+	 *            监听
+	 */
+	void subscribe(Listener listener);
+
+	/**
+	 * 停止接收通知并释放资源
+	 */
+	void close();
+
+	interface Listener {
+		/**
+		 * 收到其它节点的失效通知
+		 *
+		 * @param key
+		 *            失效的缓存key,为空时表示清除所有缓存
+		 */
+		void onInvalidate(String key);
+	}
+}
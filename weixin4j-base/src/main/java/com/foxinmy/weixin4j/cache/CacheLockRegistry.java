@@ -0,0 +1,131 @@
+package com.foxinmy.weixin4j.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * 按缓存key划分的锁注册表:相同key总是得到同一把锁,不同key的锁互不相关;
+ * 锁在没有线程持有或等待时即被移除,占用的内存只与正在创建的key的数量有关
+ * <p>
+ * 所有CacheManager默认共享{@link #global()},因此不同的代理对象或不同的TokenManager实例
+ * 对同一个key(如同一个授权方的token)的创建也是互斥的;
+ * 嵌套创建(如jsticket的创建中获取token)使用的是另一个key的锁,不会与其它key的创建形成锁顺序的死锁
+ * </p>
+ *
+ * @className CacheLockRegistry
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see CacheCreator#key()
+ * @see CacheManager
+ */
+public final class CacheLockRegistry {
+
+	private static final CacheLockRegistry GLOBAL = new CacheLockRegistry();
+
+	private final ConcurrentMap<String, Entry> locks = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * 全局共享的锁注册表
+	 */
+	public static CacheLockRegistry global() {
+		return GLOBAL;
+	}
+
+	/**
+	 * 获取key对应的锁
+	 *
+	 * @param key
+	 *            缓存key
+	 * @return 锁,每次调用得到新的对象,相同key的对象之间互斥
+	 */
+	public KeyLock getLock(String key) {
+		return new KeyLock(key);
+	}
+
+	/**
+	 * 被持有或等待中的key的数量
+	 */
+	public int size() {
+		return locks.size();
+	}
+
+	private Entry reference(String key) {
+		return locks.compute(key, new BiFunction<String, Entry, Entry>() {
+			@Override
+			public Entry apply(String key, Entry entry) {
+				if (entry == null) {
+					entry = new Entry();
+				}
+				entry.references++;
+				return entry;
+			}
+		});
+	}
+
+	private void dereference(String key) {
+		locks.computeIfPresent(key, new BiFunction<String, Entry, Entry>() {
+			@Override
+			public Entry apply(String key, Entry entry) {
+				return --entry.references == 0 ? null : entry;
+			}
+		});
+	}
+
+	/**
+	 * key对应的锁与引用计数,引用计数在ConcurrentHashMap的compute中修改
+	 */
+	private static final class Entry {
+		private final ReentrantLock lock = new ReentrantLock();
+		private int references;
+	}
+
+	/**
+	 * key的锁:可重入,加锁时引用注册表中的锁,解锁时释放引用
+	 */
+	public final class KeyLock {
+
+		private final String key;
+		private Entry entry;
+
+		private KeyLock(String key) {
+			this.key = key;
+		}
+
+		/**
+		 * 加锁,等待期间可被中断
+		 */
+		public void lockInterruptibly() throws InterruptedException {
+			if (entry != null) {
+				throw new IllegalStateException("already locked: " + key);
+			}
+			Entry entry = reference(key);
+			try {
+				entry.lock.lockInterruptibly();
+			} catch (InterruptedException e) {
+				dereference(key);
+				throw e;
+			}
+			this.entry = entry;
+		}
+
+		/**
+		 * 解锁,只能由加锁的线程调用
+		 */
+		public void unlock() {
+			Entry entry = this.entry;
+			if (entry == null) {
+				throw new IllegalStateException("not locked: " + key);
+			}
+			this.entry = null;
+			entry.lock.unlock();
+			dereference(key);
+		}
+
+		public String getKey() {
+			return key;
+		}
+	}
+}
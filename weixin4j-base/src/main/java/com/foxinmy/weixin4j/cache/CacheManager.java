@@ -1,12 +1,23 @@
 package com.foxinmy.weixin4j.cache;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
 
 import com.foxinmy.weixin4j.exception.WeixinException;
+import com.foxinmy.weixin4j.logging.InternalLogger;
+import com.foxinmy.weixin4j.logging.InternalLoggerFactory;
+import com.foxinmy.weixin4j.util.NamedThreadFactory;
 
 /**
  * 缓存管理类
+ * <p>
+ * 相同key的并发创建只会执行一次(single-flight):创建在{@link CacheLockRegistry}中key对应的锁内进行,
+ * 其余调用者等待后直接读取创建结果;
+ * 开启预刷新({@link #enableRefreshAhead(float)})后,缓存在有效期的指定比例处由后台线程重新创建,
+ * 期间读取方继续获得仍然有效的旧值
+ * </p>
  *
  * @className CacheManager
  * @author jinyu(foxinmy@gmail.com)
@@ -15,13 +26,80 @@ import com.foxinmy.weixin4j.exception.WeixinException;
  * @see
  */
 public class CacheManager<T extends Cacheable> {
+    /**
+     * 预刷新失败后的最长重试间隔(30秒)
+     */
+    private static final long MAX_RETRY_MILLIS = 30 * 1000l;
+    /**
+     * 预刷新失败后的最短重试间隔(1秒),旧值的剩余有效期不足时不再重试
+     */
+    private static final long MIN_RETRY_MILLIS = 1000l;
+    private static volatile ScheduledExecutorService refreshExecutor;
+
+    protected final InternalLogger logger = InternalLoggerFactory.getInstance(getClass());
     protected final CacheCreator<T> cacheCreator;
     protected final CacheStorager<T> cacheStorager;
-    private final ReentrantLock lock = new ReentrantLock();
+    private final CacheLockRegistry lockRegistry;
+    private final CacheMetrics metrics = new CacheMetrics();
+    /**
+     * 预刷新比例,0表示不开启
+     */
+    private volatile float refreshAheadRatio;
+    private volatile ScheduledFuture<?> refreshFuture;
 
     public CacheManager(CacheCreator<T> cacheCreator, CacheStorager<T> cacheStorager) {
+        this(cacheCreator, cacheStorager, CacheLockRegistry.global());
+    }
+
+    /**
+     *
+     * @param cacheCreator
+     *            缓存的创建
+     * @param cacheStorager
+     *            缓存的存储
+     * @param lockRegistry
+     *            创建缓存时使用的锁注册表
+     */
+    public CacheManager(CacheCreator<T> cacheCreator, CacheStorager<T> cacheStorager,
+            CacheLockRegistry lockRegistry) {
         this.cacheCreator = cacheCreator;
         this.cacheStorager = cacheStorager;
+        this.lockRegistry = lockRegistry;
+    }
+
+    /**
+     * 开启预刷新:缓存在创建后经过 expires * ratio 毫秒时由后台线程重新创建
+     *
+     * @param ratio
+     *            有效期的比例,取值范围(0,1),如0.8表示在有效期的80%处刷新
+     * @return 缓存管理类
+     */
+    public CacheManager<T> enableRefreshAhead(float ratio) {
+        if (ratio <= 0f || ratio >= 1f) {
+            throw new IllegalArgumentException("ratio must be between 0 and 1");
+        }
+        this.refreshAheadRatio = ratio;
+        return this;
+    }
+
+    /**
+     * 关闭预刷新并取消已计划的刷新任务
+     */
+    public synchronized void disableRefreshAhead() {
+        this.refreshAheadRatio = 0f;
+        if (refreshFuture != null) {
+            refreshFuture.cancel(false);
+            refreshFuture = null;
+        }
+    }
+
+    /**
+     * 缓存创建的统计信息
+     *
+     * @return 统计信息
+     */
+    public CacheMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -33,20 +111,12 @@ public class CacheManager<T extends Cacheable> {
     public T getCache() throws WeixinException {
         String cacheKey = cacheCreator.key();
         T cache = cacheStorager.lookup(cacheKey);
-        try {
-            if (cache == null && lock.tryLock(3, TimeUnit.SECONDS)) {
-                try {
-                    cache = cacheStorager.lookup(cacheKey);
-                    if (cache == null) {
-                        cache = cacheCreator.create();
-                        cacheStorager.caching(cacheKey, cache);
-                    }
-                } finally {
-                    lock.unlock();
-                }
-            }
-        } catch (InterruptedException e) {
-            throw new WeixinException("get cache error on lock", e);
+        if (cache == null) {
+            cache = load(cacheKey, null, false);
+        }
+        // 读路径上只做volatile读,已有刷新计划时不进入同步块
+        if (refreshAheadRatio > 0f && !isRefreshScheduled()) {
+            scheduleRefresh(cache);
         }
         return cache;
     }
@@ -59,9 +129,7 @@ public class CacheManager<T extends Cacheable> {
      */
     public T refreshCache() throws WeixinException {
         String cacheKey = cacheCreator.key();
-        T cache = cacheCreator.create();
-        cacheStorager.caching(cacheKey, cache);
-        return cache;
+        return load(cacheKey, cacheStorager.lookup(cacheKey), false);
     }
 
     /**
@@ -80,4 +148,153 @@ public class CacheManager<T extends Cacheable> {
     public void clearCache() {
         cacheStorager.clear();
     }
+
+    /**
+     * 创建并缓存对象,相同key同一时刻只有一个线程执行创建
+     *
+     * @param cacheKey
+     *            缓存key
+     * @param stale
+     *            需要被替换的旧对象,为空时表示缓存缺失
+     * @param refreshAhead
+     *            是否为后台预刷新
+     */
+    private T load(String cacheKey, T stale, boolean refreshAhead) throws WeixinException {
+        CacheLockRegistry.KeyLock lock = lockRegistry.getLock(cacheKey);
+        try {
+            lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeixinException("get cache error on lock", e);
+        }
+        try {
+            // 等待锁期间其它线程(或其它进程)可能已经创建了新的对象
+            T cache = cacheStorager.lookup(cacheKey);
+            if (cache != null && (stale == null || cache.getCreateTime() != stale.getCreateTime())) {
+                return cache;
+            }
+            return create(cacheKey, refreshAhead);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private T create(String cacheKey, boolean refreshAhead) throws WeixinException {
+        long start = System.nanoTime();
+        try {
+            T cache = cacheCreator.create();
+            cacheStorager.caching(cacheKey, cache);
+            metrics.recordCreate(System.nanoTime() - start, refreshAhead);
+            return cache;
+        } catch (WeixinException e) {
+            metrics.recordFailure();
+            throw e;
+        } catch (RuntimeException e) {
+            metrics.recordFailure();
+            throw e;
+        }
+    }
+
+    private boolean isRefreshScheduled() {
+        ScheduledFuture<?> future = refreshFuture;
+        return future != null && !future.isDone();
+    }
+
+    /**
+     * 计划下一次预刷新,已有计划时忽略
+     */
+    private synchronized void scheduleRefresh(T cache) {
+        if (refreshAheadRatio <= 0f || cache.getExpires() < 0 || isRefreshScheduled()) {
+            return;
+        }
+        long delay = cache.getCreateTime() + (long) (cache.getExpires() * refreshAheadRatio)
+                - currentTimeMillis();
+        // 已过刷新点且旧值即将失效(如重试已放弃):不再计划,失效后由读取方同步创建
+        if (delay <= 0 && remainingMillis(cache) / 2 < MIN_RETRY_MILLIS) {
+            return;
+        }
+        refreshFuture = getRefreshExecutor().schedule(new RefreshTask(cache),
+                Math.max(0l, delay), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void scheduleRetry(T cache) {
+        if (refreshAheadRatio <= 0f) {
+            return;
+        }
+        // 在旧值失效前重试,间隔不超过剩余有效期的一半
+        long delay = Math.min(MAX_RETRY_MILLIS, remainingMillis(cache) / 2);
+        if (delay < MIN_RETRY_MILLIS) {
+            refreshFuture = null;
+            return;
+        }
+        refreshFuture = getRefreshExecutor().schedule(new RefreshTask(cache), delay,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 旧值的剩余有效期
+     */
+    private long remainingMillis(T cache) {
+        return cache.getCreateTime() + cache.getExpires() - CacheStorager.CUTMS
+                - currentTimeMillis();
+    }
+
+    /**
+     * 当前时间,预刷新与重试的时间点均以此计算
+     *
+     * @return 毫秒时间戳
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * 执行预刷新与重试的线程池,默认为所有CacheManager共享的守护线程池
+     *
+     * @return 线程池
+     */
+    protected ScheduledExecutorService getRefreshExecutor() {
+        return defaultRefreshExecutor();
+    }
+
+    private static ScheduledExecutorService defaultRefreshExecutor() {
+        if (refreshExecutor == null) {
+            synchronized (CacheManager.class) {
+                if (refreshExecutor == null) {
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                            Math.max(2, Runtime.getRuntime().availableProcessors()),
+                            new NamedThreadFactory("weixin4j-cache-refresh"));
+                    executor.setRemoveOnCancelPolicy(true);
+                    refreshExecutor = executor;
+                }
+            }
+        }
+        return refreshExecutor;
+    }
+
+    private class RefreshTask implements Runnable {
+
+        private final T current;
+
+        RefreshTask(T current) {
+            this.current = current;
+        }
+
+        @Override
+        public void run() {
+            String cacheKey = cacheCreator.key();
+            T cache;
+            try {
+                cache = load(cacheKey, current, true);
+            } catch (Throwable e) {
+                logger.warn("refresh cache error on " + cacheKey, e);
+                scheduleRetry(current);
+                return;
+            }
+            synchronized (CacheManager.this) {
+                refreshFuture = null;
+            }
+            scheduleRefresh(cache);
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package com.foxinmy.weixin4j.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * 缓存创建与预刷新的统计信息
+ *
+ * @className CacheMetrics
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月16日
+ * @since JDK 1.8
+ * @see CacheManager
+ */
+public class CacheMetrics {
+
+	private final LongAdder createCount = new LongAdder();
+	private final LongAdder failureCount = new LongAdder();
+	private final LongAdder refreshAheadCount = new LongAdder();
+	private final LongAdder totalCreateNanos = new LongAdder();
+	private final LongAccumulator maxCreateNanos = new LongAccumulator(
+			new LongBinaryOperator() {
+				@Override
+				public long applyAsLong(long left, long right) {
+					return Math.max(left, right);
+				}
+			}, 0l);
+
+	void recordCreate(long nanos, boolean refreshAhead) {
+		createCount.increment();
+		totalCreateNanos.add(nanos);
+		maxCreateNanos.accumulate(nanos);
+		if (refreshAhead) {
+			refreshAheadCount.increment();
+		}
+	}
+
+	void recordFailure() {
+		failureCount.increment();
+	}
+
+	/**
+	 * 成功创建(包括预刷新)的次数
+	 */
+	public long getCreateCount() {
+		return createCount.sum();
+	}
+
+	/**
+	 * 创建失败的次数
+	 */
+	public long getFailureCount() {
+		return failureCount.sum();
+	}
+
+	/**
+	 * 后台预刷新成功的次数
+	 */
+	public long getRefreshAheadCount() {
+		return refreshAheadCount.sum();
+	}
+
+	/**
+	 * 平均创建耗时(单位:毫秒)
+	 */
+	public long getAverageCreateMillis() {
+		long count = createCount.sum();
+		return count == 0 ? 0 : TimeUnit.NANOSECONDS
+				.toMillis(totalCreateNanos.sum() / count);
+	}
+
+	/**
+	 * 最大创建耗时(单位:毫秒)
+	 */
+	public long getMaxCreateMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(maxCreateNanos.get());
+	}
+
+	@Override
+	public String toString() {
+		return "CacheMetrics [createCount=" + getCreateCount()
+				+ ", failureCount=" + getFailureCount()
+				+ ", refreshAheadCount=" + getRefreshAheadCount()
+				+ ", averageCreateMillis=" + getAverageCreateMillis()
+				+ ", maxCreateMillis=" + getMaxCreateMillis() + "]";
+	}
+}
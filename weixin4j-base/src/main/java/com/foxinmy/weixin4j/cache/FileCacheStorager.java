@@ -1,11 +1,11 @@
 package com.foxinmy.weixin4j.cache;
 
-import com.foxinmy.weixin4j.util.SerializationUtils;
+import com.foxinmy.weixin4j.cache.codec.CacheCodec;
+import com.foxinmy.weixin4j.cache.codec.JavaCacheCodec;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 
 /**
  * 用File保存缓存对象
@@ -20,6 +20,7 @@ public class FileCacheStorager<T extends Cacheable> implements CacheStorager<T>
 
 	private final File tmpdir;
 	private final String SEPARATOR = File.separator;
+	private final CacheCodec<T> cacheCodec;
 
 	/**
 	 * 默认缓存路径：java.io.tmpdir
@@ -34,8 +35,20 @@ public class FileCacheStorager<T extends Cacheable> implements CacheStorager<T>
 	 *            缓存文件报错
 	 */
 	public FileCacheStorager(String path) {
+		this(path, new JavaCacheCodec<T>());
+	}
+
+	/**
+	 *
+	 * @param path
+	 *            缓存文件报错
+	 * @param cacheCodec
+	 *            缓存对象的编解码
+	 */
+	public FileCacheStorager(String path, CacheCodec<T> cacheCodec) {
 		this.tmpdir = new File(String.format("%s%s%s", path, SEPARATOR, ALLKEY));
 		this.tmpdir.mkdirs();
+		this.cacheCodec = cacheCodec;
 	}
 
 	@Override
@@ -44,8 +57,8 @@ public class FileCacheStorager<T extends Cacheable> implements CacheStorager<T>
 				tmpdir.getAbsolutePath(), SEPARATOR, key));
 		try {
 			if (cacheFile.exists()) {
-				T cache = SerializationUtils.deserialize(new FileInputStream(
-						cacheFile));
+				T cache = cacheCodec.decode(Files.readAllBytes(cacheFile
+						.toPath()));
 
 				if (cache.getCreateTime() < 0) {
 					return cache;
@@ -64,10 +77,9 @@ public class FileCacheStorager<T extends Cacheable> implements CacheStorager<T>
 	@Override
 	public void caching(String key, T cache) {
 		try {
-			SerializationUtils.serialize(
-					cache,
-					new FileOutputStream(new File(String.format("%s%s%s",
-							tmpdir.getAbsolutePath(), SEPARATOR, key))));
+			Files.write(new File(String.format("%s%s%s",
+					tmpdir.getAbsolutePath(), SEPARATOR, key)).toPath(),
+					cacheCodec.encode(cache));
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
@@ -80,8 +92,8 @@ public class FileCacheStorager<T extends Cacheable> implements CacheStorager<T>
 				tmpdir.getAbsolutePath(), SEPARATOR, key));
 		try {
 			if (cacheFile.exists()) {
-				cache = SerializationUtils.deserialize(new FileInputStream(
-						cacheFile));
+				cache = cacheCodec.decode(Files.readAllBytes(cacheFile
+						.toPath()));
 				cacheFile.delete();
 			}
 		} catch (IOException e) {
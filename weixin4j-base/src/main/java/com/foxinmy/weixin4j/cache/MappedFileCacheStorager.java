@@ -0,0 +1,645 @@
+package com.foxinmy.weixin4j.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.foxinmy.weixin4j.cache.codec.CacheCodec;
+import com.foxinmy.weixin4j.cache.codec.JavaCacheCodec;
+import com.foxinmy.weixin4j.util.Consts;
+import com.foxinmy.weixin4j.util.ObjectId;
+
+/**
+ * 用File保存缓存对象(可在同一台机器的多个进程之间共享)
+ * <p>
+ * 每个key的内容保存在单独的数据文件中,写入时先写临时文件再原子重命名,进程崩溃不会留下不完整的内容;
+ * 另有一个内存映射的索引文件记录key的过期时间,查找过期或不存在的key时无需读取与反序列化数据文件;
+ * 写操作在进程内加锁并持有索引文件的文件锁,多个进程之间互斥(文件锁属于整个JVM,
+ * 同一进程中使用同一目录的多个实例共享进程内的锁);
+ * 读取索引不加锁,通过槽位的seq(写入期间为奇数)判断是否读到了写入中的内容.
+ * </p>
+ * <p>
+ * 索引为固定大小的开放寻址表,槽位数在首次创建索引文件时确定,已过期或已删除的槽位会被新的key复用,
+ * 只有未过期的key占满所有槽位时才无法写入;key的UTF-8长度不能超过{@value #MAX_KEY_LENGTH}字节.
+ * 写入进程崩溃留下的seq为奇数的槽位在读取时视为不存在,并在下次打开索引或写入该槽位时修复.
+ * 不再使用时调用{@link #close()}解除内存映射.
+ * </p>
+ *
+ * @className MappedFileCacheStorager
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see FileCacheStorager
+ */
+public class MappedFileCacheStorager<T extends Cacheable> implements
+		CacheStorager<T>, Closeable {
+
+	/**
+	 * 默认的索引槽位数
+	 */
+	public static final int DEFAULT_CAPACITY = 16384;
+	public static final int MAX_KEY_LENGTH = 232;
+
+	private static final String DIRECTORY = "weixin4j_cache";
+	private static final String INDEX_FILE = "cache.index";
+	private static final String DATA_SUFFIX = ".cache";
+	private static final int MAGIC = 0x5734434D; // W4CM
+	private static final int HEADER_SIZE = 64;
+	private static final int SLOT_SIZE = 256;
+
+	// 槽位结构:seq(4) state(1) pad(1) keyLength(2) deadline(8) pad(8) key(232)
+	private static final int SEQ_OFFSET = 0;
+	private static final int STATE_OFFSET = 4;
+	private static final int KEY_LENGTH_OFFSET = 6;
+	private static final int DEADLINE_OFFSET = 8;
+	private static final int KEY_OFFSET = 24;
+
+	private static final byte STATE_EMPTY = 0;
+	private static final byte STATE_USED = 1;
+	private static final byte STATE_DELETED = 2;
+
+	/**
+	 * 读取时遇到写入中的槽位的最大重试次数,超过时视为写入进程已崩溃
+	 */
+	private static final int MAX_READ_RETRIES = 1000;
+
+	/**
+	 * 索引文件(规范路径)的进程内写锁:同一个JVM对同一文件重复加文件锁会抛出OverlappingFileLockException
+	 */
+	private static final ConcurrentMap<String, ReentrantLock> INDEX_LOCKS = new ConcurrentHashMap<String, ReentrantLock>();
+
+	private final File directory;
+	private final CacheCodec<T> cacheCodec;
+	private final FileChannel indexChannel;
+	private final MappedByteBuffer index;
+	private final int capacity;
+	private final ReentrantLock writeLock;
+	/**
+	 * 读写索引时持有读锁,关闭(解除内存映射)时持有写锁,避免访问已解除映射的内存
+	 */
+	private final ReentrantReadWriteLock mappingLock = new ReentrantReadWriteLock();
+	private volatile boolean closed;
+	/**
+	 * 临时文件后缀,避免多个进程的临时文件冲突
+	 */
+	private final String tempSuffix = "." + ObjectId.get().toHexString()
+			+ ".tmp";
+
+	/**
+	 * 默认缓存路径：java.io.tmpdir
+	 */
+	public MappedFileCacheStorager() {
+		this(System.getProperty("java.io.tmpdir"));
+	}
+
+	/**
+	 *
+	 * @param path
+	 *            缓存文件的保存路径
+	 */
+	public MappedFileCacheStorager(String path) {
+		this(path, DEFAULT_CAPACITY, new JavaCacheCodec<T>());
+	}
+
+	/**
+	 *
+	 * @param path
+	 *            缓存文件的保存路径
+	 * @param capacity
+	 *            索引槽位数(索引文件已存在时以文件中的为准)
+	 * @param cacheCodec
+	 *            缓存对象的编解码
+	 */
+	public MappedFileCacheStorager(String path, int capacity,
+			CacheCodec<T> cacheCodec) {
+		this.directory = new File(path, DIRECTORY);
+		this.directory.mkdirs();
+		this.cacheCodec = cacheCodec;
+		try {
+			File indexPath = new File(directory, INDEX_FILE);
+			this.writeLock = indexLock(indexPath.getCanonicalPath());
+			RandomAccessFile indexFile = new RandomAccessFile(indexPath, "rw");
+			this.indexChannel = indexFile.getChannel();
+			writeLock.lock();
+			try {
+				FileLock lock = indexChannel.lock();
+				try {
+					this.capacity = initializeIndex(indexFile, capacity);
+					this.index = indexChannel.map(
+							FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE
+									+ (long) this.capacity * SLOT_SIZE);
+					repairSlots();
+				} finally {
+					lock.release();
+				}
+			} finally {
+				writeLock.unlock();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("open cache index error on "
+					+ directory, e);
+		}
+	}
+
+	private static ReentrantLock indexLock(String indexPath) {
+		ReentrantLock lock = INDEX_LOCKS.get(indexPath);
+		if (lock == null) {
+			ReentrantLock newLock = new ReentrantLock();
+			lock = INDEX_LOCKS.putIfAbsent(indexPath, newLock);
+			if (lock == null) {
+				lock = newLock;
+			}
+		}
+		return lock;
+	}
+
+	private static int initializeIndex(RandomAccessFile indexFile,
+			int capacity) throws IOException {
+		if (indexFile.length() >= HEADER_SIZE) {
+			indexFile.seek(0);
+			if (indexFile.readInt() == MAGIC) {
+				return indexFile.readInt();
+			}
+		}
+		indexFile.setLength(0);
+		indexFile.setLength(HEADER_SIZE + (long) capacity * SLOT_SIZE);
+		indexFile.seek(0);
+		indexFile.writeInt(MAGIC);
+		indexFile.writeInt(capacity);
+		return capacity;
+	}
+
+	/**
+	 * 持有文件锁时seq仍为奇数的槽位是写入进程崩溃留下的,内容可能不完整:标记为已删除
+	 */
+	private void repairSlots() {
+		for (int slot = 0; slot < capacity; slot++) {
+			int position = slotPosition(slot);
+			int seq = index.getInt(position + SEQ_OFFSET);
+			if ((seq & 1) != 0) {
+				index.put(position + STATE_OFFSET, STATE_DELETED);
+				Fences.storeFence();
+				index.putInt(position + SEQ_OFFSET, seq + 1);
+			}
+		}
+	}
+
+	@Override
+	public T lookup(String key) {
+		byte[] keyBytes = key.getBytes(Consts.UTF_8);
+		long deadline;
+		mappingLock.readLock().lock();
+		try {
+			checkOpen();
+			deadline = readDeadline(keyBytes);
+		} finally {
+			mappingLock.readLock().unlock();
+		}
+		// 过期或不存在时直接返回,不读取数据文件
+		if (deadline <= System.currentTimeMillis()) {
+			return null;
+		}
+		T cache = readData(key);
+		if (cache == null || !isValid(cache)) {
+			return null;
+		}
+		return cache;
+	}
+
+	@Override
+	public void caching(String key, T cache) {
+		byte[] keyBytes = checkKey(key);
+		byte[] data = cacheCodec.encode(cache);
+		FileLock lock = lockIndex();
+		try {
+			File dataFile = dataFile(key);
+			File tempFile = new File(directory, dataFile.getName()
+					+ tempSuffix);
+			Files.write(tempFile.toPath(), data);
+			Files.move(tempFile.toPath(), dataFile.toPath(),
+					StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			writeSlot(keyBytes, deadline(cache));
+		} catch (IOException e) {
+			throw new IllegalStateException("write cache error on " + key, e);
+		} finally {
+			unlockIndex(lock);
+		}
+	}
+
+	@Override
+	public T evict(String key) {
+		byte[] keyBytes = key.getBytes(Consts.UTF_8);
+		FileLock lock = lockIndex();
+		try {
+			T cache = readData(key);
+			int slot = findSlot(keyBytes);
+			if (slot >= 0) {
+				setState(slot, STATE_DELETED);
+			}
+			Files.deleteIfExists(dataFile(key).toPath());
+			return cache;
+		} catch (IOException e) {
+			throw new IllegalStateException("evict cache error on " + key, e);
+		} finally {
+			unlockIndex(lock);
+		}
+	}
+
+	/**
+	 * 按索引删除数据文件,不遍历缓存目录
+	 */
+	@Override
+	public void clear() {
+		FileLock lock = lockIndex();
+		try {
+			for (int slot = 0; slot < capacity; slot++) {
+				int position = slotPosition(slot);
+				if (index.get(position + STATE_OFFSET) == STATE_USED) {
+					byte[] keyBytes = readKey(position);
+					Files.deleteIfExists(dataFile(
+							new String(keyBytes, Consts.UTF_8)).toPath());
+				}
+				if (index.get(position + STATE_OFFSET) != STATE_EMPTY) {
+					setState(slot, STATE_EMPTY);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("clear cache error", e);
+		} finally {
+			unlockIndex(lock);
+		}
+	}
+
+	private boolean isValid(T cache) {
+		return cache.getExpires() < 0
+				|| (cache.getCreateTime() + cache.getExpires() - CUTMS) > System
+						.currentTimeMillis();
+	}
+
+	private long deadline(T cache) {
+		return cache.getExpires() < 0 ? Long.MAX_VALUE : cache
+				.getCreateTime() + cache.getExpires() - CUTMS;
+	}
+
+	private T readData(String key) {
+		try {
+			return cacheCodec.decode(Files.readAllBytes(dataFile(key)
+					.toPath()));
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			throw new IllegalStateException("read cache error on " + key, e);
+		}
+	}
+
+	private File dataFile(String key) {
+		try {
+			return new File(directory, URLEncoder.encode(key,
+					Consts.UTF_8.name()) + DATA_SUFFIX);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private byte[] checkKey(String key) {
+		byte[] keyBytes = key.getBytes(Consts.UTF_8);
+		if (keyBytes.length > MAX_KEY_LENGTH) {
+			throw new IllegalArgumentException("cache key is too long: "
+					+ key);
+		}
+		return keyBytes;
+	}
+
+	/**
+	 * 解除索引的内存映射并关闭索引文件,之后的所有操作都将抛出IllegalStateException
+	 */
+	@Override
+	public void close() {
+		mappingLock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				indexChannel.close();
+			} catch (IOException e) {
+				; // ignore
+			}
+			Fences.unmap(index);
+		} finally {
+			mappingLock.writeLock().unlock();
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("cache storager is closed: "
+					+ directory);
+		}
+	}
+
+	private FileLock lockIndex() {
+		mappingLock.readLock().lock();
+		writeLock.lock();
+		try {
+			checkOpen();
+			return indexChannel.lock();
+		} catch (IOException e) {
+			writeLock.unlock();
+			mappingLock.readLock().unlock();
+			throw new IllegalStateException("lock cache index error", e);
+		} catch (RuntimeException e) {
+			writeLock.unlock();
+			mappingLock.readLock().unlock();
+			throw e;
+		}
+	}
+
+	private void unlockIndex(FileLock lock) {
+		try {
+			lock.release();
+		} catch (IOException e) {
+			; // ignore
+		} finally {
+			writeLock.unlock();
+			mappingLock.readLock().unlock();
+		}
+	}
+
+	private int slotPosition(int slot) {
+		return HEADER_SIZE + slot * SLOT_SIZE;
+	}
+
+	private int hash(byte[] keyBytes) {
+		int h = 1;
+		for (byte b : keyBytes) {
+			h = 31 * h + b;
+		}
+		h ^= (h >>> 16);
+		return (h & 0x7fffffff) % capacity;
+	}
+
+	/**
+	 * 无锁读取key的过期时间:槽位的seq为奇数或前后不一致时说明正在被写入,重新读取;
+	 * 重试超过{@value #MAX_READ_RETRIES}次时视为不存在,由之后的写入修复该槽位
+	 *
+	 * @return 过期时间,不存在时返回0
+	 */
+	private long readDeadline(byte[] keyBytes) {
+		int start = hash(keyBytes);
+		for (int i = 0; i < capacity; i++) {
+			int position = slotPosition((start + i) % capacity);
+			for (int retries = 0;; retries++) {
+				if (retries >= MAX_READ_RETRIES) {
+					return 0l;
+				}
+				int seq = index.getInt(position + SEQ_OFFSET);
+				if ((seq & 1) != 0) {
+					Thread.yield();
+					continue;
+				}
+				Fences.loadFence();
+				byte state = index.get(position + STATE_OFFSET);
+				boolean matched = state == STATE_USED
+						&& keyEquals(position, keyBytes);
+				long deadline = index.getLong(position + DEADLINE_OFFSET);
+				Fences.loadFence();
+				if (seq != index.getInt(position + SEQ_OFFSET)) {
+					continue;
+				}
+				if (state == STATE_EMPTY) {
+					return 0l;
+				}
+				if (matched) {
+					return deadline;
+				}
+				break;
+			}
+		}
+		return 0l;
+	}
+
+	/**
+	 * 查找key所在的槽位(持有写锁时调用)
+	 */
+	private int findSlot(byte[] keyBytes) {
+		int start = hash(keyBytes);
+		for (int i = 0; i < capacity; i++) {
+			int slot = (start + i) % capacity;
+			int position = slotPosition(slot);
+			byte state = index.get(position + STATE_OFFSET);
+			if (state == STATE_EMPTY) {
+				return -1;
+			}
+			if (state == STATE_USED && keyEquals(position, keyBytes)) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	private void writeSlot(byte[] keyBytes, long deadline) throws IOException {
+		int slot = findSlot(keyBytes);
+		if (slot < 0) {
+			// 复用第一个空闲、已删除或已过期的槽位
+			long now = System.currentTimeMillis();
+			int start = hash(keyBytes);
+			for (int i = 0; i < capacity && slot < 0; i++) {
+				int candidate = (start + i) % capacity;
+				int position = slotPosition(candidate);
+				if (index.get(position + STATE_OFFSET) != STATE_USED) {
+					slot = candidate;
+				} else if (index.getLong(position + DEADLINE_OFFSET) <= now) {
+					// 已过期的key的数据文件随槽位一起回收
+					Files.deleteIfExists(dataFile(
+							new String(readKey(position), Consts.UTF_8))
+							.toPath());
+					slot = candidate;
+				}
+			}
+			if (slot < 0) {
+				throw new IllegalStateException("cache index is full, capacity="
+						+ capacity);
+			}
+		}
+		int position = slotPosition(slot);
+		int seq = beginWrite(position);
+		index.put(position + STATE_OFFSET, STATE_USED);
+		index.putShort(position + KEY_LENGTH_OFFSET, (short) keyBytes.length);
+		index.putLong(position + DEADLINE_OFFSET, deadline);
+		ByteBuffer buffer = index.duplicate();
+		buffer.position(position + KEY_OFFSET);
+		buffer.put(keyBytes);
+		endWrite(position, seq);
+	}
+
+	private void setState(int slot, byte state) {
+		int position = slotPosition(slot);
+		int seq = beginWrite(position);
+		index.put(position + STATE_OFFSET, state);
+		endWrite(position, seq);
+	}
+
+	/**
+	 * 开始写入槽位:seq置为奇数(崩溃留下的奇数seq先补齐为偶数)
+	 *
+	 * @return 写入前的偶数seq
+	 */
+	private int beginWrite(int position) {
+		int seq = index.getInt(position + SEQ_OFFSET);
+		if ((seq & 1) != 0) {
+			seq++;
+		}
+		index.putInt(position + SEQ_OFFSET, seq + 1);
+		Fences.storeFence();
+		return seq;
+	}
+
+	private void endWrite(int position, int seq) {
+		Fences.storeFence();
+		index.putInt(position + SEQ_OFFSET, seq + 2);
+	}
+
+	private byte[] readKey(int position) {
+		int length = index.getShort(position + KEY_LENGTH_OFFSET);
+		byte[] keyBytes = new byte[Math.max(0,
+				Math.min(length, MAX_KEY_LENGTH))];
+		ByteBuffer buffer = index.duplicate();
+		buffer.position(position + KEY_OFFSET);
+		buffer.get(keyBytes);
+		return keyBytes;
+	}
+
+	private boolean keyEquals(int position, byte[] keyBytes) {
+		if (index.getShort(position + KEY_LENGTH_OFFSET) != keyBytes.length) {
+			return false;
+		}
+		int offset = position + KEY_OFFSET;
+		for (int i = 0; i < keyBytes.length; i++) {
+			if (index.get(offset + i) != keyBytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 映射内存的读写屏障与解除映射:JDK 8没有公开的API,通过sun.misc.Unsafe实现,不可用时退化为volatile读写
+	 */
+	private static final class Fences {
+
+		private static final MethodHandle LOAD_FENCE;
+		private static final MethodHandle STORE_FENCE;
+		/**
+		 * JDK 9+的Unsafe.invokeCleaner
+		 */
+		private static final MethodHandle INVOKE_CLEANER;
+		private static volatile int fallback;
+
+		static {
+			MethodHandle loadFence = null;
+			MethodHandle storeFence = null;
+			MethodHandle invokeCleaner = null;
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				Field field = unsafeClass.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				Object unsafe = field.get(null);
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				MethodType fence = MethodType.methodType(void.class);
+				loadFence = lookup.findVirtual(unsafeClass, "loadFence", fence)
+						.bindTo(unsafe);
+				storeFence = lookup.findVirtual(unsafeClass, "storeFence",
+						fence).bindTo(unsafe);
+				try {
+					invokeCleaner = lookup.findVirtual(unsafeClass,
+							"invokeCleaner",
+							MethodType.methodType(void.class, ByteBuffer.class))
+							.bindTo(unsafe);
+				} catch (NoSuchMethodException e) {
+					; // JDK 8
+				}
+			} catch (Throwable e) {
+				loadFence = null;
+				storeFence = null;
+			}
+			LOAD_FENCE = loadFence;
+			STORE_FENCE = storeFence;
+			INVOKE_CLEANER = invokeCleaner;
+		}
+
+		/**
+		 * 之前的读不会被重排到之后的读之后
+		 */
+		static void loadFence() {
+			if (LOAD_FENCE == null) {
+				if (fallback != 0) {
+					; // volatile读
+				}
+				return;
+			}
+			try {
+				LOAD_FENCE.invokeExact();
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		/**
+		 * 之前的写不会被重排到之后的写之后
+		 */
+		static void storeFence() {
+			if (STORE_FENCE == null) {
+				fallback = 0;
+				return;
+			}
+			try {
+				STORE_FENCE.invokeExact();
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		/**
+		 * 立即解除内存映射,失败时由GC回收
+		 */
+		static void unmap(MappedByteBuffer buffer) {
+			try {
+				if (INVOKE_CLEANER != null) {
+					INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+				} else {
+					Method cleanerMethod = buffer.getClass().getMethod(
+							"cleaner");
+					cleanerMethod.setAccessible(true);
+					Object cleaner = cleanerMethod.invoke(buffer);
+					if (cleaner != null) {
+						cleaner.getClass().getMethod("clean").invoke(cleaner);
+					}
+				}
+			} catch (Throwable e) {
+				; // ignore
+			}
+		}
+	}
+}
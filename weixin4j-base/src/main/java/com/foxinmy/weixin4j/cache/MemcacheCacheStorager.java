@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import com.foxinmy.weixin4j.cache.codec.CacheCodec;
 import com.whalin.MemCached.MemCachedClient;
 import com.whalin.MemCached.SockIOPool;
 
@@ -22,15 +23,32 @@ public class MemcacheCacheStorager<T extends Cacheable> implements
 		CacheStorager<T> {
 
 	private final MemCachedClient mc;
+	/**
+	 * 为空时由memcache客户端序列化缓存对象
+	 */
+	private final CacheCodec<T> cacheCodec;
 
 	public MemcacheCacheStorager() {
 		this(new MemcachePoolConfig());
 	}
 
 	public MemcacheCacheStorager(MemcachePoolConfig poolConfig) {
+		this(poolConfig, null);
+	}
+
+	/**
+	 *
+	 * @param poolConfig
+	 *            连接池配置
+	 * @param cacheCodec
+	 *            缓存对象的编解码,以byte[]保存;之前由客户端序列化的对象仍然可以读取
+	 */
+	public MemcacheCacheStorager(MemcachePoolConfig poolConfig,
+			CacheCodec<T> cacheCodec) {
 		mc = new MemCachedClient();
 		poolConfig.initSocketIO();
 		initializeKey();
+		this.cacheCodec = cacheCodec;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -46,17 +64,22 @@ public class MemcacheCacheStorager<T extends Cacheable> implements
 	@SuppressWarnings("unchecked")
 	@Override
 	public T lookup(String key) {
-		return (T) mc.get(key);
+		Object value = mc.get(key);
+		if (value instanceof byte[] && cacheCodec != null) {
+			return cacheCodec.decode((byte[]) value);
+		}
+		return (T) value;
 	}
 
 	@Override
 	public void caching(String key, T cache) {
+		Object value = cacheCodec != null ? cacheCodec.encode(cache) : cache;
 		if (cache.getCreateTime() > 0l) {
 			mc.set(key,
-					cache,
+					value,
 					new Date(cache.getCreateTime() + cache.getExpires() - CUTMS));
 		} else {
-			mc.set(key, cache);
+			mc.set(key, value);
 		}
 		Set<String> all = initializeKey();
 		all.add(key);
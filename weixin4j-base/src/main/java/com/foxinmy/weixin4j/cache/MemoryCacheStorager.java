@@ -1,10 +1,28 @@
 package com.foxinmy.weixin4j.cache;
 
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.foxinmy.weixin4j.util.NamedThreadFactory;
 
 /**
- * 用内存保存缓存对象(不推荐使用)
+ * 用内存保存缓存对象(仅适用于单节点)
+ * <p>
+ * 缓存数量有上限,超出时按CLOCK(近似LRU)淘汰:读取只设置访问标记,不加锁;
+ * 淘汰时从最早写入的缓存开始扫描,有访问标记的清除标记后放回队尾,优先淘汰已过期的缓存.
+ * 另有后台任务定时清理已过期的缓存;淘汰队列中被替换或删除的旧条目超过上限时在写入时清理,不依赖后台任务.
+ * </p>
  *
  * @className MemoryCacheStorager
  * @author jinyu(foxinmy@gmail.com)
@@ -15,36 +33,285 @@ import java.util.concurrent.ConcurrentHashMap;
 public class MemoryCacheStorager<T extends Cacheable> implements
 		CacheStorager<T> {
 
-	private final Map<String, T> CONMAP;
+	/**
+	 * 默认最大缓存数量
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+	/**
+	 * 默认过期清理间隔(单位毫秒)
+	 */
+	public static final long DEFAULT_SWEEP_MILLIS = 60 * 1000l;
+
+	private static volatile ScheduledExecutorService sweepExecutor;
+
+	private final Map<String, Entry<T>> CONMAP;
+	/**
+	 * 淘汰队列(按写入顺序),可能包含已被替换或删除的旧条目,淘汰与清理时丢弃
+	 */
+	private final Queue<Entry<T>> clockQueue;
+	/**
+	 * 淘汰队列的长度(近似值,ConcurrentLinkedQueue.size需要遍历)
+	 */
+	private final AtomicInteger queueSize;
+	private final ReentrantLock evictionLock;
+	private final int maximumSize;
+	private final ScheduledFuture<?> sweepFuture;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder expiredCount = new LongAdder();
 
 	public MemoryCacheStorager() {
-		this.CONMAP = new ConcurrentHashMap<String, T>();
+		this(DEFAULT_MAXIMUM_SIZE, DEFAULT_SWEEP_MILLIS);
+	}
+
+	/**
+	 *
+	 * @param maximumSize
+	 *            最大缓存数量
+	 * @param sweepMillis
+	 *            过期清理间隔(单位毫秒),小于等于0时不启动后台清理
+	 */
+	public MemoryCacheStorager(int maximumSize, long sweepMillis) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("maximumSize must be positive");
+		}
+		this.maximumSize = maximumSize;
+		this.CONMAP = new ConcurrentHashMap<String, Entry<T>>();
+		this.clockQueue = new ConcurrentLinkedQueue<Entry<T>>();
+		this.queueSize = new AtomicInteger();
+		this.evictionLock = new ReentrantLock();
+		if (sweepMillis > 0) {
+			this.sweepFuture = getSweepExecutor().scheduleWithFixedDelay(
+					new SweepTask(this), sweepMillis, sweepMillis,
+					TimeUnit.MILLISECONDS);
+		} else {
+			this.sweepFuture = null;
+		}
 	}
 
 	@Override
 	public T lookup(String key) {
-		T cache = this.CONMAP.get(key);
-		if (cache != null) {
-			if ((cache.getCreateTime() + cache.getExpires() - CUTMS) > System
-					.currentTimeMillis()) {
-				return cache;
+		Entry<T> entry = this.CONMAP.get(key);
+		if (entry != null) {
+			if (!entry.isExpired(System.currentTimeMillis())) {
+				entry.referenced = true;
+				hitCount.increment();
+				return entry.cache;
+			}
+			if (this.CONMAP.remove(key, entry)) {
+				expiredCount.increment();
 			}
 		}
+		missCount.increment();
 		return null;
 	}
 
 	@Override
 	public void caching(String key, T cache) {
-		this.CONMAP.put(key, cache);
+		Entry<T> entry = new Entry<T>(key, cache);
+		this.CONMAP.put(key, entry);
+		this.clockQueue.offer(entry);
+		if (this.CONMAP.size() > maximumSize) {
+			evictIfNecessary();
+		}
+		// 反复写入同一个key时旧条目留在队列中:超过最大缓存数量的2倍时清理
+		if (queueSize.incrementAndGet() > maximumSize * 2) {
+			evictionLock.lock();
+			try {
+				if (queueSize.get() > maximumSize * 2) {
+					purgeQueue();
+				}
+			} finally {
+				evictionLock.unlock();
+			}
+		}
 	}
 
 	@Override
 	public T evict(String key) {
-		return this.CONMAP.remove(key);
+		Entry<T> entry = this.CONMAP.remove(key);
+		return entry != null ? entry.cache : null;
 	}
 
 	@Override
 	public void clear() {
 		this.CONMAP.clear();
+		evictionLock.lock();
+		try {
+			this.clockQueue.clear();
+			this.queueSize.set(0);
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private void evictIfNecessary() {
+		evictionLock.lock();
+		try {
+			long now = System.currentTimeMillis();
+			// 每个条目最多被放回一次,避免所有条目都有访问标记时无限循环
+			int budget = clockQueue.size() * 2;
+			while (this.CONMAP.size() > maximumSize && budget-- > 0) {
+				Entry<T> entry = clockQueue.poll();
+				if (entry == null) {
+					break;
+				}
+				queueSize.decrementAndGet();
+				if (this.CONMAP.get(entry.key) != entry) {
+					continue;
+				}
+				if (entry.isExpired(now)) {
+					if (this.CONMAP.remove(entry.key, entry)) {
+						expiredCount.increment();
+					}
+				} else if (entry.referenced) {
+					entry.referenced = false;
+					clockQueue.offer(entry);
+					queueSize.incrementAndGet();
+				} else if (this.CONMAP.remove(entry.key, entry)) {
+					evictionCount.increment();
+				}
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * 清理已过期的缓存以及淘汰队列中的旧条目
+	 */
+	public void sweep() {
+		long now = System.currentTimeMillis();
+		for (Entry<T> entry : this.CONMAP.values()) {
+			if (entry.isExpired(now) && this.CONMAP.remove(entry.key, entry)) {
+				expiredCount.increment();
+			}
+		}
+		evictionLock.lock();
+		try {
+			purgeQueue();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * 丢弃淘汰队列中已被替换或删除的旧条目(持有evictionLock时调用)
+	 */
+	private void purgeQueue() {
+		int size = 0;
+		for (Iterator<Entry<T>> it = clockQueue.iterator(); it.hasNext();) {
+			Entry<T> entry = it.next();
+			if (this.CONMAP.get(entry.key) != entry) {
+				it.remove();
+			} else {
+				size++;
+			}
+		}
+		queueSize.set(size);
+	}
+
+	/**
+	 * 停止后台清理任务
+	 */
+	public void shutdown() {
+		if (sweepFuture != null) {
+			sweepFuture.cancel(false);
+		}
+	}
+
+	/**
+	 * 当前缓存数量(可能包含尚未清理的过期缓存)
+	 */
+	public int size() {
+		return this.CONMAP.size();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * 命中次数
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * 未命中(包括已过期)的次数
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * 因超出最大数量而淘汰的次数
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * 因过期而清除的次数
+	 */
+	public long getExpiredCount() {
+		return expiredCount.sum();
+	}
+
+	private static ScheduledExecutorService getSweepExecutor() {
+		if (sweepExecutor == null) {
+			synchronized (MemoryCacheStorager.class) {
+				if (sweepExecutor == null) {
+					ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+							1, new NamedThreadFactory("weixin4j-cache-sweeper"));
+					executor.setRemoveOnCancelPolicy(true);
+					sweepExecutor = executor;
+				}
+			}
+		}
+		return sweepExecutor;
+	}
+
+	private static final class Entry<T extends Cacheable> {
+		final String key;
+		final T cache;
+		final long deadline;
+		volatile boolean referenced;
+
+		Entry(String key, T cache) {
+			this.key = key;
+			this.cache = cache;
+			this.deadline = cache.getExpires() < 0 ? Long.MAX_VALUE : cache
+					.getCreateTime() + cache.getExpires() - CUTMS;
+		}
+
+		boolean isExpired(long now) {
+			return deadline <= now;
+		}
+	}
+
+	/**
+	 * 只持有弱引用,storager不再使用后任务自动取消
+	 */
+	private static final class SweepTask implements Runnable {
+		private final WeakReference<MemoryCacheStorager<?>> reference;
+
+		SweepTask(MemoryCacheStorager<?> storager) {
+			this.reference = new WeakReference<MemoryCacheStorager<?>>(
+					storager);
+		}
+
+		@Override
+		public void run() {
+			MemoryCacheStorager<?> storager = reference.get();
+			if (storager == null) {
+				// 抛出异常以终止周期任务
+				throw new IllegalStateException("storager was collected");
+			}
+			storager.sweep();
+		}
 	}
 }
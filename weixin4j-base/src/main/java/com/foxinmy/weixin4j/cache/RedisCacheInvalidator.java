@@ -0,0 +1,178 @@
+package com.foxinmy.weixin4j.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.foxinmy.weixin4j.logging.InternalLogger;
+import com.foxinmy.weixin4j.logging.InternalLoggerFactory;
+import com.foxinmy.weixin4j.util.ObjectId;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.util.Pool;
+
+/**
+ * 使用Redis发布/订阅广播缓存失效(需要自行添加客户端包,jedis)
+ * <p>
+ * 订阅在独立的守护线程中进行,连接断开后自动重新订阅,重新订阅成功时通知监听清除所有本地缓存,
+ * 以免遗漏断开期间的失效消息
+ * </p>
+ *
+ * @className RedisCacheInvalidator
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see TieredCacheStorager
+ */
+public class RedisCacheInvalidator implements CacheInvalidator {
+
+    public final static String DEFAULT_CHANNEL = "weixin4j_cache_invalidate";
+    private final static char SEPARATOR = ' ';
+    private final static long RESUBSCRIBE_MILLIS = 1000l;
+
+    private final InternalLogger logger = InternalLoggerFactory.getInstance(getClass());
+    private final Pool<Jedis> jedisPool;
+    private final JedisCluster jedisCluster;
+    private final String channel;
+    /**
+     * 本节点标识,用于忽略自己发出的通知
+     */
+    private final String nodeId = ObjectId.get().toHexString();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    private volatile boolean closed;
+    private volatile JedisPubSub pubSub;
+    private Thread subscriber;
+
+    public RedisCacheInvalidator(Pool<Jedis> jedisPool) {
+        this(jedisPool, DEFAULT_CHANNEL);
+    }
+
+    public RedisCacheInvalidator(Pool<Jedis> jedisPool, String channel) {
+        this.jedisPool = jedisPool;
+        this.jedisCluster = null;
+        this.channel = channel;
+    }
+
+    public RedisCacheInvalidator(JedisCluster jedisCluster) {
+        this(jedisCluster, DEFAULT_CHANNEL);
+    }
+
+    public RedisCacheInvalidator(JedisCluster jedisCluster, String channel) {
+        this.jedisPool = null;
+        this.jedisCluster = jedisCluster;
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(String key) {
+        String message = nodeId + SEPARATOR + (key != null ? key : "");
+        if (jedisCluster != null) {
+            jedisCluster.publish(channel, message);
+            return;
+        }
+        Jedis jedis = null;
+        try {
+            jedis = jedisPool.getResource();
+            jedis.publish(channel, message);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Listener listener) {
+        listeners.add(listener);
+        if (subscriber == null) {
+            subscriber = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    subscribeLoop();
+                }
+            }, "weixin4j-cache-invalidator");
+            subscriber.setDaemon(true);
+            subscriber.start();
+        }
+    }
+
+    private void subscribeLoop() {
+        boolean resubscribe = false;
+        while (!closed) {
+            Jedis jedis = null;
+            try {
+                pubSub = new InvalidatePubSub(resubscribe);
+                if (jedisCluster != null) {
+                    jedisCluster.subscribe(pubSub, channel);
+                } else {
+                    jedis = jedisPool.getResource();
+                    jedis.subscribe(pubSub, channel);
+                }
+            } catch (RuntimeException e) {
+                if (!closed) {
+                    logger.warn("subscribe cache invalidation error on " + channel, e);
+                }
+            } finally {
+                if (jedis != null) {
+                    jedis.close();
+                }
+            }
+            resubscribe = true;
+            if (!closed) {
+                try {
+                    Thread.sleep(RESUBSCRIBE_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void notifyListeners(String key) {
+        for (Listener listener : listeners) {
+            listener.onInvalidate(key);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        JedisPubSub pubSub = this.pubSub;
+        if (pubSub != null && pubSub.isSubscribed()) {
+            pubSub.unsubscribe();
+        }
+        synchronized (this) {
+            if (subscriber != null) {
+                subscriber.interrupt();
+            }
+        }
+    }
+
+    private class InvalidatePubSub extends JedisPubSub {
+
+        private final boolean resubscribe;
+
+        InvalidatePubSub(boolean resubscribe) {
+            this.resubscribe = resubscribe;
+        }
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            if (resubscribe) {
+                notifyListeners(null);
+            }
+        }
+
+        @Override
+        public void onMessage(String channel, String message) {
+            int index = message.indexOf(SEPARATOR);
+            if (index < 0 || nodeId.equals(message.substring(0, index))) {
+                return;
+            }
+            String key = message.substring(index + 1);
+            notifyListeners(key.isEmpty() ? null : key);
+        }
+    }
+}
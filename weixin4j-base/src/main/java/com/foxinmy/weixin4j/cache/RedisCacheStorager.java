@@ -1,8 +1,9 @@
 package com.foxinmy.weixin4j.cache;
 import java.util.Set;
 
+import com.foxinmy.weixin4j.cache.codec.CacheCodec;
+import com.foxinmy.weixin4j.cache.codec.JavaCacheCodec;
 import com.foxinmy.weixin4j.util.Consts;
-import com.foxinmy.weixin4j.util.SerializationUtils;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
@@ -20,6 +21,7 @@ import redis.clients.util.Pool;
 public class RedisCacheStorager<T extends Cacheable> implements CacheStorager<T> {
 
     private Pool<Jedis> jedisPool;
+    private final CacheCodec<T> cacheCodec;
 
     private final static String HOST = "127.0.0.1";
     private final static int PORT = 6379;
@@ -60,17 +62,28 @@ public class RedisCacheStorager<T extends Cacheable> implements CacheStorager<T>
     }
 
     public RedisCacheStorager(Pool<Jedis> jedisPool) {
+        this(jedisPool, new JavaCacheCodec<T>());
+    }
+
+    /**
+     *
+     * @param jedisPool
+     *            redis连接池
+     * @param cacheCodec
+     *            缓存对象的编解码,如Token可使用TokenCacheCodec.compatible()
+     */
+    public RedisCacheStorager(Pool<Jedis> jedisPool, CacheCodec<T> cacheCodec) {
         this.jedisPool = jedisPool;
+        this.cacheCodec = cacheCodec;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public T lookup(String key) {
         Jedis jedis = null;
         try {
             jedis = jedisPool.getResource();
             byte[] value = jedis.get(key.getBytes(Consts.UTF_8));
-            return value != null ? (T) SerializationUtils.deserialize(value) : null;
+            return value != null ? cacheCodec.decode(value) : null;
         } finally {
             if (jedis != null) {
                 jedis.close();
@@ -84,7 +97,7 @@ public class RedisCacheStorager<T extends Cacheable> implements CacheStorager<T>
         try {
             jedis = jedisPool.getResource();
             byte[] cacheKey = key.getBytes(Consts.UTF_8);
-            byte[] value = SerializationUtils.serialize(cache);
+            byte[] value = cacheCodec.encode(cache);
             if (cache.getExpires() > 0) {
                 jedis.setex(cacheKey, (int) (cache.getExpires() - CUTMS) / 1000, value);
             } else {
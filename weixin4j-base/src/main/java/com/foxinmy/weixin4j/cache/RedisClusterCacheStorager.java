@@ -1,7 +1,8 @@
 package com.foxinmy.weixin4j.cache;
 
+import com.foxinmy.weixin4j.cache.codec.CacheCodec;
+import com.foxinmy.weixin4j.cache.codec.HessianCacheCodec;
 import com.foxinmy.weixin4j.util.Consts;
-import com.foxinmy.weixin4j.util.HessianCodecUtil;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPoolConfig;
@@ -27,6 +28,7 @@ public class RedisClusterCacheStorager<T extends Cacheable> implements
 	private final static boolean TEST_ON_BORROW = false;
 	private final static boolean TEST_ON_RETURN = true;
 	private final JedisCluster jedisCluster;
+	private final CacheCodec<T> cacheCodec;
 
 	public RedisClusterCacheStorager(Set<HostAndPort> nodes) {
 		JedisPoolConfig poolConfig = new JedisPoolConfig();
@@ -37,6 +39,7 @@ public class RedisClusterCacheStorager<T extends Cacheable> implements
 		poolConfig.setTestOnReturn(TEST_ON_RETURN);
 		this.jedisCluster = new JedisCluster(nodes, CONNECTION_TIMEOUT,
 				SO_TIMEOUT, MAX_REDIRECTIONS, poolConfig);
+		this.cacheCodec = new HessianCacheCodec<T>();
 	}
 
 	public RedisClusterCacheStorager(Set<HostAndPort> nodes,
@@ -53,21 +56,33 @@ public class RedisClusterCacheStorager<T extends Cacheable> implements
 	}
 
 	public RedisClusterCacheStorager(JedisCluster jedisCluster) {
+		this(jedisCluster, new HessianCacheCodec<T>());
+	}
+
+	/**
+	 *
+	 * @param jedisCluster
+	 *            redis集群
+	 * @param cacheCodec
+	 *            缓存对象的编解码,如Token可使用TokenCacheCodec.compatible()
+	 */
+	public RedisClusterCacheStorager(JedisCluster jedisCluster,
+			CacheCodec<T> cacheCodec) {
 		this.jedisCluster = jedisCluster;
+		this.cacheCodec = cacheCodec;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public T lookup(String key) {
 		byte[] value = jedisCluster.get(key.getBytes(Consts.UTF_8));
 
-		return value != null ?(T) HessianCodecUtil.decode(value):null;
+		return value != null ? cacheCodec.decode(value) : null;
 	}
 
 	@Override
 	public void caching(String key, T cache) {
 		byte[] cacheKey = key.getBytes(Consts.UTF_8);
-		final byte[] valueBytes = HessianCodecUtil.encode(cache);
+		final byte[] valueBytes = cacheCodec.encode(cache);
 		if (cache.getExpires() > 0) {
 			jedisCluster.setex(cacheKey,
 					(int) (cache.getExpires() - CUTMS) / 1000, valueBytes);
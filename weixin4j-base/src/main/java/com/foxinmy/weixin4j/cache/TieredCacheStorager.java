@@ -0,0 +1,251 @@
+package com.foxinmy.weixin4j.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 二级缓存:在任意CacheStorager(如Redis)之前增加一层进程内缓存,命中时不再访问远程存储与反序列化
+ * <p>
+ * 本地缓存的过期时间与远程存储一致(createTime + expires - CUTMS),且不超过maxLocalMillis(默认1分钟);
+ * 本地缓存的数量不超过maxLocalSize(默认10000),已满时新的对象只从远程存储读取;
+ * 配置{@link CacheInvalidator}后,任意节点的caching/evict/clear都会清除其它节点的本地缓存,
+ * 读取远程存储期间收到的失效通知会使本次读取的结果不进入本地缓存
+ * </p>
+ *
+ * <pre>
+ * RedisCacheStorager&lt;Token&gt; redis = new RedisCacheStorager&lt;Token&gt;(jedisPool);
+ * CacheStorager&lt;Token&gt; storager = new TieredCacheStorager&lt;Token&gt;(redis,
+ * 		new RedisCacheInvalidator(jedisPool));
+ * </pre>
+ *
+ * @className TieredCacheStorager
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see CacheInvalidator
+ */
+public class TieredCacheStorager<T extends Cacheable> implements
+		CacheStorager<T>, CacheInvalidator.Listener {
+
+	/**
+	 * 默认的本地缓存最长时间(1分钟)
+	 */
+	public static final long DEFAULT_MAX_LOCAL_MILLIS = 60 * 1000l;
+	/**
+	 * 默认的本地缓存最大数量
+	 */
+	public static final int DEFAULT_MAX_LOCAL_SIZE = 10000;
+
+	private final CacheStorager<T> storager;
+	private final CacheInvalidator invalidator;
+	private final long maxLocalMillis;
+	private final int maxLocalSize;
+	private final ConcurrentMap<String, LocalEntry<T>> localCache;
+	/**
+	 * 收到的失效通知次数:读取远程存储前后不一致时说明期间有失效通知,读取的结果可能已过时
+	 */
+	private final AtomicLong invalidations = new AtomicLong();
+	/**
+	 * 上次清除过期本地缓存的时间,已满时每秒最多清除一次
+	 */
+	private volatile long lastPurge;
+
+	/**
+	 * 无失效通知:其它节点的更新在本地缓存过期(最长1分钟)后可见
+	 *
+	 * @param storager
+	 *            远程存储
+	 */
+	public TieredCacheStorager(CacheStorager<T> storager) {
+		this(storager, null, DEFAULT_MAX_LOCAL_MILLIS);
+	}
+
+	/**
+	 *
+	 * @param storager
+	 *            远程存储
+	 * @param invalidator
+	 *            失效通知
+	 */
+	public TieredCacheStorager(CacheStorager<T> storager,
+			CacheInvalidator invalidator) {
+		this(storager, invalidator, DEFAULT_MAX_LOCAL_MILLIS);
+	}
+
+	/**
+	 *
+	 * @param storager
+	 *            远程存储
+	 * @param invalidator
+	 *            失效通知,可为空
+	 * @param maxLocalMillis
+	 *            本地缓存的最长时间(单位毫秒),小于等于0时只受对象的有效期限制
+	 */
+	public TieredCacheStorager(CacheStorager<T> storager,
+			CacheInvalidator invalidator, long maxLocalMillis) {
+		this(storager, invalidator, maxLocalMillis, DEFAULT_MAX_LOCAL_SIZE);
+	}
+
+	/**
+	 *
+	 * @param storager
+	 *            远程存储
+	 * @param invalidator
+	 *            失效通知,可为空
+	 * @param maxLocalMillis
+	 *            本地缓存的最长时间(单位毫秒),小于等于0时只受对象的有效期限制
+	 * @param maxLocalSize
+	 *            本地缓存的最大数量
+	 */
+	public TieredCacheStorager(CacheStorager<T> storager,
+			CacheInvalidator invalidator, long maxLocalMillis, int maxLocalSize) {
+		if (maxLocalSize <= 0) {
+			throw new IllegalArgumentException("maxLocalSize must be positive");
+		}
+		this.storager = storager;
+		this.invalidator = invalidator;
+		this.maxLocalMillis = maxLocalMillis;
+		this.maxLocalSize = maxLocalSize;
+		this.localCache = new ConcurrentHashMap<String, LocalEntry<T>>();
+		if (invalidator != null) {
+			invalidator.subscribe(this);
+		}
+	}
+
+	@Override
+	public T lookup(String key) {
+		long now = currentTimeMillis();
+		LocalEntry<T> entry = localCache.get(key);
+		if (entry != null) {
+			if (entry.deadline > now) {
+				return entry.cache;
+			}
+			localCache.remove(key, entry);
+		}
+		long version = invalidations.get();
+		T cache = storager.lookup(key);
+		if (cache != null) {
+			cacheLocal(key, cache, now, version);
+		}
+		return cache;
+	}
+
+	@Override
+	public void caching(String key, T cache) {
+		storager.caching(key, cache);
+		cacheLocal(key, cache, currentTimeMillis(), invalidations.get());
+		if (invalidator != null) {
+			invalidator.publish(key);
+		}
+	}
+
+	@Override
+	public T evict(String key) {
+		localCache.remove(key);
+		T cache = storager.evict(key);
+		if (invalidator != null) {
+			invalidator.publish(key);
+		}
+		return cache;
+	}
+
+	@Override
+	public void clear() {
+		localCache.clear();
+		storager.clear();
+		if (invalidator != null) {
+			invalidator.publish(null);
+		}
+	}
+
+	@Override
+	public void onInvalidate(String key) {
+		// 先计数再清除:并发的读取在放入本地缓存后会发现计数变化而撤销
+		invalidations.incrementAndGet();
+		if (key == null) {
+			localCache.clear();
+		} else {
+			localCache.remove(key);
+		}
+	}
+
+	/**
+	 * 被包装的远程存储
+	 */
+	public CacheStorager<T> getStorager() {
+		return storager;
+	}
+
+	/**
+	 * 本地缓存的数量
+	 */
+	public int getLocalSize() {
+		return localCache.size();
+	}
+
+	/**
+	 * 当前时间,本地缓存的过期以此计算
+	 *
+	 * @return 毫秒时间戳
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * 放入本地缓存
+	 *
+	 * @param version
+	 *            读取远程存储前的失效通知次数
+	 */
+	private void cacheLocal(String key, T cache, long now, long version) {
+		long deadline = cache.getExpires() < 0 ? Long.MAX_VALUE : cache
+				.getCreateTime() + cache.getExpires() - CUTMS;
+		if (maxLocalMillis > 0) {
+			deadline = Math.min(deadline, now + maxLocalMillis);
+		}
+		if (deadline <= now) {
+			return;
+		}
+		if (localCache.size() >= maxLocalSize && !localCache.containsKey(key)
+				&& !purgeExpired(now)) {
+			return;
+		}
+		LocalEntry<T> entry = new LocalEntry<T>(cache, deadline);
+		localCache.put(key, entry);
+		if (invalidations.get() != version) {
+			localCache.remove(key, entry);
+		}
+	}
+
+	/**
+	 * 清除已过期的本地缓存
+	 *
+	 * @return 清除后是否有空位
+	 */
+	private boolean purgeExpired(long now) {
+		if (now - lastPurge < 1000l) {
+			return false;
+		}
+		lastPurge = now;
+		for (Iterator<LocalEntry<T>> it = localCache.values().iterator(); it
+				.hasNext();) {
+			if (it.next().deadline <= now) {
+				it.remove();
+			}
+		}
+		return localCache.size() < maxLocalSize;
+	}
+
+	private static final class LocalEntry<T> {
+		final T cache;
+		final long deadline;
+
+		LocalEntry(T cache, long deadline) {
+			this.cache = cache;
+			this.deadline = deadline;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.foxinmy.weixin4j.cache.codec;
+
+import com.foxinmy.weixin4j.cache.Cacheable;
+
+/**
+ * 缓存对象的编解码,由CacheStorager在写入/读取远程存储时使用
+ *
+ * @className CacheCodec
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see JavaCacheCodec
+ * @see HessianCacheCodec
+ * @see JsonCacheCodec
+ * @see TokenCacheCodec
+ * @see CompatibleCacheCodec
+ */
+public interface CacheCodec<T extends Cacheable> {
+
+	/**
+	 * 编码
+	 *
+	 * @param cache
+	 *            缓存对象
+	 * @return 编码后的字节
+	 */
+	byte[] encode(T cache);
+
+	/**
+	 * 解码
+	 *
+	 * @param data
+	 *            编码后的字节
+	 * @return 缓存对象
+	 */
+	T decode(byte[] data);
+
+	/**
+	 * 是否可以解码该数据(根据数据的头部判断格式)
+	 *
+	 * @param data
+	 *            编码后的字节
+	 * @return true/false
+	 */
+	boolean canDecode(byte[] data);
+}
@@ -0,0 +1,66 @@
+package com.foxinmy.weixin4j.cache.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.foxinmy.weixin4j.cache.Cacheable;
+
+/**
+ * 兼容多种存储格式的编解码:以主格式写入,读取时按数据头部选择可以解码的格式,
+ * 用于切换编解码后仍能读取旧格式的缓存
+ *
+ * @className CompatibleCacheCodec
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class CompatibleCacheCodec<T extends Cacheable> implements
+		CacheCodec<T> {
+
+	private final CacheCodec<T> primary;
+	private final List<CacheCodec<T>> legacies;
+
+	/**
+	 *
+	 * @param primary
+	 *            写入使用的格式
+	 * @param legacies
+	 *            需要兼容读取的旧格式,按顺序尝试
+	 */
+	public CompatibleCacheCodec(CacheCodec<T> primary,
+			List<CacheCodec<T>> legacies) {
+		this.primary = primary;
+		this.legacies = new ArrayList<CacheCodec<T>>(legacies);
+	}
+
+	@Override
+	public byte[] encode(T cache) {
+		return primary.encode(cache);
+	}
+
+	@Override
+	public T decode(byte[] data) {
+		if (primary.canDecode(data)) {
+			return primary.decode(data);
+		}
+		for (CacheCodec<T> legacy : legacies) {
+			if (legacy.canDecode(data)) {
+				return legacy.decode(data);
+			}
+		}
+		throw new IllegalArgumentException("unknown cache data format");
+	}
+
+	@Override
+	public boolean canDecode(byte[] data) {
+		if (primary.canDecode(data)) {
+			return true;
+		}
+		for (CacheCodec<T> legacy : legacies) {
+			if (legacy.canDecode(data)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
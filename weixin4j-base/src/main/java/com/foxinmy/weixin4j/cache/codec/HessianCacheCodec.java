@@ -0,0 +1,39 @@
+package com.foxinmy.weixin4j.cache.codec;
+
+import com.foxinmy.weixin4j.cache.Cacheable;
+import com.foxinmy.weixin4j.util.HessianCodecUtil;
+
+/**
+ * Hessian2序列化,与RedisClusterCacheStorager之前的存储格式一致
+ *
+ * @className HessianCacheCodec
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see HessianCodecUtil
+ */
+public class HessianCacheCodec<T extends Cacheable> implements CacheCodec<T> {
+
+	@Override
+	public byte[] encode(T cache) {
+		return HessianCodecUtil.encode(cache);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T decode(byte[] data) {
+		return (T) HessianCodecUtil.decode(data);
+	}
+
+	/**
+	 * Hessian2对象以类定义('C')或对象引用('O'/0x60~0x6f)开头
+	 */
+	@Override
+	public boolean canDecode(byte[] data) {
+		if (data.length == 0) {
+			return false;
+		}
+		byte tag = data[0];
+		return tag == 'C' || tag == 'O' || (tag >= 0x60 && tag <= 0x6f);
+	}
+}
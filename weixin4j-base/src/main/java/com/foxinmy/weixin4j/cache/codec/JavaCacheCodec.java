@@ -0,0 +1,37 @@
+package com.foxinmy.weixin4j.cache.codec;
+
+import com.foxinmy.weixin4j.cache.Cacheable;
+import com.foxinmy.weixin4j.util.SerializationUtils;
+
+/**
+ * JDK序列化(ObjectOutputStream),与之前版本的存储格式一致
+ *
+ * @className JavaCacheCodec
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see SerializationUtils
+ */
+public class JavaCacheCodec<T extends Cacheable> implements CacheCodec<T> {
+
+	/**
+	 * java.io.ObjectStreamConstants.STREAM_MAGIC
+	 */
+	private static final byte MAGIC_0 = (byte) 0xAC;
+	private static final byte MAGIC_1 = (byte) 0xED;
+
+	@Override
+	public byte[] encode(T cache) {
+		return SerializationUtils.serialize(cache);
+	}
+
+	@Override
+	public T decode(byte[] data) {
+		return SerializationUtils.deserialize(data);
+	}
+
+	@Override
+	public boolean canDecode(byte[] data) {
+		return data.length > 1 && data[0] == MAGIC_0 && data[1] == MAGIC_1;
+	}
+}
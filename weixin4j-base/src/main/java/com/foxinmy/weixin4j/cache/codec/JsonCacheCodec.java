@@ -0,0 +1,41 @@
+package com.foxinmy.weixin4j.cache.codec;
+
+import com.alibaba.fastjson.JSON;
+import com.foxinmy.weixin4j.cache.Cacheable;
+
+/**
+ * JSON格式(fastjson),便于在其它语言或命令行中直接查看缓存内容
+ *
+ * @className JsonCacheCodec
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class JsonCacheCodec<T extends Cacheable> implements CacheCodec<T> {
+
+	private final Class<T> clazz;
+
+	/**
+	 *
+	 * @param clazz
+	 *            缓存对象的类型,需要能被fastjson反序列化
+	 */
+	public JsonCacheCodec(Class<T> clazz) {
+		this.clazz = clazz;
+	}
+
+	@Override
+	public byte[] encode(T cache) {
+		return JSON.toJSONBytes(cache);
+	}
+
+	@Override
+	public T decode(byte[] data) {
+		return JSON.parseObject(data, clazz);
+	}
+
+	@Override
+	public boolean canDecode(byte[] data) {
+		return data.length > 0 && data[0] == '{';
+	}
+}
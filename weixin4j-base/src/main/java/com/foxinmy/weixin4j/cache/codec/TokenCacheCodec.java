@@ -0,0 +1,126 @@
+package com.foxinmy.weixin4j.cache.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.foxinmy.weixin4j.model.Token;
+import com.foxinmy.weixin4j.util.Consts;
+
+/**
+ * Token的紧凑二进制格式:
+ *
+ * <pre>
+ * magic(2) version(1) expires(8) createTime(8) accessToken extraSize(4) [name value]...
+ * </pre>
+ *
+ * 字符串以长度(4字节,-1表示null)+UTF-8字节的形式写入
+ *
+ * @className TokenCacheCodec
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see #compatible()
+ */
+public class TokenCacheCodec implements CacheCodec<Token> {
+
+	private static final byte MAGIC_0 = 'W';
+	private static final byte MAGIC_1 = 'T';
+	private static final byte VERSION = 1;
+
+	@Override
+	public byte[] encode(Token token) {
+		Map<String, String> extra = token.getExtra();
+		String accessToken = token.getAccessToken();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				accessToken != null ? 64 + accessToken.length() : 64);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(MAGIC_0);
+			out.writeByte(MAGIC_1);
+			out.writeByte(VERSION);
+			out.writeLong(token.getExpires());
+			out.writeLong(token.getCreateTime());
+			writeString(out, accessToken);
+			if (extra == null || extra.isEmpty()) {
+				out.writeInt(0);
+			} else {
+				out.writeInt(extra.size());
+				for (Map.Entry<String, String> entry : extra.entrySet()) {
+					writeString(out, entry.getKey());
+					writeString(out, entry.getValue());
+				}
+			}
+			out.flush();
+		} catch (IOException e) {
+			// ByteArrayOutputStream不会抛出IOException
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public Token decode(byte[] data) {
+		if (!canDecode(data)) {
+			throw new IllegalArgumentException("not a token cache data");
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				data, 3, data.length - 3));
+		try {
+			long expires = in.readLong();
+			long createTime = in.readLong();
+			Token token = new Token(readString(in), expires, createTime);
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				token.pushExtra(readString(in), readString(in));
+			}
+			return token;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("corrupted token cache data", e);
+		}
+	}
+
+	@Override
+	public boolean canDecode(byte[] data) {
+		return data.length > 2 && data[0] == MAGIC_0 && data[1] == MAGIC_1
+				&& data[2] == VERSION;
+	}
+
+	private static void writeString(DataOutputStream out, String value)
+			throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(Consts.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, Consts.UTF_8);
+	}
+
+	/**
+	 * 以紧凑格式写入,同时可以读取之前以JDK序列化或Hessian写入的Token,用于存储格式的平滑迁移
+	 *
+	 * @return 兼容旧格式的Token编解码
+	 */
+	public static CacheCodec<Token> compatible() {
+		List<CacheCodec<Token>> legacies = new ArrayList<CacheCodec<Token>>();
+		legacies.add(new JavaCacheCodec<Token>());
+		legacies.add(new HessianCacheCodec<Token>());
+		return new CompatibleCacheCodec<Token>(new TokenCacheCodec(), legacies);
+	}
+}
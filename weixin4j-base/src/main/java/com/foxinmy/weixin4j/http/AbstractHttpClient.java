@@ -1,7 +1,9 @@
 package com.foxinmy.weixin4j.http;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 
 import com.foxinmy.weixin4j.http.entity.FormUrlEntity;
 import com.foxinmy.weixin4j.http.entity.HttpEntity;
@@ -107,6 +109,36 @@ public abstract class AbstractHttpClient implements HttpClient {
 		return execute(new HttpRequest(method, buf.toString()));
 	}
 
+	/**
+	 * 不支持流式读取的实现:缓冲全部内容后返回
+	 */
+	@Override
+	public HttpResponse executeStreaming(HttpRequest request)
+			throws HttpClientException {
+		return execute(request);
+	}
+
+	/**
+	 * 将请求过程中的异常统一转换为HttpClientException
+	 */
+	protected HttpClientException resolveException(HttpRequest request,
+			Throwable cause) {
+		if (cause instanceof CompletionException && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof HttpClientException) {
+			return (HttpClientException) cause;
+		}
+		if (cause instanceof IOException) {
+			return new HttpClientException("I/O error on "
+					+ request.getMethod().name() + " request for \""
+					+ request.getURI().toString(), cause);
+		}
+		return new HttpClientException("Execute error on "
+				+ request.getMethod().name() + " request for \""
+				+ request.getURI().toString(), cause);
+	}
+
 	protected boolean hasError(HttpStatus status) {
 		return (status.series() == HttpStatus.Series.CLIENT_ERROR || status
 				.series() == HttpStatus.Series.SERVER_ERROR);
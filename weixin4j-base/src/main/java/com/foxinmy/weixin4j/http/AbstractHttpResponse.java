@@ -1,10 +1,13 @@
 package com.foxinmy.weixin4j.http;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
+import com.foxinmy.weixin4j.util.IOUtil;
+
 /**
- * 
+ *
  * @className AbstractHttpResponse
  * @author jinyu(foxinmy@gmail.com)
  * @date 2015年9月7日
@@ -13,19 +16,55 @@ import java.io.InputStream;
  */
 public abstract class AbstractHttpResponse implements HttpResponse {
 	protected final static String KEEP_ALIVE = "keep-alive";
-	private final byte[] content;
+	private byte[] content;
+	/**
+	 * 流式响应未读取的内容
+	 */
+	private InputStream body;
 
 	public AbstractHttpResponse(byte[] content) {
 		this.content = content;
 	}
 
+	/**
+	 * 流式响应:内容不经缓冲,通过getBody读取;调用getContent时才将剩余的内容读入内存
+	 *
+	 * @param body
+	 *            连接上的响应内容
+	 * @see HttpClient#executeStreaming(HttpRequest)
+	 */
+	public AbstractHttpResponse(InputStream body) {
+		this.body = body;
+	}
+
 	@Override
 	public byte[] getContent() {
+		if (content == null && body != null) {
+			try {
+				content = IOUtil.toByteArray(body);
+			} catch (IOException e) {
+				throw new RuntimeException("I/O error on read the response body",
+						e);
+			} finally {
+				IOUtil.close(body);
+				body = null;
+			}
+		}
 		return content;
 	}
 
 	@Override
 	public InputStream getBody() {
+		if (body != null) {
+			return body;
+		}
 		return content != null ? new ByteArrayInputStream(content) : null;
 	}
+
+	/**
+	 * 是否为未缓冲的流式响应
+	 */
+	public boolean isStreaming() {
+		return body != null;
+	}
 }
@@ -1,8 +1,14 @@
 package com.foxinmy.weixin4j.http;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import com.foxinmy.weixin4j.http.entity.HttpEntity;
+import com.foxinmy.weixin4j.http.factory.HttpClientFactory;
 
 /**
  * HTTP 接口
@@ -62,4 +68,61 @@ public interface HttpClient {
 	 * @throws HttpClientException
 	 */
 	HttpResponse execute(HttpRequest request) throws HttpClientException;
+
+	/**
+	 * 异步处理请求:响应在完成时已经过状态检查并关闭,失败时以HttpClientException结束;
+	 * 默认在HttpClientFactory的有界线程池中执行同步请求,支持非阻塞IO的实现应覆盖此方法
+	 * 
+	 * @param request
+	 *            请求对象
+	 * @return 响应对象的Future
+	 * @see HttpClientFactory#getAsyncExecutor()
+	 */
+	default CompletableFuture<HttpResponse> executeAsync(HttpRequest request) {
+		return executeAsync(request, HttpClientFactory.getAsyncExecutor());
+	}
+
+	/**
+	 * 在指定的线程池中执行同步请求
+	 * 
+	 * @param request
+	 *            请求对象
+	 * @param executor
+	 *            执行请求的线程池,拒绝执行时Future以HttpClientException结束
+	 * @return 响应对象的Future
+	 */
+	default CompletableFuture<HttpResponse> executeAsync(
+			final HttpRequest request, Executor executor) {
+		try {
+			return CompletableFuture.supplyAsync(new Supplier<HttpResponse>() {
+				@Override
+				public HttpResponse get() {
+					try {
+						return execute(request);
+					} catch (HttpClientException e) {
+						throw new CompletionException(e);
+					}
+				}
+			}, executor);
+		} catch (RejectedExecutionException e) {
+			CompletableFuture<HttpResponse> future = new CompletableFuture<HttpResponse>();
+			future.completeExceptionally(new HttpClientException(
+					"Execute rejected on " + request.getMethod().name()
+							+ " request for \"" + request.getURI().toString(),
+					e));
+			return future;
+		}
+	}
+
+	/**
+	 * 以流的形式处理请求:响应经过状态检查后返回,内容不经缓冲,通过getBody直接从连接读取,
+	 * 调用者必须在读取完毕后关闭响应以释放连接
+	 * 
+	 * @param request
+	 *            请求对象
+	 * @return 未关闭的响应对象
+	 * @throws HttpClientException
+	 */
+	HttpResponse executeStreaming(HttpRequest request)
+			throws HttpClientException;
 }
@@ -4,6 +4,8 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.foxinmy.weixin4j.util.StringUtil;
 
@@ -21,6 +23,12 @@ public class MimeType implements Serializable {
 
 	private static final String WILDCARD_TYPE = "*";
 
+	/**
+	 * 已解析的媒体类型:响应头的取值种类很少,缓存后无需每次解析;超过上限后不再缓存,防止被任意的取值撑大
+	 */
+	private static final int CACHE_LIMIT = 64;
+	private static final ConcurrentMap<String, MimeType> CACHED_MIMETYPES = new ConcurrentHashMap<String, MimeType>();
+
 	private final String type;
 	private final String subType;
 
@@ -92,6 +100,18 @@ public class MimeType implements Serializable {
 		if (StringUtil.isBlank(value)) {
 			return null;
 		}
+		MimeType cachedMimeType = CACHED_MIMETYPES.get(value);
+		if (cachedMimeType != null) {
+			return cachedMimeType;
+		}
+		cachedMimeType = parse(value);
+		if (CACHED_MIMETYPES.size() < CACHE_LIMIT) {
+			CACHED_MIMETYPES.putIfAbsent(value, cachedMimeType);
+		}
+		return cachedMimeType;
+	}
+
+	private static MimeType parse(String value) {
 		String mimeType = StringUtil.tokenizeToStringArray(value, ";")[0]
 				.trim().toLowerCase(Locale.ENGLISH);
 		if (WILDCARD_TYPE.equals(mimeType)) {
@@ -14,6 +14,7 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 
+import com.foxinmy.weixin4j.http.apache.mime.MultipartFormEntity;
 import com.foxinmy.weixin4j.http.entity.HttpEntity;
 import com.foxinmy.weixin4j.http.factory.HttpClientFactory;
 import com.foxinmy.weixin4j.util.IOUtil;
@@ -66,7 +67,19 @@ public class SimpleHttpClient extends AbstractHttpClient {
 
 	@Override
 	public HttpResponse execute(HttpRequest request) throws HttpClientException {
+		return execute(request, false);
+	}
+
+	@Override
+	public HttpResponse executeStreaming(HttpRequest request)
+			throws HttpClientException {
+		return execute(request, true);
+	}
+
+	private HttpResponse execute(HttpRequest request, boolean streaming)
+			throws HttpClientException {
 		HttpResponse response = null;
+		boolean completed = false;
 		try {
 			// create connection object
 			HttpURLConnection connection = createHttpConnection(request);
@@ -115,6 +128,15 @@ public class SimpleHttpClient extends AbstractHttpClient {
 					connection.setRequestProperty(HttpHeaders.CONTENT_LENGTH,
 							Long.toString(httpEntity.getContentLength()));
 				}
+				if (httpEntity instanceof MultipartFormEntity) {
+					// 文件等内容直接写入连接,不由HttpURLConnection缓冲后再发送
+					if (httpEntity.getContentLength() >= 0l) {
+						connection.setFixedLengthStreamingMode(httpEntity
+								.getContentLength());
+					} else {
+						connection.setChunkedStreamingMode(0);
+					}
+				}
 				if (httpEntity.getContentType() != null) {
 					connection.setRequestProperty(HttpHeaders.CONTENT_TYPE,
 							httpEntity.getContentType().toString());
@@ -132,16 +154,22 @@ public class SimpleHttpClient extends AbstractHttpClient {
 			// building response
 			InputStream input = connection.getErrorStream() != null ? connection
 					.getErrorStream() : connection.getInputStream();
-			byte[] content = IOUtil.toByteArray(input);
-			response = new SimpleHttpResponse(connection, content);
-			input.close();
+			if (streaming) {
+				response = new SimpleHttpResponse(connection, input);
+			} else {
+				byte[] content = IOUtil.toByteArray(input);
+				response = new SimpleHttpResponse(connection, content);
+				input.close();
+			}
 			handleResponse(response);
+			completed = true;
 		} catch (IOException e) {
 			throw new HttpClientException("I/O error on "
 					+ request.getMethod().name() + " request for \""
 					+ request.getURI().toString(), e);
 		} finally {
-			if (response != null) {
+			// 流式响应由调用者读取后关闭
+			if (response != null && (!streaming || !completed)) {
 				response.close();
 			}
 		}
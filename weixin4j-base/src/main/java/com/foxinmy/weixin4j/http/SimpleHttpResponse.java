@@ -1,11 +1,14 @@
 package com.foxinmy.weixin4j.http;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import com.foxinmy.weixin4j.util.IOUtil;
+
 /**
  * Simple Response
  * 
@@ -28,6 +31,11 @@ public class SimpleHttpResponse extends AbstractHttpResponse {
 		this.connection = connection;
 	}
 
+	public SimpleHttpResponse(HttpURLConnection connection, InputStream body) {
+		super(body);
+		this.connection = connection;
+	}
+
 	@Override
 	public HttpVersion getProtocol() {
 		String version = connection.getHeaderField(null);
@@ -77,6 +85,9 @@ public class SimpleHttpResponse extends AbstractHttpResponse {
 
 	@Override
 	public void close() {
+		if (isStreaming()) {
+			IOUtil.close(getBody());
+		}
 		connection.disconnect();
 	}
 }
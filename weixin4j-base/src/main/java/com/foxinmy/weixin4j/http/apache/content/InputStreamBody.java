@@ -43,8 +43,14 @@ import com.foxinmy.weixin4j.http.apache.mime.MIME;
  */
 public class InputStreamBody extends AbstractContentBody {
 
+	/**
+	 * 未指定长度:由in.available()得到
+	 */
+	private static final long AVAILABLE_LENGTH = -2;
+
 	private final InputStream in;
 	private final String filename;
+	private final long contentLength;
 
 	/**
 	 * @since 4.1
@@ -64,9 +70,21 @@ public class InputStreamBody extends AbstractContentBody {
 	 */
 	public InputStreamBody(final InputStream in, final ContentType contentType,
 			final String filename) {
+		this(in, contentType, filename, AVAILABLE_LENGTH);
+	}
+
+	/**
+	 * 指定内容长度:in.available()不能反映剩余长度的流(如网络流)须使用该构造
+	 *
+	 * @param contentLength
+	 *            内容长度,未知时为-1(整个请求以chunked方式发送)
+	 */
+	public InputStreamBody(final InputStream in, final ContentType contentType,
+			final String filename, final long contentLength) {
 		super(contentType);
 		this.in = in;
 		this.filename = filename;
+		this.contentLength = contentLength;
 	}
 
 	/**
@@ -101,6 +119,9 @@ public class InputStreamBody extends AbstractContentBody {
 
 	@Override
 	public long getContentLength() {
+		if (contentLength != AVAILABLE_LENGTH) {
+			return contentLength;
+		}
 		try {
 			return in.available();
 		} catch (IOException e) {
@@ -33,8 +33,11 @@ import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
 
+import com.foxinmy.weixin4j.http.ContentType;
+import com.foxinmy.weixin4j.http.apache.content.ByteArrayBody;
 import com.foxinmy.weixin4j.http.apache.content.ContentBody;
 import com.foxinmy.weixin4j.util.ByteArrayBuffer;
 
@@ -120,25 +123,59 @@ abstract class AbstractMultipartForm {
 
         final ByteArrayBuffer boundaryEncoded = encode(this.charset, this.boundary);
         for (final FormBodyPart part: getBodyParts()) {
-            writeBytes(TWO_DASHES, out);
-            writeBytes(boundaryEncoded, out);
-            writeBytes(CR_LF, out);
-
-            formatMultipartHeader(part, out);
-
-            writeBytes(CR_LF, out);
-
+            writePartStart(part, boundaryEncoded, out);
             if (writeContent) {
                 part.getBody().writeTo(out);
             }
             writeBytes(CR_LF, out);
         }
+        writeEnd(boundaryEncoded, out);
+    }
+
+    private void writePartStart(
+        final FormBodyPart part,
+        final ByteArrayBuffer boundaryEncoded,
+        final OutputStream out) throws IOException {
+        writeBytes(TWO_DASHES, out);
+        writeBytes(boundaryEncoded, out);
+        writeBytes(CR_LF, out);
+
+        formatMultipartHeader(part, out);
+
+        writeBytes(CR_LF, out);
+    }
+
+    private static void writeEnd(
+        final ByteArrayBuffer boundaryEncoded,
+        final OutputStream out) throws IOException {
         writeBytes(TWO_DASHES, out);
         writeBytes(boundaryEncoded, out);
         writeBytes(TWO_DASHES, out);
         writeBytes(CR_LF, out);
     }
 
+    /**
+     * 按顺序拆分的内容:分隔符与各part的头部合并为ByteArrayBody,各part的内容为原本的ContentBody,
+     * 使文件等较大的内容可以不经缓冲地单独发送
+     *
+     * @return 依次写出即为完整的multipart内容
+     */
+    List<ContentBody> getSegments() throws IOException {
+        final List<ContentBody> segments = new ArrayList<ContentBody>();
+        final ByteArrayBuffer boundaryEncoded = encode(this.charset, this.boundary);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (final FormBodyPart part: getBodyParts()) {
+            writePartStart(part, boundaryEncoded, out);
+            segments.add(new ByteArrayBody(out.toByteArray(), ContentType.DEFAULT_BINARY, null));
+            out.reset();
+            segments.add(part.getBody());
+            writeBytes(CR_LF, out);
+        }
+        writeEnd(boundaryEncoded, out);
+        segments.add(new ByteArrayBody(out.toByteArray(), ContentType.DEFAULT_BINARY, null));
+        return segments;
+    }
+
     /**
       * Write the multipart header fields; depends on the style.
       */
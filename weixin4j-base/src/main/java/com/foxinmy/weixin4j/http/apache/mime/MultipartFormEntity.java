@@ -32,11 +32,13 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
 
 import com.foxinmy.weixin4j.http.ContentType;
+import com.foxinmy.weixin4j.http.apache.content.ContentBody;
 import com.foxinmy.weixin4j.http.entity.HttpEntity;
 
-class MultipartFormEntity implements HttpEntity {
+public class MultipartFormEntity implements HttpEntity {
 
 	private final AbstractMultipartForm multipart;
 	private final ContentType contentType;
@@ -93,4 +95,13 @@ class MultipartFormEntity implements HttpEntity {
 	public void writeTo(final OutputStream outstream) throws IOException {
 		this.multipart.writeTo(outstream);
 	}
+
+	/**
+	 * 拆分后的内容:依次写出各段即为完整的multipart内容,其中的FileBody可以零拷贝发送
+	 *
+	 * @return 分隔符与头部为ByteArrayBody,其余为各part的内容
+	 */
+	public List<ContentBody> getSegments() throws IOException {
+		return this.multipart.getSegments();
+	}
 }
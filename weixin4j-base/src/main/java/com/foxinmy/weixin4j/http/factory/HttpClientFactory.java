@@ -4,6 +4,10 @@ import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -16,6 +20,7 @@ import com.foxinmy.weixin4j.http.support.apache3.HttpComponent3Factory;
 import com.foxinmy.weixin4j.http.support.apache4.HttpComponent4Factory;
 import com.foxinmy.weixin4j.http.support.netty.Netty4HttpClientFactory;
 import com.foxinmy.weixin4j.http.support.okhttp.OkHttpClientFactory;
+import com.foxinmy.weixin4j.util.NamedThreadFactory;
 
 /**
  * HttpClient工厂生产类:参考netty的InternalLoggerFactory
@@ -33,6 +38,10 @@ public abstract class HttpClientFactory {
 	 */
 	private static volatile HttpClientFactory defaultFactory = newDefaultFactory();
 	private static volatile HttpParams defaultParams;
+	/**
+	 * 不支持非阻塞IO的HttpClient执行异步请求的线程池
+	 */
+	private static volatile Executor asyncExecutor;
 
 	/**
 	 * NettyHttpClient -> ApacheHttpClient(HttpComponent3&4) ->
@@ -106,6 +115,43 @@ public abstract class HttpClientFactory {
 		HttpClientFactory.defaultParams = params;
 	}
 
+	/**
+	 * 获取执行异步请求的线程池:默认为CPU核数两倍的有界线程池,队列已满时拒绝执行
+	 * 
+	 * @return
+	 * @see HttpClient#executeAsync(com.foxinmy.weixin4j.http.HttpRequest)
+	 */
+	public static Executor getAsyncExecutor() {
+		if (asyncExecutor == null) {
+			synchronized (HttpClientFactory.class) {
+				if (asyncExecutor == null) {
+					int threads = Runtime.getRuntime().availableProcessors() * 2;
+					ThreadPoolExecutor executor = new ThreadPoolExecutor(
+							threads, threads, 60L, TimeUnit.SECONDS,
+							new ArrayBlockingQueue<Runnable>(1024),
+							new NamedThreadFactory("weixin4j-http-async"),
+							new ThreadPoolExecutor.AbortPolicy());
+					executor.allowCoreThreadTimeOut(true);
+					asyncExecutor = executor;
+				}
+			}
+		}
+		return asyncExecutor;
+	}
+
+	/**
+	 * 显式设置执行异步请求的线程池
+	 * 
+	 * @param asyncExecutor
+	 */
+	public static void setAsyncExecutor(Executor asyncExecutor) {
+		if (asyncExecutor == null) {
+			throw new IllegalArgumentException(
+					"'asyncExecutor' must not be empty");
+		}
+		HttpClientFactory.asyncExecutor = asyncExecutor;
+	}
+
 	/**
 	 * 获取HttpClient实例
 	 * 
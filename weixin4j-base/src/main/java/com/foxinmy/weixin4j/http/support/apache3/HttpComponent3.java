@@ -1,7 +1,7 @@
 package com.foxinmy.weixin4j.http.support.apache3;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
@@ -12,7 +12,6 @@ import javax.net.ssl.SSLContext;
 
 import org.apache.commons.httpclient.ConnectTimeoutException;
 import org.apache.commons.httpclient.URI;
-import org.apache.commons.httpclient.methods.ByteArrayRequestEntity;
 import org.apache.commons.httpclient.methods.DeleteMethod;
 import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
 import org.apache.commons.httpclient.methods.GetMethod;
@@ -34,6 +33,7 @@ import com.foxinmy.weixin4j.http.HttpMethod;
 import com.foxinmy.weixin4j.http.HttpRequest;
 import com.foxinmy.weixin4j.http.HttpResponse;
 import com.foxinmy.weixin4j.http.apache.mime.MultipartEntity;
+import com.foxinmy.weixin4j.http.apache.mime.MultipartFormEntity;
 import com.foxinmy.weixin4j.http.entity.HttpEntity;
 import com.foxinmy.weixin4j.util.Consts;
 import com.foxinmy.weixin4j.util.StringUtil;
@@ -162,7 +162,7 @@ public class HttpComponent3 extends AbstractHttpClient {
 	protected void resolveContent(HttpRequest request,
 			org.apache.commons.httpclient.HttpMethod httpMethod)
 			throws IOException {
-		HttpEntity entity = request.getEntity();
+		final HttpEntity entity = request.getEntity();
 		if (entity != null) {
 			if (entity.getContentLength() > 0l) {
 				httpMethod.addRequestHeader(HttpHeaders.CONTENT_LENGTH,
@@ -173,13 +173,31 @@ public class HttpComponent3 extends AbstractHttpClient {
 						.getContentType().toString());
 			}
 			RequestEntity requestEntity = null;
-			if (entity instanceof MultipartEntity) {
-				ByteArrayOutputStream os = new ByteArrayOutputStream();
-				entity.writeTo(os);
-				os.flush();
-				requestEntity = new ByteArrayRequestEntity(os.toByteArray(),
-						entity.getContentType().toString());
-				os.close();
+			if (entity instanceof MultipartEntity
+					|| entity instanceof MultipartFormEntity) {
+				// 文件等内容直接写入连接,长度未知时以chunked方式发送
+				requestEntity = new RequestEntity() {
+					@Override
+					public boolean isRepeatable() {
+						return false;
+					}
+
+					@Override
+					public void writeRequest(OutputStream out)
+							throws IOException {
+						entity.writeTo(out);
+					}
+
+					@Override
+					public long getContentLength() {
+						return entity.getContentLength();
+					}
+
+					@Override
+					public String getContentType() {
+						return entity.getContentType().toString();
+					}
+				};
 			} else {
 				requestEntity = new InputStreamRequestEntity(
 						entity.getContent(), entity.getContentType().toString());
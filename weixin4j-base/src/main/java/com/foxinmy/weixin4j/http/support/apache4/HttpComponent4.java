@@ -1,7 +1,10 @@
 package com.foxinmy.weixin4j.http.support.apache4;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.security.cert.X509Certificate;
 import java.util.List;
@@ -30,6 +33,8 @@ import com.foxinmy.weixin4j.http.HttpClientException;
 import com.foxinmy.weixin4j.http.HttpHeaders;
 import com.foxinmy.weixin4j.http.HttpMethod;
 import com.foxinmy.weixin4j.http.HttpRequest;
+import com.foxinmy.weixin4j.http.apache.mime.MultipartEntity;
+import com.foxinmy.weixin4j.http.apache.mime.MultipartFormEntity;
 import com.foxinmy.weixin4j.http.entity.HttpEntity;
 import com.foxinmy.weixin4j.util.StringUtil;
 
@@ -114,15 +119,49 @@ public abstract class HttpComponent4 extends AbstractHttpClient {
 	/**
 	 * Resolve Content
 	 */
-	protected void resolveContent(HttpEntity entity, HttpRequestBase httpRequest)
-			throws IOException {
+	protected void resolveContent(final HttpEntity entity,
+			HttpRequestBase httpRequest) throws IOException {
 		if (entity != null) {
-			ByteArrayOutputStream os = new ByteArrayOutputStream();
-			entity.writeTo(os);
-			os.flush();
-			AbstractHttpEntity httpEntity = new org.apache.http.entity.ByteArrayEntity(
-					os.toByteArray());
-			os.close();
+			AbstractHttpEntity httpEntity;
+			if (entity instanceof MultipartEntity
+					|| entity instanceof MultipartFormEntity) {
+				// 文件等内容直接写入连接,长度未知时以chunked方式发送
+				httpEntity = new AbstractHttpEntity() {
+					@Override
+					public boolean isRepeatable() {
+						return false;
+					}
+
+					@Override
+					public long getContentLength() {
+						return entity.getContentLength();
+					}
+
+					@Override
+					public InputStream getContent() throws IOException {
+						return entity.getContent();
+					}
+
+					@Override
+					public void writeTo(OutputStream outstream)
+							throws IOException {
+						entity.writeTo(outstream);
+					}
+
+					@Override
+					public boolean isStreaming() {
+						return false;
+					}
+				};
+				httpEntity.setChunked(entity.getContentLength() < 0);
+			} else {
+				ByteArrayOutputStream os = new ByteArrayOutputStream();
+				entity.writeTo(os);
+				os.flush();
+				httpEntity = new org.apache.http.entity.ByteArrayEntity(
+						os.toByteArray());
+				os.close();
+			}
 			httpEntity.setContentType(entity.getContentType().toString());
 			((HttpEntityEnclosingRequestBase) httpRequest)
 					.setEntity(httpEntity);
@@ -134,6 +173,15 @@ public abstract class HttpComponent4 extends AbstractHttpClient {
 		return EntityUtils.toByteArray(httpResponse.getEntity());
 	}
 
+	/**
+	 * 流式响应的内容
+	 */
+	protected InputStream getBody(org.apache.http.HttpResponse httpResponse)
+			throws IOException {
+		return httpResponse.getEntity() != null ? httpResponse.getEntity()
+				.getContent() : new ByteArrayInputStream(new byte[0]);
+	}
+
 	protected static class CustomHostnameVerifier implements
 			X509HostnameVerifier {
 
@@ -1,6 +1,7 @@
 package com.foxinmy.weixin4j.http.support.apache4;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.apache.http.Header;
 import org.apache.http.ProtocolVersion;
@@ -33,6 +34,12 @@ public class HttpComponent4_1Response extends AbstractHttpResponse {
 		this.httpResponse = httpResponse;
 	}
 
+	public HttpComponent4_1Response(org.apache.http.HttpResponse httpResponse,
+			InputStream body) {
+		super(body);
+		this.httpResponse = httpResponse;
+	}
+
 	@Override
 	public HttpHeaders getHeaders() {
 		if (headers == null) {
@@ -29,19 +29,34 @@ public class HttpComponent4_2 extends HttpComponent4 {
 
 	@Override
 	public HttpResponse execute(HttpRequest request) throws HttpClientException {
+		return execute(request, false);
+	}
+
+	@Override
+	public HttpResponse executeStreaming(HttpRequest request)
+			throws HttpClientException {
+		return execute(request, true);
+	}
+
+	private HttpResponse execute(HttpRequest request, boolean streaming)
+			throws HttpClientException {
 		HttpResponse response = null;
+		boolean completed = false;
 		try {
 			HttpRequestBase uriRequest = createRequest(request);
 			CloseableHttpResponse httpResponse = httpClient.execute(uriRequest);
-			response = new HttpComponent4_2Response(httpResponse,
-					getContent(httpResponse));
+			response = streaming ? new HttpComponent4_2Response(httpResponse,
+					getBody(httpResponse)) : new HttpComponent4_2Response(
+					httpResponse, getContent(httpResponse));
 			handleResponse(response);
+			completed = true;
 		} catch (IOException e) {
 			throw new HttpClientException("I/O error on "
 					+ request.getMethod().name() + " request for \""
 					+ request.getURI().toString(), e);
 		} finally {
-			if (response != null) {
+			// 流式响应由调用者读取后关闭
+			if (response != null && (!streaming || !completed)) {
 				response.close();
 			}
 		}
@@ -1,6 +1,7 @@
 package com.foxinmy.weixin4j.http.support.apache4;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.apache.http.Header;
 import org.apache.http.ProtocolVersion;
@@ -36,6 +37,12 @@ public class HttpComponent4_2Response extends AbstractHttpResponse {
 		this.httpResponse = httpResponse;
 	}
 
+	public HttpComponent4_2Response(CloseableHttpResponse httpResponse,
+			InputStream body) {
+		super(body);
+		this.httpResponse = httpResponse;
+	}
+
 	@Override
 	public HttpHeaders getHeaders() {
 		if (headers == null) {
@@ -74,7 +81,10 @@ public class HttpComponent4_2Response extends AbstractHttpResponse {
 	@Override
 	public void close() {
 		try {
-			EntityUtils.consume(httpResponse.getEntity());
+			// 流式响应未读完时直接关闭连接,不再读取剩余的内容
+			if (!isStreaming()) {
+				EntityUtils.consume(httpResponse.getEntity());
+			}
 			httpResponse.close();
 		} catch (IOException ex) {
 			;
@@ -0,0 +1,240 @@
+package com.foxinmy.weixin4j.http.support.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.Future;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+
+import com.foxinmy.weixin4j.http.HttpParams;
+import com.foxinmy.weixin4j.http.factory.HttpClientFactory;
+
+/**
+ * 按host划分的Netty连接池:复用keep-alive连接,每次建立连接时解析DNS并完成SSL握手
+ *
+ * @className Netty4ChannelPoolMap
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月16日
+ * @since JDK 1.8
+ * @see io.netty.channel.pool.FixedChannelPool
+ */
+public class Netty4ChannelPoolMap extends
+		AbstractChannelPoolMap<Netty4ChannelPoolMap.PoolKey, FixedChannelPool> {
+
+	static final String CODEC_HANDLER = "codec";
+	static final String READ_TIMEOUT_HANDLER = "readTimeout";
+	static final String REQUEST_HANDLER = "request";
+
+	private final Bootstrap bootstrap;
+	private final HttpParams params;
+	private final long idleTimeMillis;
+	/**
+	 * 所有host共享的最大连接数(maxConnections)
+	 */
+	private final Semaphore connections;
+
+	/**
+	 *
+	 * @param bootstrap
+	 *            未设置handler的bootstrap
+	 * @param params
+	 *            http参数
+	 * @param idleTimeMillis
+	 *            空闲连接的最大存活时间(单位毫秒)
+	 */
+	public Netty4ChannelPoolMap(Bootstrap bootstrap, HttpParams params,
+			long idleTimeMillis) {
+		this.bootstrap = bootstrap;
+		this.params = params != null ? params : new HttpParams();
+		this.idleTimeMillis = idleTimeMillis;
+		this.connections = new Semaphore(this.params.getMaxConnections());
+	}
+
+	public HttpParams getParams() {
+		return params;
+	}
+
+	/**
+	 * 获取全局连接许可,超时(connectTimeout)则返回false
+	 */
+	boolean acquirePermit() throws InterruptedException {
+		return connections.tryAcquire(params.getConnectTimeout(),
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 非阻塞获取全局连接许可
+	 */
+	boolean tryAcquirePermit() {
+		return connections.tryAcquire();
+	}
+
+	void releasePermit() {
+		connections.release();
+	}
+
+	/**
+	 * 归还连接:非keep-alive的连接先关闭再归还,由连接池丢弃
+	 *
+	 * @param key
+	 *            连接池key
+	 * @param channel
+	 *            连接
+	 * @param keepAlive
+	 *            是否保持连接
+	 */
+	public Future<Void> release(PoolKey key, Channel channel, boolean keepAlive) {
+		if (!keepAlive) {
+			channel.close();
+		}
+		try {
+			return get(key).release(channel);
+		} finally {
+			releasePermit();
+		}
+	}
+
+	@Override
+	protected FixedChannelPool newPool(final PoolKey key) {
+		// 未解析的地址由bootstrap在每次建立连接时解析,DNS变更后新建的连接即可生效
+		InetSocketAddress address = params.getProxy() != null ? (InetSocketAddress) params
+				.getProxy().address() : InetSocketAddress.createUnresolved(
+				key.getHost(), key.getPort());
+		Bootstrap poolBootstrap = bootstrap.clone().remoteAddress(address);
+		return new FixedChannelPool(poolBootstrap,
+				new HttpChannelPoolHandler(key), ChannelHealthChecker.ACTIVE,
+				FixedChannelPool.AcquireTimeoutAction.FAIL,
+				params.getConnectTimeout(), params.getMaxConnectionsPerHost(),
+				Integer.MAX_VALUE, true, true);
+	}
+
+	private class HttpChannelPoolHandler extends AbstractChannelPoolHandler {
+
+		private final PoolKey key;
+
+		HttpChannelPoolHandler(PoolKey key) {
+			this.key = key;
+		}
+
+		@Override
+		public void channelCreated(Channel channel) throws Exception {
+			channel.config().setConnectTimeoutMillis(params.getConnectTimeout());
+			ChannelPipeline pipeline = channel.pipeline();
+			if (key.isSecure()) {
+				SSLContext sslContext = params.getSSLContext() != null ? params
+						.getSSLContext() : HttpClientFactory.allowSSLContext();
+				SSLEngine sslEngine = sslContext.createSSLEngine(
+						key.getHost(), key.getPort());
+				sslEngine.setUseClientMode(true);
+				pipeline.addLast(new SslHandler(sslEngine));
+			}
+			if (idleTimeMillis > 0) {
+				pipeline.addLast(new IdleStateHandler(0, 0, idleTimeMillis,
+						TimeUnit.MILLISECONDS));
+				pipeline.addLast(new IdleChannelCloser());
+			}
+			pipeline.addLast(CODEC_HANDLER, new HttpClientCodec());
+			pipeline.addLast(new HttpContentDecompressor());
+			pipeline.addLast(new ChunkedWriteHandler());
+			pipeline.addLast(new HttpObjectAggregator(Integer.MAX_VALUE));
+		}
+	}
+
+	/**
+	 * 关闭空闲超时的连接,连接池在下次获取时通过健康检查将其丢弃
+	 */
+	private static class IdleChannelCloser extends ChannelDuplexHandler {
+		@Override
+		public void userEventTriggered(ChannelHandlerContext context,
+				Object evt) throws Exception {
+			if (evt instanceof IdleStateEvent) {
+				context.close();
+			} else {
+				super.userEventTriggered(context, evt);
+			}
+		}
+	}
+
+	/**
+	 * 连接池key:scheme + host + port
+	 */
+	public static final class PoolKey {
+		private final boolean secure;
+		private final String host;
+		private final int port;
+
+		public PoolKey(boolean secure, String host, int port) {
+			this.secure = secure;
+			this.host = host != null ? host.toLowerCase() : null;
+			this.port = port;
+		}
+
+		public static PoolKey valueOf(URI uri) {
+			boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+			int port = uri.getPort();
+			if (port == -1) {
+				port = secure ? 443 : 80;
+			}
+			return new PoolKey(secure, uri.getHost(), port);
+		}
+
+		public boolean isSecure() {
+			return secure;
+		}
+
+		public String getHost() {
+			return host;
+		}
+
+		public int getPort() {
+			return port;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + (secure ? 1231 : 1237);
+			result = prime * result + ((host == null) ? 0 : host.hashCode());
+			result = prime * result + port;
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			PoolKey other = (PoolKey) obj;
+			if (secure != other.secure || port != other.port)
+				return false;
+			return host == null ? other.host == null : host.equals(other.host);
+		}
+
+		@Override
+		public String toString() {
+			return (secure ? "https://" : "http://") + host + ":" + port;
+		}
+	}
+}
@@ -4,25 +4,44 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedStream;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
@@ -33,10 +52,13 @@ import com.foxinmy.weixin4j.http.HttpHeaders;
 import com.foxinmy.weixin4j.http.HttpParams;
 import com.foxinmy.weixin4j.http.HttpRequest;
 import com.foxinmy.weixin4j.http.HttpResponse;
+import com.foxinmy.weixin4j.http.apache.content.ContentBody;
+import com.foxinmy.weixin4j.http.apache.content.FileBody;
+import com.foxinmy.weixin4j.http.apache.content.InputStreamBody;
+import com.foxinmy.weixin4j.http.apache.mime.MultipartFormEntity;
 import com.foxinmy.weixin4j.http.entity.HttpEntity;
 import com.foxinmy.weixin4j.http.factory.HttpClientFactory;
 import com.foxinmy.weixin4j.util.Consts;
-import com.foxinmy.weixin4j.util.SettableFuture;
 import com.foxinmy.weixin4j.util.StringUtil;
 
 /**
@@ -52,76 +74,259 @@ public class Netty4HttpClient extends AbstractHttpClient {
 
 	private final Bootstrap bootstrap;
 	private final HttpParams params;
+	/**
+	 * 连接池,为空时每次请求新建连接
+	 */
+	private final Netty4ChannelPoolMap channelPools;
 
 	public Netty4HttpClient(Bootstrap bootstrap, HttpParams params) {
 		this.bootstrap = bootstrap;
 		this.params = params;
+		this.channelPools = null;
 	}
 
+	/**
+	 * 连接池模式:复用keep-alive连接
+	 *
+	 * @param channelPools
+	 *            连接池
+	 */
+	public Netty4HttpClient(Netty4ChannelPoolMap channelPools) {
+		this.bootstrap = null;
+		this.params = channelPools.getParams();
+		this.channelPools = channelPools;
+	}
+
+	@Override
+	public HttpResponse execute(HttpRequest request)
+			throws HttpClientException {
+		return execute(request, false);
+	}
+
+	/**
+	 * 流式读取:收到响应头后即返回,内容在读取时才从连接上按需读取
+	 */
 	@Override
-	public HttpResponse execute(final HttpRequest request)
+	public HttpResponse executeStreaming(HttpRequest request)
 			throws HttpClientException {
-		HttpResponse response = null;
+		return execute(request, true);
+	}
+
+	private HttpResponse execute(HttpRequest request, boolean streaming)
+			throws HttpClientException {
+		CompletableFuture<HttpResponse> future;
+		if (channelPools != null) {
+			future = new CompletableFuture<HttpResponse>();
+			boolean permitted = false;
+			try {
+				permitted = channelPools.acquirePermit();
+			} catch (InterruptedException e) {
+				throw resolveException(request, e);
+			}
+			if (!permitted) {
+				throw new HttpClientException(
+						"Timeout waiting for connection from pool, maxConnections="
+								+ params.getMaxConnections());
+			}
+			executePooled(request, future, streaming);
+		} else {
+			future = connect(request, streaming);
+		}
 		try {
-			final URI uri = request.getURI();
-			final SettableFuture<HttpResponse> future = new SettableFuture<HttpResponse>();
-			ChannelFutureListener listener = new ChannelFutureListener() {
-				@Override
-				public void operationComplete(ChannelFuture channelFuture)
-						throws Exception {
-					if (channelFuture.isSuccess()) {
-						Channel channel = channelFuture.channel();
-						if ("https".equals(uri.getScheme())) {
-							SSLContext sslContext;
-							if (params != null
-									&& params.getSSLContext() != null) {
-								sslContext = params.getSSLContext();
-							} else {
-								sslContext = HttpClientFactory
-										.allowSSLContext();
-							}
-							SSLEngine sslEngine = sslContext.createSSLEngine();
-							sslEngine.setUseClientMode(true);
-							channel.pipeline().addFirst(
-									new SslHandler(sslEngine));
-						}
-						channel.pipeline().addLast(new RequestHandler(future));
-						DefaultHttpRequest uriRequest = createRequest(request);
-						channel.writeAndFlush(uriRequest);
+			return future.get();
+		} catch (InterruptedException e) {
+			throw resolveException(request, e);
+		} catch (ExecutionException e) {
+			throw resolveException(request, e.getCause());
+		}
+	}
+
+	/**
+	 * 非阻塞执行请求,Future在Netty的IO线程中完成:
+	 * 后续的耗时操作请使用thenApplyAsync等方法切换到业务线程池
+	 */
+	@Override
+	public CompletableFuture<HttpResponse> executeAsync(
+			final HttpRequest request) {
+		if (channelPools != null) {
+			if (!channelPools.tryAcquirePermit()) {
+				// 连接数已满:交由有界线程池等待连接许可,避免阻塞调用线程
+				return executeAsync(request,
+						HttpClientFactory.getAsyncExecutor());
+			}
+			CompletableFuture<HttpResponse> future = new CompletableFuture<HttpResponse>();
+			executePooled(request, future, false);
+			return future;
+		}
+		return connect(request, false);
+	}
+
+	/**
+	 * 新建连接执行请求,响应关闭时关闭连接
+	 */
+	private CompletableFuture<HttpResponse> connect(final HttpRequest request,
+			final boolean streaming) {
+		final CompletableFuture<HttpResponse> future = new CompletableFuture<HttpResponse>();
+		final URI uri = request.getURI();
+		InetSocketAddress address;
+		try {
+			address = params != null && params.getProxy() != null ? (InetSocketAddress) params
+					.getProxy().address() : new InetSocketAddress(
+					InetAddress.getByName(uri.getHost()), getPort(uri));
+		} catch (IOException e) {
+			future.completeExceptionally(resolveException(request, e));
+			return future;
+		}
+		bootstrap.connect(address).addListener(new ChannelFutureListener() {
+			@Override
+			public void operationComplete(ChannelFuture channelFuture)
+					throws Exception {
+				if (!channelFuture.isSuccess()) {
+					future.completeExceptionally(resolveException(request,
+							channelFuture.cause()));
+					return;
+				}
+				Channel channel = channelFuture.channel();
+				if ("https".equals(uri.getScheme())) {
+					SSLContext sslContext;
+					if (params != null && params.getSSLContext() != null) {
+						sslContext = params.getSSLContext();
 					} else {
-						future.setException(channelFuture.cause());
+						sslContext = HttpClientFactory.allowSSLContext();
 					}
+					SSLEngine sslEngine = sslContext.createSSLEngine();
+					sslEngine.setUseClientMode(true);
+					channel.pipeline().addFirst(new SslHandler(sslEngine));
 				}
-			};
-			InetSocketAddress address = params != null
-					&& params.getProxy() != null ? (InetSocketAddress) params
-					.getProxy().address() : new InetSocketAddress(
-					InetAddress.getByName(uri.getHost()), getPort(uri));
-			bootstrap.connect(address).addListener(listener);
-			response = future.get();
-			handleResponse(response);
+				RequestHandler handler = new RequestHandler(request, future,
+						null, null, streaming);
+				channel.pipeline().addLast(handler);
+				writeRequest(channel, handler, request, false);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * 从连接池中获取连接执行请求,响应关闭时归还连接(调用前须已获得连接许可)
+	 */
+	private void executePooled(final HttpRequest request,
+			final CompletableFuture<HttpResponse> future,
+			final boolean streaming) {
+		final Netty4ChannelPoolMap.PoolKey poolKey = Netty4ChannelPoolMap.PoolKey
+				.valueOf(request.getURI());
+		channelPools.get(poolKey).acquire()
+				.addListener(new FutureListener<Channel>() {
+					@Override
+					public void operationComplete(Future<Channel> channelFuture)
+							throws Exception {
+						if (!channelFuture.isSuccess()) {
+							channelPools.releasePermit();
+							future.completeExceptionally(resolveException(
+									request, channelFuture.cause()));
+							return;
+						}
+						Channel channel = channelFuture.getNow();
+						ChannelPipeline pipeline = channel.pipeline();
+						RequestHandler handler = new RequestHandler(request,
+								future, channelPools, poolKey, streaming);
+						pipeline.addBefore(
+								Netty4ChannelPoolMap.CODEC_HANDLER,
+								Netty4ChannelPoolMap.READ_TIMEOUT_HANDLER,
+								new ReadTimeoutHandler(params.getReadTimeout(),
+										TimeUnit.MILLISECONDS));
+						pipeline.addLast(Netty4ChannelPoolMap.REQUEST_HANDLER,
+								handler);
+						writeRequest(channel, handler, request, true);
+					}
+				});
+	}
+
+	private void writeRequest(final Channel channel,
+			final RequestHandler handler, HttpRequest request,
+			boolean keepAlive) {
+		if (handler.streaming) {
+			// 不聚合内容,由RequestHandler逐段交给读取方
+			channel.pipeline().remove(HttpObjectAggregator.class);
+		}
+		DefaultHttpRequest uriRequest;
+		List<Object> contents = null;
+		try {
+			uriRequest = createRequest(request, keepAlive);
+			if (request.getEntity() instanceof MultipartFormEntity) {
+				contents = createContents(channel,
+						(MultipartFormEntity) request.getEntity());
+			}
 		} catch (IOException e) {
-			throw new HttpClientException("I/O error on "
-					+ request.getMethod().name() + " request for \""
-					+ request.getURI().toString(), e);
-		} catch (InterruptedException e) {
-			throw new HttpClientException("Execute error on "
-					+ request.getMethod().name() + " request for \""
-					+ request.getURI().toString(), e);
-		} catch (ExecutionException e) {
-			throw new HttpClientException("Execute error on "
-					+ request.getMethod().name() + " request for \""
-					+ request.getURI().toString(), e);
-		} finally {
-			if (response != null) {
-				response.close();
+			handler.fail(channel, e);
+			return;
+		}
+		ChannelFutureListener listener = new ChannelFutureListener() {
+			@Override
+			public void operationComplete(ChannelFuture channelFuture)
+					throws Exception {
+				if (!channelFuture.isSuccess()) {
+					handler.fail(channel, channelFuture.cause());
+				}
 			}
+		};
+		if (contents == null) {
+			channel.writeAndFlush(uriRequest).addListener(listener);
+			return;
 		}
-		return response;
+		channel.write(uriRequest).addListener(listener);
+		for (Object content : contents) {
+			channel.write(content).addListener(listener);
+		}
+		channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(
+				listener);
+	}
+
+	/**
+	 * multipart内容分段发送:文件通过FileRegion零拷贝(加密连接上分块读取),流由ChunkedWriteHandler分块读取,
+	 * 不再先将整个内容复制到一个ByteBuf中
+	 */
+	private List<Object> createContents(Channel channel,
+			MultipartFormEntity entity) throws IOException {
+		boolean secure = channel.pipeline().get(SslHandler.class) != null;
+		List<ContentBody> segments = entity.getSegments();
+		List<Object> contents = new ArrayList<Object>(segments.size());
+		try {
+			for (ContentBody segment : segments) {
+				if (segment instanceof FileBody) {
+					File file = ((FileBody) segment).getFile();
+					contents.add(secure ? new ChunkedNioFile(file)
+							: new DefaultFileRegion(file, 0, file.length()));
+				} else if (segment instanceof InputStreamBody) {
+					contents.add(new ChunkedStream(((InputStreamBody) segment)
+							.getInputStream()));
+				} else {
+					ByteBuf byteBuf = channel.alloc().buffer();
+					ByteBufOutputStream out = new ByteBufOutputStream(byteBuf);
+					contents.add(byteBuf);
+					segment.writeTo(out);
+					out.close();
+				}
+			}
+		} catch (IOException e) {
+			for (Object content : contents) {
+				if (content instanceof ChunkedInput) {
+					try {
+						((ChunkedInput<?>) content).close();
+					} catch (Exception ignore) {
+						;
+					}
+				} else {
+					ReferenceCountUtil.release(content);
+				}
+			}
+			throw e;
+		}
+		return contents;
 	}
 
-	private DefaultHttpRequest createRequest(HttpRequest request)
-			throws IOException {
+	private DefaultHttpRequest createRequest(HttpRequest request,
+			boolean keepAlive) throws IOException {
 		HttpMethod method = HttpMethod.valueOf(request.getMethod().name());
 		URI uri = request.getURI();
 		String url = StringUtil.isBlank(uri.getRawPath()) ? "/" : uri
@@ -129,19 +334,26 @@ public class Netty4HttpClient extends AbstractHttpClient {
 		if (StringUtil.isNotBlank(uri.getRawQuery())) {
 			url += "?" + uri.getRawQuery();
 		}
-		DefaultHttpRequest uriRequest = new DefaultHttpRequest(
+		// 使用FullHttpRequest,保证keep-alive连接上的编码器状态在每次请求后复位
+		DefaultHttpRequest uriRequest = new DefaultFullHttpRequest(
 				HttpVersion.HTTP_1_1, method, url);
 		// entity
 		HttpEntity entity = request.getEntity();
 		if (entity != null) {
-			ByteBuf byteBuf = ByteBufAllocator.DEFAULT.buffer();
-			ByteBufOutputStream out = new ByteBufOutputStream(byteBuf);
-			entity.writeTo(out);
-			out.flush();
-			out.close();
-			uriRequest = new DefaultFullHttpRequest(
-					uriRequest.getProtocolVersion(), uriRequest.getMethod(),
-					uriRequest.getUri(), byteBuf);
+			if (entity instanceof MultipartFormEntity) {
+				// 内容在请求头之后分段发送,以LastHttpContent结束
+				uriRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1,
+						method, url);
+			} else {
+				ByteBuf byteBuf = ByteBufAllocator.DEFAULT.buffer();
+				ByteBufOutputStream out = new ByteBufOutputStream(byteBuf);
+				entity.writeTo(out);
+				out.flush();
+				out.close();
+				uriRequest = new DefaultFullHttpRequest(
+						uriRequest.getProtocolVersion(),
+						uriRequest.getMethod(), uriRequest.getUri(), byteBuf);
+			}
 			if (entity.getContentType() != null) {
 				uriRequest.headers().add(HttpHeaders.CONTENT_TYPE,
 						entity.getContentType().toString());
@@ -175,8 +387,10 @@ public class Netty4HttpClient extends AbstractHttpClient {
 		}
 		uriRequest.headers().set(HttpHeaders.ACCEPT_CHARSET,
 				Consts.UTF_8.displayName());
-		uriRequest.headers().set(HttpHeaders.CONNECTION,
-				io.netty.handler.codec.http.HttpHeaders.Values.CLOSE);
+		uriRequest.headers().set(
+				HttpHeaders.CONNECTION,
+				keepAlive ? io.netty.handler.codec.http.HttpHeaders.Values.KEEP_ALIVE
+						: io.netty.handler.codec.http.HttpHeaders.Values.CLOSE);
 		return uriRequest;
 	}
 
@@ -192,33 +406,169 @@ public class Netty4HttpClient extends AbstractHttpClient {
 		return port;
 	}
 
-	private static class RequestHandler extends
-			SimpleChannelInboundHandler<FullHttpResponse> {
+	/**
+	 * 接收响应:检查状态并关闭响应(归还或关闭连接)后完成Future;
+	 * 流式读取时收到响应头即完成Future,内容逐段交给读取方,由读取方关闭响应
+	 */
+	private class RequestHandler extends SimpleChannelInboundHandler<HttpObject> {
 
-		private final SettableFuture<HttpResponse> future;
+		private final HttpRequest request;
+		private final CompletableFuture<HttpResponse> future;
+		private final Netty4ChannelPoolMap channelPools;
+		private final Netty4ChannelPoolMap.PoolKey poolKey;
+		private final boolean streaming;
+		private boolean responded;
+		private Netty4ResponseBody body;
+		/**
+		 * 本次读取是否收到了内容
+		 */
+		private boolean received;
 
-		public RequestHandler(SettableFuture<HttpResponse> future) {
+		public RequestHandler(HttpRequest request,
+				CompletableFuture<HttpResponse> future,
+				Netty4ChannelPoolMap channelPools,
+				Netty4ChannelPoolMap.PoolKey poolKey, boolean streaming) {
+			this.request = request;
 			this.future = future;
+			this.channelPools = channelPools;
+			this.poolKey = poolKey;
+			this.streaming = streaming;
 		}
 
 		@Override
 		protected void channelRead0(ChannelHandlerContext context,
-				FullHttpResponse response) throws Exception {
-			byte[] content = null;
-			ByteBuf byteBuf = response.content();
-			if (byteBuf.hasArray()) {
-				content = byteBuf.array();
+				HttpObject message) throws Exception {
+			if (streaming) {
+				readStreaming(context, message);
+			} else if (message instanceof FullHttpResponse) {
+				read(context, (FullHttpResponse) message);
+			}
+		}
+
+		private void read(ChannelHandlerContext context,
+				FullHttpResponse response) {
+			responded = true;
+			byte[] content = ByteBufUtil.getBytes(response.content());
+			if (channelPools != null) {
+				reset(context.pipeline());
+			}
+			HttpResponse httpResponse = new Netty4HttpResponse(context,
+					response, content, channelPools, poolKey);
+			Exception error = null;
+			try {
+				handleResponse(httpResponse);
+			} catch (HttpClientException e) {
+				error = e;
+			} catch (RuntimeException e) {
+				error = e;
+			} finally {
+				httpResponse.close();
+			}
+			if (error != null) {
+				future.completeExceptionally(error);
 			} else {
-				content = new byte[byteBuf.readableBytes()];
-				byteBuf.readBytes(content);
+				future.complete(httpResponse);
+			}
+		}
+
+		private void readStreaming(ChannelHandlerContext context,
+				HttpObject message) {
+			if (message instanceof io.netty.handler.codec.http.HttpResponse) {
+				responded = true;
+				// 读取方的读取速度不受读超时限制,改为在读取方等待内容时计算超时
+				removeReadTimeout(context.pipeline());
+				context.channel().config().setAutoRead(false);
+				body = new Netty4ResponseBody(context.channel(),
+						params != null ? params.getReadTimeout() : 0);
+				HttpResponse httpResponse = new Netty4HttpResponse(context,
+						(io.netty.handler.codec.http.HttpResponse) message,
+						body, channelPools, poolKey);
+				try {
+					handleResponse(httpResponse);
+					future.complete(httpResponse);
+				} catch (HttpClientException e) {
+					httpResponse.close();
+					future.completeExceptionally(e);
+				} catch (RuntimeException e) {
+					httpResponse.close();
+					future.completeExceptionally(e);
+				}
 			}
-			future.set(new Netty4HttpResponse(context, response, content));
+			if (message instanceof HttpContent && body != null) {
+				received = true;
+				ByteBuf content = ((HttpContent) message).content();
+				if (content.isReadable()) {
+					body.offer(content.retain());
+				}
+				if (message instanceof LastHttpContent && body.end()
+						&& channelPools != null) {
+					// 响应已完整:恢复连接池的pipeline,读取方关闭响应时归还连接
+					ChannelPipeline pipeline = context.pipeline();
+					reset(pipeline);
+					pipeline.addLast(new HttpObjectAggregator(Integer.MAX_VALUE));
+					context.channel().config().setAutoRead(true);
+				}
+			}
+		}
+
+		@Override
+		public void channelReadComplete(ChannelHandlerContext context)
+				throws Exception {
+			// 本次读取未得到完整的一段内容时继续读取,避免读取方一直等待
+			if (body != null && !received && !body.isEnded()) {
+				context.read();
+			}
+			received = false;
+			super.channelReadComplete(context);
+		}
+
+		/**
+		 * 请求失败:仅第一次失败时释放连接;流式读取时由读取方关闭响应释放连接
+		 */
+		void fail(Channel channel, Throwable cause) {
+			if (responded) {
+				if (body != null) {
+					body.fail(cause);
+				}
+				return;
+			}
+			if (future.completeExceptionally(resolveException(request, cause))) {
+				if (channelPools != null) {
+					reset(channel.pipeline());
+					channelPools.release(poolKey, channel, false);
+				} else {
+					channel.close();
+				}
+			}
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext context)
+				throws Exception {
+			fail(context.channel(), new ClosedChannelException());
+			super.channelInactive(context);
 		}
 
 		@Override
 		public void exceptionCaught(ChannelHandlerContext context,
 				Throwable cause) throws Exception {
-			future.setException(cause);
+			fail(context.channel(), cause);
+		}
+	}
+
+	/**
+	 * 移除单次请求的handler,使连接可以被下一个请求复用
+	 */
+	static void reset(ChannelPipeline pipeline) {
+		removeReadTimeout(pipeline);
+		if (pipeline.get(Netty4ChannelPoolMap.REQUEST_HANDLER) != null) {
+			pipeline.remove(Netty4ChannelPoolMap.REQUEST_HANDLER);
+		}
+	}
+
+	private static void removeReadTimeout(ChannelPipeline pipeline) {
+		if (pipeline.get(Netty4ChannelPoolMap.READ_TIMEOUT_HANDLER) != null) {
+			pipeline.remove(Netty4ChannelPoolMap.READ_TIMEOUT_HANDLER);
 		}
 	}
 }
@@ -31,9 +31,17 @@ import com.foxinmy.weixin4j.http.factory.HttpClientFactory;
  * @since JDK 1.6
  */
 public class Netty4HttpClientFactory extends HttpClientFactory {
+	/**
+	 * 连接池中空闲连接的默认存活时间(单位毫秒)
+	 */
+	public static final long DEFAULT_IDLE_TIME_MILLIS = 60 * 1000l;
+
 	private volatile Bootstrap bootstrap;
+	private volatile Netty4ChannelPoolMap channelPools;
 	private EventLoopGroup eventLoopGroup;
 	private Map<ChannelOption<?>, ?> options;
+	private boolean pooled;
+	private long idleTimeMillis = DEFAULT_IDLE_TIME_MILLIS;
 
 	public Netty4HttpClientFactory() {
 		this(new NioEventLoopGroup(
@@ -52,6 +60,57 @@ public class Netty4HttpClientFactory extends HttpClientFactory {
 		return this;
 	}
 
+	/**
+	 * 开启连接池模式:按host复用keep-alive连接,最大连接数由HttpParams的maxConnections和
+	 * maxConnectionsPerHost限制
+	 *
+	 * @param idleTimeMillis
+	 *            空闲连接的存活时间(单位毫秒),小于等于0时不回收空闲连接
+	 * @return
+	 */
+	public Netty4HttpClientFactory setPooled(long idleTimeMillis) {
+		this.pooled = true;
+		this.idleTimeMillis = idleTimeMillis;
+		return this;
+	}
+
+	/**
+	 * 开启连接池模式,空闲连接存活60秒
+	 *
+	 * @see #setPooled(long)
+	 */
+	public Netty4HttpClientFactory setPooled() {
+		return setPooled(DEFAULT_IDLE_TIME_MILLIS);
+	}
+
+	private Netty4ChannelPoolMap getChannelPools(HttpParams params) {
+		if (channelPools == null) {
+			synchronized (this) {
+				if (channelPools == null) {
+					Bootstrap poolBootstrap = new Bootstrap();
+					poolBootstrap.group(eventLoopGroup).channel(
+							NioSocketChannel.class);
+					if (options != null) {
+						for (Map.Entry<ChannelOption<?>, ?> option : options
+								.entrySet()) {
+							setOption(poolBootstrap, option.getKey(),
+									option.getValue());
+						}
+					}
+					channelPools = new Netty4ChannelPoolMap(poolBootstrap,
+							params, idleTimeMillis);
+				}
+			}
+		}
+		return channelPools;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> void setOption(Bootstrap bootstrap,
+			ChannelOption<T> option, Object value) {
+		bootstrap.option(option, (T) value);
+	}
+
 	private Bootstrap getBootstrap(final HttpParams params) {
 		if (bootstrap == null) {
 			bootstrap = new Bootstrap();
@@ -67,9 +126,11 @@ public class Netty4HttpClientFactory extends HttpClientFactory {
 								if (options != null) {
 									channel.config().setOptions(options);
 								}
-								pipeline.addLast(new ReadTimeoutHandler(params
-										.getReadTimeout(),
-										TimeUnit.MILLISECONDS));
+								pipeline.addLast(
+										Netty4ChannelPoolMap.READ_TIMEOUT_HANDLER,
+										new ReadTimeoutHandler(params
+												.getReadTimeout(),
+												TimeUnit.MILLISECONDS));
 							}
 							pipeline.addLast(new HttpClientCodec());
 							pipeline.addLast(new HttpContentDecompressor());
@@ -85,6 +146,9 @@ public class Netty4HttpClientFactory extends HttpClientFactory {
 
 	@Override
 	public HttpClient newInstance(HttpParams params) {
+		if (pooled) {
+			return new Netty4HttpClient(getChannelPools(params));
+		}
 		return new Netty4HttpClient(getBootstrap(params), params);
 	}
 }
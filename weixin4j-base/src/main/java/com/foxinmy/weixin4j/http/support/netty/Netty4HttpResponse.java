@@ -1,10 +1,13 @@
 package com.foxinmy.weixin4j.http.support.netty;
 
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.util.ReferenceCountUtil;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.foxinmy.weixin4j.http.AbstractHttpResponse;
 import com.foxinmy.weixin4j.http.HttpHeaders;
@@ -23,18 +26,48 @@ import com.foxinmy.weixin4j.http.HttpVersion;
 public class Netty4HttpResponse extends AbstractHttpResponse {
 
 	private final ChannelHandlerContext context;
-	private final FullHttpResponse response;
+	private final HttpResponse response;
+	/**
+	 * 流式响应的内容
+	 */
+	private final Netty4ResponseBody body;
+	/**
+	 * 连接池模式下不为空:关闭响应时归还连接而不是关闭连接
+	 */
+	private final Netty4ChannelPoolMap channelPools;
+	private final Netty4ChannelPoolMap.PoolKey poolKey;
+	private final AtomicBoolean closed = new AtomicBoolean();
 
 	private HttpVersion protocol;
 	private HttpStatus status;
 	private HttpHeaders headers;
 
 	public Netty4HttpResponse(ChannelHandlerContext context,
-			FullHttpResponse response, byte[] content) {
+			HttpResponse response, byte[] content) {
+		this(context, response, content, null, null);
+	}
+
+	public Netty4HttpResponse(ChannelHandlerContext context,
+			HttpResponse response, byte[] content,
+			Netty4ChannelPoolMap channelPools,
+			Netty4ChannelPoolMap.PoolKey poolKey) {
 		super(content);
 		this.context = context;
-		this.response = response;
-		this.response.retain();
+		this.response = ReferenceCountUtil.retain(response);
+		this.body = null;
+		this.channelPools = channelPools;
+		this.poolKey = poolKey;
+	}
+
+	Netty4HttpResponse(ChannelHandlerContext context, HttpResponse response,
+			Netty4ResponseBody body, Netty4ChannelPoolMap channelPools,
+			Netty4ChannelPoolMap.PoolKey poolKey) {
+		super(body);
+		this.context = context;
+		this.response = ReferenceCountUtil.retain(response);
+		this.body = body;
+		this.channelPools = channelPools;
+		this.poolKey = poolKey;
 	}
 
 	@Override
@@ -71,7 +104,22 @@ public class Netty4HttpResponse extends AbstractHttpResponse {
 
 	@Override
 	public void close() {
-		this.response.release();
-		this.context.close();
+		if (!closed.compareAndSet(false, true)) {
+			return;
+		}
+		boolean keepAlive = HttpUtil.isKeepAlive(response);
+		ReferenceCountUtil.release(response);
+		if (body != null && !body.release()) {
+			// 未收到全部内容:连接上还有未读取的数据,不能复用
+			keepAlive = false;
+			if (channelPools != null) {
+				Netty4HttpClient.reset(context.pipeline());
+			}
+		}
+		if (channelPools != null) {
+			channelPools.release(poolKey, context.channel(), keepAlive);
+		} else {
+			this.context.close();
+		}
 	}
 }
@@ -0,0 +1,179 @@
+package com.foxinmy.weixin4j.http.support.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.util.ReferenceCountUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式响应的内容:连接关闭autoRead,读取方取完已接收的内容后才向连接请求下一次读取,内存中只缓冲一次读取的数据;
+ * 读超时从读取方请求读取时开始计算,读取方处理内容的耗时不计入读超时
+ *
+ * @className Netty4ResponseBody
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see com.foxinmy.weixin4j.http.HttpClient#executeStreaming(com.foxinmy.weixin4j.http.HttpRequest)
+ */
+class Netty4ResponseBody extends InputStream {
+
+	private static final Object END = new Object();
+
+	private final Channel channel;
+	/**
+	 * 等待下一段内容的超时时间(单位毫秒),小于等于0时一直等待
+	 */
+	private final long readTimeout;
+	private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<Object>();
+	/**
+	 * 是否已收到全部内容或读取失败(Netty IO线程)
+	 */
+	private boolean completed;
+	private volatile boolean ended;
+	private volatile boolean closed;
+	/**
+	 * 读取方正在读取的内容
+	 */
+	private ByteBuf current;
+	private boolean finished;
+
+	Netty4ResponseBody(Channel channel, long readTimeout) {
+		this.channel = channel;
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * 接收一段内容
+	 */
+	synchronized void offer(ByteBuf chunk) {
+		if (closed || completed) {
+			chunk.release();
+			return;
+		}
+		chunks.offer(chunk);
+	}
+
+	/**
+	 * 已收到全部内容
+	 *
+	 * @return 读取方是否还未关闭
+	 */
+	synchronized boolean end() {
+		if (!completed) {
+			completed = true;
+			ended = true;
+			chunks.offer(END);
+		}
+		return !closed;
+	}
+
+	/**
+	 * 连接异常:读取方在读完已接收的内容后抛出该异常
+	 */
+	synchronized void fail(Throwable cause) {
+		if (!completed) {
+			completed = true;
+			chunks.offer(cause);
+		}
+	}
+
+	boolean isEnded() {
+		return ended;
+	}
+
+	@Override
+	public int read() throws IOException {
+		ByteBuf chunk = next();
+		return chunk != null ? chunk.readByte() & 0xff : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		ByteBuf chunk = next();
+		if (chunk == null) {
+			return -1;
+		}
+		len = Math.min(len, chunk.readableBytes());
+		chunk.readBytes(b, off, len);
+		return len;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return current != null ? current.readableBytes() : 0;
+	}
+
+	private ByteBuf next() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		while (current == null || !current.isReadable()) {
+			if (current != null) {
+				current.release();
+				current = null;
+			}
+			if (finished) {
+				return null;
+			}
+			Object chunk = chunks.poll();
+			if (chunk == null) {
+				channel.read();
+				try {
+					chunk = readTimeout > 0 ? chunks.poll(readTimeout,
+							TimeUnit.MILLISECONDS) : chunks.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+				if (chunk == null) {
+					throw new SocketTimeoutException("Read timed out");
+				}
+			}
+			if (chunk == END) {
+				finished = true;
+			} else if (chunk instanceof Throwable) {
+				finished = true;
+				throw new IOException("I/O error on read the response body",
+						(Throwable) chunk);
+			} else {
+				current = (ByteBuf) chunk;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * 关闭并释放未读取的内容
+	 *
+	 * @return 是否已收到全部内容,为false时连接不能复用
+	 */
+	synchronized boolean release() {
+		if (!closed) {
+			closed = true;
+			if (current != null) {
+				current.release();
+				current = null;
+			}
+			Object chunk;
+			while ((chunk = chunks.poll()) != null) {
+				ReferenceCountUtil.release(chunk);
+			}
+		}
+		return ended;
+	}
+
+	@Override
+	public void close() {
+		release();
+	}
+}
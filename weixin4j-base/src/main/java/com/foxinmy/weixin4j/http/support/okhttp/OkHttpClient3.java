@@ -4,7 +4,10 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
@@ -36,25 +39,87 @@ public class OkHttpClient3 extends AbstractHttpClient {
 
 	@Override
 	public HttpResponse execute(HttpRequest request) throws HttpClientException {
+		return execute(request, false);
+	}
+
+	@Override
+	public HttpResponse executeStreaming(HttpRequest request)
+			throws HttpClientException {
+		return execute(request, true);
+	}
+
+	private HttpResponse execute(HttpRequest request, boolean streaming)
+			throws HttpClientException {
 		HttpResponse response = null;
+		boolean completed = false;
 		try {
 			okhttp3.Request okRequest = createRequest(request);
 			okhttp3.Response okResponse = okClient.newCall(okRequest).execute();
-			response = new OkHttpResponse3(okResponse, okResponse.body()
-					.bytes());
+			response = streaming ? new OkHttpResponse3(okResponse, okResponse
+					.body().byteStream()) : new OkHttpResponse3(okResponse,
+					okResponse.body().bytes());
 			handleResponse(response);
+			completed = true;
 		} catch (IOException e) {
 			throw new HttpClientException("I/O error on "
 					+ request.getMethod().name() + " request for \""
 					+ request.getURI().toString(), e);
 		} finally {
-			if (response != null) {
+			// 流式响应由调用者读取后关闭
+			if (response != null && (!streaming || !completed)) {
 				response.close();
 			}
 		}
 		return response;
 	}
 
+	/**
+	 * 使用OkHttp的Dispatcher异步执行请求,Future在OkHttp的回调线程中完成
+	 */
+	@Override
+	public CompletableFuture<HttpResponse> executeAsync(
+			final HttpRequest request) {
+		final CompletableFuture<HttpResponse> future = new CompletableFuture<HttpResponse>();
+		okhttp3.Request okRequest;
+		try {
+			okRequest = createRequest(request);
+		} catch (HttpClientException e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+		okClient.newCall(okRequest).enqueue(new Callback() {
+			@Override
+			public void onFailure(Call call, IOException e) {
+				future.completeExceptionally(resolveException(request, e));
+			}
+
+			@Override
+			public void onResponse(Call call, okhttp3.Response okResponse) {
+				HttpResponse response = null;
+				try {
+					response = new OkHttpResponse3(okResponse, okResponse
+							.body().bytes());
+					handleResponse(response);
+					future.complete(response);
+				} catch (IOException e) {
+					future.completeExceptionally(resolveException(request, e));
+				} catch (HttpClientException e) {
+					future.completeExceptionally(e);
+				} catch (RuntimeException e) {
+					// OkHttp的回调线程会吞掉异常,须在此完成Future
+					future.completeExceptionally(e);
+				} finally {
+					if (response != null) {
+						response.close();
+					} else {
+						okResponse.close();
+					}
+				}
+			}
+		});
+		return future;
+	}
+
 	/**
 	 * create OkRequest
 	 */
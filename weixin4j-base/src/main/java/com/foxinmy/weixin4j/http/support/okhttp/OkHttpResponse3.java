@@ -1,5 +1,7 @@
 package com.foxinmy.weixin4j.http.support.okhttp;
 
+import java.io.InputStream;
+
 import okhttp3.Protocol;
 
 import com.foxinmy.weixin4j.http.AbstractHttpResponse;
@@ -26,6 +28,11 @@ public class OkHttpResponse3 extends AbstractHttpResponse {
 		this.response = response;
 	}
 
+	public OkHttpResponse3(okhttp3.Response response, InputStream body) {
+		super(body);
+		this.response = response;
+	}
+
 	@Override
 	public HttpHeaders getHeaders() {
 		if (this.headers == null) {
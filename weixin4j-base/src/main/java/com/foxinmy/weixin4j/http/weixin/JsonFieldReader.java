@@ -0,0 +1,27 @@
+package com.foxinmy.weixin4j.http.weixin;
+
+import com.alibaba.fastjson.JSONReader;
+
+/**
+ * 流式读取json响应的顶层字段:列表等较大的字段可逐个元素读取,无需先生成JSONObject
+ *
+ * @className JsonFieldReader
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinResponse#readAsJson(JsonFieldReader)
+ */
+public interface JsonFieldReader {
+
+	/**
+	 * 读取字段的值
+	 *
+	 * @param name
+	 *            字段名
+	 * @param reader
+	 *            位于字段值之前的reader,如:
+	 *            <code>reader.startArray();while(reader.hasNext()){reader.readObject(clazz)}reader.endArray();</code>
+	 * @return 是否已读取完整的值,为false时该值会被跳过
+	 */
+	boolean read(String name, JSONReader reader);
+}
@@ -9,6 +9,9 @@ import java.security.interfaces.RSAPrivateKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -34,7 +37,6 @@ import com.foxinmy.weixin4j.http.entity.FormUrlEntity;
 import com.foxinmy.weixin4j.http.entity.HttpEntity;
 import com.foxinmy.weixin4j.http.entity.StringEntity;
 import com.foxinmy.weixin4j.http.factory.HttpClientFactory;
-import com.foxinmy.weixin4j.http.message.XmlMessageConverter;
 import com.foxinmy.weixin4j.logging.InternalLogLevel;
 import com.foxinmy.weixin4j.logging.InternalLogger;
 import com.foxinmy.weixin4j.logging.InternalLoggerFactory;
@@ -132,14 +134,18 @@ public class WeixinRequestExecutor {
 	 */
 	public WeixinResponse get(String url, URLParameter... parameters)
 			throws WeixinException {
+		return doRequest(createGetRequest(url, parameters));
+	}
+
+	private HttpRequest createGetRequest(String url,
+			URLParameter... parameters) {
 		// always contain the question mark
 		StringBuilder buf = new StringBuilder(url);
 		if (parameters != null && parameters.length > 0) {
 			buf.append("&").append(
 					FormUrlEntity.formatParameters(Arrays.asList(parameters)));
 		}
-		HttpRequest request = new HttpRequest(HttpMethod.GET, buf.toString());
-		return doRequest(request);
+		return new HttpRequest(HttpMethod.GET, buf.toString());
 	}
 
 	/**
@@ -152,15 +158,7 @@ public class WeixinRequestExecutor {
 	 */
 	public WeixinResponse doRequest(HttpRequest request) throws WeixinException {
 		try {
-			if (logger.isEnabled(InternalLogLevel.DEBUG)) {
-				logger.debug("weixin request >> "
-						+ request.getMethod()
-						+ " "
-						+ request.getURI().toString()
-						+ (request.getEntity() instanceof StringEntity ? " >> "
-								+ ((StringEntity) request.getEntity())
-										.getContentString() : ""));
-			}
+			logRequest(request);
 			HttpResponse httpResponse = httpClient.execute(request);
 			WeixinResponse response = new WeixinResponse(httpResponse);
 			handleResponse(response);
@@ -170,6 +168,121 @@ public class WeixinRequestExecutor {
 		}
 	}
 
+	/**
+	 * 流式执行微信请求:响应内容为流(如媒体文件)时不读入内存,通过{@link WeixinResponse#getBody()}
+	 * 读取,读取后须关闭响应
+	 * 
+	 * @param request
+	 *            微信请求
+	 * @return 微信响应
+	 * @throws WeixinException
+	 * @see com.foxinmy.weixin4j.http.HttpClient#executeStreaming(HttpRequest)
+	 */
+	public WeixinResponse doStreamingRequest(HttpRequest request)
+			throws WeixinException {
+		logRequest(request);
+		HttpResponse httpResponse;
+		try {
+			httpResponse = httpClient.executeStreaming(request);
+		} catch (HttpClientException e) {
+			throw new WeixinException(e);
+		}
+		WeixinResponse response = new WeixinResponse(httpResponse);
+		boolean completed = false;
+		try {
+			handleResponse(response);
+			completed = true;
+		} finally {
+			if (!completed) {
+				response.close();
+			}
+		}
+		return response;
+	}
+
+	/**
+	 * Post方法异步执行微信请求
+	 * 
+	 * @param url
+	 *            请求URL
+	 * @param body
+	 *            参数内容
+	 * @return 微信响应的Future,失败时以CompletionException(WeixinException)结束
+	 * @see #doRequestAsync(HttpRequest)
+	 */
+	public CompletableFuture<WeixinResponse> postAsync(String url, String body) {
+		HttpEntity entity = new StringEntity(body);
+		HttpRequest request = new HttpRequest(HttpMethod.POST, url);
+		request.setEntity(entity);
+		return doRequestAsync(request);
+	}
+
+	/**
+	 * Get方法异步执行微信请求
+	 * 
+	 * @param url
+	 *            请求URL
+	 * @param parameters
+	 *            url上的参数
+	 * @return 微信响应的Future,失败时以CompletionException(WeixinException)结束
+	 * @see #doRequestAsync(HttpRequest)
+	 */
+	public CompletableFuture<WeixinResponse> getAsync(String url,
+			URLParameter... parameters) {
+		return doRequestAsync(createGetRequest(url, parameters));
+	}
+
+	/**
+	 * 异步执行微信请求:响应的错误码检查在请求完成时执行,不占用调用线程
+	 * 
+	 * @param request
+	 *            微信请求
+	 * @return 微信响应的Future,失败时以CompletionException(WeixinException)结束
+	 */
+	public CompletableFuture<WeixinResponse> doRequestAsync(HttpRequest request) {
+		logRequest(request);
+		return httpClient.executeAsync(request).handle(
+				new BiFunction<HttpResponse, Throwable, WeixinResponse>() {
+					@Override
+					public WeixinResponse apply(HttpResponse httpResponse,
+							Throwable cause) {
+						if (cause != null) {
+							throw new CompletionException(resolveCause(cause));
+						}
+						WeixinResponse response = new WeixinResponse(
+								httpResponse);
+						try {
+							handleResponse(response);
+						} catch (WeixinException e) {
+							throw new CompletionException(e);
+						}
+						return response;
+					}
+				});
+	}
+
+	private WeixinException resolveCause(Throwable cause) {
+		if (cause instanceof CompletionException && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof WeixinException) {
+			return (WeixinException) cause;
+		}
+		return new WeixinException(cause);
+	}
+
+	private void logRequest(HttpRequest request) {
+		if (logger.isEnabled(InternalLogLevel.DEBUG)) {
+			logger.debug("weixin request >> "
+					+ request.getMethod()
+					+ " "
+					+ request.getURI().toString()
+					+ (request.getEntity() instanceof StringEntity ? " >> "
+							+ ((StringEntity) request.getEntity())
+									.getContentString() : ""));
+		}
+	}
+
 	/**
 	 * 响应内容是否为流
 	 * 
@@ -178,8 +291,7 @@ public class WeixinRequestExecutor {
 	 * @return true/false
 	 */
 	private boolean hasStreamMimeType(WeixinResponse response) {
-		MimeType responseMimeType = MimeType.valueOf(response.getHeaders()
-				.getContentType());
+		MimeType responseMimeType = response.getMimeType();
 		for (MimeType streamMimeType : MimeType.STREAM_MIMETYPES) {
 			if (streamMimeType.includes(responseMimeType)) {
 				return true;
@@ -215,20 +327,15 @@ public class WeixinRequestExecutor {
 			throw new WeixinException(result.getReturnCode(),
 					result.getReturnMsg());
 		}
-		if (XmlMessageConverter.GLOBAL.canConvert(XmlResult.class, response)) {
-			try {
-				XmlResult xmlResult = XmlMessageConverter.GLOBAL.convert(
-						XmlResult.class, response);
-				// 微信最新的刷脸支付API中已没有返回resultCode，需做非空判断，否则抛异常
-				if(StringUtil.isNotBlank(xmlResult.getResultCode())) {
-					if (!SUCCESS_CODE.contains(String.format(",%s,", xmlResult
-							.getResultCode().toLowerCase()))) {
-						throw new WeixinException(xmlResult.getErrCode(),
-								xmlResult.getErrCodeDes());
-					}
+		if (response.isXml()) {
+			XmlResult xmlResult = response.getAsXml();
+			// 微信最新的刷脸支付API中已没有返回resultCode，需做非空判断，否则抛异常
+			if(StringUtil.isNotBlank(xmlResult.getResultCode())) {
+				if (!SUCCESS_CODE.contains(String.format(",%s,", xmlResult
+						.getResultCode().toLowerCase()))) {
+					throw new WeixinException(xmlResult.getErrCode(),
+							xmlResult.getErrCodeDes());
 				}
-			} catch (IOException e) {
-				;
 			}
 		}
 	}
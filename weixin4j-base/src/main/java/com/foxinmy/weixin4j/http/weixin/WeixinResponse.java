@@ -1,24 +1,52 @@
 package com.foxinmy.weixin4j.http.weixin;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.alibaba.fastjson.JSONException;
 import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.JSONReader;
 import com.alibaba.fastjson.TypeReference;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.JSONToken;
+import com.alibaba.fastjson.util.ParameterizedTypeImpl;
 import com.foxinmy.weixin4j.http.HttpHeaders;
 import com.foxinmy.weixin4j.http.HttpResponse;
 import com.foxinmy.weixin4j.http.HttpStatus;
 import com.foxinmy.weixin4j.http.HttpVersion;
+import com.foxinmy.weixin4j.http.MimeType;
 import com.foxinmy.weixin4j.http.message.JsonMessageConverter;
 import com.foxinmy.weixin4j.http.message.MessageConverter;
 import com.foxinmy.weixin4j.http.message.XmlMessageConverter;
+import com.foxinmy.weixin4j.util.Consts;
 import com.foxinmy.weixin4j.util.StringUtil;
 
 /**
  * 调用微信接口响应
- * 
+ * <p>
+ * 响应内容只解析一次:json响应解析为JSONObject,xml响应解析为根节点下各子节点的文本,
+ * 错误码的检查与getAsResult/getAsJson/getAsXml都复用同一份解析结果
+ * </p>
+ * <p>
+ * 较大的json响应(如关注者列表)在检查错误码时只扫描顶层的errcode/errmsg,不生成JSONObject;
+ * 其中的列表可通过getAsList/readAsJson流式读取
+ * </p>
+ *
  * @className WeixinResponse
  * @author jinyu
  * @date Jul 21, 2016
@@ -29,16 +57,33 @@ public class WeixinResponse implements HttpResponse {
 	private volatile String text;
 	private final HttpResponse response;
 	private static List<MessageConverter> messageConverters = new ArrayList<MessageConverter>();
-	private final TypeReference<ApiResult> APIRESULT_CLAZZ = new TypeReference<ApiResult>() {
-	};
-	private final TypeReference<XmlResult> XMLRESULT_CLAZZ = new TypeReference<XmlResult>() {
-	};
-	private final TypeReference<JSONObject> JSONOBJECT_CLAZZ = new TypeReference<JSONObject>() {
-	};
+	private static final JsonMessageConverter JSON_CONVERTER = new JsonMessageConverter();
+	private static final XmlMessageConverter XML_CONVERTER = new XmlMessageConverter();
+	private static final XMLInputFactory XML_INPUT_FACTORY;
+	/**
+	 * 检查错误码时直接解析为JSONObject的内容上限(字节)
+	 */
+	private static final int JSON_TREE_LIMIT = 8 * 1024;
+
+	private volatile boolean mimeTypeResolved;
+	private volatile MimeType mimeType;
+	private volatile boolean resolved;
+	private volatile MessageConverter messageConverter;
+	private volatile JSONObject json;
+	private volatile Map<String, String> xml;
+	private volatile ApiResult result;
+	private volatile XmlResult xmlResult;
 
 	static {
-		messageConverters.add(new JsonMessageConverter());
-		messageConverters.add(new XmlMessageConverter());
+		messageConverters.add(JSON_CONVERTER);
+		messageConverters.add(XML_CONVERTER);
+		XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING,
+				Boolean.TRUE);
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD,
+				Boolean.FALSE);
+		XML_INPUT_FACTORY.setProperty(
+				XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
 	}
 
 	public WeixinResponse(HttpResponse response) {
@@ -52,29 +97,259 @@ public class WeixinResponse implements HttpResponse {
 		return text;
 	}
 
+	/**
+	 * 响应的媒体类型
+	 *
+	 * @return 没有Content-Type时为null
+	 */
+	public MimeType getMimeType() {
+		if (!mimeTypeResolved) {
+			mimeType = MimeType.valueOf(response.getHeaders()
+					.getContentType());
+			mimeTypeResolved = true;
+		}
+		return mimeType;
+	}
+
+	/**
+	 * 响应是否为xml:微信支付的接口大多如此
+	 *
+	 * @return true/false
+	 */
+	public boolean isXml() {
+		resolve();
+		return messageConverter == XML_CONVERTER;
+	}
+
+	/**
+	 * 确定对应的转换器(转换器按媒体类型与内容判断,与要转换的类无关)
+	 */
+	private void resolve() {
+		if (!resolved) {
+			for (MessageConverter messageConverter : messageConverters) {
+				if (messageConverter.canConvert(ApiResult.class, response)) {
+					this.messageConverter = messageConverter;
+					break;
+				}
+			}
+			resolved = true;
+		}
+	}
+
 	public ApiResult getAsResult() {
-		return getAsObject(APIRESULT_CLAZZ);
+		if (result == null) {
+			resolve();
+			ApiResult result = new ApiResult();
+			if (messageConverter == JSON_CONVERTER) {
+				if (json == null && getContent().length > JSON_TREE_LIMIT) {
+					scanResult(result);
+				} else {
+					JSONObject json = getAsJson();
+					if (json.containsKey("errcode")) {
+						result.setReturnCode(json.getString("errcode"));
+					}
+					if (json.containsKey("errmsg")) {
+						result.setReturnMsg(json.getString("errmsg"));
+					}
+				}
+			} else if (messageConverter == XML_CONVERTER) {
+				Map<String, String> xml = getAsXmlMap();
+				if (xml.containsKey("return_code")) {
+					result.setReturnCode(xml.get("return_code"));
+				}
+				if (xml.containsKey("return_msg")) {
+					result.setReturnMsg(xml.get("return_msg"));
+				}
+			}
+			this.result = result;
+		}
+		return result;
+	}
+
+	/**
+	 * 扫描顶层的errcode/errmsg,跳过其余字段的值(只做词法分析,不生成对象)
+	 */
+	private void scanResult(ApiResult result) {
+		JSONLexer lexer = new JSONReaderScanner(jsonReader());
+		try {
+			lexer.nextToken();
+			if (lexer.token() != JSONToken.LBRACE) {
+				throw new JSONException("syntax error, expect {, actual "
+						+ JSONToken.name(lexer.token()));
+			}
+			lexer.nextToken();
+			while (lexer.token() == JSONToken.LITERAL_STRING) {
+				String name = lexer.stringVal();
+				lexer.nextTokenWithColon();
+				if ("errcode".equals(name)) {
+					result.setReturnCode(scalarValue(lexer));
+				} else if ("errmsg".equals(name)) {
+					result.setReturnMsg(scalarValue(lexer));
+				} else {
+					skipValue(lexer);
+				}
+				if (lexer.token() != JSONToken.COMMA) {
+					break;
+				}
+				lexer.nextToken();
+			}
+		} finally {
+			lexer.close();
+		}
+	}
+
+	private static String scalarValue(JSONLexer lexer) {
+		String value;
+		int token = lexer.token();
+		if (token == JSONToken.LITERAL_STRING) {
+			value = lexer.stringVal();
+		} else if (token == JSONToken.LITERAL_INT
+				|| token == JSONToken.LITERAL_FLOAT) {
+			value = lexer.numberString();
+		} else if (token == JSONToken.NULL) {
+			value = null;
+		} else {
+			skipValue(lexer);
+			return null;
+		}
+		lexer.nextToken();
+		return value;
+	}
+
+	private static void skipValue(JSONLexer lexer) {
+		int depth = 0;
+		do {
+			int token = lexer.token();
+			if (token == JSONToken.LBRACE || token == JSONToken.LBRACKET) {
+				depth++;
+			} else if (token == JSONToken.RBRACE
+					|| token == JSONToken.RBRACKET) {
+				depth--;
+			} else if (token == JSONToken.EOF) {
+				throw new JSONException("unclosed json");
+			}
+			lexer.nextToken();
+		} while (depth > 0);
+	}
+
+	private Reader jsonReader() {
+		return new InputStreamReader(new ByteArrayInputStream(getContent()),
+				Consts.UTF_8);
 	}
 
+	/**
+	 * 流式读取json响应的顶层字段,不生成整个响应的JSONObject
+	 *
+	 * @param fieldReader
+	 *            字段的读取
+	 */
+	public void readAsJson(JsonFieldReader fieldReader) {
+		JSONReader reader = new JSONReader(new JSONReaderScanner(jsonReader()));
+		try {
+			reader.startObject();
+			while (reader.hasNext()) {
+				String name = reader.readString();
+				if (!fieldReader.read(name, reader)) {
+					reader.readObject();
+				}
+			}
+			reader.endObject();
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * 流式读取json响应中顶层的数组字段,如:{"errcode":0,"userlist":[...]}
+	 *
+	 * @param name
+	 *            字段名
+	 * @param clazz
+	 *            元素的类型
+	 * @return 字段不存在或为null时返回null
+	 */
+	public <T> List<T> getAsList(final String name, Class<T> clazz) {
+		final Type listType = new ParameterizedTypeImpl(new Type[] { clazz },
+				null, List.class);
+		final List<List<T>> holder = new ArrayList<List<T>>(1);
+		readAsJson(new JsonFieldReader() {
+			@Override
+			public boolean read(String fieldName, JSONReader reader) {
+				if (!name.equals(fieldName)) {
+					return false;
+				}
+				List<T> list = reader.readObject(listType);
+				holder.add(list);
+				return true;
+			}
+		});
+		return holder.isEmpty() ? null : holder.get(0);
+	}
+
+	/**
+	 * json响应的内容,多次调用返回同一个对象
+	 */
 	public JSONObject getAsJson() {
-		return getAsObject(JSONOBJECT_CLAZZ);
+		if (json == null) {
+			resolve();
+			json = convert(JSONObject.class);
+		}
+		return json;
 	}
 
 	public XmlResult getAsXml() {
-		return getAsObject(XMLRESULT_CLAZZ);
+		if (xmlResult == null) {
+			if (isXml()) {
+				Map<String, String> xml = getAsXmlMap();
+				XmlResult xmlResult = new XmlResult(xml.get("return_code"),
+						xml.get("return_msg"));
+				xmlResult.setResultCode(xml.get("result_code"));
+				xmlResult.setErrCode(xml.get("err_code"));
+				xmlResult.setErrCodeDes(xml.get("err_code_des"));
+				this.xmlResult = xmlResult;
+			} else {
+				xmlResult = convert(XmlResult.class);
+			}
+		}
+		return xmlResult;
+	}
+
+	/**
+	 * xml响应中根节点下各子节点的文本,多次调用返回同一个对象
+	 *
+	 * @return 不可修改的Map,非xml响应时为空
+	 */
+	public Map<String, String> getAsXmlMap() {
+		if (xml == null) {
+			xml = isXml() ? parseXml(getContent()) : Collections
+					.<String, String> emptyMap();
+		}
+		return xml;
 	}
 
 	@SuppressWarnings("unchecked")
 	public <T> T getAsObject(TypeReference<T> typeReference) {
 		Class<T> clazz = (Class<T>) typeReference.getType();
-		for (MessageConverter messageConverter : messageConverters) {
-			if (messageConverter.canConvert(clazz, response)) {
-				try {
-					return messageConverter.convert(clazz, response);
-				} catch (IOException e) {
-					throw new RuntimeException("IO error on convert to "
-							+ clazz, e);
-				}
+		if (clazz == ApiResult.class) {
+			return (T) getAsResult();
+		}
+		if (clazz == JSONObject.class) {
+			return (T) getAsJson();
+		}
+		if (clazz == XmlResult.class) {
+			return (T) getAsXml();
+		}
+		resolve();
+		return convert(clazz);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T convert(Class<T> clazz) {
+		if (messageConverter != null) {
+			try {
+				return messageConverter.convert(clazz, response);
+			} catch (IOException e) {
+				throw new RuntimeException("IO error on convert to " + clazz, e);
 			}
 		}
 		if (clazz.isAssignableFrom(ApiResult.class)) {
@@ -83,6 +358,49 @@ public class WeixinResponse implements HttpResponse {
 		throw new RuntimeException("cannot convert to " + clazz);
 	}
 
+	/**
+	 * 读取根节点下各子节点的文本(CDATA与普通文本一致),更深层的节点不予读取
+	 */
+	private static Map<String, String> parseXml(byte[] content) {
+		Map<String, String> xml = new HashMap<String, String>();
+		XMLStreamReader xr = null;
+		try {
+			xr = XML_INPUT_FACTORY
+					.createXMLStreamReader(new ByteArrayInputStream(content));
+			int depth = 0;
+			String name = null;
+			StringBuilder value = new StringBuilder();
+			while (xr.hasNext()) {
+				int event = xr.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					if (++depth == 2) {
+						name = xr.getLocalName();
+						value.setLength(0);
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					if (depth-- == 2) {
+						xml.put(name, value.toString());
+					}
+				} else if (depth == 2
+						&& (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+					value.append(xr.getTextCharacters(), xr.getTextStart(),
+							xr.getTextLength());
+				}
+			}
+		} catch (XMLStreamException e) {
+			throw new RuntimeException("cannot parse the xml response", e);
+		} finally {
+			if (xr != null) {
+				try {
+					xr.close();
+				} catch (XMLStreamException e) {
+					;
+				}
+			}
+		}
+		return Collections.unmodifiableMap(xml);
+	}
+
 	@Override
 	public HttpHeaders getHeaders() {
 		return response.getHeaders();
@@ -3,6 +3,8 @@ package com.foxinmy.weixin4j.model;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.alibaba.fastjson.annotation.JSONCreator;
+import com.alibaba.fastjson.annotation.JSONField;
 import com.foxinmy.weixin4j.cache.Cacheable;
 
 /**
@@ -71,10 +73,32 @@ public class Token implements Cacheable {
 	 *            创建时间戳 单位毫秒
 	 */
 	public Token(String accessToken, long expires, long createTime) {
+		this(accessToken, expires, createTime, null);
+	}
+
+	/**
+	 *
+	 * @param accessToken
+	 *            凭证字符串
+	 * @param expires
+	 *            过期时间 单位毫秒
+	 * @param createTime
+	 *            创建时间戳 单位毫秒
+	 * @param extra
+	 *            扩展信息
+	 */
+	@JSONCreator
+	public Token(@JSONField(name = "accessToken") String accessToken,
+			@JSONField(name = "expires") long expires,
+			@JSONField(name = "createTime") long createTime,
+			@JSONField(name = "extra") Map<String, String> extra) {
 		this.accessToken = accessToken;
 		this.expires = expires;
 		this.createTime = createTime;
 		this.extra = new HashMap<String, String>();
+		if (extra != null) {
+			this.extra.putAll(extra);
+		}
 	}
 
 	public String getAccessToken() {
@@ -17,7 +17,7 @@ public class MediaDownloadResult implements Serializable {
 
 	private static final long serialVersionUID = -7090523911701729058L;
 	/**
-	 * 内容
+	 * 内容:下载到输出流或文件时为空
 	 */
 	private byte[] content;
 	/**
@@ -27,6 +27,12 @@ public class TokenManager extends CacheManager<Token> {
         super(tokenCreator, cacheStorager);
     }
 
+    @Override
+    public TokenManager enableRefreshAhead(float ratio) {
+        super.enableRefreshAhead(ratio);
+        return this;
+    }
+
     /**
      * 获取token字符串
      *
@@ -21,6 +21,10 @@ import java.util.Map.Entry;
 public class FileUtil {
 
     private final static Map<String, String> FILE_TYPE_MAP = new HashMap<String, String>();
+    /**
+     * 判断文件类型读取的字节数
+     */
+    private final static int FILE_HEAD_SIZE = 10;
 
     static {
         FILE_TYPE_MAP.put("ffd8ffe000104a464946", "jpg");
@@ -105,17 +109,10 @@ public class FileUtil {
     public static String getFileType(InputStream is) {
         String fileType = "file";
         try {
-            byte[] b = new byte[10];
+            byte[] b = new byte[FILE_HEAD_SIZE];
             int t = is.read(b, 0, b.length);
             if (t > 0) {
-                String fileCode = bytesToHexString(b).toLowerCase();
-                for (Entry<String, String> entry : FILE_TYPE_MAP.entrySet()) {
-                    String key = entry.getKey().toLowerCase();
-                    if (key.startsWith(fileCode) || fileCode.startsWith(key) || key.endsWith(fileCode) || fileCode.endsWith(key)) {
-                        fileType = entry.getValue();
-                        break;
-                    }
-                }
+                fileType = getFileType(b);
             }
         } catch (IOException e) {
             ;
@@ -131,6 +128,40 @@ public class FileUtil {
         return fileType;
     }
 
+    /**
+     * 读取流开头的字节获取文件类型,读取后复位:流的内容仍可完整读取
+     *
+     * @param is 支持mark的流(如BufferedInputStream)
+     */
+    public static String peekFileType(InputStream is) throws IOException {
+        if (!is.markSupported()) {
+            throw new IllegalArgumentException("mark/reset not supported");
+        }
+        byte[] b = new byte[FILE_HEAD_SIZE];
+        is.mark(b.length);
+        int t = 0;
+        try {
+            int n = 0;
+            while (t < b.length && (n = is.read(b, t, b.length - t)) != -1) {
+                t += n;
+            }
+        } finally {
+            is.reset();
+        }
+        return t > 0 ? getFileType(b) : "file";
+    }
+
+    private static String getFileType(byte[] head) {
+        String fileCode = bytesToHexString(head).toLowerCase();
+        for (Entry<String, String> entry : FILE_TYPE_MAP.entrySet()) {
+            String key = entry.getKey().toLowerCase();
+            if (key.startsWith(fileCode) || fileCode.startsWith(key) || key.endsWith(fileCode) || fileCode.endsWith(key)) {
+                return entry.getValue();
+            }
+        }
+        return "file";
+    }
+
     /**
      * 获取文件后缀
      */
@@ -1,14 +1,21 @@
 package com.foxinmy.weixin4j.util;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * IOUtil
@@ -23,6 +30,7 @@ public class IOUtil {
 
     private static final int EOF                 = -1;
     private static final int DEFAULT_BUFFER_SIZE = 1024 * 4;
+    private static final long TRANSFER_SIZE       = 1024 * 64;
 
     public static byte[] toByteArray(Reader input) throws IOException {
         return toByteArray(input, Charset.defaultCharset());
@@ -59,6 +67,46 @@ public class IOUtil {
         return count;
     }
 
+    /**
+     * 流中剩余内容的长度:仅文件流与字节数组流可以确定
+     *
+     * @param input 输入流
+     * @return 剩余的字节数,无法确定时返回-1
+     */
+    public static long remaining(InputStream input) throws IOException {
+        if (input instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) input).getChannel();
+            return channel.size() - channel.position();
+        }
+        if (input instanceof ByteArrayInputStream) {
+            return input.available();
+        }
+        return -1;
+    }
+
+    /**
+     * 将流写入文件:通过FileChannel.transferFrom分块写入,不在内存中缓冲整个内容
+     *
+     * @param input 输入流
+     * @param path 文件路径,已存在时覆盖
+     * @return 写入的字节数
+     */
+    public static long copy(InputStream input, Path path) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(input);
+        FileChannel target = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            long count = 0;
+            long n = 0;
+            while ((n = target.transferFrom(source, count, TRANSFER_SIZE)) > 0) {
+                count += n;
+            }
+            return count;
+        } finally {
+            target.close();
+        }
+    }
+
     public static byte[] toByteArray(InputStream input) throws IOException {
         ByteArrayOutputStream output = new ByteArrayOutputStream();
         copyLarge(input, output, new byte[DEFAULT_BUFFER_SIZE]);
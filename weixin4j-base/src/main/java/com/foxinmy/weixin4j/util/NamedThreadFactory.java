@@ -0,0 +1,37 @@
+package com.foxinmy.weixin4j.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 带名称前缀的线程工厂,默认创建守护线程
+ *
+ * @className NamedThreadFactory
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月16日
+ * @since JDK 1.8
+ * @see
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+	private final String prefix;
+	private final boolean daemon;
+	private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+	public NamedThreadFactory(String prefix) {
+		this(prefix, true);
+	}
+
+	public NamedThreadFactory(String prefix, boolean daemon) {
+		this.prefix = prefix;
+		this.daemon = daemon;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, prefix + "-"
+				+ threadNumber.getAndIncrement());
+		thread.setDaemon(daemon);
+		return thread;
+	}
+}
@@ -1,5 +1,7 @@
 package com.foxinmy.weixin4j.util;
 
+import java.io.File;
+import java.net.URL;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.logging.Level;
@@ -23,7 +25,10 @@ public class Weixin4jConfigUtil {
     private static ResourceBundle weixinBundle;
     static {
         CLASSLOADER = Thread.currentThread().getContextClassLoader();
-        CLASSPATH_VALUE = CLASSLOADER.getResource("").getPath();
+        // 只有jar包的classpath(如可执行jar)没有根目录,以工作目录代替
+        URL classpath = CLASSLOADER.getResource("");
+        CLASSPATH_VALUE = classpath != null ? classpath.getPath()
+                : System.getProperty("user.dir") + File.separator;
         try {
             weixinBundle = ResourceBundle.getBundle(Consts.WEIXIN4J);
         } catch (MissingResourceException e) {
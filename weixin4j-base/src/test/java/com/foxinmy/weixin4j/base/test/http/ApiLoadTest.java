@@ -0,0 +1,248 @@
+package com.foxinmy.weixin4j.base.test.http;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.fastjson.JSONObject;
+import com.foxinmy.weixin4j.cache.MemoryCacheStorager;
+import com.foxinmy.weixin4j.exception.WeixinException;
+import com.foxinmy.weixin4j.http.HttpParams;
+import com.foxinmy.weixin4j.http.URLParameter;
+import com.foxinmy.weixin4j.http.factory.HttpClientFactory;
+import com.foxinmy.weixin4j.http.factory.SimpleHttpClientFactory;
+import com.foxinmy.weixin4j.http.support.apache4.HttpComponent4Factory;
+import com.foxinmy.weixin4j.http.support.netty.Netty4HttpClientFactory;
+import com.foxinmy.weixin4j.http.support.okhttp.OkHttpClient3Factory;
+import com.foxinmy.weixin4j.http.weixin.WeixinRequestExecutor;
+import com.foxinmy.weixin4j.model.Token;
+import com.foxinmy.weixin4j.token.TokenCreator;
+import com.foxinmy.weixin4j.token.TokenManager;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+
+/**
+ * 接口调用的压力测试:通过各个HttpClientFactory并发调用模拟的微信API服务,
+ * 输出吞吐量与p50/p99延时
+ *
+ * <pre>
+ * java -Dweixin4j.loadtest.concurrency=64 -Dweixin4j.loadtest.requests=20000
+ *      -Dweixin4j.loadtest.latency=20 -Dweixin4j.loadtest.errcode=45009
+ *      -Dweixin4j.loadtest.errorRate=0.01 -Dweixin4j.loadtest.payload=256 ApiLoadTest
+ * </pre>
+ *
+ * @className ApiLoadTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see FakeWeixinServer
+ */
+public class ApiLoadTest {
+
+	private static final String OPENID = "o6_bmjrPTlm6_2sgVt7hMZOPfL2M";
+	private static final String TEMPLATE = "{\"touser\":\"" + OPENID
+			+ "\",\"template_id\":\"ngqIpbwh8bUfcSsECmogfXcV14J0tQlEpBO27izEYtY\","
+			+ "\"url\":\"http://weixin.qq.com/download\",\"data\":{\"first\":{\"value\":\"恭喜你购买成功!\"}}}";
+	private static final String ORDERQUERY = "<xml><appid>wx2421b1c4370ec43b</appid><mch_id>10000100</mch_id>"
+			+ "<nonce_str>ec2316275641faa3aacf3cc599e8730f</nonce_str>"
+			+ "<transaction_id>1008450740201411110005820873</transaction_id>"
+			+ "<sign>FDD167FAA73459FD921B144BAF4F4CA2</sign></xml>";
+
+	private final String baseUrl;
+	private final int concurrency;
+	private final int requests;
+
+	public ApiLoadTest(String baseUrl, int concurrency, int requests) {
+		this.baseUrl = baseUrl;
+		this.concurrency = concurrency;
+		this.requests = requests;
+	}
+
+	public void run(String name, HttpClientFactory httpClientFactory)
+			throws InterruptedException {
+		HttpParams params = new HttpParams(5000, 15000, concurrency,
+				concurrency);
+		HttpClientFactory.setDefaultFactory(httpClientFactory);
+		HttpClientFactory.setDefaultParams(params);
+		WeixinRequestExecutor weixinExecutor = new WeixinRequestExecutor(
+				params);
+		MemoryCacheStorager<Token> cacheStorager = new MemoryCacheStorager<Token>();
+		TokenManager tokenManager = new TokenManager(new FakeTokenCreator(
+				baseUrl), cacheStorager);
+		try {
+			drive(weixinExecutor, tokenManager, Math.max(requests / 10,
+					concurrency));
+			long start = System.nanoTime();
+			Result result = drive(weixinExecutor, tokenManager, requests);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			long[] latencies = result.latencies;
+			Arrays.sort(latencies);
+			System.out.println(String.format(
+					"%-20s %10.1f calls/sec  p50 %7.2f ms  p99 %7.2f ms  errors %s",
+					name, requests / seconds,
+					percentile(latencies, 0.50) / 1e6,
+					percentile(latencies, 0.99) / 1e6,
+					new TreeMap<String, AtomicLong>(result.errors)));
+		} finally {
+			cacheStorager.shutdown();
+		}
+	}
+
+	private static long percentile(long[] sorted, double quantile) {
+		return sorted[Math.min(sorted.length - 1,
+				(int) Math.ceil(quantile * sorted.length) - 1)];
+	}
+
+	private Result drive(final WeixinRequestExecutor weixinExecutor,
+			final TokenManager tokenManager, final int requests)
+			throws InterruptedException {
+		final Result result = new Result(requests);
+		final AtomicInteger next = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(concurrency);
+		for (int i = 0; i < concurrency; i++) {
+			new Thread("weixin4j-api-loadtest-" + i) {
+				@Override
+				public void run() {
+					try {
+						int call;
+						while ((call = next.getAndIncrement()) < requests) {
+							long start = System.nanoTime();
+							try {
+								call(weixinExecutor, tokenManager, call);
+							} catch (WeixinException e) {
+								// 网络异常时没有错误码
+								result.error(e.getErrorCode() != null ? e
+										.getErrorCode() : e.getCause()
+										.getClass().getSimpleName());
+							} catch (RuntimeException e) {
+								result.error(e.getClass().getSimpleName());
+							}
+							result.latencies[call] = System.nanoTime() - start;
+						}
+					} finally {
+						done.countDown();
+					}
+				}
+			}.start();
+		}
+		done.await();
+		return result;
+	}
+
+	/**
+	 * 依次调用用户信息、模板消息、媒体下载与支付订单查询接口
+	 */
+	private void call(WeixinRequestExecutor weixinExecutor,
+			TokenManager tokenManager, int call) throws WeixinException {
+		switch (call % 4) {
+		case 0:
+			weixinExecutor.get(baseUrl + FakeWeixinServer.USER_PATH
+					+ "?lang=zh_CN", new URLParameter("access_token",
+					tokenManager.getAccessToken()), new URLParameter("openid",
+					OPENID)).getAsJson();
+			break;
+		case 1:
+			weixinExecutor.post(
+					String.format("%s%s?access_token=%s", baseUrl,
+							FakeWeixinServer.TEMPLATE_PATH,
+							tokenManager.getAccessToken()), TEMPLATE)
+					.getAsJson();
+			break;
+		case 2:
+			weixinExecutor.get(baseUrl + FakeWeixinServer.MEDIA_PATH
+					+ "?media_id=MEDIA_ID", new URLParameter("access_token",
+					tokenManager.getAccessToken())).getContent();
+			break;
+		default:
+			weixinExecutor.post(baseUrl + FakeWeixinServer.ORDERQUERY_PATH,
+					ORDERQUERY).getAsXml();
+			break;
+		}
+	}
+
+	private static class Result {
+		private final long[] latencies;
+		private final ConcurrentMap<String, AtomicLong> errors = new ConcurrentHashMap<String, AtomicLong>();
+
+		Result(int requests) {
+			this.latencies = new long[requests];
+		}
+
+		void error(String code) {
+			AtomicLong count = errors.get(code);
+			if (count == null) {
+				AtomicLong newCount = new AtomicLong();
+				count = errors.putIfAbsent(code, newCount);
+				if (count == null) {
+					count = newCount;
+				}
+			}
+			count.incrementAndGet();
+		}
+	}
+
+	/**
+	 * 从模拟服务获取token
+	 */
+	public static class FakeTokenCreator extends TokenCreator {
+
+		private final String baseUrl;
+
+		public FakeTokenCreator(String baseUrl) {
+			this.baseUrl = baseUrl;
+		}
+
+		@Override
+		public String name() {
+			return "fake_token";
+		}
+
+		@Override
+		public String uniqueid() {
+			return baseUrl;
+		}
+
+		@Override
+		public Token create() throws WeixinException {
+			JSONObject result = weixinExecutor.get(
+					baseUrl + FakeWeixinServer.TOKEN_PATH
+							+ "?grant_type=client_credential",
+					new URLParameter("appid", "APPID"),
+					new URLParameter("secret", "APPSECRET")).getAsJson();
+			return new Token(result.getString("access_token"),
+					result.getLongValue("expires_in") * 1000l);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		FakeWeixinServer server = new FakeWeixinServer().start();
+		server.setLatencyMillis(Long.getLong("weixin4j.loadtest.latency", 20))
+				.setError(Integer.getInteger("weixin4j.loadtest.errcode", 0),
+						Double.parseDouble(System.getProperty(
+								"weixin4j.loadtest.errorRate", "0")))
+				.setPayloadSize(Integer.getInteger("weixin4j.loadtest.payload",
+						256));
+		ApiLoadTest loadTest = new ApiLoadTest(server.getBaseUrl(),
+				Integer.getInteger("weixin4j.loadtest.concurrency", 64),
+				Integer.getInteger("weixin4j.loadtest.requests", 20000));
+		EventLoopGroup eventLoopGroup = new NioEventLoopGroup();
+		try {
+			loadTest.run("Netty4",
+					new Netty4HttpClientFactory(eventLoopGroup));
+			loadTest.run("Netty4 pooled", new Netty4HttpClientFactory(
+					eventLoopGroup).setPooled());
+			loadTest.run("HttpComponent4", new HttpComponent4Factory());
+			loadTest.run("OkHttp3", new OkHttpClient3Factory());
+			loadTest.run("Simple", new SimpleHttpClientFactory());
+		} finally {
+			eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+			server.stop();
+		}
+	}
+}
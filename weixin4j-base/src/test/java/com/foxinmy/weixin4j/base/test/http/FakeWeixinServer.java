@@ -0,0 +1,324 @@
+package com.foxinmy.weixin4j.base.test.http;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.codec.http.multipart.DefaultHttpDataFactory;
+import io.netty.handler.codec.http.multipart.FileUpload;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
+import io.netty.handler.codec.http.multipart.InterfaceHttpData;
+import io.netty.util.CharsetUtil;
+
+/**
+ * 模拟的微信API服务(仅用于测试):token、用户、模板消息、媒体文件与支付订单查询接口,
+ * 可设置响应的延时、错误码与内容大小
+ *
+ * @className FakeWeixinServer
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+@Sharable
+public class FakeWeixinServer extends
+		SimpleChannelInboundHandler<FullHttpRequest> {
+
+	public static final String TOKEN_PATH = "/cgi-bin/token";
+	public static final String USER_PATH = "/cgi-bin/user/info";
+	public static final String TEMPLATE_PATH = "/cgi-bin/message/template/send";
+	public static final String MEDIA_PATH = "/cgi-bin/media/get";
+	public static final String MEDIA_UPLOAD_PATH = "/cgi-bin/media/upload";
+	public static final String ORDERQUERY_PATH = "/pay/orderquery";
+
+	private final EventLoopGroup eventLoopGroup;
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong tokens = new AtomicLong();
+	private final AtomicLong connections = new AtomicLong();
+	private Channel channel;
+
+	private volatile long latencyMillis;
+	private volatile int errcode;
+	private volatile double errorRate;
+	private volatile int payloadSize = 256;
+
+	public FakeWeixinServer() {
+		this.eventLoopGroup = new NioEventLoopGroup();
+	}
+
+	/**
+	 * 在本机的随机端口上启动
+	 *
+	 * @return 服务本身
+	 */
+	public FakeWeixinServer start() throws InterruptedException {
+		channel = new ServerBootstrap().group(eventLoopGroup)
+				.channel(NioServerSocketChannel.class)
+				.childHandler(new ChannelInitializer<SocketChannel>() {
+					@Override
+					protected void initChannel(SocketChannel channel) {
+						channel.pipeline().addLast(new HttpServerCodec(),
+								new HttpObjectAggregator(1 << 20),
+								FakeWeixinServer.this);
+					}
+				}).bind("127.0.0.1", 0).sync().channel();
+		return this;
+	}
+
+	public void stop() {
+		if (channel != null) {
+			channel.close().syncUninterruptibly();
+		}
+		eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS)
+				.syncUninterruptibly();
+	}
+
+	/**
+	 * 服务地址,如:http://127.0.0.1:12345
+	 */
+	public String getBaseUrl() {
+		return String.format("http://127.0.0.1:%d",
+				((InetSocketAddress) channel.localAddress()).getPort());
+	}
+
+	/**
+	 * 每个响应的延时(不占用IO线程)
+	 *
+	 * @param latencyMillis
+	 *            延时毫秒数
+	 */
+	public FakeWeixinServer setLatencyMillis(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+		return this;
+	}
+
+	/**
+	 * 按比例返回错误码:40001(token失效)、45009(调用超过限制)、-1(系统繁忙)等
+	 *
+	 * @param errcode
+	 *            错误码,0表示不返回错误
+	 * @param errorRate
+	 *            返回错误的比例(0~1)
+	 */
+	public FakeWeixinServer setError(int errcode, double errorRate) {
+		this.errcode = errcode;
+		this.errorRate = errorRate;
+		return this;
+	}
+
+	/**
+	 * 用户接口备注字段与媒体文件的字节数
+	 *
+	 * @param payloadSize
+	 *            字节数
+	 */
+	public FakeWeixinServer setPayloadSize(int payloadSize) {
+		this.payloadSize = payloadSize;
+		return this;
+	}
+
+	/**
+	 * 已处理的请求数
+	 */
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * 已颁发的token数
+	 */
+	public long getTokens() {
+		return tokens.get();
+	}
+
+	/**
+	 * 已接受的连接数
+	 */
+	public long getConnections() {
+		return connections.get();
+	}
+
+	@Override
+	public void channelActive(ChannelHandlerContext ctx) throws Exception {
+		connections.incrementAndGet();
+		super.channelActive(ctx);
+	}
+
+	@Override
+	protected void channelRead0(final ChannelHandlerContext ctx,
+			FullHttpRequest request) {
+		requests.incrementAndGet();
+		final boolean keepAlive = HttpUtil.isKeepAlive(request);
+		final FullHttpResponse response = respond(request);
+		long latency = latencyMillis;
+		if (latency > 0) {
+			ctx.executor().schedule(new Runnable() {
+				@Override
+				public void run() {
+					write(ctx, response, keepAlive);
+				}
+			}, latency, TimeUnit.MILLISECONDS);
+		} else {
+			write(ctx, response, keepAlive);
+		}
+	}
+
+	private static void write(ChannelHandlerContext ctx,
+			FullHttpResponse response, boolean keepAlive) {
+		HttpUtil.setContentLength(response, response.content()
+				.readableBytes());
+		if (keepAlive) {
+			response.headers().set(HttpHeaderNames.CONNECTION,
+					HttpHeaderValues.KEEP_ALIVE);
+			ctx.writeAndFlush(response);
+		} else {
+			ctx.writeAndFlush(response)
+					.addListener(ChannelFutureListener.CLOSE);
+		}
+	}
+
+	private FullHttpResponse respond(FullHttpRequest request) {
+		String path = new QueryStringDecoder(request.uri()).path();
+		boolean error = errcode != 0
+				&& ThreadLocalRandom.current().nextDouble() < errorRate;
+		if (ORDERQUERY_PATH.equals(path)) {
+			return xml(error ? orderError() : order());
+		}
+		if (error) {
+			return json(String.format("{\"errcode\":%d,\"errmsg\":\"%s\"}",
+					errcode, errmsg(errcode)));
+		}
+		if (TOKEN_PATH.equals(path)) {
+			return json(String.format(
+					"{\"access_token\":\"ACCESS_TOKEN_%d\",\"expires_in\":7200}",
+					tokens.incrementAndGet()));
+		}
+		if (USER_PATH.equals(path)) {
+			return json(user());
+		}
+		if (TEMPLATE_PATH.equals(path)) {
+			return json(String.format(
+					"{\"errcode\":0,\"errmsg\":\"ok\",\"msgid\":%d}",
+					requests.get()));
+		}
+		if (MEDIA_UPLOAD_PATH.equals(path)) {
+			return json(upload(request));
+		}
+		if (MEDIA_PATH.equals(path)) {
+			byte[] media = new byte[payloadSize];
+			Arrays.fill(media, (byte) 'x');
+			FullHttpResponse response = response(Unpooled.wrappedBuffer(media),
+					"image/jpeg");
+			response.headers().set(HttpHeaderNames.CONTENT_DISPOSITION,
+					"attachment; filename=\"media.jpg\"");
+			return response;
+		}
+		FullHttpResponse response = json("{\"errcode\":404,\"errmsg\":\"not found\"}");
+		response.setStatus(HttpResponseStatus.NOT_FOUND);
+		return response;
+	}
+
+	/**
+	 * 解析multipart请求中的media文件,media_id为"文件名_字节数"
+	 */
+	private static String upload(FullHttpRequest request) {
+		HttpPostRequestDecoder decoder = new HttpPostRequestDecoder(
+				new DefaultHttpDataFactory(false), request);
+		try {
+			InterfaceHttpData media = decoder.getBodyHttpData("media");
+			if (!(media instanceof FileUpload)) {
+				return "{\"errcode\":41005,\"errmsg\":\"media data missing\"}";
+			}
+			FileUpload upload = (FileUpload) media;
+			return String.format(
+					"{\"type\":\"image\",\"media_id\":\"%s_%d\",\"created_at\":%d}",
+					upload.getFilename(), upload.length(),
+					System.currentTimeMillis() / 1000);
+		} finally {
+			decoder.destroy();
+		}
+	}
+
+	private static String errmsg(int errcode) {
+		switch (errcode) {
+		case 40001:
+			return "invalid credential, access_token is invalid or not latest";
+		case 45009:
+			return "reach max api daily quota limit";
+		case -1:
+			return "system error";
+		default:
+			return "error";
+		}
+	}
+
+	private String user() {
+		StringBuilder remark = new StringBuilder(payloadSize);
+		while (remark.length() < payloadSize) {
+			remark.append('x');
+		}
+		return "{\"subscribe\":1,\"openid\":\"o6_bmjrPTlm6_2sgVt7hMZOPfL2M\",\"nickname\":\"weixin4j\","
+				+ "\"sex\":1,\"language\":\"zh_CN\",\"city\":\"广州\",\"province\":\"广东\",\"country\":\"中国\","
+				+ "\"headimgurl\":\"http://thirdwx.qlogo.cn/mmopen/0\",\"subscribe_time\":1382694957,"
+				+ "\"remark\":\"" + remark + "\",\"groupid\":0,\"tagid_list\":[128,2]}";
+	}
+
+	private static String order() {
+		return "<xml><return_code><![CDATA[SUCCESS]]></return_code><return_msg><![CDATA[OK]]></return_msg>"
+				+ "<appid><![CDATA[wx2421b1c4370ec43b]]></appid><mch_id><![CDATA[10000100]]></mch_id>"
+				+ "<nonce_str><![CDATA[TN55wO9Pba5yENl8]]></nonce_str><sign><![CDATA[BDF0099C15FF7BC6B1585FBB110AB635]]></sign>"
+				+ "<result_code><![CDATA[SUCCESS]]></result_code><openid><![CDATA[oUpF8uN95-Ptaags6E_roPHg7AG0]]></openid>"
+				+ "<trade_type><![CDATA[JSAPI]]></trade_type><total_fee>100</total_fee>"
+				+ "<transaction_id><![CDATA[1008450740201411110005820873]]></transaction_id>"
+				+ "<out_trade_no><![CDATA[1415757673]]></out_trade_no><trade_state><![CDATA[SUCCESS]]></trade_state></xml>";
+	}
+
+	private static String orderError() {
+		return "<xml><return_code><![CDATA[SUCCESS]]></return_code><return_msg><![CDATA[OK]]></return_msg>"
+				+ "<result_code><![CDATA[FAIL]]></result_code><err_code><![CDATA[SYSTEMERROR]]></err_code>"
+				+ "<err_code_des><![CDATA[系统错误]]></err_code_des></xml>";
+	}
+
+	private static FullHttpResponse json(String content) {
+		return response(Unpooled.copiedBuffer(content, CharsetUtil.UTF_8),
+				"application/json; encoding=utf-8");
+	}
+
+	private static FullHttpResponse xml(String content) {
+		return response(Unpooled.copiedBuffer(content, CharsetUtil.UTF_8),
+				"text/plain");
+	}
+
+	private static FullHttpResponse response(ByteBuf content,
+			String contentType) {
+		FullHttpResponse response = new DefaultFullHttpResponse(
+				HttpVersion.HTTP_1_1, HttpResponseStatus.OK, content);
+		response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType);
+		return response;
+	}
+}
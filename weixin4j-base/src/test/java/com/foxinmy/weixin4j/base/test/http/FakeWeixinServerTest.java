@@ -0,0 +1,324 @@
+package com.foxinmy.weixin4j.base.test.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.exception.WeixinException;
+import com.foxinmy.weixin4j.http.ContentType;
+import com.foxinmy.weixin4j.http.HttpClient;
+import com.foxinmy.weixin4j.http.HttpClientException;
+import com.foxinmy.weixin4j.http.HttpMethod;
+import com.foxinmy.weixin4j.http.HttpParams;
+import com.foxinmy.weixin4j.http.HttpRequest;
+import com.foxinmy.weixin4j.http.HttpResponse;
+import com.foxinmy.weixin4j.http.URLParameter;
+import com.foxinmy.weixin4j.http.apache.content.FileBody;
+import com.foxinmy.weixin4j.http.apache.content.InputStreamBody;
+import com.foxinmy.weixin4j.http.apache.content.StringBody;
+import com.foxinmy.weixin4j.http.apache.mime.FormBodyPart;
+import com.foxinmy.weixin4j.http.factory.HttpClientFactory;
+import com.foxinmy.weixin4j.http.factory.SimpleHttpClientFactory;
+import com.foxinmy.weixin4j.http.support.apache4.HttpComponent4Factory;
+import com.foxinmy.weixin4j.http.support.netty.Netty4HttpClientFactory;
+import com.foxinmy.weixin4j.http.support.okhttp.OkHttpClient3;
+import com.foxinmy.weixin4j.http.support.okhttp.OkHttpClient3Factory;
+import com.foxinmy.weixin4j.http.weixin.WeixinRequestExecutor;
+import com.foxinmy.weixin4j.http.weixin.WeixinResponse;
+import com.foxinmy.weixin4j.http.weixin.XmlResult;
+import com.foxinmy.weixin4j.util.Consts;
+import com.foxinmy.weixin4j.util.IOUtil;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+
+/**
+ * 各个HttpClientFactory调用模拟的微信API服务:正常响应与错误码的处理一致
+ *
+ * @className FakeWeixinServerTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class FakeWeixinServerTest {
+
+	private static FakeWeixinServer server;
+	private static EventLoopGroup eventLoopGroup;
+
+	@BeforeClass
+	public static void startup() throws InterruptedException {
+		server = new FakeWeixinServer().start();
+		eventLoopGroup = new NioEventLoopGroup(1);
+	}
+
+	@AfterClass
+	public static void shutdown() {
+		eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+		server.stop();
+	}
+
+	private HttpClientFactory[] httpClientFactories() {
+		return new HttpClientFactory[] {
+				new Netty4HttpClientFactory(eventLoopGroup),
+				new Netty4HttpClientFactory(eventLoopGroup).setPooled(),
+				new HttpComponent4Factory(), new OkHttpClient3Factory(),
+				new SimpleHttpClientFactory() };
+	}
+
+	private WeixinRequestExecutor createExecutor(
+			HttpClientFactory httpClientFactory) {
+		HttpClientFactory.setDefaultFactory(httpClientFactory);
+		return new WeixinRequestExecutor(new HttpParams());
+	}
+
+	@Test
+	public void success() throws WeixinException {
+		server.setError(0, 0).setPayloadSize(4096);
+		for (HttpClientFactory httpClientFactory : httpClientFactories()) {
+			String name = httpClientFactory.getClass().getSimpleName();
+			WeixinRequestExecutor weixinExecutor = createExecutor(httpClientFactory);
+			String accessToken = new ApiLoadTest.FakeTokenCreator(
+					server.getBaseUrl()).create().getAccessToken();
+			Assert.assertTrue(name, accessToken.startsWith("ACCESS_TOKEN_"));
+			Assert.assertEquals(
+					name,
+					4096,
+					weixinExecutor
+							.get(server.getBaseUrl()
+									+ FakeWeixinServer.USER_PATH + "?lang=zh_CN",
+									new URLParameter("access_token",
+											accessToken)).getAsJson()
+							.getString("remark").length());
+			Assert.assertEquals(
+					name,
+					4096,
+					weixinExecutor.get(
+							server.getBaseUrl() + FakeWeixinServer.MEDIA_PATH
+									+ "?media_id=MEDIA_ID",
+							new URLParameter("access_token", accessToken))
+							.getContent().length);
+			XmlResult xmlResult = weixinExecutor.post(
+					server.getBaseUrl() + FakeWeixinServer.ORDERQUERY_PATH,
+					"<xml/>").getAsXml();
+			Assert.assertEquals(name, "SUCCESS", xmlResult.getResultCode());
+		}
+	}
+
+	@Test
+	public void streaming() throws WeixinException, IOException {
+		int size = 1024 * 1024;
+		server.setError(0, 0).setPayloadSize(size);
+		Path path = Files.createTempFile("media", ".jpg");
+		try {
+			for (HttpClientFactory httpClientFactory : httpClientFactories()) {
+				String name = httpClientFactory.getClass().getSimpleName();
+				WeixinRequestExecutor weixinExecutor = createExecutor(httpClientFactory);
+				String url = server.getBaseUrl()
+						+ FakeWeixinServer.MEDIA_PATH
+						+ "?media_id=MEDIA_ID&access_token="
+						+ new ApiLoadTest.FakeTokenCreator(server.getBaseUrl())
+								.create().getAccessToken();
+				// 连接池模式下第二次请求复用连接
+				for (int i = 0; i < 2; i++) {
+					WeixinResponse response = weixinExecutor
+							.doStreamingRequest(new HttpRequest(HttpMethod.GET,
+									url));
+					try {
+						Assert.assertEquals(name, size,
+								IOUtil.copy(response.getBody(), path));
+					} finally {
+						response.close();
+					}
+					Assert.assertEquals(name, size, Files.size(path));
+				}
+				// 未读完即关闭,之后的请求不受影响
+				WeixinResponse response = weixinExecutor
+						.doStreamingRequest(new HttpRequest(HttpMethod.GET, url));
+				Assert.assertEquals(name, 'x', response.getBody().read());
+				response.close();
+				Assert.assertEquals(name, size,
+						weixinExecutor.get(url).getContent().length);
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void upload() throws WeixinException, IOException {
+		server.setError(0, 0);
+		int size = 256 * 1024;
+		Path path = Files.createTempFile("media", ".jpg");
+		try {
+			Files.write(path, new byte[size]);
+			String url = server.getBaseUrl()
+					+ FakeWeixinServer.MEDIA_UPLOAD_PATH + "?type=image";
+			for (HttpClientFactory httpClientFactory : httpClientFactories()) {
+				String name = httpClientFactory.getClass().getSimpleName();
+				WeixinRequestExecutor weixinExecutor = createExecutor(httpClientFactory);
+				Assert.assertEquals(
+						name,
+						"file.jpg_" + size,
+						weixinExecutor
+								.post(url,
+										new FormBodyPart("media", new FileBody(
+												path.toFile(), ContentType
+														.create("image/jpeg"),
+												"file.jpg"))).getAsJson()
+								.getString("media_id"));
+				// 长度未知的流以chunked方式发送
+				InputStream is = Files.newInputStream(path);
+				try {
+					Assert.assertEquals(
+							name,
+							"stream.jpg_" + size,
+							weixinExecutor
+									.post(url,
+											new FormBodyPart("media",
+													new InputStreamBody(is,
+															ContentType
+																	.create("image/jpeg"),
+															"stream.jpg", -1)),
+											new FormBodyPart("type",
+													new StringBody("image",
+															Consts.UTF_8)))
+									.getAsJson().getString("media_id"));
+				} finally {
+					is.close();
+				}
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void async() throws InterruptedException {
+		server.setError(0, 0).setPayloadSize(1024);
+		for (HttpClientFactory httpClientFactory : httpClientFactories()) {
+			String name = httpClientFactory.getClass().getSimpleName();
+			WeixinRequestExecutor weixinExecutor = createExecutor(httpClientFactory);
+			try {
+				Assert.assertEquals(
+						name,
+						1024,
+						weixinExecutor
+								.getAsync(
+										server.getBaseUrl()
+												+ FakeWeixinServer.USER_PATH
+												+ "?lang=zh_CN",
+										new URLParameter("access_token",
+												"ACCESS_TOKEN")).get()
+								.getAsJson().getString("remark").length());
+			} catch (ExecutionException e) {
+				throw new AssertionError(name, e.getCause());
+			}
+			server.setError(45009, 1d);
+			try {
+				weixinExecutor.postAsync(
+						server.getBaseUrl() + FakeWeixinServer.TEMPLATE_PATH,
+						"{}").get();
+				Assert.fail(name);
+			} catch (ExecutionException e) {
+				Assert.assertTrue(name, e.getCause() instanceof WeixinException);
+				Assert.assertEquals(name, "45009",
+						((WeixinException) e.getCause()).getErrorCode());
+			} finally {
+				server.setError(0, 0);
+			}
+		}
+	}
+
+	@Test
+	public void asyncExecutor() throws Exception {
+		server.setError(0, 0);
+		Executor defaultExecutor = HttpClientFactory.getAsyncExecutor();
+		Assert.assertTrue(defaultExecutor instanceof ThreadPoolExecutor);
+		Assert.assertTrue(((ThreadPoolExecutor) defaultExecutor).getQueue()
+				.remainingCapacity() < Integer.MAX_VALUE);
+		HttpClient httpClient = new SimpleHttpClientFactory().newInstance(null);
+		HttpRequest request = new HttpRequest(HttpMethod.GET,
+				server.getBaseUrl() + FakeWeixinServer.TOKEN_PATH);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			HttpResponse response = httpClient.executeAsync(request, executor)
+					.get();
+			Assert.assertTrue(new String(response.getContent())
+					.contains("access_token"));
+		} finally {
+			executor.shutdown();
+		}
+		try {
+			httpClient.executeAsync(request, new Executor() {
+				@Override
+				public void execute(Runnable command) {
+					throw new RejectedExecutionException();
+				}
+			}).get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof HttpClientException);
+			Assert.assertTrue(e.getCause().getCause() instanceof RejectedExecutionException);
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void asyncRuntimeException() throws InterruptedException {
+		server.setError(0, 0);
+		HttpClient httpClient = new OkHttpClient3(new okhttp3.OkHttpClient()) {
+			@Override
+			protected void handleResponse(HttpResponse response) {
+				throw new IllegalStateException("handle response");
+			}
+		};
+		try {
+			httpClient.executeAsync(
+					new HttpRequest(HttpMethod.GET, server.getBaseUrl()
+							+ FakeWeixinServer.TOKEN_PATH)).get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			// 回调中的运行时异常同样完成Future,调用方不会一直等待
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void errcode() {
+		for (int errcode : new int[] { 40001, 45009, -1 }) {
+			server.setError(errcode, 1d);
+			for (HttpClientFactory httpClientFactory : httpClientFactories()) {
+				String name = httpClientFactory.getClass().getSimpleName();
+				WeixinRequestExecutor weixinExecutor = createExecutor(httpClientFactory);
+				try {
+					weixinExecutor.post(server.getBaseUrl()
+							+ FakeWeixinServer.TEMPLATE_PATH, "{}");
+					Assert.fail(name);
+				} catch (WeixinException e) {
+					Assert.assertEquals(name, Integer.toString(errcode),
+							e.getErrorCode());
+				}
+				try {
+					weixinExecutor.post(server.getBaseUrl()
+							+ FakeWeixinServer.ORDERQUERY_PATH, "<xml/>");
+					Assert.fail(name);
+				} catch (WeixinException e) {
+					Assert.assertEquals(name, "SYSTEMERROR", e.getErrorCode());
+				}
+			}
+		}
+		server.setError(0, 0);
+	}
+}
@@ -0,0 +1,138 @@
+package com.foxinmy.weixin4j.base.test.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.http.HttpClient;
+import com.foxinmy.weixin4j.http.HttpClientException;
+import com.foxinmy.weixin4j.http.HttpMethod;
+import com.foxinmy.weixin4j.http.HttpParams;
+import com.foxinmy.weixin4j.http.HttpRequest;
+import com.foxinmy.weixin4j.http.HttpResponse;
+import com.foxinmy.weixin4j.http.support.netty.Netty4HttpClientFactory;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+
+/**
+ * Netty(keep-alive连接池) for http test:在模拟的微信API服务上校验连接的复用
+ * @className NettyPooledHttpClientTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月16日
+ * @since JDK 1.8
+ */
+public class NettyPooledHttpClientTest {
+
+	private static FakeWeixinServer server;
+	private static EventLoopGroup eventLoopGroup;
+
+	@BeforeClass
+	public static void startup() throws InterruptedException {
+		server = new FakeWeixinServer().start();
+		eventLoopGroup = new NioEventLoopGroup(1);
+	}
+
+	@AfterClass
+	public static void shutdown() {
+		eventLoopGroup.shutdownGracefully();
+		server.stop();
+	}
+
+	private static String get(HttpClient httpClient)
+			throws HttpClientException {
+		HttpResponse response = httpClient.execute(new HttpRequest(
+				HttpMethod.GET, server.getBaseUrl()
+						+ FakeWeixinServer.TOKEN_PATH));
+		try {
+			return new String(response.getContent());
+		} finally {
+			response.close();
+		}
+	}
+
+	@Test
+	public void reuse() throws HttpClientException {
+		server.setError(0, 0).setLatencyMillis(0);
+		HttpClient httpClient = new Netty4HttpClientFactory(eventLoopGroup)
+				.setPooled().newInstance(null);
+		long connections = server.getConnections();
+		for (int i = 0; i < 10; i++) {
+			Assert.assertTrue(get(httpClient).contains("access_token"));
+		}
+		Assert.assertEquals(1, server.getConnections() - connections);
+	}
+
+	@Test
+	public void maxConnectionsPerHost() throws Exception {
+		server.setError(0, 0).setLatencyMillis(20);
+		final HttpClient httpClient = new Netty4HttpClientFactory(
+				eventLoopGroup).setPooled().newInstance(
+				new HttpParams(5000, 5000, 10, 2));
+		long connections = server.getConnections();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> futures = new ArrayList<Future<String>>();
+			for (int i = 0; i < 32; i++) {
+				futures.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() throws HttpClientException {
+						return get(httpClient);
+					}
+				}));
+			}
+			for (Future<String> future : futures) {
+				Assert.assertTrue(future.get().contains("access_token"));
+			}
+		} finally {
+			executor.shutdown();
+			server.setLatencyMillis(0);
+		}
+		Assert.assertEquals(2, server.getConnections() - connections);
+	}
+
+	@Test
+	public void slowStreamingConsumer() throws Exception {
+		int size = 1024 * 1024;
+		server.setError(0, 0).setPayloadSize(size);
+		HttpParams params = new HttpParams(5000, 200, 10, 2);
+		HttpClient[] httpClients = {
+				new Netty4HttpClientFactory(eventLoopGroup).setPooled()
+						.newInstance(params),
+				new Netty4HttpClientFactory(eventLoopGroup)
+						.newInstance(params) };
+		for (HttpClient httpClient : httpClients) {
+			HttpResponse response = httpClient.executeStreaming(new HttpRequest(
+					HttpMethod.GET, server.getBaseUrl()
+							+ FakeWeixinServer.MEDIA_PATH));
+			try {
+				InputStream body = response.getBody();
+				Assert.assertEquals('x', body.read());
+				// 读取方的处理耗时超过读超时,不应使下载失败
+				Thread.sleep(500l);
+				Assert.assertEquals(size, 1 + skip(body));
+			} finally {
+				response.close();
+			}
+		}
+	}
+
+	private static long skip(InputStream body) throws IOException {
+		byte[] buffer = new byte[8192];
+		long count = 0;
+		for (int n = body.read(buffer); n != -1; n = body.read(buffer)) {
+			count += n;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,437 @@
+package com.foxinmy.weixin4j.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.exception.WeixinException;
+import com.foxinmy.weixin4j.model.Token;
+import com.foxinmy.weixin4j.token.TokenCreator;
+import com.foxinmy.weixin4j.token.TokenManager;
+
+public class CacheManagerTest {
+
+	private static final int CALLERS = 1000;
+	private static final int KEYS = 10;
+	private static final long EXPIRES = 7200 * 1000l;
+
+	private volatile long now;
+	private ManualScheduler scheduler;
+	private FlakyCreator creator;
+	private CacheManager<Token> cacheManager;
+
+	@Before
+	public void setUp() {
+		now = System.currentTimeMillis();
+		scheduler = new ManualScheduler();
+		creator = new FlakyCreator();
+		cacheManager = new CacheManager<Token>(creator,
+				new MemoryCacheStorager<Token>()) {
+			@Override
+			protected long currentTimeMillis() {
+				return now;
+			}
+
+			@Override
+			protected ScheduledExecutorService getRefreshExecutor() {
+				return scheduler;
+			}
+		}.enableRefreshAhead(0.8f);
+	}
+
+	@After
+	public void tearDown() {
+		cacheManager.disableRefreshAhead();
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void refreshAheadBeforeExpiry() throws WeixinException {
+		Token first = cacheManager.getCache();
+		assertEquals("TOKEN_1", first.getAccessToken());
+		assertEquals(1, scheduler.pending());
+		assertEquals(first.getCreateTime() + (long) (EXPIRES * 0.8f),
+				scheduler.nextTime());
+
+		now += (long) (EXPIRES * 0.8f) - 1;
+		assertEquals(0, scheduler.runDue());
+		assertSame(first, cacheManager.getCache());
+
+		now += 1;
+		assertEquals(1, scheduler.runDue());
+		assertTrue(now < first.getCreateTime() + EXPIRES);
+		Token second = cacheManager.getCache();
+		assertEquals("TOKEN_2", second.getAccessToken());
+		// 刷新成功后按新的对象计划下一次刷新
+		assertEquals(1, scheduler.pending());
+		assertEquals(second.getCreateTime() + (long) (EXPIRES * 0.8f),
+				scheduler.nextTime());
+
+		assertEquals(2, cacheManager.getMetrics().getCreateCount());
+		assertEquals(1, cacheManager.getMetrics().getRefreshAheadCount());
+		assertEquals(0, cacheManager.getMetrics().getFailureCount());
+	}
+
+	@Test
+	public void retryUntilStaleExpires() throws WeixinException {
+		Token first = cacheManager.getCache();
+		creator.failing = true;
+		long deadline = first.getCreateTime() + EXPIRES - CacheStorager.CUTMS;
+		int attempts = 0;
+		while (scheduler.pending() > 0) {
+			now = scheduler.nextTime();
+			assertTrue(now < deadline);
+			assertEquals(1, scheduler.runDue());
+			attempts++;
+			// 重试期间读取方继续获得旧值
+			assertSame(first, cacheManager.getCache());
+			assertTrue(attempts < 1000);
+		}
+		// 旧值临近失效后不再重试
+		assertTrue(attempts > 1);
+		assertEquals(attempts, creator.creates.get() - 1);
+		assertEquals(1, cacheManager.getMetrics().getCreateCount());
+		assertEquals(attempts, cacheManager.getMetrics()
+				.getFailureCount());
+		assertEquals(0, cacheManager.getMetrics().getRefreshAheadCount());
+	}
+
+	@Test
+	public void recoverAfterFailedRefresh() throws WeixinException {
+		Token first = cacheManager.getCache();
+		creator.failing = true;
+		now = scheduler.nextTime();
+		scheduler.runDue();
+		assertEquals(1, cacheManager.getMetrics().getFailureCount());
+		creator.failing = false;
+		now = scheduler.nextTime();
+		assertTrue(now <= first.getCreateTime() + (long) (EXPIRES * 0.8f)
+				+ 30 * 1000l);
+		scheduler.runDue();
+		assertEquals("TOKEN_3", cacheManager.getCache().getAccessToken());
+		assertEquals(1, cacheManager.getMetrics().getRefreshAheadCount());
+	}
+
+	@Test
+	public void failingCreator() {
+		creator.failing = true;
+		try {
+			cacheManager.getCache();
+			fail();
+		} catch (WeixinException e) {
+			assertEquals("-1", e.getErrorCode());
+		}
+		assertEquals(0, scheduler.pending());
+		assertEquals(0, cacheManager.getMetrics().getCreateCount());
+		assertEquals(1, cacheManager.getMetrics().getFailureCount());
+	}
+
+	@Test
+	public void createOncePerKey() throws Exception {
+		final CacheStorager<Token> cacheStorager = new MemoryCacheStorager<Token>();
+		final ConcurrentMap<String, AtomicInteger> creations = new ConcurrentHashMap<String, AtomicInteger>();
+		for (int i = 0; i < KEYS; i++) {
+			creations.put("app" + i, new AtomicInteger());
+		}
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(CALLERS);
+		final List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+		for (int i = 0; i < CALLERS; i++) {
+			final String appid = "app" + (i % KEYS);
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						// 每个调用者使用自己的TokenManager,模拟每次调用都新建manager的代理方法
+						TokenManager tokenManager = new TokenManager(
+								new CountingTokenCreator(appid, creations
+										.get(appid)), cacheStorager);
+						start.await();
+						assertNotNull(tokenManager.getAccessToken());
+					} catch (Throwable e) {
+						errors.add(e);
+					} finally {
+						done.countDown();
+					}
+				}
+			};
+			thread.start();
+		}
+		start.countDown();
+		done.await();
+		assertEquals(0, errors.size());
+		for (AtomicInteger creation : creations.values()) {
+			assertEquals(1, creation.get());
+		}
+	}
+
+	@Test
+	public void releaseUnusedLocks() throws Exception {
+		final CacheLockRegistry registry = new CacheLockRegistry();
+		CacheLockRegistry.KeyLock lock = registry.getLock("weixin4j_token_app1");
+		lock.lockInterruptibly();
+		// 相同key的锁可重入,不同key的锁互不影响
+		CacheLockRegistry.KeyLock nested = registry.getLock(new String(
+				"weixin4j_token_app1"));
+		nested.lockInterruptibly();
+		final CountDownLatch other = new CountDownLatch(1);
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					CacheLockRegistry.KeyLock otherLock = registry
+							.getLock("weixin4j_token_app2");
+					otherLock.lockInterruptibly();
+					otherLock.unlock();
+					other.countDown();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		thread.start();
+		assertTrue(other.await(5, TimeUnit.SECONDS));
+		assertEquals(1, registry.size());
+		nested.unlock();
+		lock.unlock();
+		assertEquals(0, registry.size());
+	}
+
+	@Test(timeout = 30000)
+	public void nestedCreatorsUnderContention() throws Exception {
+		final CacheStorager<Token> cacheStorager = new MemoryCacheStorager<Token>();
+		final ConcurrentMap<String, AtomicInteger> creations = new ConcurrentHashMap<String, AtomicInteger>();
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(CALLERS);
+		final List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+		final String prefix = "nested_" + System.nanoTime() + "_";
+		for (int i = 0; i < CALLERS; i++) {
+			final String appid = prefix + (i % KEYS);
+			final boolean ticket = (i / KEYS) % 2 == 0;
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						// 与WeixinTicketCreator相同:ticket的创建中获取token,token与ticket的创建交错进行
+						CacheManager<Token> tokenManager = new CacheManager<Token>(
+								new NestedCreator("token_" + appid, null,
+										creations), cacheStorager);
+						CacheManager<Token> cacheManager = ticket ? new CacheManager<Token>(
+								new NestedCreator("ticket_" + appid,
+										tokenManager, creations),
+								cacheStorager) : tokenManager;
+						start.await();
+						assertNotNull(cacheManager.getCache());
+					} catch (Throwable e) {
+						errors.add(e);
+					} finally {
+						done.countDown();
+					}
+				}
+			};
+			thread.start();
+		}
+		start.countDown();
+		done.await();
+		assertEquals(0, errors.size());
+		assertEquals(KEYS * 2, creations.size());
+		for (AtomicInteger creation : creations.values()) {
+			assertEquals(1, creation.get());
+		}
+		assertEquals(0, CacheLockRegistry.global().size());
+	}
+
+	private static class NestedCreator implements CacheCreator<Token> {
+
+		private final String key;
+		private final CacheManager<Token> tokenManager;
+		private final ConcurrentMap<String, AtomicInteger> creations;
+
+		NestedCreator(String key, CacheManager<Token> tokenManager,
+				ConcurrentMap<String, AtomicInteger> creations) {
+			this.key = key;
+			this.tokenManager = tokenManager;
+			this.creations = creations;
+		}
+
+		@Override
+		public String key() {
+			return key;
+		}
+
+		@Override
+		public Token create() throws WeixinException {
+			if (tokenManager != null) {
+				tokenManager.getCache();
+			}
+			AtomicInteger creation = new AtomicInteger();
+			AtomicInteger exists = creations.putIfAbsent(key, creation);
+			(exists != null ? exists : creation).incrementAndGet();
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				throw new WeixinException(e);
+			}
+			return new Token(key, 7200 * 1000l);
+		}
+	}
+
+	private static class CountingTokenCreator extends TokenCreator {
+
+		private final String appid;
+		private final AtomicInteger creation;
+
+		CountingTokenCreator(String appid, AtomicInteger creation) {
+			this.appid = appid;
+			this.creation = creation;
+		}
+
+		@Override
+		public String name() {
+			return "test_token";
+		}
+
+		@Override
+		public String uniqueid() {
+			return appid;
+		}
+
+		@Override
+		public Token create() throws WeixinException {
+			creation.incrementAndGet();
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				throw new WeixinException(e);
+			}
+			return new Token(appid + "_token", 7200 * 1000l);
+		}
+	}
+
+	private class FlakyCreator implements CacheCreator<Token> {
+		private final String key = "weixin4j_test_" + System.nanoTime();
+		private final AtomicInteger creates = new AtomicInteger();
+		private volatile boolean failing;
+
+		@Override
+		public String key() {
+			return key;
+		}
+
+		@Override
+		public Token create() throws WeixinException {
+			int n = creates.incrementAndGet();
+			if (failing) {
+				throw new WeixinException("-1", "system busy");
+			}
+			return new Token("TOKEN_" + n, EXPIRES, now);
+		}
+	}
+
+	/**
+	 * 只记录计划的任务,由测试线程在推进时钟后执行到期的任务
+	 */
+	private class ManualScheduler extends ScheduledThreadPoolExecutor {
+
+		private final List<ManualTask> tasks = new ArrayList<ManualTask>();
+
+		ManualScheduler() {
+			super(1);
+		}
+
+		@Override
+		public synchronized ScheduledFuture<?> schedule(Runnable command,
+				long delay, TimeUnit unit) {
+			ManualTask task = new ManualTask(command, now
+					+ unit.toMillis(delay));
+			tasks.add(task);
+			return task;
+		}
+
+		synchronized int pending() {
+			purgeDone();
+			return tasks.size();
+		}
+
+		synchronized long nextTime() {
+			purgeDone();
+			long time = Long.MAX_VALUE;
+			for (ManualTask task : tasks) {
+				time = Math.min(time, task.time);
+			}
+			return time;
+		}
+
+		int runDue() {
+			int count = 0;
+			for (;;) {
+				ManualTask due = null;
+				synchronized (this) {
+					purgeDone();
+					for (ManualTask task : tasks) {
+						if (task.time <= now
+								&& (due == null || task.time < due.time)) {
+							due = task;
+						}
+					}
+					if (due == null) {
+						return count;
+					}
+					tasks.remove(due);
+				}
+				due.run();
+				count++;
+			}
+		}
+
+		private void purgeDone() {
+			for (int i = tasks.size() - 1; i >= 0; i--) {
+				if (tasks.get(i).isDone()) {
+					tasks.remove(i);
+				}
+			}
+		}
+	}
+
+	private class ManualTask extends FutureTask<Object> implements
+			ScheduledFuture<Object> {
+
+		private final long time;
+
+		ManualTask(Runnable command, long time) {
+			super(command, null);
+			this.time = time;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(time - now, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed o) {
+			return Long.compare(getDelay(TimeUnit.MILLISECONDS),
+					o.getDelay(TimeUnit.MILLISECONDS));
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package com.foxinmy.weixin4j.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.cache.codec.TokenCacheCodec;
+import com.foxinmy.weixin4j.model.Token;
+import com.foxinmy.weixin4j.util.Consts;
+
+public class MappedFileCacheStoragerTest {
+
+	private static final long EXPIRES = 7200 * 1000l;
+
+	private File path;
+	private MappedFileCacheStorager<Token> storager;
+
+	@Before
+	public void setUp() throws IOException {
+		path = Files.createTempDirectory("weixin4j_mapped").toFile();
+		storager = open(4);
+	}
+
+	@After
+	public void tearDown() {
+		storager.close();
+		File directory = new File(path, "weixin4j_cache");
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+		path.delete();
+	}
+
+	private MappedFileCacheStorager<Token> open(int capacity) {
+		return new MappedFileCacheStorager<Token>(path.getAbsolutePath(),
+				capacity, new TokenCacheCodec());
+	}
+
+	/**
+	 * 已过期的token:deadline = createTime + expires - CUTMS 早于当前时间
+	 */
+	private static Token expired(String accessToken) {
+		return new Token(accessToken, CacheStorager.CUTMS + 1000l,
+				System.currentTimeMillis() - 2000l);
+	}
+
+	@Test
+	public void cachingAndEvict() {
+		assertNull(storager.lookup("a"));
+		storager.caching("a", new Token("a1", EXPIRES));
+		assertEquals("a1", storager.lookup("a").getAccessToken());
+		storager.caching("a", new Token("a2", EXPIRES));
+		assertEquals("a2", storager.lookup("a").getAccessToken());
+		assertEquals("a2", storager.evict("a").getAccessToken());
+		assertNull(storager.lookup("a"));
+		storager.caching("forever", new Token("forever", -1));
+		assertNotNull(storager.lookup("forever"));
+		storager.clear();
+		assertNull(storager.lookup("forever"));
+	}
+
+	@Test
+	public void expired() {
+		storager.caching("a", expired("a"));
+		assertNull(storager.lookup("a"));
+	}
+
+	@Test
+	public void reuseExpiredSlots() {
+		for (String key : new String[] { "a", "b", "c", "d" }) {
+			storager.caching(key, expired(key));
+		}
+		// 槽位已被过期的key占满,新的key复用过期的槽位
+		for (String key : new String[] { "e", "f", "g", "h" }) {
+			storager.caching(key, new Token(key, EXPIRES));
+		}
+		for (String key : new String[] { "e", "f", "g", "h" }) {
+			assertEquals(key, storager.lookup(key).getAccessToken());
+		}
+		assertEquals(4, new File(path, "weixin4j_cache").list().length - 1);
+		try {
+			storager.caching("i", new Token("i", EXPIRES));
+			fail();
+		} catch (IllegalStateException e) {
+			// 未过期的key占满所有槽位
+		}
+		storager.evict("e");
+		storager.caching("i", new Token("i", EXPIRES));
+		assertEquals("i", storager.lookup("i").getAccessToken());
+	}
+
+	@Test(timeout = 10000)
+	public void crashedWriter() throws IOException {
+		storager.caching("a", new Token("a", EXPIRES));
+		// 模拟写入进程在写入槽位的中途崩溃:seq停留在奇数
+		int position = slotPosition("a");
+		RandomAccessFile file = new RandomAccessFile(new File(new File(path,
+				"weixin4j_cache"), "cache.index"), "rw");
+		try {
+			MappedByteBuffer buffer = file.getChannel().map(
+					FileChannel.MapMode.READ_WRITE, 0, file.length());
+			buffer.putInt(position, buffer.getInt(position) + 1);
+			buffer.force();
+		} finally {
+			file.close();
+		}
+		assertNull(storager.lookup("a"));
+		// 重新打开索引时修复
+		MappedFileCacheStorager<Token> reopened = open(4);
+		try {
+			assertNull(reopened.lookup("a"));
+			reopened.caching("a", new Token("a2", EXPIRES));
+			assertEquals("a2", reopened.lookup("a").getAccessToken());
+			assertEquals("a2", storager.lookup("a").getAccessToken());
+		} finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	public void concurrentReaders() throws Exception {
+		storager.caching("token", new Token("token_0", EXPIRES));
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+		final CountDownLatch done = new CountDownLatch(4);
+		for (int i = 0; i < 4; i++) {
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						while (running.get()) {
+							Token token = storager.lookup("token");
+							if (token == null
+									|| !token.getAccessToken().startsWith(
+											"token_")) {
+								errors.add(new AssertionError(token));
+								return;
+							}
+						}
+					} catch (Throwable e) {
+						errors.add(e);
+					} finally {
+						done.countDown();
+					}
+				}
+			}.start();
+		}
+		for (int i = 1; i <= 500; i++) {
+			storager.caching("token", new Token("token_" + i, EXPIRES));
+		}
+		running.set(false);
+		done.await(10, TimeUnit.SECONDS);
+		assertEquals(0, errors.size());
+	}
+
+	@Test
+	public void sharedDirectory() throws Exception {
+		// 同一进程中使用同一目录的两个实例并发写入
+		final MappedFileCacheStorager<Token> another = open(4);
+		final List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+		final CountDownLatch done = new CountDownLatch(4);
+		try {
+			for (int i = 0; i < 4; i++) {
+				final MappedFileCacheStorager<Token> writer = i % 2 == 0 ? storager
+						: another;
+				final String key = "key_" + i;
+				new Thread() {
+					@Override
+					public void run() {
+						try {
+							for (int j = 0; j < 200; j++) {
+								writer.caching(key, new Token(key + "_" + j,
+										EXPIRES));
+								if (j % 10 == 0) {
+									writer.evict(key);
+								}
+							}
+						} catch (Throwable e) {
+							errors.add(e);
+						} finally {
+							done.countDown();
+						}
+					}
+				}.start();
+			}
+			assertTrue(done.await(30, TimeUnit.SECONDS));
+			assertEquals(0, errors.size());
+			for (int i = 0; i < 4; i++) {
+				assertEquals("key_" + i + "_199",
+						another.lookup("key_" + i).getAccessToken());
+				assertEquals("key_" + i + "_199",
+						storager.lookup("key_" + i).getAccessToken());
+			}
+		} finally {
+			another.close();
+		}
+	}
+
+	@Test
+	public void closed() {
+		storager.close();
+		try {
+			storager.lookup("a");
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			storager.caching("a", new Token("a", EXPIRES));
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * 在索引文件中查找key所在槽位的位置(64字节文件头,每个槽位256字节,key从槽位的第24字节开始)
+	 */
+	private int slotPosition(String key) throws IOException {
+		byte[] index = Files.readAllBytes(new File(new File(path,
+				"weixin4j_cache"), "cache.index").toPath());
+		byte[] keyBytes = key.getBytes(Consts.UTF_8);
+		for (int position = 64; position < index.length; position += 256) {
+			boolean matched = index[position + 4] == 1;
+			for (int i = 0; matched && i < keyBytes.length; i++) {
+				matched = index[position + 24 + i] == keyBytes[i];
+			}
+			if (matched) {
+				return position;
+			}
+		}
+		throw new AssertionError("slot not found: " + key);
+	}
+}
@@ -0,0 +1,63 @@
+package com.foxinmy.weixin4j.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Queue;
+
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.model.Token;
+
+public class MemoryCacheStoragerTest {
+
+	@Test
+	public void evictUnreferenced() {
+		MemoryCacheStorager<Token> storager = new MemoryCacheStorager<Token>(
+				3, 0l);
+		storager.caching("a", new Token("a", 7200 * 1000l));
+		storager.caching("b", new Token("b", 7200 * 1000l));
+		storager.caching("c", new Token("c", 7200 * 1000l));
+		assertNotNull(storager.lookup("a"));
+		storager.caching("d", new Token("d", 7200 * 1000l));
+		assertEquals(3, storager.size());
+		assertEquals(1, storager.getEvictionCount());
+		assertNotNull(storager.lookup("a"));
+		assertNull(storager.lookup("b"));
+		assertEquals(1, storager.getMissCount());
+	}
+
+	@Test
+	public void sweepExpired() {
+		MemoryCacheStorager<Token> storager = new MemoryCacheStorager<Token>(
+				10, 0l);
+		storager.caching("expired", new Token("expired", 1000l));
+		storager.caching("forever", new Token("forever", -1));
+		storager.sweep();
+		assertEquals(1, storager.size());
+		assertEquals(1, storager.getExpiredCount());
+		assertNotNull(storager.lookup("forever"));
+	}
+
+	@Test
+	public void rewriteWithoutSweeper() throws Exception {
+		MemoryCacheStorager<Token> storager = new MemoryCacheStorager<Token>(
+				10, 0l);
+		// 未超出最大数量、没有后台清理时反复写入与删除,淘汰队列不会无限增长
+		for (int i = 0; i < 10000; i++) {
+			storager.caching("token_" + (i % 5), new Token("token_" + i,
+					7200 * 1000l));
+			if (i % 3 == 0) {
+				storager.evict("token_" + (i % 5));
+			}
+		}
+		Field field = MemoryCacheStorager.class.getDeclaredField("clockQueue");
+		field.setAccessible(true);
+		assertTrue(((Queue<?>) field.get(storager)).size() <= 20);
+		assertEquals(0, storager.getEvictionCount());
+		assertEquals("token_9998", storager.lookup("token_3").getAccessToken());
+	}
+}
@@ -0,0 +1,152 @@
+package com.foxinmy.weixin4j.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.model.Token;
+
+public class TieredCacheStoragerTest {
+
+	private static final long EXPIRES = 7200 * 1000l;
+
+	private volatile long now;
+	private RemoteStorager remote;
+
+	@Before
+	public void setUp() {
+		now = System.currentTimeMillis();
+		remote = new RemoteStorager();
+	}
+
+	private TieredCacheStorager<Token> tiered(long maxLocalMillis,
+			int maxLocalSize) {
+		return new TieredCacheStorager<Token>(remote, null, maxLocalMillis,
+				maxLocalSize) {
+			@Override
+			protected long currentTimeMillis() {
+				return now;
+			}
+		};
+	}
+
+	@Test
+	public void localHit() {
+		TieredCacheStorager<Token> storager = tiered(0l, 10);
+		Token token = new Token("a", EXPIRES, now);
+		remote.caching("a", token);
+		assertSame(token, storager.lookup("a"));
+		assertSame(token, storager.lookup("a"));
+		assertEquals(1, remote.lookups);
+		storager.onInvalidate("a");
+		assertSame(token, storager.lookup("a"));
+		assertEquals(2, remote.lookups);
+	}
+
+	@Test
+	public void invalidateDuringRemoteLookup() {
+		final TieredCacheStorager<Token> storager = tiered(0l, 10);
+		remote.caching("a", new Token("stale", EXPIRES, now));
+		// 读取远程存储的旧值期间其它节点更新了对象并发出失效通知
+		remote.onLookup = new Runnable() {
+			@Override
+			public void run() {
+				remote.caching("a", new Token("fresh", EXPIRES, now));
+				storager.onInvalidate("a");
+			}
+		};
+		assertEquals("stale", storager.lookup("a").getAccessToken());
+		remote.onLookup = null;
+		assertEquals(0, storager.getLocalSize());
+		assertEquals("fresh", storager.lookup("a").getAccessToken());
+		assertEquals("fresh", storager.lookup("a").getAccessToken());
+		assertEquals(2, remote.lookups);
+	}
+
+	@Test
+	public void defaultMaxLocalMillis() {
+		TieredCacheStorager<Token> storager = new TieredCacheStorager<Token>(
+				remote) {
+			@Override
+			protected long currentTimeMillis() {
+				return now;
+			}
+		};
+		remote.caching("a", new Token("a", EXPIRES, now));
+		storager.lookup("a");
+		now += TieredCacheStorager.DEFAULT_MAX_LOCAL_MILLIS - 1;
+		storager.lookup("a");
+		assertEquals(1, remote.lookups);
+		now += 1;
+		storager.lookup("a");
+		assertEquals(2, remote.lookups);
+	}
+
+	@Test
+	public void expiresWithCache() {
+		TieredCacheStorager<Token> storager = tiered(0l, 10);
+		remote.caching("a", new Token("a", CacheStorager.CUTMS + 1000l, now));
+		storager.lookup("a");
+		now += 1000l;
+		storager.lookup("a");
+		assertEquals(2, remote.lookups);
+	}
+
+	@Test
+	public void maxLocalSize() {
+		TieredCacheStorager<Token> storager = tiered(0l, 2);
+		for (String key : new String[] { "a", "b", "c" }) {
+			remote.caching(key, new Token(key, EXPIRES, now));
+			storager.lookup(key);
+		}
+		assertEquals(2, storager.getLocalSize());
+		storager.lookup("c");
+		assertEquals(4, remote.lookups);
+		// 已过期的本地缓存被清除后腾出空位
+		remote.caching("d", new Token("d", CacheStorager.CUTMS + 1000l, now));
+		storager.onInvalidate("a");
+		storager.lookup("d");
+		now += 2000l;
+		storager.lookup("c");
+		assertEquals(2, storager.getLocalSize());
+		storager.lookup("c");
+		assertEquals(6, remote.lookups);
+		assertNull(storager.lookup("e"));
+	}
+
+	private static class RemoteStorager implements CacheStorager<Token> {
+
+		private final MemoryCacheStorager<Token> storager = new MemoryCacheStorager<Token>();
+		private volatile Runnable onLookup;
+		private int lookups;
+
+		@Override
+		public Token lookup(String key) {
+			lookups++;
+			Token token = storager.lookup(key);
+			Runnable hook = onLookup;
+			if (hook != null) {
+				hook.run();
+			}
+			return token;
+		}
+
+		@Override
+		public void caching(String key, Token cache) {
+			storager.caching(key, cache);
+		}
+
+		@Override
+		public Token evict(String key) {
+			return storager.evict(key);
+		}
+
+		@Override
+		public void clear() {
+			storager.clear();
+		}
+	}
+}
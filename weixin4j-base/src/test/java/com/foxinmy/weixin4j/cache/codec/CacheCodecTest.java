@@ -0,0 +1,93 @@
+package com.foxinmy.weixin4j.cache.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.model.Token;
+import com.foxinmy.weixin4j.util.Consts;
+
+public class CacheCodecTest {
+
+	private static Token token() {
+		return new Token("ACCESS_TOKEN", 7200 * 1000l, 1476000000000l)
+				.pushExtra("refresh_token", "REFRESH_TOKEN").pushExtra(
+						"openid", "OPENID");
+	}
+
+	private static void assertToken(Token expected, Token actual) {
+		assertEquals(expected.getAccessToken(), actual.getAccessToken());
+		assertEquals(expected.getExpires(), actual.getExpires());
+		assertEquals(expected.getCreateTime(), actual.getCreateTime());
+		assertEquals(expected.getExtra(), actual.getExtra());
+	}
+
+	@Test
+	public void roundTrip() {
+		@SuppressWarnings("unchecked")
+		CacheCodec<Token>[] codecs = new CacheCodec[] { new TokenCacheCodec(),
+				new JavaCacheCodec<Token>(), new HessianCacheCodec<Token>(),
+				new JsonCacheCodec<Token>(Token.class),
+				TokenCacheCodec.compatible() };
+		Token token = token();
+		for (CacheCodec<Token> codec : codecs) {
+			byte[] data = codec.encode(token);
+			assertTrue(codec.getClass().getSimpleName(), codec.canDecode(data));
+			assertToken(token, codec.decode(data));
+		}
+	}
+
+	@Test
+	public void nullFields() {
+		Token token = new Token(null, 7200 * 1000l, 1476000000000l).pushExtra(
+				"openid", null);
+		CacheCodec<Token> codec = new TokenCacheCodec();
+		Token decoded = codec.decode(codec.encode(token));
+		assertNull(decoded.getAccessToken());
+		assertToken(token, decoded);
+	}
+
+	@Test
+	public void tokenFormatIsCompact() {
+		Token token = new Token("ACCESS_TOKEN", 7200 * 1000l);
+		assertTrue(new TokenCacheCodec().encode(token).length < new JavaCacheCodec<Token>()
+				.encode(token).length);
+	}
+
+	@Test
+	public void decodeLegacyFormats() {
+		CacheCodec<Token> compatible = TokenCacheCodec.compatible();
+		Token token = token();
+		// 切换编解码前以JDK序列化或Hessian写入的缓存
+		byte[] java = new JavaCacheCodec<Token>().encode(token);
+		byte[] hessian = new HessianCacheCodec<Token>().encode(token);
+		assertFalse(new TokenCacheCodec().canDecode(java));
+		assertFalse(new TokenCacheCodec().canDecode(hessian));
+		assertToken(token, compatible.decode(java));
+		assertToken(token, compatible.decode(hessian));
+		// 重新写入时使用紧凑格式
+		assertTrue(new TokenCacheCodec().canDecode(compatible.encode(token)));
+	}
+
+	@Test
+	public void unknownFormat() {
+		CacheCodec<Token> compatible = new CompatibleCacheCodec<Token>(
+				new TokenCacheCodec(),
+				Collections.<CacheCodec<Token>> singletonList(new JavaCacheCodec<Token>()));
+		byte[] json = new JsonCacheCodec<Token>(Token.class).encode(token());
+		assertFalse(compatible.canDecode(json));
+		assertFalse(compatible.canDecode(new byte[0]));
+		try {
+			compatible.decode("plain".getBytes(Consts.UTF_8));
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.foxinmy.weixin4j.http.weixin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.TypeReference;
+import com.foxinmy.weixin4j.http.AbstractHttpResponse;
+import com.foxinmy.weixin4j.http.HttpHeaders;
+import com.foxinmy.weixin4j.http.HttpStatus;
+import com.foxinmy.weixin4j.http.HttpVersion;
+import com.foxinmy.weixin4j.http.MimeType;
+import com.foxinmy.weixin4j.http.message.JsonMessageConverter;
+import com.foxinmy.weixin4j.http.message.XmlMessageConverter;
+import com.foxinmy.weixin4j.util.Consts;
+
+/**
+ * 复用解析结果的读取与各转换器直接转换的结果一致
+ *
+ * @className WeixinResponseTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class WeixinResponseTest {
+
+	private static final String ORDER = "<xml><return_code><![CDATA[SUCCESS]]></return_code><return_msg>OK</return_msg>"
+			+ "<result_code><![CDATA[FAIL]]></result_code><err_code><![CDATA[SYSTEMERROR]]></err_code>"
+			+ "<err_code_des><![CDATA[系统错误]]></err_code_des><coupon><result_code>SUCCESS</result_code></coupon></xml>";
+
+	private static AbstractHttpResponse response(final String contentType,
+			String content) {
+		return new AbstractHttpResponse(content.getBytes(Consts.UTF_8)) {
+			private final HttpHeaders headers = new HttpHeaders();
+			{
+				headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+			}
+
+			@Override
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+
+			@Override
+			public HttpVersion getProtocol() {
+				return HttpVersion.HTTP_1_1;
+			}
+
+			@Override
+			public HttpStatus getStatus() {
+				return new HttpStatus(200, "OK");
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	@Test
+	public void json() throws IOException {
+		AbstractHttpResponse httpResponse = response(
+				"application/json; encoding=utf-8",
+				"{\"errcode\":45009,\"errmsg\":\"reach max api daily quota limit\",\"msgid\":1}");
+		WeixinResponse response = new WeixinResponse(httpResponse);
+		ApiResult expected = JsonMessageConverter.GLOBAL.convert(
+				ApiResult.class, httpResponse);
+		Assert.assertEquals(MimeType.APPLICATION_JSON, response.getMimeType());
+		Assert.assertFalse(response.isXml());
+		Assert.assertEquals(expected.getReturnCode(), response.getAsResult()
+				.getReturnCode());
+		Assert.assertEquals(expected.getReturnMsg(), response.getAsResult()
+				.getReturnMsg());
+		Assert.assertSame(response.getAsJson(), response.getAsJson());
+		Assert.assertEquals(1, response.getAsJson().getIntValue("msgid"));
+		Assert.assertSame(response.getAsJson(),
+				response.getAsObject(new TypeReference<JSONObject>() {
+				}));
+		Assert.assertTrue(response.getAsXmlMap().isEmpty());
+	}
+
+	@Test
+	public void xml() throws IOException {
+		AbstractHttpResponse httpResponse = response("text/plain", ORDER);
+		WeixinResponse response = new WeixinResponse(httpResponse);
+		XmlResult expected = XmlMessageConverter.GLOBAL.convert(
+				XmlResult.class, httpResponse);
+		XmlResult xmlResult = response.getAsXml();
+		Assert.assertTrue(response.isXml());
+		Assert.assertEquals(expected.getReturnCode(), xmlResult.getReturnCode());
+		Assert.assertEquals(expected.getReturnMsg(), xmlResult.getReturnMsg());
+		Assert.assertEquals(expected.getResultCode(), xmlResult.getResultCode());
+		Assert.assertEquals(expected.getErrCode(), xmlResult.getErrCode());
+		Assert.assertEquals(expected.getErrCodeDes(), xmlResult.getErrCodeDes());
+		Assert.assertEquals("SUCCESS", response.getAsResult().getReturnCode());
+		Assert.assertEquals("OK", response.getAsResult().getReturnMsg());
+	}
+
+	private static String following(int count, String tail) {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"total\":").append(count).append(",\"count\":")
+				.append(count).append(",\"data\":{\"openid\":[");
+		for (int i = 0; i < count; i++) {
+			json.append(i > 0 ? "," : "").append("\"OPENID_").append(i)
+					.append("\"");
+		}
+		return json.append("]},\"next_openid\":\"OPENID_")
+				.append(count - 1).append("\"").append(tail).append("}")
+				.toString();
+	}
+
+	@Test
+	public void stream() {
+		WeixinResponse response = new WeixinResponse(response(
+				"application/json; encoding=utf-8", following(1000, "")));
+		Assert.assertEquals("0", response.getAsResult().getReturnCode());
+		final List<String> openIds = new ArrayList<String>();
+		response.readAsJson(new JsonFieldReader() {
+			@Override
+			public boolean read(String name, JSONReader reader) {
+				if (!"data".equals(name)) {
+					return false;
+				}
+				reader.startObject();
+				while (reader.hasNext()) {
+					reader.readString();
+					openIds.addAll(reader
+							.readObject(new TypeReference<List<String>>() {
+							}));
+				}
+				reader.endObject();
+				return true;
+			}
+		});
+		Assert.assertEquals(1000, openIds.size());
+		Assert.assertEquals("OPENID_999", openIds.get(999));
+
+		response = new WeixinResponse(response(
+				"application/json; encoding=utf-8",
+				"{\"errcode\":0,\"list\":[{\"tag\":\"a\"},{\"tag\":\"b\"}],\"ids\":[1,2]}"));
+		Assert.assertEquals(2, response.getAsList("list", JSONObject.class)
+				.size());
+		Assert.assertEquals(Arrays.asList(1, 2),
+				response.getAsList("ids", Integer.class));
+		Assert.assertNull(response.getAsList("none", Integer.class));
+	}
+
+	@Test
+	public void scanErrcode() {
+		WeixinResponse response = new WeixinResponse(response(
+				"application/json; encoding=utf-8", following(1000,
+						",\"errcode\":-1,\"errmsg\":\"system error\"")));
+		Assert.assertEquals("-1", response.getAsResult().getReturnCode());
+		Assert.assertEquals("system error", response.getAsResult()
+				.getReturnMsg());
+	}
+
+	@Test
+	public void unknown() {
+		WeixinResponse response = new WeixinResponse(response("text/html",
+				"ok"));
+		Assert.assertEquals(MimeType.TEXT_HTML, response.getMimeType());
+		Assert.assertFalse(response.isXml());
+		Assert.assertEquals("0", response.getAsResult().getReturnCode());
+	}
+}
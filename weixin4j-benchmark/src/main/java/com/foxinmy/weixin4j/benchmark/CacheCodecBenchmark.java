@@ -0,0 +1,75 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxinmy.weixin4j.cache.codec.CacheCodec;
+import com.foxinmy.weixin4j.cache.codec.HessianCacheCodec;
+import com.foxinmy.weixin4j.cache.codec.JavaCacheCodec;
+import com.foxinmy.weixin4j.cache.codec.JsonCacheCodec;
+import com.foxinmy.weixin4j.cache.codec.TokenCacheCodec;
+import com.foxinmy.weixin4j.model.Token;
+
+/**
+ * token缓存的编解码
+ *
+ * @className CacheCodecBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see CacheCodec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+	@Param({ "java", "hessian", "json", "token" })
+	private String codec;
+
+	private CacheCodec<Token> cacheCodec;
+	private Token token;
+	private byte[] data;
+
+	@Setup
+	public void setup() {
+		if ("java".equals(codec)) {
+			cacheCodec = new JavaCacheCodec<Token>();
+		} else if ("hessian".equals(codec)) {
+			cacheCodec = new HessianCacheCodec<Token>();
+		} else if ("json".equals(codec)) {
+			cacheCodec = new JsonCacheCodec<Token>(Token.class);
+		} else {
+			cacheCodec = new TokenCacheCodec();
+		}
+		token = new Token(
+				"8_pGQhrnNDxSthFRZm5CgP0lQ-SGgIz-6GRP1yfGzP0c7mmtB5tGxq0AxnIuTi3NBt4bPdBmvz_e8fNbNm0PWGrKRZB0RV6iuRrbpi3pW_64SShyzD5lMSNE9kYwVAxT2dNrVJ4Zsi1D-KR4WjJcRLJaADAWDM",
+				7200 * 1000l, 1539594148000l).pushExtra("ticket",
+				"HoagFKDcsGMVCIY2vOjf9nGrJT2FLy8XaUeiC9W4plrhRaJtRUJ-U_5bVAsxrUCmDefbhbvzU5_jP1oDMcXhnQ");
+		data = cacheCodec.encode(token);
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return cacheCodec.encode(token);
+	}
+
+	@Benchmark
+	public Token decode() {
+		return cacheCodec.decode(data);
+	}
+}
@@ -0,0 +1,70 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxinmy.weixin4j.cache.CacheCreator;
+import com.foxinmy.weixin4j.cache.CacheManager;
+import com.foxinmy.weixin4j.cache.MemoryCacheStorager;
+import com.foxinmy.weixin4j.exception.WeixinException;
+import com.foxinmy.weixin4j.model.Token;
+
+/**
+ * 多线程并发获取缓存的token(缓存命中的路径)
+ *
+ * @className CacheManagerBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see CacheManager
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CacheManagerBenchmark {
+
+	private MemoryCacheStorager<Token> cacheStorager;
+	private CacheManager<Token> cacheManager;
+
+	@Setup
+	public void setup() {
+		cacheStorager = new MemoryCacheStorager<Token>();
+		cacheManager = new CacheManager<Token>(new CacheCreator<Token>() {
+			@Override
+			public String key() {
+				return "weixin4j_benchmark_token";
+			}
+
+			@Override
+			public Token create() throws WeixinException {
+				return new Token("ACCESS_TOKEN", 7200 * 1000l);
+			}
+		}, cacheStorager);
+	}
+
+	@TearDown
+	public void tearDown() {
+		cacheStorager.shutdown();
+	}
+
+	@Benchmark
+	public Token getCache() throws WeixinException {
+		return cacheManager.getCache();
+	}
+}
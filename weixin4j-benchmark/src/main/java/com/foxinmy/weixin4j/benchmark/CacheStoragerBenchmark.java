@@ -0,0 +1,91 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxinmy.weixin4j.cache.CacheStorager;
+import com.foxinmy.weixin4j.cache.FileCacheStorager;
+import com.foxinmy.weixin4j.cache.MappedFileCacheStorager;
+import com.foxinmy.weixin4j.cache.codec.TokenCacheCodec;
+import com.foxinmy.weixin4j.model.Token;
+
+/**
+ * 文件缓存的读写:每个key一个文件与内存映射文件的对比
+ *
+ * @className CacheStoragerBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see FileCacheStorager
+ * @see MappedFileCacheStorager
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheStoragerBenchmark {
+
+	@Param({ "file", "mapped" })
+	private String storager;
+
+	private File directory;
+	private CacheStorager<Token> cacheStorager;
+	private Token token;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("weixin4j-benchmark").toFile();
+		if ("file".equals(storager)) {
+			cacheStorager = new FileCacheStorager<Token>(
+					directory.getAbsolutePath(), new TokenCacheCodec());
+		} else {
+			cacheStorager = new MappedFileCacheStorager<Token>(
+					directory.getAbsolutePath(), 64, new TokenCacheCodec());
+		}
+		token = new Token("ACCESS_TOKEN", 7200 * 1000l);
+		cacheStorager.caching("weixin4j_benchmark_token", token);
+	}
+
+	@TearDown
+	public void tearDown() {
+		cacheStorager.clear();
+		delete(directory);
+	}
+
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	@Benchmark
+	public Token lookup() {
+		return cacheStorager.lookup("weixin4j_benchmark_token");
+	}
+
+	@Benchmark
+	public void caching() {
+		cacheStorager.caching("weixin4j_benchmark_token", token);
+	}
+}
@@ -0,0 +1,106 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.TypeReference;
+import com.foxinmy.weixin4j.http.weixin.ApiResult;
+import com.foxinmy.weixin4j.http.weixin.JsonFieldReader;
+import com.foxinmy.weixin4j.http.weixin.WeixinResponse;
+import com.foxinmy.weixin4j.util.Consts;
+
+/**
+ * 大列表响应的读取:一页10000个openid的关注者列表,先生成JSONObject再转换与流式读取
+ *
+ * @className JsonListBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinResponse#readAsJson(JsonFieldReader)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonListBenchmark {
+
+	private MemoryHttpResponse followingResponse;
+
+	@Setup
+	public void setup() {
+		StringBuilder json = new StringBuilder(
+				"{\"total\":23000,\"count\":10000,\"data\":{\"openid\":[");
+		for (int i = 0; i < 10000; i++) {
+			json.append(i > 0 ? "," : "").append(
+					String.format("\"o6_bmjrPTlm6_2sgVt7hMZ%06d\"", i));
+		}
+		json.append("]},\"next_openid\":\"o6_bmjrPTlm6_2sgVt7hMZ009999\"}");
+		followingResponse = new MemoryHttpResponse(
+				"application/json; encoding=utf-8", json.toString().getBytes(
+						Consts.UTF_8));
+	}
+
+	/**
+	 * 检查错误码后生成JSONObject,再序列化为字符串转换为列表
+	 */
+	@Benchmark
+	public List<String> tree() {
+		WeixinResponse response = new WeixinResponse(followingResponse);
+		ApiResult result = response.getAsResult();
+		if (!"0".equals(result.getReturnCode())) {
+			return null;
+		}
+		return JSON.parseArray(response.getAsJson().getJSONObject("data")
+				.getString("openid"), String.class);
+	}
+
+	/**
+	 * 检查错误码后流式读取列表
+	 */
+	@Benchmark
+	public List<String> stream() {
+		WeixinResponse response = new WeixinResponse(followingResponse);
+		ApiResult result = response.getAsResult();
+		if (!"0".equals(result.getReturnCode())) {
+			return null;
+		}
+		final OpenIds openIds = new OpenIds();
+		response.readAsJson(new JsonFieldReader() {
+			@Override
+			public boolean read(String name, JSONReader reader) {
+				if (!"data".equals(name)) {
+					return false;
+				}
+				reader.startObject();
+				while (reader.hasNext()) {
+					reader.readString();
+					openIds.list = reader
+							.readObject(new TypeReference<List<String>>() {
+							});
+				}
+				reader.endObject();
+				return true;
+			}
+		});
+		return openIds.list;
+	}
+
+	private static class OpenIds {
+		private List<String> list;
+	}
+}
@@ -0,0 +1,46 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import com.foxinmy.weixin4j.http.AbstractHttpResponse;
+import com.foxinmy.weixin4j.http.HttpHeaders;
+import com.foxinmy.weixin4j.http.HttpStatus;
+import com.foxinmy.weixin4j.http.HttpVersion;
+
+/**
+ * 内存中的HTTP响应:不经过网络模拟接口的返回内容
+ *
+ * @className MemoryHttpResponse
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+class MemoryHttpResponse extends AbstractHttpResponse {
+
+	private static final HttpStatus OK = new HttpStatus(200, "OK");
+
+	private final HttpHeaders headers;
+
+	MemoryHttpResponse(String contentType, byte[] content) {
+		super(content);
+		this.headers = new HttpHeaders();
+		this.headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return headers;
+	}
+
+	@Override
+	public HttpVersion getProtocol() {
+		return HttpVersion.HTTP_1_1;
+	}
+
+	@Override
+	public HttpStatus getStatus() {
+		return OK;
+	}
+
+	@Override
+	public void close() {
+	}
+}
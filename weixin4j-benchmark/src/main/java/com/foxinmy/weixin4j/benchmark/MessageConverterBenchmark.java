@@ -0,0 +1,77 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.fastjson.JSONObject;
+import com.foxinmy.weixin4j.http.message.JsonMessageConverter;
+import com.foxinmy.weixin4j.http.message.XmlMessageConverter;
+import com.foxinmy.weixin4j.pay.payment.mch.Order;
+import com.foxinmy.weixin4j.util.Consts;
+
+/**
+ * 接口响应的转换:媒体类型的判断与内容的反序列化
+ *
+ * @className MessageConverterBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see JsonMessageConverter
+ * @see XmlMessageConverter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageConverterBenchmark {
+
+	private static final String USER = "{\"subscribe\":1,\"openid\":\"o6_bmjrPTlm6_2sgVt7hMZOPfL2M\","
+			+ "\"nickname\":\"Band\",\"sex\":1,\"language\":\"zh_CN\",\"city\":\"广州\","
+			+ "\"province\":\"广东\",\"country\":\"中国\",\"headimgurl\":\"http://thirdwx.qlogo.cn/mmopen/0\","
+			+ "\"subscribe_time\":1382694957,\"remark\":\"\",\"groupid\":0,\"tagid_list\":[128,2]}";
+
+	private MemoryHttpResponse jsonResponse;
+	private MemoryHttpResponse xmlResponse;
+
+	@Setup
+	public void setup() {
+		jsonResponse = new MemoryHttpResponse("application/json; encoding=utf-8",
+				USER.getBytes(Consts.UTF_8));
+		xmlResponse = new MemoryHttpResponse("text/plain",
+				Samples.ORDER.getBytes(Consts.UTF_8));
+	}
+
+	@Benchmark
+	public JSONObject json() throws IOException {
+		if (JsonMessageConverter.GLOBAL.canConvert(JSONObject.class,
+				jsonResponse)) {
+			return JsonMessageConverter.GLOBAL.convert(JSONObject.class,
+					jsonResponse);
+		}
+		return null;
+	}
+
+	/**
+	 * 微信支付的响应没有正确的媒体类型,需要按内容判断
+	 */
+	@Benchmark
+	public Order xml() throws IOException {
+		if (XmlMessageConverter.GLOBAL.canConvert(Order.class, xmlResponse)) {
+			return XmlMessageConverter.GLOBAL.convert(Order.class, xmlResponse);
+		}
+		return null;
+	}
+}
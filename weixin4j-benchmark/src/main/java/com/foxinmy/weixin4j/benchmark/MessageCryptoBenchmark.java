@@ -0,0 +1,131 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxinmy.weixin4j.util.AesCipher;
+import com.foxinmy.weixin4j.util.MessageUtil;
+import com.foxinmy.weixin4j.util.SignatureDigest;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/**
+ * 回调消息的加解密与签名:字符串形式与池化ByteBuf形式的对比
+ *
+ * @className MessageCryptoBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see MessageUtil
+ * @see AesCipher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageCryptoBenchmark {
+
+	private static final String APP_ID = "wxa652fc930afe9b22";
+	private static final String AES_KEY = "3XItJRSSkTqH7etjBUbLfLBecLdFfGjbGPfmIHuGftD";
+	private static final String TOKEN = "weixin4j";
+	private static final String TIMESTAMP = "1409304348";
+	private static final String NONCE = "xxxxxx";
+
+	/**
+	 * 明文消息的大小(字节)
+	 */
+	@Param({ "256", "4096" })
+	private int size;
+
+	private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+	private AesCipher cipher;
+	private String xml;
+	private String encrypt;
+	private ByteBuf xmlBuffer;
+	private ByteBuf encryptBuffer;
+
+	@Setup
+	public void setup() {
+		xml = Samples.textMessage(size);
+		encrypt = MessageUtil.aesEncrypt(APP_ID, AES_KEY, xml);
+		cipher = AesCipher.getInstance(AES_KEY);
+		xmlBuffer = Unpooled.directBuffer().writeBytes(
+				xml.getBytes(CharsetUtil.UTF_8));
+		encryptBuffer = ByteBufUtil.writeAscii(allocator, encrypt);
+	}
+
+	@TearDown
+	public void tearDown() {
+		xmlBuffer.release();
+		encryptBuffer.release();
+	}
+
+	@Benchmark
+	public String aesEncrypt() {
+		return MessageUtil.aesEncrypt(APP_ID, AES_KEY, xml);
+	}
+
+	@Benchmark
+	public String aesDecrypt() {
+		return MessageUtil.aesDecrypt(APP_ID, AES_KEY, encrypt);
+	}
+
+	@Benchmark
+	public int aesEncryptPooled() {
+		ByteBuf encrypted = cipher.encrypt(APP_ID, xmlBuffer, allocator);
+		try {
+			return encrypted.readableBytes();
+		} finally {
+			encrypted.release();
+		}
+	}
+
+	@Benchmark
+	public int aesDecryptPooled() {
+		ByteBuf original = cipher.decrypt(APP_ID, encryptBuffer);
+		try {
+			return original.readableBytes();
+		} finally {
+			original.release();
+		}
+	}
+
+	@Benchmark
+	public String signature() {
+		return MessageUtil.signature(TOKEN, TIMESTAMP, NONCE, encrypt);
+	}
+
+	@Benchmark
+	public String signatureByteBuf() {
+		return MessageUtil.signature(TOKEN, TIMESTAMP, NONCE, encryptBuffer);
+	}
+
+	/**
+	 * 流式解码时分段计算的签名
+	 */
+	@Benchmark
+	public String signatureDigest() {
+		SignatureDigest digest = new SignatureDigest(TOKEN, TIMESTAMP, NONCE);
+		digest.update(encryptBuffer);
+		return digest.digest();
+	}
+}
@@ -0,0 +1,178 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxinmy.weixin4j.dispatcher.MessageHandlerIndex;
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageDispatcher;
+import com.foxinmy.weixin4j.handler.MessageHandlerAdapter;
+import com.foxinmy.weixin4j.handler.WeixinMessageHandler;
+import com.foxinmy.weixin4j.message.ImageMessage;
+import com.foxinmy.weixin4j.message.TextMessage;
+import com.foxinmy.weixin4j.request.WeixinMessage;
+import com.foxinmy.weixin4j.request.WeixinRequest;
+import com.foxinmy.weixin4j.response.TextResponse;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+import com.foxinmy.weixin4j.socket.WeixinMessageTransfer;
+import com.foxinmy.weixin4j.type.EncryptType;
+import com.foxinmy.weixin4j.xml.MessageTransferHandler;
+
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * 消息处理器的匹配:按消息类型建立的索引与逐个匹配后排序的对比
+ *
+ * @className MessageDispatchBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see MessageHandlerIndex
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageDispatchBenchmark {
+
+	/**
+	 * 注册的处理器数量,一半处理文本消息一半处理图片消息
+	 */
+	@Param({ "10", "100", "500" })
+	private int handlers;
+
+	private WeixinMessageHandler[] messageHandlers;
+	private MessageHandlerIndex handlerIndex;
+	private WeixinRequest request;
+	private WeixinMessage message;
+	private Set<String> nodeNames;
+
+	@Setup
+	public void setup() {
+		messageHandlers = new WeixinMessageHandler[handlers];
+		for (int i = 0; i < handlers; i++) {
+			messageHandlers[i] = i % 2 == 0 ? new KeywordHandler("keyword" + i,
+					i) : new ImageHandler(i);
+		}
+		handlerIndex = new MessageHandlerIndex(messageHandlers);
+		request = new WeixinRequest(EmptyHttpHeaders.INSTANCE, HttpMethod.POST,
+				"/", EncryptType.RAW, null, "1409304348", "xxxxxx", null, null,
+				Samples.TEXT_MESSAGE, null, null);
+		WeixinMessageTransfer messageTransfer = MessageTransferHandler
+				.parser(request);
+		nodeNames = messageTransfer.getNodeNames();
+		message = new BindingDispatcher().read(messageTransfer, TextMessage.class);
+	}
+
+	/**
+	 * 索引中的候选处理器已按权重排序,第一个匹配即返回
+	 */
+	@Benchmark
+	public WeixinMessageHandler index() {
+		for (WeixinMessageHandler handler : handlerIndex.getHandlers(message
+				.getClass())) {
+			if (handler.canHandle(request, message, nodeNames)) {
+				return handler;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 逐个调用canHandle收集匹配的处理器,再按权重降序排列
+	 */
+	@Benchmark
+	public WeixinMessageHandler scan() {
+		List<WeixinMessageHandler> matchedHandlers = new ArrayList<WeixinMessageHandler>();
+		for (WeixinMessageHandler handler : messageHandlers) {
+			if (handler.canHandle(request, message, nodeNames)) {
+				matchedHandlers.add(handler);
+			}
+		}
+		if (matchedHandlers.isEmpty()) {
+			return null;
+		}
+		Collections.sort(matchedHandlers, new Comparator<WeixinMessageHandler>() {
+			@Override
+			public int compare(WeixinMessageHandler m1, WeixinMessageHandler m2) {
+				return m2.weight() - m1.weight();
+			}
+		});
+		return matchedHandlers.get(0);
+	}
+
+	private static class KeywordHandler extends
+			MessageHandlerAdapter<TextMessage> {
+
+		private final String keyword;
+		private final int weight;
+
+		KeywordHandler(String keyword, int weight) {
+			this.keyword = keyword;
+			this.weight = weight;
+		}
+
+		@Override
+		protected boolean canHandle0(WeixinRequest request, TextMessage message) {
+			// 样例消息的内容以"你好"开头,仅最后的兜底处理器匹配
+			return message.getContent().startsWith(keyword)
+					|| weight == 0;
+		}
+
+		@Override
+		protected WeixinResponse doHandle0(TextMessage message) {
+			return new TextResponse(keyword);
+		}
+
+		@Override
+		public int weight() {
+			return weight;
+		}
+	}
+
+	private static class ImageHandler extends
+			MessageHandlerAdapter<ImageMessage> {
+
+		private final int weight;
+
+		ImageHandler(int weight) {
+			this.weight = weight;
+		}
+
+		@Override
+		protected WeixinResponse doHandle0(ImageMessage message) {
+			return new TextResponse("image");
+		}
+
+		@Override
+		public int weight() {
+			return weight;
+		}
+	}
+
+	private static class BindingDispatcher extends WeixinMessageDispatcher {
+
+		<M extends WeixinMessage> M read(WeixinMessageTransfer messageTransfer,
+				Class<M> clazz) {
+			return messageRead(messageTransfer.getMessageNode(), clazz);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Node;
+
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageDispatcher;
+import com.foxinmy.weixin4j.message.TextMessage;
+import com.foxinmy.weixin4j.mp.event.ScribeEventMessage;
+import com.foxinmy.weixin4j.qy.event.BatchjobresultMessage;
+import com.foxinmy.weixin4j.request.WeixinMessage;
+import com.foxinmy.weixin4j.request.WeixinRequest;
+import com.foxinmy.weixin4j.socket.WeixinMessageTransfer;
+import com.foxinmy.weixin4j.type.EncryptType;
+import com.foxinmy.weixin4j.xml.MessageTransferHandler;
+
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * 回调消息的解析:单次解析得到的节点直接绑定与重新解析字符串的对比
+ *
+ * @className MessageParseBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see MessageTransferHandler
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageParseBenchmark {
+
+	/**
+	 * 消息样例:公众号文本消息、公众号关注事件、企业号异步任务事件
+	 */
+	@Param({ "text", "subscribe", "batchjob" })
+	private String message;
+
+	private final BindingDispatcher dispatcher = new BindingDispatcher();
+	private WeixinRequest request;
+	private Class<? extends WeixinMessage> messageClass;
+	private Node messageNode;
+
+	@Setup
+	public void setup() {
+		String content;
+		if ("text".equals(message)) {
+			content = Samples.TEXT_MESSAGE;
+			messageClass = TextMessage.class;
+		} else if ("subscribe".equals(message)) {
+			content = Samples.SUBSCRIBE_EVENT;
+			messageClass = ScribeEventMessage.class;
+		} else {
+			content = Samples.QY_BATCHJOB_EVENT;
+			messageClass = BatchjobresultMessage.class;
+		}
+		request = new WeixinRequest(EmptyHttpHeaders.INSTANCE, HttpMethod.POST,
+				"/", EncryptType.RAW, null, "1409304348", "xxxxxx", null, null,
+				content, null, null);
+		messageNode = MessageTransferHandler.parser(request).getMessageNode();
+		// 预先创建JAXBContext
+		dispatcher.read(messageNode, messageClass);
+	}
+
+	@Benchmark
+	public WeixinMessageTransfer transfer() {
+		return MessageTransferHandler.parser(request);
+	}
+
+	/**
+	 * 解析后由节点绑定消息对象(当前的分发流程)
+	 */
+	@Benchmark
+	public WeixinMessage transferAndBindNode() {
+		return dispatcher.read(MessageTransferHandler.parser(request)
+				.getMessageNode(), messageClass);
+	}
+
+	/**
+	 * 解析后重新解析字符串绑定消息对象
+	 */
+	@Benchmark
+	public WeixinMessage transferAndBindString() {
+		MessageTransferHandler.parser(request);
+		return dispatcher.read(request.getOriginalContent(), messageClass);
+	}
+
+	@Benchmark
+	public WeixinMessage bindNode() {
+		return dispatcher.read(messageNode, messageClass);
+	}
+
+	private static class BindingDispatcher extends WeixinMessageDispatcher {
+
+		<M extends WeixinMessage> M read(Node messageNode, Class<M> clazz) {
+			return messageRead(messageNode, clazz);
+		}
+
+		<M extends WeixinMessage> M read(String message, Class<M> clazz) {
+			return messageRead(message, clazz);
+		}
+	}
+}
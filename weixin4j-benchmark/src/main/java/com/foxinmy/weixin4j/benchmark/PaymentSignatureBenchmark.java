@@ -0,0 +1,63 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxinmy.weixin4j.pay.payment.mch.MchPayPackage;
+import com.foxinmy.weixin4j.pay.sign.WeixinPaymentSignature;
+import com.foxinmy.weixin4j.pay.type.TradeType;
+import com.foxinmy.weixin4j.util.MapUtil;
+
+/**
+ * 支付参数的拼接与签名
+ *
+ * @className PaymentSignatureBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinPaymentSignature
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentSignatureBenchmark {
+
+	private WeixinPaymentSignature signature;
+	private MchPayPackage payPackage;
+
+	@Setup
+	public void setup() {
+		signature = new WeixinPaymentSignature(
+				"192006250b4c09247ec02edce69f6a2d");
+		payPackage = new MchPayPackage("weixin4j支付测试", "1415757673", 0.01d,
+				"https://github.com/foxinmy/weixin4j/notify", "127.0.0.1",
+				TradeType.JSAPI, "oUpF8uN95-Ptaags6E_roPHg7AG0", null, null,
+				"订单额外描述");
+		payPackage.setAppId("wx2421b1c4370ec43b");
+		payPackage.setMchId("10000100");
+		payPackage.setNonceStr("TN55wO9Pba5yENl8");
+	}
+
+	@Benchmark
+	public String joinString() {
+		return MapUtil.toJoinString(payPackage, false, false);
+	}
+
+	@Benchmark
+	public String sign() {
+		return signature.sign(payPackage);
+	}
+}
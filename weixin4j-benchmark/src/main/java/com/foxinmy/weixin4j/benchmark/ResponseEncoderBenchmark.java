@@ -0,0 +1,131 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxinmy.weixin4j.response.NewsResponse;
+import com.foxinmy.weixin4j.response.NewsResponse.Article;
+import com.foxinmy.weixin4j.response.ResponseWriter;
+import com.foxinmy.weixin4j.response.TextResponse;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+import com.foxinmy.weixin4j.socket.WeixinMessageTransfer;
+import com.foxinmy.weixin4j.socket.WeixinResponseEncoder;
+import com.foxinmy.weixin4j.type.AccountType;
+import com.foxinmy.weixin4j.type.EncryptType;
+import com.foxinmy.weixin4j.util.AesToken;
+import com.foxinmy.weixin4j.util.ServerToolkits;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.FullHttpResponse;
+
+/**
+ * 被动回复的编码:直接写入池化缓冲区与拼接字符串的对比
+ *
+ * @className ResponseEncoderBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinResponseEncoder
+ * @see ResponseWriter
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncoderBenchmark {
+
+	/**
+	 * 回复类型:文本、8条图文
+	 */
+	@Param({ "text", "news" })
+	private String reply;
+
+	@Param({ "RAW", "AES" })
+	private EncryptType encryptType;
+
+	private EmbeddedChannel channel;
+	private WeixinResponse response;
+	private ByteBuf buffer;
+
+	@Setup
+	public void setup() {
+		if ("text".equals(reply)) {
+			response = new TextResponse("你好,weixin4j <回复> & 转义");
+		} else {
+			List<Article> articles = new ArrayList<Article>();
+			for (int i = 0; i < 8; i++) {
+				articles.add(new Article("标题" + i, "描述" + i,
+						"https://github.com/foxinmy/weixin4j?i=" + i,
+						"https://mmbiz.qpic.cn/" + i + ".jpg"));
+			}
+			response = new NewsResponse(articles);
+		}
+		AesToken aesToken = new AesToken("wxa652fc930afe9b22", "weixin4j",
+				"3XItJRSSkTqH7etjBUbLfLBecLdFfGjbGPfmIHuGftD");
+		channel = new EmbeddedChannel(new WeixinResponseEncoder());
+		channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+		channel.attr(ServerToolkits.MESSAGE_TRANSFER_KEY).set(
+				new WeixinMessageTransfer(aesToken, encryptType,
+						"gh_6d2bd3c3f25b", "oDF3iY9P32sK_5GgYiRkjsCo45bk",
+						AccountType.MP, "text", null, Collections
+								.<String> emptySet()));
+		buffer = PooledByteBufAllocator.DEFAULT.buffer();
+	}
+
+	@TearDown
+	public void tearDown() {
+		channel.finishAndReleaseAll();
+		buffer.release();
+	}
+
+	/**
+	 * 完整的回复编码(含加密与签名)
+	 */
+	@Benchmark
+	public int encode() {
+		channel.writeOutbound(response);
+		FullHttpResponse httpResponse = channel.readOutbound();
+		try {
+			return httpResponse.content().readableBytes();
+		} finally {
+			httpResponse.release();
+		}
+	}
+
+	/**
+	 * 回复内容转换为字符串
+	 */
+	@Benchmark
+	public String toContent() {
+		return ResponseWriter.toContent(response);
+	}
+
+	/**
+	 * 回复内容直接写入缓冲区
+	 */
+	@Benchmark
+	public int writeContent() {
+		buffer.clear();
+		response.writeContent(new ResponseWriter(buffer));
+		return buffer.readableBytes();
+	}
+}
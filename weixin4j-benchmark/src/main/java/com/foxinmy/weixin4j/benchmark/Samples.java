@@ -0,0 +1,73 @@
+package com.foxinmy.weixin4j.benchmark;
+
+/**
+ * 基准测试使用的样例报文
+ *
+ * @className Samples
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+final class Samples {
+
+	/**
+	 * 公众号文本消息
+	 */
+	static final String TEXT_MESSAGE = textMessage(0);
+
+	/**
+	 * 公众号关注事件
+	 */
+	static final String SUBSCRIBE_EVENT = "<xml><ToUserName><![CDATA[gh_6d2bd3c3f25b]]></ToUserName>"
+			+ "<FromUserName><![CDATA[oDF3iY9P32sK_5GgYiRkjsCo45bk]]></FromUserName>"
+			+ "<CreateTime>1409304348</CreateTime><MsgType><![CDATA[event]]></MsgType>"
+			+ "<Event><![CDATA[subscribe]]></Event><EventKey><![CDATA[qrscene_123123]]></EventKey>"
+			+ "<Ticket><![CDATA[TICKET]]></Ticket></xml>";
+
+	/**
+	 * 企业号异步任务完成事件
+	 */
+	static final String QY_BATCHJOB_EVENT = "<xml><ToUserName><![CDATA[wx28dbb14e37208abe]]></ToUserName>"
+			+ "<FromUserName><![CDATA[FromUser]]></FromUserName><CreateTime>1425284517</CreateTime>"
+			+ "<MsgType><![CDATA[event]]></MsgType><Event><![CDATA[batch_job_result]]></Event>"
+			+ "<BatchJob><JobId><![CDATA[S0MrnndvRG5fadSlLwiBqiDDbM143UqTmKP3152FZk4]]></JobId>"
+			+ "<JobType><![CDATA[sync_user]]></JobType><ErrCode>0</ErrCode><ErrMsg><![CDATA[ok]]></ErrMsg>"
+			+ "</BatchJob><AgentID>1</AgentID></xml>";
+
+	/**
+	 * 支付订单查询的结果
+	 */
+	static final String ORDER = "<xml><return_code><![CDATA[SUCCESS]]></return_code><return_msg><![CDATA[OK]]></return_msg>"
+			+ "<appid><![CDATA[wx2421b1c4370ec43b]]></appid><mch_id><![CDATA[10000100]]></mch_id>"
+			+ "<device_info><![CDATA[1000]]></device_info><nonce_str><![CDATA[TN55wO9Pba5yENl8]]></nonce_str>"
+			+ "<sign><![CDATA[BDF0099C15FF7BC6B1585FBB110AB635]]></sign><result_code><![CDATA[SUCCESS]]></result_code>"
+			+ "<openid><![CDATA[oUpF8uN95-Ptaags6E_roPHg7AG0]]></openid><is_subscribe><![CDATA[Y]]></is_subscribe>"
+			+ "<trade_type><![CDATA[JSAPI]]></trade_type><bank_type><![CDATA[CCB_DEBIT]]></bank_type>"
+			+ "<total_fee>100</total_fee><fee_type><![CDATA[CNY]]></fee_type>"
+			+ "<transaction_id><![CDATA[1008450740201411110005820873]]></transaction_id>"
+			+ "<out_trade_no><![CDATA[1415757673]]></out_trade_no><attach><![CDATA[订单额外描述]]></attach>"
+			+ "<time_end><![CDATA[20141111170043]]></time_end><trade_state><![CDATA[SUCCESS]]></trade_state></xml>";
+
+	private Samples() {
+	}
+
+	/**
+	 * 文本消息,内容填充到指定的大小
+	 *
+	 * @param size
+	 *            消息的大小(字节),小于模板时不填充
+	 * @return 文本消息
+	 */
+	static String textMessage(int size) {
+		String prefix = "<xml><ToUserName><![CDATA[gh_6d2bd3c3f25b]]></ToUserName>"
+				+ "<FromUserName><![CDATA[oDF3iY9P32sK_5GgYiRkjsCo45bk]]></FromUserName>"
+				+ "<CreateTime>1409304348</CreateTime><MsgType><![CDATA[text]]></MsgType>"
+				+ "<Content><![CDATA[你好,weixin4j";
+		String suffix = "]]></Content><MsgId>6054768590064713728</MsgId></xml>";
+		StringBuilder xml = new StringBuilder(Math.max(size, 256)).append(prefix);
+		while (xml.length() + suffix.length() < size) {
+			xml.append('x');
+		}
+		return xml.append(suffix).toString();
+	}
+}
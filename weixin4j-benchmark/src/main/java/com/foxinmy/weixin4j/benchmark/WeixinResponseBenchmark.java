@@ -0,0 +1,94 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.fastjson.JSONObject;
+import com.foxinmy.weixin4j.exception.WeixinException;
+import com.foxinmy.weixin4j.http.HttpParams;
+import com.foxinmy.weixin4j.http.factory.HttpClientFactory;
+import com.foxinmy.weixin4j.http.factory.SimpleHttpClientFactory;
+import com.foxinmy.weixin4j.http.weixin.WeixinRequestExecutor;
+import com.foxinmy.weixin4j.http.weixin.WeixinResponse;
+import com.foxinmy.weixin4j.http.weixin.XmlResult;
+import com.foxinmy.weixin4j.util.Consts;
+
+/**
+ * 接口响应的完整处理:错误码的检查与随后的读取,与WeixinRequestExecutor收到响应后的流程一致
+ *
+ * @className WeixinResponseBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinResponse
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeixinResponseBenchmark {
+
+	private static final String USER = "{\"subscribe\":1,\"openid\":\"o6_bmjrPTlm6_2sgVt7hMZOPfL2M\","
+			+ "\"nickname\":\"Band\",\"sex\":1,\"language\":\"zh_CN\",\"city\":\"广州\","
+			+ "\"province\":\"广东\",\"country\":\"中国\",\"headimgurl\":\"http://thirdwx.qlogo.cn/mmopen/0\","
+			+ "\"subscribe_time\":1382694957,\"remark\":\"\",\"groupid\":0,\"tagid_list\":[128,2]}";
+
+	private ResponseHandler responseHandler;
+	private MemoryHttpResponse jsonResponse;
+	private MemoryHttpResponse xmlResponse;
+
+	@Setup
+	public void setup() {
+		HttpClientFactory.setDefaultFactory(new SimpleHttpClientFactory());
+		responseHandler = new ResponseHandler();
+		jsonResponse = new MemoryHttpResponse(
+				"application/json; encoding=utf-8", USER.getBytes(Consts.UTF_8));
+		xmlResponse = new MemoryHttpResponse("text/plain",
+				Samples.ORDER.getBytes(Consts.UTF_8));
+	}
+
+	/**
+	 * 公众号接口:检查errcode后读取json
+	 */
+	@Benchmark
+	public JSONObject json() throws WeixinException {
+		WeixinResponse response = new WeixinResponse(jsonResponse);
+		responseHandler.handleResponse(response);
+		return response.getAsJson();
+	}
+
+	/**
+	 * 支付接口:检查return_code与result_code后读取结果
+	 */
+	@Benchmark
+	public XmlResult xml() throws WeixinException {
+		WeixinResponse response = new WeixinResponse(xmlResponse);
+		responseHandler.handleResponse(response);
+		return response.getAsXml();
+	}
+
+	private static class ResponseHandler extends WeixinRequestExecutor {
+
+		ResponseHandler() {
+			super(new HttpParams());
+		}
+
+		@Override
+		protected void handleResponse(WeixinResponse response)
+				throws WeixinException {
+			super.handleResponse(response);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.foxinmy.weixin4j.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.foxinmy.weixin4j.pay.payment.mch.Order;
+import com.foxinmy.weixin4j.xml.XmlStream;
+
+/**
+ * 支付接口的xml转换
+ *
+ * @className XmlStreamBenchmark
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see XmlStream
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlStreamBenchmark {
+
+	private Map<String, String> map;
+	private Order order;
+
+	@Setup
+	public void setup() {
+		map = XmlStream.xml2map(Samples.ORDER);
+		order = XmlStream.fromXML(Samples.ORDER, Order.class);
+	}
+
+	@Benchmark
+	public Order fromXML() {
+		return XmlStream.fromXML(Samples.ORDER, Order.class);
+	}
+
+	@Benchmark
+	public String toXML() {
+		return XmlStream.toXML(order);
+	}
+
+	@Benchmark
+	public Map<String, String> xml2map() {
+		return XmlStream.xml2map(Samples.ORDER);
+	}
+
+	@Benchmark
+	public String map2xml() {
+		return XmlStream.map2xml(map);
+	}
+}
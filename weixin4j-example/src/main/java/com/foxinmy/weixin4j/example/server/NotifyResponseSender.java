@@ -0,0 +1,114 @@
+package com.foxinmy.weixin4j.example.server;
+
+import com.foxinmy.weixin4j.dispatcher.WeixinResponseSender;
+import com.foxinmy.weixin4j.exception.WeixinException;
+import com.foxinmy.weixin4j.mp.WeixinProxy;
+import com.foxinmy.weixin4j.qy.model.IdParameter;
+import com.foxinmy.weixin4j.request.WeixinMessage;
+import com.foxinmy.weixin4j.response.ImageResponse;
+import com.foxinmy.weixin4j.response.MusicResponse;
+import com.foxinmy.weixin4j.response.NewsResponse;
+import com.foxinmy.weixin4j.response.TextResponse;
+import com.foxinmy.weixin4j.response.VideoResponse;
+import com.foxinmy.weixin4j.response.VoiceResponse;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+import com.foxinmy.weixin4j.tuple.Image;
+import com.foxinmy.weixin4j.tuple.Music;
+import com.foxinmy.weixin4j.tuple.News;
+import com.foxinmy.weixin4j.tuple.NotifyTuple;
+import com.foxinmy.weixin4j.tuple.Text;
+import com.foxinmy.weixin4j.tuple.Video;
+import com.foxinmy.weixin4j.tuple.Voice;
+
+/**
+ * 被动回复超过期限时,通过客服消息(公众号)或应用消息(企业号)发送处理结果
+ *
+ * <pre>
+ * new WeixinServerBootstrap(aesToken).businessExecutor(20, 1000)
+ * 		.asyncResponse(3000, new NotifyResponseSender(new WeixinProxy()))
+ * </pre>
+ *
+ * @className NotifyResponseSender
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see com.foxinmy.weixin4j.mp.api.NotifyApi
+ * @see com.foxinmy.weixin4j.qy.api.NotifyApi
+ */
+public class NotifyResponseSender implements WeixinResponseSender {
+
+	private final WeixinProxy mpProxy;
+	private final com.foxinmy.weixin4j.qy.WeixinProxy qyProxy;
+
+	public NotifyResponseSender(WeixinProxy mpProxy) {
+		this.mpProxy = mpProxy;
+		this.qyProxy = null;
+	}
+
+	public NotifyResponseSender(com.foxinmy.weixin4j.qy.WeixinProxy qyProxy) {
+		this.mpProxy = null;
+		this.qyProxy = qyProxy;
+	}
+
+	@Override
+	public void send(WeixinMessage message, WeixinResponse response) {
+		NotifyTuple tuple = convertTuple(response);
+		if (tuple == null) {
+			return;
+		}
+		try {
+			if (mpProxy != null) {
+				mpProxy.sendNotify(new com.foxinmy.weixin4j.mp.message.NotifyMessage(
+						message.getFromUserName(), tuple));
+			} else {
+				qyProxy.sendNotifyMessage(new com.foxinmy.weixin4j.qy.message.NotifyMessage(
+						Integer.parseInt(message.getAgentId()), tuple,
+						IdParameter.get().putUserIds(message.getFromUserName()),
+						false));
+			}
+		} catch (WeixinException e) {
+			throw new IllegalStateException("send notify fail:"
+					+ e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 被动回复转换为消息元件
+	 *
+	 * @param response
+	 *            被动回复
+	 * @return 消息元件,不支持的回复(如转发客服)返回空
+	 */
+	protected NotifyTuple convertTuple(WeixinResponse response) {
+		if (response instanceof TextResponse) {
+			return new Text(((TextResponse) response).getContent());
+		}
+		if (response instanceof ImageResponse) {
+			return new Image(((ImageResponse) response).getMediaId());
+		}
+		if (response instanceof VoiceResponse) {
+			return new Voice(((VoiceResponse) response).getMediaId());
+		}
+		if (response instanceof VideoResponse) {
+			VideoResponse video = (VideoResponse) response;
+			return new Video(video.getMediaId(), video.getTitle(),
+					video.getDesc());
+		}
+		if (response instanceof MusicResponse) {
+			MusicResponse music = (MusicResponse) response;
+			return new Music(music.getTitle(), music.getDesc(),
+					music.getMusicUrl(), music.getHqMusicUrl(),
+					music.getThumbMediaId());
+		}
+		if (response instanceof NewsResponse) {
+			News news = new News();
+			for (NewsResponse.Article article : ((NewsResponse) response)
+					.getArticleList()) {
+				news.addArticle(article.getTitle(), article.getDesc(),
+						article.getPicUrl(), article.getUrl());
+			}
+			return news;
+		}
+		return null;
+	}
+}
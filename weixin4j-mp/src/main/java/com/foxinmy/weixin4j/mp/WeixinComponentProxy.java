@@ -7,7 +7,7 @@ import java.util.Map;
 
 import com.alibaba.fastjson.JSON;
 import com.foxinmy.weixin4j.cache.CacheStorager;
-import com.foxinmy.weixin4j.cache.FileCacheStorager;
+import com.foxinmy.weixin4j.cache.MappedFileCacheStorager;
 import com.foxinmy.weixin4j.exception.WeixinException;
 import com.foxinmy.weixin4j.model.Token;
 import com.foxinmy.weixin4j.model.WeixinAccount;
@@ -44,10 +44,10 @@ public class WeixinComponentProxy {
 
 	/**
 	 * 微信第三方组件接口实现(使用weixin4j.properties配置的account#components账号信息,
-	 * 使用FileCacheStorager文件方式缓存TOKEN)
+	 * 使用MappedFileCacheStorager文件方式缓存TOKEN)
 	 */
 	public WeixinComponentProxy() {
-		this(new FileCacheStorager<Token>());
+		this(new MappedFileCacheStorager<Token>());
 	}
 
 	/**
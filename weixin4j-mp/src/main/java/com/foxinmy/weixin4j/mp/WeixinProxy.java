@@ -1,8 +1,14 @@
 package com.foxinmy.weixin4j.mp;
 
+import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.alibaba.fastjson.JSONObject;
 import com.foxinmy.weixin4j.cache.CacheStorager;
@@ -156,6 +162,10 @@ public class WeixinProxy {
 	 * token存储
 	 */
 	private final CacheStorager<Token> cacheStorager;
+	/**
+	 * 按票据类型缓存的ticketManager
+	 */
+	private final ConcurrentMap<TicketType, TokenManager> ticketManagers = new ConcurrentHashMap<TicketType, TokenManager>();
 
 	/**
 	 * 微信接口实现(使用weixin4j.properties配置的account账号信息,
@@ -280,7 +290,17 @@ public class WeixinProxy {
 	 * @return
 	 */
 	public TokenManager getTicketManager(TicketType ticketType) {
-		return new TokenManager(new WeixinTicketCreator(ticketType, this.tokenManager), this.cacheStorager);
+		TokenManager ticketManager = ticketManagers.get(ticketType);
+		if (ticketManager == null) {
+			ticketManager = new TokenManager(new WeixinTicketCreator(
+					ticketType, this.tokenManager), this.cacheStorager);
+			TokenManager existing = ticketManagers.putIfAbsent(ticketType,
+					ticketManager);
+			if (existing != null) {
+				ticketManager = existing;
+			}
+		}
+		return ticketManager;
 	}
 
 	/**
@@ -350,6 +370,22 @@ public class WeixinProxy {
 		return mediaApi.uploadMedia(isMaterial, is, fileName);
 	}
 
+	/**
+	 * 上传媒体文件,文件内容不读入内存
+	 *
+	 * @param isMaterial
+	 *            是否永久上传
+	 * @param file
+	 *            媒体文件
+	 * @return 上传到微信服务器返回的媒体标识
+	 * @see com.foxinmy.weixin4j.mp.api.MediaApi
+	 * @see #uploadMedia(boolean, InputStream, String)
+	 * @throws WeixinException
+	 */
+	public MediaUploadResult uploadMedia(boolean isMaterial, File file) throws WeixinException {
+		return mediaApi.uploadMedia(isMaterial, file);
+	}
+
 	/**
 	 * 下载媒体文件
 	 *
@@ -372,6 +408,43 @@ public class WeixinProxy {
 		return mediaApi.downloadMedia(mediaId, isMaterial);
 	}
 
+	/**
+	 * 下载媒体文件到输出流,内容不读入内存
+	 *
+	 * @param mediaId
+	 *            媒体ID
+	 * @param isMaterial
+	 *            是否永久素材
+	 * @param out
+	 *            输出流,不会被关闭
+	 * @return 媒体文件下载结果(内容为空)
+	 * @throws WeixinException
+	 * @see com.foxinmy.weixin4j.mp.api.MediaApi
+	 * @see #downloadMedia(String, boolean)
+	 */
+	public MediaDownloadResult downloadMedia(String mediaId, boolean isMaterial, OutputStream out)
+			throws WeixinException {
+		return mediaApi.downloadMedia(mediaId, isMaterial, out);
+	}
+
+	/**
+	 * 下载媒体文件到文件,内容不读入内存
+	 *
+	 * @param mediaId
+	 *            媒体ID
+	 * @param isMaterial
+	 *            是否永久素材
+	 * @param path
+	 *            文件路径,已存在时覆盖
+	 * @return 媒体文件下载结果(内容为空)
+	 * @throws WeixinException
+	 * @see com.foxinmy.weixin4j.mp.api.MediaApi
+	 * @see #downloadMedia(String, boolean)
+	 */
+	public MediaDownloadResult downloadMedia(String mediaId, boolean isMaterial, Path path) throws WeixinException {
+		return mediaApi.downloadMedia(mediaId, isMaterial, path);
+	}
+
 	/**
 	 * 上传永久图文素材
 	 * <p>
@@ -1559,6 +1632,20 @@ public class WeixinProxy {
 		return tmplApi.sendTmplMessage(tplMessage);
 	}
 
+	/**
+	 * 异步发送模板消息
+	 *
+	 * @param tplMessage
+	 *            模板消息主体
+	 * @return 发送的消息ID,发送失败时以CompletionException(WeixinException)结束
+	 * @throws WeixinException
+	 *             获取token失败
+	 * @see com.foxinmy.weixin4j.mp.api.TmplApi
+	 */
+	public CompletableFuture<String> sendTmplMessageAsync(TemplateMessage tplMessage) throws WeixinException {
+		return tmplApi.sendTmplMessageAsync(tplMessage);
+	}
+
 	/**
 	 * 长链接转短链接
 	 *
@@ -4,7 +4,6 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.foxinmy.weixin4j.exception.WeixinException;
 import com.foxinmy.weixin4j.http.weixin.WeixinResponse;
@@ -127,7 +126,6 @@ public class DataApi extends MpApi {
 				datacubeType.name().toLowerCase(), token.getAccessToken()), obj
 				.toJSONString());
 
-		return JSON.parseArray(response.getAsJson().getString("list"),
-				datacubeType.getClazz());
+		return response.getAsList("list", datacubeType.getClazz());
 	}
 }
@@ -1,9 +1,13 @@
 package com.foxinmy.weixin4j.mp.api;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -19,7 +23,8 @@ import com.foxinmy.weixin4j.http.HttpMethod;
 import com.foxinmy.weixin4j.http.HttpRequest;
 import com.foxinmy.weixin4j.http.HttpResponse;
 import com.foxinmy.weixin4j.http.MimeType;
-import com.foxinmy.weixin4j.http.apache.content.ByteArrayBody;
+import com.foxinmy.weixin4j.http.apache.content.ContentBody;
+import com.foxinmy.weixin4j.http.apache.content.FileBody;
 import com.foxinmy.weixin4j.http.apache.content.InputStreamBody;
 import com.foxinmy.weixin4j.http.apache.content.StringBody;
 import com.foxinmy.weixin4j.http.apache.mime.FormBodyPart;
@@ -149,21 +154,66 @@ public class MediaApi extends MpApi {
 	 */
 	public MediaUploadResult uploadMedia(boolean isMaterial, InputStream is,
 			String fileName) throws WeixinException {
-		byte[] content;
 		try {
-			content = IOUtil.toByteArray(is);
+			long contentLength = IOUtil.remaining(is);
+			if (!is.markSupported()) {
+				is = new BufferedInputStream(is);
+			}
+			if (StringUtil.isBlank(fileName)) {
+				fileName = ObjectId.get().toHexString();
+			}
+			String suffixName = FileUtil.getFileExtension(fileName);
+			if (StringUtil.isBlank(suffixName)) {
+				// 只读取开头的字节判断类型,不将整个内容读入内存
+				suffixName = FileUtil.peekFileType(is);
+				fileName = String.format("%s.%s", fileName, suffixName);
+			}
+			MediaType mediaType = getMediaType(isMaterial, suffixName);
+			return uploadMedia(isMaterial, mediaType, new InputStreamBody(is,
+					ContentType.create(mediaType.getMimeType().toString()),
+					fileName, contentLength));
 		} catch (IOException e) {
 			throw new WeixinException(e);
+		} finally {
+			try {
+				is.close();
+			} catch (IOException e) {
+				;
+			}
 		}
-		if (StringUtil.isBlank(fileName)) {
-			fileName = ObjectId.get().toHexString();
-		}
+	}
+
+	/**
+	 * 上传媒体文件:文件内容直接写入连接(支持的实现以零拷贝方式发送),不读入内存
+	 *
+	 * @param isMaterial
+	 *            是否永久上传
+	 * @param file
+	 *            媒体文件
+	 * @return 上传到微信服务器返回的媒体标识
+	 * @see #uploadMedia(boolean, InputStream, String)
+	 * @throws WeixinException
+	 */
+	public MediaUploadResult uploadMedia(boolean isMaterial, File file)
+			throws WeixinException {
+		String fileName = file.getName();
 		String suffixName = FileUtil.getFileExtension(fileName);
 		if (StringUtil.isBlank(suffixName)) {
-			suffixName = FileUtil
-					.getFileType(new ByteArrayInputStream(content));
+			try {
+				suffixName = FileUtil.getFileType(new FileInputStream(file));
+			} catch (IOException e) {
+				throw new WeixinException(e);
+			}
 			fileName = String.format("%s.%s", fileName, suffixName);
 		}
+		MediaType mediaType = getMediaType(isMaterial, suffixName);
+		return uploadMedia(isMaterial, mediaType, new FileBody(file,
+				ContentType.create(mediaType.getMimeType().toString()),
+				fileName));
+	}
+
+	private MediaType getMediaType(boolean isMaterial, String suffixName)
+			throws WeixinException {
 		MediaType mediaType;
 		if (",bmp,png,jpeg,jpg,gif,"
 				.contains(String.format(",%s,", suffixName))) {
@@ -181,6 +231,11 @@ public class MediaApi extends MpApi {
 			throw new WeixinException(
 					"please invoke uploadMaterialVideo method");
 		}
+		return mediaType;
+	}
+
+	private MediaUploadResult uploadMedia(boolean isMaterial,
+			MediaType mediaType, ContentBody media) throws WeixinException {
 		Token token = tokenManager.getCache();
 		WeixinResponse response = null;
 		try {
@@ -189,8 +244,7 @@ public class MediaApi extends MpApi {
 				response = weixinExecutor.post(
 						String.format(material_media_upload_uri,
 								token.getAccessToken()),
-						new FormBodyPart("media", new ByteArrayBody(content,
-								mediaType.getMimeType().toString(), fileName)),
+						new FormBodyPart("media", media),
 						new FormBodyPart("type", new StringBody(mediaType
 								.name(), Consts.UTF_8)));
 				JSONObject obj = response.getAsJson();
@@ -200,9 +254,7 @@ public class MediaApi extends MpApi {
 				String media_upload_uri = getRequestUri("media_upload_uri");
 				response = weixinExecutor.post(String.format(media_upload_uri,
 						token.getAccessToken(), mediaType.name()),
-						new FormBodyPart("media", new InputStreamBody(
-								new ByteArrayInputStream(content), mediaType
-										.getMimeType().toString(), fileName)));
+						new FormBodyPart("media", media));
 				JSONObject obj = response.getAsJson();
 				return new MediaUploadResult(obj.getString("media_id"),
 						obj.getObject("type", MediaType.class), new Date(
@@ -211,12 +263,6 @@ public class MediaApi extends MpApi {
 			}
 		} catch (UnsupportedEncodingException e) {
 			throw new WeixinException(e);
-		} finally {
-			try {
-				is.close();
-			} catch (IOException e) {
-				;
-			}
 		}
 	}
 
@@ -238,6 +284,69 @@ public class MediaApi extends MpApi {
 	 */
 	public MediaDownloadResult downloadMedia(String mediaId, boolean isMaterial)
 			throws WeixinException {
+		HttpResponse response = weixinExecutor
+				.doRequest(createDownloadRequest(mediaId, isMaterial));
+		return createDownloadResult(mediaId, response, response.getContent());
+	}
+
+	/**
+	 * 下载媒体素材到输出流:内容从连接上分块写入,不读入内存
+	 *
+	 * @param mediaId
+	 *            媒体ID
+	 * @param isMaterial
+	 *            是否下载永久素材
+	 * @param out
+	 *            输出流,不会被关闭
+	 * @return 媒体下载结果:类型与文件名取自响应头,内容为空
+	 *
+	 * @throws WeixinException
+	 * @see #downloadMedia(String, boolean)
+	 */
+	public MediaDownloadResult downloadMedia(String mediaId,
+			boolean isMaterial, OutputStream out) throws WeixinException {
+		WeixinResponse response = weixinExecutor
+				.doStreamingRequest(createDownloadRequest(mediaId, isMaterial));
+		try {
+			IOUtil.copy(response.getBody(), out);
+		} catch (IOException e) {
+			throw new WeixinException(e);
+		} finally {
+			response.close();
+		}
+		return createDownloadResult(mediaId, response, null);
+	}
+
+	/**
+	 * 下载媒体素材到文件:内容从连接上分块写入(FileChannel.transferFrom),不读入内存
+	 *
+	 * @param mediaId
+	 *            媒体ID
+	 * @param isMaterial
+	 *            是否下载永久素材
+	 * @param path
+	 *            文件路径,已存在时覆盖
+	 * @return 媒体下载结果:类型与文件名取自响应头,内容为空
+	 *
+	 * @throws WeixinException
+	 * @see #downloadMedia(String, boolean)
+	 */
+	public MediaDownloadResult downloadMedia(String mediaId,
+			boolean isMaterial, Path path) throws WeixinException {
+		WeixinResponse response = weixinExecutor
+				.doStreamingRequest(createDownloadRequest(mediaId, isMaterial));
+		try {
+			IOUtil.copy(response.getBody(), path);
+		} catch (IOException e) {
+			throw new WeixinException(e);
+		} finally {
+			response.close();
+		}
+		return createDownloadResult(mediaId, response, null);
+	}
+
+	private HttpRequest createDownloadRequest(String mediaId,
+			boolean isMaterial) throws WeixinException {
 		Token token = tokenManager.getCache();
 		HttpRequest request = null;
 		if (isMaterial) {
@@ -251,7 +360,14 @@ public class MediaApi extends MpApi {
 			request = new HttpRequest(HttpMethod.GET, String.format(
 					meida_download_uri, token.getAccessToken(), mediaId));
 		}
-		HttpResponse response = weixinExecutor.doRequest(request);
+		return request;
+	}
+
+	/**
+	 * 由响应头得到媒体的类型与文件名
+	 */
+	private MediaDownloadResult createDownloadResult(String mediaId,
+			HttpResponse response, byte[] content) {
 		HttpHeaders headers = response.getHeaders();
 		String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
 		String disposition = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
@@ -261,7 +377,7 @@ public class MediaApi extends MpApi {
 			fileName = String.format("%s.%s", mediaId,
 					contentType.split("/")[1]);
 		}
-		return new MediaDownloadResult(response.getContent(),
+		return new MediaDownloadResult(content,
 				ContentType.create(contentType), fileName);
 	}
 
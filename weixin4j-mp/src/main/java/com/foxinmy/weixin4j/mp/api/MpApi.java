@@ -1,8 +1,14 @@
 package com.foxinmy.weixin4j.mp.api;
 
+import java.util.List;
 import java.util.ResourceBundle;
 
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.TypeReference;
 import com.foxinmy.weixin4j.api.BaseApi;
+import com.foxinmy.weixin4j.http.weixin.JsonFieldReader;
+import com.foxinmy.weixin4j.http.weixin.WeixinResponse;
+import com.foxinmy.weixin4j.mp.model.Following;
 
 /**
  * 微信公众平台API
@@ -27,4 +33,43 @@ public class MpApi extends BaseApi {
 	protected ResourceBundle weixinBundle() {
 		return WEIXIN_BUNDLE;
 	}
+
+	/**
+	 * 流式读取关注者(黑名单、标签下粉丝)列表:{"total":2,"count":2,"data":{"openid":["",""]},"next_openid":""}
+	 *
+	 * @param response
+	 *            微信响应
+	 * @return 关注者信息 <font color="red">不包含用户的详细信息</font>
+	 */
+	protected Following getAsFollowing(WeixinResponse response) {
+		final Following following = new Following();
+		response.readAsJson(new JsonFieldReader() {
+			@Override
+			public boolean read(String name, JSONReader reader) {
+				if ("total".equals(name)) {
+					following.setTotal(reader.readInteger());
+				} else if ("count".equals(name)) {
+					following.setCount(reader.readInteger());
+				} else if ("next_openid".equals(name)) {
+					following.setNextOpenId(reader.readString());
+				} else if ("data".equals(name)) {
+					reader.startObject();
+					while (reader.hasNext()) {
+						if ("openid".equals(reader.readString())) {
+							following.setOpenIds(reader
+									.readObject(new TypeReference<List<String>>() {
+									}));
+						} else {
+							reader.readObject();
+						}
+					}
+					reader.endObject();
+				} else {
+					return false;
+				}
+				return true;
+			}
+		});
+		return following;
+	}
 }
@@ -3,7 +3,6 @@ package com.foxinmy.weixin4j.mp.api;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.foxinmy.weixin4j.exception.WeixinException;
 import com.foxinmy.weixin4j.http.weixin.ApiResult;
@@ -66,8 +65,7 @@ public class TagApi extends MpApi {
 		WeixinResponse response = weixinExecutor.get(String.format(tag_get_uri,
 				tokenManager.getAccessToken()));
 
-		return JSON.parseArray(response.getAsJson().getString("tags"),
-				Tag.class);
+		return response.getAsList("tags", Tag.class);
 	}
 
 	/**
@@ -177,14 +175,7 @@ public class TagApi extends MpApi {
 				String.format(tag_user_uri, tokenManager.getAccessToken()),
 				obj.toJSONString());
 
-		JSONObject result = response.getAsJson();
-		Following following = JSON.toJavaObject(result, Following.class);
-
-		if (following.getCount() > 0) {
-			following.setOpenIds(JSON.parseArray(result.getJSONObject("data")
-					.getString("openid"), String.class));
-		}
-		return following;
+		return getAsFollowing(response);
 	}
 
 	/**
@@ -287,8 +278,8 @@ public class TagApi extends MpApi {
 		WeixinResponse response = weixinExecutor.post(
 				String.format(tag_userids_uri, tokenManager.getAccessToken()),
 				String.format("{\"openid\":\"%s\"}", openId));
-		return response.getAsJson().getJSONArray("tagid_list")
-				.toArray(new Integer[] {});
+		return response.getAsList("tagid_list", Integer.class).toArray(
+				new Integer[] {});
 	}
 
 	/**
@@ -311,13 +302,7 @@ public class TagApi extends MpApi {
 		Token token = tokenManager.getCache();
 		WeixinResponse response = weixinExecutor.post(String.format(
 				getblacklist_uri, token.getAccessToken(), obj.toJSONString()));
-		JSONObject result = response.getAsJson();
-		Following following = JSON.toJavaObject(result, Following.class);
-		if (following.getCount() > 0) {
-			following.setOpenIds(JSON.parseArray(result.getJSONObject("data")
-					.getString("openid"), String.class));
-		}
-		return following;
+		return getAsFollowing(response);
 	}
 
 	/**
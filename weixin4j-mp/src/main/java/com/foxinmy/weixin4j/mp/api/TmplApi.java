@@ -1,6 +1,8 @@
 package com.foxinmy.weixin4j.mp.api;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
@@ -163,17 +165,45 @@ public class TmplApi extends MpApi {
 		String template_send_uri = getRequestUri("template_send_uri");
 		WeixinResponse response = weixinExecutor.post(
 				String.format(template_send_uri, token.getAccessToken()),
-				JSON.toJSONString(tplMessage, new NameFilter() {
+				toTmplJson(tplMessage));
+
+		return response.getAsJson().getString("msgid");
+	}
+
+	/**
+	 * 异步发送模板消息
+	 * 
+	 * @param tplMessage
+	 *            消息对象
+	 * @return 发送的消息ID,发送失败时以CompletionException(WeixinException)结束
+	 * @throws WeixinException
+	 *             获取token失败
+	 * @see #sendTmplMessage(TemplateMessage)
+	 */
+	public CompletableFuture<String> sendTmplMessageAsync(
+			TemplateMessage tplMessage) throws WeixinException {
+		Token token = tokenManager.getCache();
+		String template_send_uri = getRequestUri("template_send_uri");
+		return weixinExecutor.postAsync(
+				String.format(template_send_uri, token.getAccessToken()),
+				toTmplJson(tplMessage)).thenApply(
+				new Function<WeixinResponse, String>() {
 					@Override
-					public String process(Object object, String name,
-							Object value) {
-						if (object instanceof NameValue && name.equals("name")) {
-							return "color";
-						}
-						return name;
+					public String apply(WeixinResponse response) {
+						return response.getAsJson().getString("msgid");
 					}
-				}));
+				});
+	}
 
-		return response.getAsJson().getString("msgid");
+	private String toTmplJson(TemplateMessage tplMessage) {
+		return JSON.toJSONString(tplMessage, new NameFilter() {
+			@Override
+			public String process(Object object, String name, Object value) {
+				if (object instanceof NameValue && name.equals("name")) {
+					return "color";
+				}
+				return name;
+			}
+		});
 	}
 }
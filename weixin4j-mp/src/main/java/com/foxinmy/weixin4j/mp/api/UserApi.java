@@ -3,7 +3,6 @@ package com.foxinmy.weixin4j.mp.api;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.alibaba.fastjson.TypeReference;
 import com.foxinmy.weixin4j.exception.WeixinException;
@@ -120,7 +119,7 @@ public class UserApi extends MpApi {
 		WeixinResponse response = weixinExecutor.post(String.format(api_users_info_uri, token.getAccessToken()),
 				parameter.toString());
 
-		return JSON.parseArray(response.getAsJson().getString("user_info_list"), User.class);
+		return response.getAsList("user_info_list", User.class);
 	}
 
 	/**
@@ -170,13 +169,7 @@ public class UserApi extends MpApi {
 		WeixinResponse response = weixinExecutor
 				.get(String.format(following_uri, token.getAccessToken(), nextOpenId == null ? "" : nextOpenId));
 
-		JSONObject result = response.getAsJson();
-		Following following = JSON.toJavaObject(result, Following.class);
-
-		if (following.getCount() > 0) {
-			following.setOpenIds(JSON.parseArray(result.getJSONObject("data").getString("openid"), String.class));
-		}
-		return following;
+		return getAsFollowing(response);
 	}
 
 	/**
@@ -1,7 +1,13 @@
 package com.foxinmy.weixin4j.qy;
 
+import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.alibaba.fastjson.JSONObject;
 import com.foxinmy.weixin4j.cache.CacheStorager;
@@ -126,6 +132,10 @@ public class WeixinProxy {
 	 * token存储
 	 */
 	private final CacheStorager<Token> cacheStorager;
+	/**
+	 * 按票据类型缓存的ticketManager
+	 */
+	private final ConcurrentMap<TicketType, TokenManager> ticketManagers = new ConcurrentHashMap<TicketType, TokenManager>();
 
 	/**
 	 * 微信接口实现(使用weixin4j.properties配置的account账号信息,
@@ -253,8 +263,17 @@ public class WeixinProxy {
 	 * @return
 	 */
 	public TokenManager getTicketManager(TicketType ticketType) {
-		return new TokenManager(new WeixinTicketCreator(ticketType,
-				this.tokenManager), cacheStorager);
+		TokenManager ticketManager = ticketManagers.get(ticketType);
+		if (ticketManager == null) {
+			ticketManager = new TokenManager(new WeixinTicketCreator(
+					ticketType, this.tokenManager), this.cacheStorager);
+			TokenManager existing = ticketManagers.putIfAbsent(ticketType,
+					ticketManager);
+			if (existing != null) {
+				ticketManager = existing;
+			}
+		}
+		return ticketManager;
 	}
 
 	/**
@@ -287,6 +306,21 @@ public class WeixinProxy {
 		return notifyApi.sendNotifyMessage(message);
 	}
 
+	/**
+	 * 异步发送消息提醒
+	 *
+	 * @param message
+	 *            消息对象
+	 * @return 无效的部分,发送失败时以CompletionException(WeixinException)结束
+	 * @throws WeixinException
+	 *             消息内容不合法或获取token失败
+	 * @see com.foxinmy.weixin4j.qy.api.NotifyApi
+	 */
+	public CompletableFuture<IdParameter> sendNotifyMessageAsync(
+			NotifyMessage message) throws WeixinException {
+		return notifyApi.sendNotifyMessageAsync(message);
+	}
+
 	/**
 	 * 发送客服消息
 	 *
@@ -421,6 +455,23 @@ public class WeixinProxy {
 		return mediaApi.uploadMedia(agentid, is, fileName);
 	}
 
+	/**
+	 * 上传媒体文件,文件内容不读入内存
+	 *
+	 * @param agentid
+	 *            企业应用ID(<font color="red">大于0时视为上传永久媒体文件</font>)
+	 * @param file
+	 *            媒体文件
+	 * @return 上传到微信服务器返回的媒体标识
+	 * @see com.foxinmy.weixin4j.qy.api.MediaApi
+	 * @see #uploadMedia(int, InputStream, String)
+	 * @throws WeixinException
+	 */
+	public MediaUploadResult uploadMedia(int agentid, File file)
+			throws WeixinException {
+		return mediaApi.uploadMedia(agentid, file);
+	}
+
 	/**
 	 * 下载媒体文件
 	 *
@@ -442,6 +493,44 @@ public class WeixinProxy {
 		return mediaApi.downloadMedia(agentid, mediaId);
 	}
 
+	/**
+	 * 下载媒体文件到输出流,内容不读入内存
+	 *
+	 * @param agentid
+	 *            企业应用Id(<font color="red">大于0时视为获取永久媒体文件</font>)
+	 * @param mediaId
+	 *            媒体ID
+	 * @param out
+	 *            输出流,不会被关闭
+	 * @return 媒体下载结果(内容为空)
+	 * @see com.foxinmy.weixin4j.qy.api.MediaApi
+	 * @see #downloadMedia(int, String)
+	 * @throws WeixinException
+	 */
+	public MediaDownloadResult downloadMedia(int agentid, String mediaId,
+			OutputStream out) throws WeixinException {
+		return mediaApi.downloadMedia(agentid, mediaId, out);
+	}
+
+	/**
+	 * 下载媒体文件到文件,内容不读入内存
+	 *
+	 * @param agentid
+	 *            企业应用Id(<font color="red">大于0时视为获取永久媒体文件</font>)
+	 * @param mediaId
+	 *            媒体ID
+	 * @param path
+	 *            文件路径,已存在时覆盖
+	 * @return 媒体下载结果(内容为空)
+	 * @see com.foxinmy.weixin4j.qy.api.MediaApi
+	 * @see #downloadMedia(int, String)
+	 * @throws WeixinException
+	 */
+	public MediaDownloadResult downloadMedia(int agentid, String mediaId,
+			Path path) throws WeixinException {
+		return mediaApi.downloadMedia(agentid, mediaId, path);
+	}
+
 	/**
 	 * 上传永久图文素材
 	 * <p>
@@ -8,7 +8,7 @@ import java.util.Map;
 
 import com.alibaba.fastjson.JSON;
 import com.foxinmy.weixin4j.cache.CacheStorager;
-import com.foxinmy.weixin4j.cache.FileCacheStorager;
+import com.foxinmy.weixin4j.cache.MappedFileCacheStorager;
 import com.foxinmy.weixin4j.exception.WeixinException;
 import com.foxinmy.weixin4j.model.Token;
 import com.foxinmy.weixin4j.model.WeixinAccount;
@@ -52,10 +52,10 @@ public class WeixinSuiteProxy {
 
 	/**
 	 * 微信第三方套件接口实现(使用weixin4j.properties配置的account账号信息,
-	 * 使用FileCacheStorager文件方式缓存TOKEN)
+	 * 使用MappedFileCacheStorager文件方式缓存TOKEN)
 	 */
 	public WeixinSuiteProxy() {
-		this(new FileCacheStorager<Token>());
+		this(new MappedFileCacheStorager<Token>());
 	}
 
 	/**
@@ -1,9 +1,14 @@
 package com.foxinmy.weixin4j.qy.api;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -22,7 +27,8 @@ import com.foxinmy.weixin4j.http.HttpMethod;
 import com.foxinmy.weixin4j.http.HttpRequest;
 import com.foxinmy.weixin4j.http.HttpResponse;
 import com.foxinmy.weixin4j.http.MimeType;
-import com.foxinmy.weixin4j.http.apache.content.ByteArrayBody;
+import com.foxinmy.weixin4j.http.apache.content.ContentBody;
+import com.foxinmy.weixin4j.http.apache.content.FileBody;
 import com.foxinmy.weixin4j.http.apache.content.InputStreamBody;
 import com.foxinmy.weixin4j.http.apache.mime.FormBodyPart;
 import com.foxinmy.weixin4j.http.weixin.ApiResult;
@@ -118,21 +124,65 @@ public class MediaApi extends QyApi {
 	 */
 	public MediaUploadResult uploadMedia(int agentid, InputStream is,
 			String fileName) throws WeixinException {
-		byte[] content;
 		try {
-			content = IOUtil.toByteArray(is);
+			long contentLength = IOUtil.remaining(is);
+			if (!is.markSupported()) {
+				is = new BufferedInputStream(is);
+			}
+			if (StringUtil.isBlank(fileName)) {
+				fileName = ObjectId.get().toHexString();
+			}
+			String suffixName = FileUtil.getFileExtension(fileName);
+			if (StringUtil.isBlank(suffixName)) {
+				// 只读取开头的字节判断类型,不将整个内容读入内存
+				suffixName = FileUtil.peekFileType(is);
+				fileName = String.format("%s.%s", fileName, suffixName);
+			}
+			MediaType mediaType = getMediaType(suffixName);
+			return uploadMedia(agentid, mediaType, new InputStreamBody(is,
+					ContentType.create(mediaType.getMimeType().toString()),
+					fileName, contentLength));
 		} catch (IOException e) {
 			throw new WeixinException(e);
+		} finally {
+			try {
+				is.close();
+			} catch (IOException e) {
+				;
+			}
 		}
-		if (StringUtil.isBlank(fileName)) {
-			fileName = ObjectId.get().toHexString();
-		}
+	}
+
+	/**
+	 * 上传媒体文件:文件内容直接写入连接(支持的实现以零拷贝方式发送),不读入内存
+	 *
+	 * @param agentid
+	 *            企业应用ID(<font color="red">大于0时视为上传永久媒体文件</font>)
+	 * @param file
+	 *            媒体文件
+	 * @return 上传到微信服务器返回的媒体标识
+	 * @see #uploadMedia(int, InputStream, String)
+	 * @throws WeixinException
+	 */
+	public MediaUploadResult uploadMedia(int agentid, File file)
+			throws WeixinException {
+		String fileName = file.getName();
 		String suffixName = FileUtil.getFileExtension(fileName);
 		if (StringUtil.isBlank(suffixName)) {
-			suffixName = FileUtil
-					.getFileType(new ByteArrayInputStream(content));
+			try {
+				suffixName = FileUtil.getFileType(new FileInputStream(file));
+			} catch (IOException e) {
+				throw new WeixinException(e);
+			}
 			fileName = String.format("%s.%s", fileName, suffixName);
 		}
+		MediaType mediaType = getMediaType(suffixName);
+		return uploadMedia(agentid, mediaType, new FileBody(file,
+				ContentType.create(mediaType.getMimeType().toString()),
+				fileName));
+	}
+
+	private MediaType getMediaType(String suffixName) {
 		MediaType mediaType = MediaType.file;
 		if (",bmp,png,jpeg,jpg,gif,"
 				.contains(String.format(",%s,", suffixName))) {
@@ -144,39 +194,32 @@ public class MediaApi extends QyApi {
 				",%s,", suffixName))) {
 			mediaType = MediaType.video;
 		}
+		return mediaType;
+	}
+
+	private MediaUploadResult uploadMedia(int agentid, MediaType mediaType,
+			ContentBody media) throws WeixinException {
 		Token token = tokenManager.getCache();
-		try {
-			WeixinResponse response = null;
-			if (agentid > 0) {
-				String material_media_upload_uri = getRequestUri("material_media_upload_uri");
-				response = weixinExecutor.post(String.format(
-						material_media_upload_uri, token.getAccessToken(),
-						mediaType.name(), agentid), new FormBodyPart("media",
-						new ByteArrayBody(content, mediaType.getMimeType()
-								.toString(), fileName)));
-				JSONObject obj = response.getAsJson();
-				return new MediaUploadResult(obj.getString("media_id"),
-						mediaType, new Date(), obj.getString("url"));
-			} else {
-				String media_upload_uri = getRequestUri("media_upload_uri");
-				response = weixinExecutor.post(String.format(media_upload_uri,
-						token.getAccessToken(), mediaType.name()),
-						new FormBodyPart("media", new ByteArrayBody(content,
-								mediaType.getMimeType().toString(), fileName)));
-				JSONObject obj = response.getAsJson();
-				return new MediaUploadResult(obj.getString("media_id"),
-						obj.getObject("type", MediaType.class), new Date(
-								obj.getLong("created_at") * 1000l),
-						obj.getString("url"));
-			}
-		} finally {
-			if (is != null) {
-				try {
-					is.close();
-				} catch (IOException e) {
-					;
-				}
-			}
+		WeixinResponse response = null;
+		if (agentid > 0) {
+			String material_media_upload_uri = getRequestUri("material_media_upload_uri");
+			response = weixinExecutor.post(String.format(
+					material_media_upload_uri, token.getAccessToken(),
+					mediaType.name(), agentid), new FormBodyPart("media",
+					media));
+			JSONObject obj = response.getAsJson();
+			return new MediaUploadResult(obj.getString("media_id"),
+					mediaType, new Date(), obj.getString("url"));
+		} else {
+			String media_upload_uri = getRequestUri("media_upload_uri");
+			response = weixinExecutor.post(String.format(media_upload_uri,
+					token.getAccessToken(), mediaType.name()),
+					new FormBodyPart("media", media));
+			JSONObject obj = response.getAsJson();
+			return new MediaUploadResult(obj.getString("media_id"),
+					obj.getObject("type", MediaType.class), new Date(
+							obj.getLong("created_at") * 1000l),
+					obj.getString("url"));
 		}
 	}
 
@@ -196,6 +239,67 @@ public class MediaApi extends QyApi {
 	 */
 	public MediaDownloadResult downloadMedia(int agentid, String mediaId)
 			throws WeixinException {
+		HttpResponse response = weixinExecutor
+				.doRequest(createDownloadRequest(agentid, mediaId));
+		return createDownloadResult(mediaId, response, response.getContent());
+	}
+
+	/**
+	 * 下载媒体文件到输出流:内容从连接上分块写入,不读入内存
+	 *
+	 * @param agentid
+	 *            企业应用Id(<font color="red">大于0时视为获取永久媒体文件</font>)
+	 * @param mediaId
+	 *            媒体ID
+	 * @param out
+	 *            输出流,不会被关闭
+	 * @return 媒体下载结果:类型与文件名取自响应头,内容为空
+	 * @see #downloadMedia(int, String)
+	 * @throws WeixinException
+	 */
+	public MediaDownloadResult downloadMedia(int agentid, String mediaId,
+			OutputStream out) throws WeixinException {
+		WeixinResponse response = weixinExecutor
+				.doStreamingRequest(createDownloadRequest(agentid, mediaId));
+		try {
+			IOUtil.copy(response.getBody(), out);
+		} catch (IOException e) {
+			throw new WeixinException(e);
+		} finally {
+			response.close();
+		}
+		return createDownloadResult(mediaId, response, null);
+	}
+
+	/**
+	 * 下载媒体文件到文件:内容从连接上分块写入(FileChannel.transferFrom),不读入内存
+	 *
+	 * @param agentid
+	 *            企业应用Id(<font color="red">大于0时视为获取永久媒体文件</font>)
+	 * @param mediaId
+	 *            媒体ID
+	 * @param path
+	 *            文件路径,已存在时覆盖
+	 * @return 媒体下载结果:类型与文件名取自响应头,内容为空
+	 * @see #downloadMedia(int, String)
+	 * @throws WeixinException
+	 */
+	public MediaDownloadResult downloadMedia(int agentid, String mediaId,
+			Path path) throws WeixinException {
+		WeixinResponse response = weixinExecutor
+				.doStreamingRequest(createDownloadRequest(agentid, mediaId));
+		try {
+			IOUtil.copy(response.getBody(), path);
+		} catch (IOException e) {
+			throw new WeixinException(e);
+		} finally {
+			response.close();
+		}
+		return createDownloadResult(mediaId, response, null);
+	}
+
+	private HttpRequest createDownloadRequest(int agentid, String mediaId)
+			throws WeixinException {
 		Token token = tokenManager.getCache();
 		HttpRequest request = null;
 		if (agentid > 0) {
@@ -208,7 +312,14 @@ public class MediaApi extends QyApi {
 			request = new HttpRequest(HttpMethod.GET, String.format(
 					media_download_uri, token.getAccessToken(), mediaId));
 		}
-		HttpResponse response = weixinExecutor.doRequest(request);
+		return request;
+	}
+
+	/**
+	 * 由响应头得到媒体的类型与文件名
+	 */
+	private MediaDownloadResult createDownloadResult(String mediaId,
+			HttpResponse response, byte[] content) {
 		HttpHeaders headers = response.getHeaders();
 		String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
 		String disposition = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
@@ -218,7 +329,7 @@ public class MediaApi extends QyApi {
 			fileName = String.format("%s.%s", mediaId,
 					contentType.split("/")[1]);
 		}
-		return new MediaDownloadResult(response.getContent(),
+		return new MediaDownloadResult(content,
 				ContentType.create(contentType), fileName);
 	}
 
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
@@ -70,6 +72,43 @@ public class NotifyApi extends QyApi {
 	 */
 	public IdParameter sendNotifyMessage(NotifyMessage message)
 			throws WeixinException {
+		String message_send_uri = getRequestUri("message_send_uri");
+		JSONObject obj = createNotifyBody(message);
+		Token token = tokenManager.getCache();
+		WeixinResponse response = weixinExecutor.post(
+				String.format(message_send_uri, token.getAccessToken()),
+				obj.toJSONString());
+		return toIdParameter(response.getAsJson());
+	}
+
+	/**
+	 * 异步发送消息提醒
+	 *
+	 * @param message
+	 *            消息对象
+	 * @return 无效的部分,发送失败时以CompletionException(WeixinException)结束
+	 * @throws WeixinException
+	 *             消息内容不合法或获取token失败
+	 * @see #sendNotifyMessage(NotifyMessage)
+	 */
+	public CompletableFuture<IdParameter> sendNotifyMessageAsync(
+			NotifyMessage message) throws WeixinException {
+		String message_send_uri = getRequestUri("message_send_uri");
+		JSONObject obj = createNotifyBody(message);
+		Token token = tokenManager.getCache();
+		return weixinExecutor.postAsync(
+				String.format(message_send_uri, token.getAccessToken()),
+				obj.toJSONString()).thenApply(
+				new Function<WeixinResponse, IdParameter>() {
+					@Override
+					public IdParameter apply(WeixinResponse response) {
+						return toIdParameter(response.getAsJson());
+					}
+				});
+	}
+
+	private JSONObject createNotifyBody(NotifyMessage message)
+			throws WeixinException {
 		NotifyTuple tuple = message.getTuple();
 		if (tuple instanceof MpNews) {
 			if (((MpNews) tuple).getArticles().isEmpty()) {
@@ -86,12 +125,10 @@ public class NotifyApi extends QyApi {
 		} else {
 			obj.putAll(target);
 		}
-		String message_send_uri = getRequestUri("message_send_uri");
-		Token token = tokenManager.getCache();
-		WeixinResponse response = weixinExecutor.post(
-				String.format(message_send_uri, token.getAccessToken()),
-				obj.toJSONString());
-		obj = response.getAsJson();
+		return obj;
+	}
+
+	private IdParameter toIdParameter(JSONObject obj) {
 		IdParameter idParameter = IdParameter.get();
 		if (obj.containsKey("invaliduser")) {
 			idParameter.setUserIds(Arrays.asList(obj.getString("invaliduser")
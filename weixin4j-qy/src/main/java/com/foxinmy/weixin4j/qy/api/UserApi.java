@@ -5,10 +5,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.JSONReader;
 import com.foxinmy.weixin4j.exception.WeixinException;
 import com.foxinmy.weixin4j.http.weixin.ApiResult;
+import com.foxinmy.weixin4j.http.weixin.JsonFieldReader;
 import com.foxinmy.weixin4j.http.weixin.WeixinResponse;
 import com.foxinmy.weixin4j.model.Token;
 import com.foxinmy.weixin4j.qy.model.OUserInfo;
@@ -263,25 +264,33 @@ public class UserApi extends QyApi {
 		WeixinResponse response = weixinExecutor.get(String.format(
 				user_list_uri, token.getAccessToken(), partyId, fetchChild ? 1
 						: 0, userStatus.getVal()));
-		List<User> list = null;
-		if (findDetail) {
-			JSONArray arrays = response.getAsJson().getJSONArray("userlist");
-			list = new ArrayList<User>(arrays.size());
-			for (int i = 0; i < arrays.size(); i++) {
-				JSONObject obj = arrays.getJSONObject(i);
-				Object attrs = obj.remove("extattr");
-				User user = JSON.toJavaObject(obj, User.class);
-				if (attrs != null) {
-					user.setExtattr(JSON.parseArray(
-							((JSONObject) attrs).getString("attrs"),
-							NameValue.class));
+		if (!findDetail) {
+			return response.getAsList("userlist", User.class);
+		}
+		final List<User> list = new ArrayList<User>();
+		response.readAsJson(new JsonFieldReader() {
+			@Override
+			public boolean read(String name, JSONReader reader) {
+				if (!"userlist".equals(name)) {
+					return false;
+				}
+				// 逐个成员读取,扩展属性需单独转换
+				reader.startArray();
+				while (reader.hasNext()) {
+					JSONObject obj = reader.readObject(JSONObject.class);
+					Object attrs = obj.remove("extattr");
+					User user = JSON.toJavaObject(obj, User.class);
+					if (attrs != null) {
+						user.setExtattr(JSON.parseArray(
+								((JSONObject) attrs).getString("attrs"),
+								NameValue.class));
+					}
+					list.add(user);
 				}
-				list.add(user);
+				reader.endArray();
+				return true;
 			}
-		} else {
-			list = JSON.parseArray(response.getAsJson().getString("userlist"),
-					User.class);
-		}
+		});
 		return list;
 	}
 
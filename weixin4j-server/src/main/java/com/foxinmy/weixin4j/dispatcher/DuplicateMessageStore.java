@@ -0,0 +1,57 @@
+package com.foxinmy.weixin4j.dispatcher;
+
+import com.foxinmy.weixin4j.response.WeixinResponse;
+
+/**
+ * 消息排重存储:记录正在处理与已处理的消息,以及首次处理的回复
+ *
+ * @className DuplicateMessageStore
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see MessageDeduplicator
+ * @see MemoryDuplicateMessageStore
+ * @see RedisDuplicateMessageStore
+ */
+public interface DuplicateMessageStore {
+
+	/**
+	 * 标记消息开始处理
+	 *
+	 * @param messageId
+	 *            消息标识
+	 * @param expireMillis
+	 *            记录的保留时间(单位毫秒)
+	 * @return 首次收到该消息时返回true,否则返回false
+	 */
+	boolean tryAcquire(String messageId, long expireMillis);
+
+	/**
+	 * 消息处理完成,保存回复供重试的请求使用
+	 *
+	 * @param messageId
+	 *            消息标识
+	 * @param response
+	 *            回复内容,可能为空
+	 * @param expireMillis
+	 *            记录的保留时间(单位毫秒)
+	 */
+	void complete(String messageId, WeixinResponse response, long expireMillis);
+
+	/**
+	 * 获取首次处理的回复
+	 *
+	 * @param messageId
+	 *            消息标识
+	 * @return 回复内容,尚未处理完成或没有回复时为空
+	 */
+	WeixinResponse getResponse(String messageId);
+
+	/**
+	 * 移除记录(如处理失败时),以便重试的请求重新处理
+	 *
+	 * @param messageId
+	 *            消息标识
+	 */
+	void release(String messageId);
+}
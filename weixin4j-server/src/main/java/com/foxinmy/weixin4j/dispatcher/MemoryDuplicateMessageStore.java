@@ -0,0 +1,87 @@
+package com.foxinmy.weixin4j.dispatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.foxinmy.weixin4j.response.WeixinResponse;
+
+/**
+ * 用内存保存排重记录(仅适用于单节点),超出最大数量时移除最早的记录
+ *
+ * @className MemoryDuplicateMessageStore
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see DuplicateMessageStore
+ */
+public class MemoryDuplicateMessageStore implements DuplicateMessageStore {
+
+	/**
+	 * 默认最大记录数
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+	private final Map<String, Record> records;
+
+	public MemoryDuplicateMessageStore() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 *
+	 * @param maximumSize
+	 *            最大记录数
+	 */
+	public MemoryDuplicateMessageStore(final int maximumSize) {
+		this.records = new LinkedHashMap<String, Record>(16, 0.75f, false) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Record> eldest) {
+				return size() > maximumSize
+						|| eldest.getValue().deadline <= System
+								.currentTimeMillis();
+			}
+		};
+	}
+
+	@Override
+	public synchronized boolean tryAcquire(String messageId, long expireMillis) {
+		long now = System.currentTimeMillis();
+		Record record = records.get(messageId);
+		if (record != null && record.deadline > now) {
+			return false;
+		}
+		records.put(messageId, new Record(null, now + expireMillis));
+		return true;
+	}
+
+	@Override
+	public synchronized void complete(String messageId,
+			WeixinResponse response, long expireMillis) {
+		records.put(messageId, new Record(response, System.currentTimeMillis()
+				+ expireMillis));
+	}
+
+	@Override
+	public synchronized WeixinResponse getResponse(String messageId) {
+		Record record = records.get(messageId);
+		return record != null && record.deadline > System.currentTimeMillis() ? record.response
+				: null;
+	}
+
+	@Override
+	public synchronized void release(String messageId) {
+		records.remove(messageId);
+	}
+
+	private static final class Record {
+		final WeixinResponse response;
+		final long deadline;
+
+		Record(WeixinResponse response, long deadline) {
+			this.response = response;
+			this.deadline = deadline;
+		}
+	}
+}
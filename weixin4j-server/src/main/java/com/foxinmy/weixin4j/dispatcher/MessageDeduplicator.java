@@ -0,0 +1,186 @@
+package com.foxinmy.weixin4j.dispatcher;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.foxinmy.weixin4j.request.WeixinMessage;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+import com.foxinmy.weixin4j.socket.WeixinMessageTransfer;
+
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+/**
+ * 消息排重:微信服务器在5秒内收不到回复时会重试推送(最多3次),重试的消息不再交给handler处理
+ * <p>
+ * 有MsgId的消息以MsgId排重,事件消息以FromUserName + CreateTime + Event + EventKey排重
+ * (同一秒内点击不同菜单的事件不会被当作重试);
+ * 重试时首次处理仍未完成,则等待首次处理的回复(同一节点),或者直接回复空白消息(其它节点)
+ * </p>
+ *
+ * @className MessageDeduplicator
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see DuplicateMessageStore
+ */
+public class MessageDeduplicator {
+
+	private final InternalLogger logger = InternalLoggerFactory
+			.getInstance(getClass());
+
+	/**
+	 * 默认排重记录的保留时间:覆盖微信的3次重试
+	 */
+	public static final long DEFAULT_EXPIRE_MILLIS = 60 * 1000l;
+	/**
+	 * 默认重试请求等待首次回复的时间:在微信的5秒超时之前回复
+	 */
+	public static final long DEFAULT_WAIT_MILLIS = 4500l;
+
+	private final DuplicateMessageStore messageStore;
+	private final long expireMillis;
+	private final long waitMillis;
+	/**
+	 * 本节点正在处理的消息
+	 */
+	private final ConcurrentMap<String, CompletableFuture<WeixinResponse>> pendings;
+
+	public MessageDeduplicator() {
+		this(new MemoryDuplicateMessageStore());
+	}
+
+	public MessageDeduplicator(DuplicateMessageStore messageStore) {
+		this(messageStore, DEFAULT_EXPIRE_MILLIS, DEFAULT_WAIT_MILLIS);
+	}
+
+	/**
+	 *
+	 * @param messageStore
+	 *            排重存储
+	 * @param expireMillis
+	 *            排重记录的保留时间(单位毫秒)
+	 * @param waitMillis
+	 *            重试请求等待首次回复的时间(单位毫秒)
+	 */
+	public MessageDeduplicator(DuplicateMessageStore messageStore,
+			long expireMillis, long waitMillis) {
+		this.messageStore = messageStore;
+		this.expireMillis = expireMillis;
+		this.waitMillis = waitMillis;
+		this.pendings = new ConcurrentHashMap<String, CompletableFuture<WeixinResponse>>();
+	}
+
+	/**
+	 * 消息的排重标识
+	 *
+	 * @param messageTransfer
+	 *            基础消息
+	 * @param message
+	 *            微信消息
+	 * @return 排重标识,为空时不排重
+	 */
+	public String getMessageId(WeixinMessageTransfer messageTransfer,
+			WeixinMessage message) {
+		if (message == null) {
+			return null;
+		}
+		StringBuilder messageId = new StringBuilder();
+		messageId.append(message.getToUserName()).append('_');
+		if (message.getMsgId() != 0l) {
+			messageId.append(message.getMsgId());
+		} else {
+			messageId.append(message.getFromUserName()).append('_')
+					.append(message.getCreateTime()).append('_')
+					.append(messageTransfer.getMsgType()).append('_')
+					.append(messageTransfer.getEventType()).append('_')
+					.append(messageTransfer.getEventKey());
+		}
+		return messageId.toString();
+	}
+
+	/**
+	 * 开始处理消息
+	 *
+	 * @param messageId
+	 *            排重标识
+	 * @return 首次收到时返回空,调用方处理后需调用complete或release;重复的消息返回首次处理的回复
+	 */
+	public CompletableFuture<WeixinResponse> acquire(String messageId) {
+		CompletableFuture<WeixinResponse> pending = new CompletableFuture<WeixinResponse>();
+		CompletableFuture<WeixinResponse> existing = pendings.putIfAbsent(
+				messageId, pending);
+		if (existing != null) {
+			return existing;
+		}
+		try {
+			if (messageStore.tryAcquire(messageId, expireMillis)) {
+				return null;
+			}
+		} catch (RuntimeException e) {
+			// 存储不可用时不排重
+			logger.warn("acquire duplicate message record error", e);
+			return null;
+		}
+		// 已处理完成,或者正在其它节点处理
+		pendings.remove(messageId, pending);
+		try {
+			pending.complete(messageStore.getResponse(messageId));
+		} catch (RuntimeException e) {
+			logger.warn("read duplicate message record error", e);
+			pending.complete(null);
+		}
+		return pending;
+	}
+
+	/**
+	 * 消息处理完成
+	 *
+	 * @param messageId
+	 *            排重标识
+	 * @param response
+	 *            回复内容
+	 */
+	public void complete(String messageId, WeixinResponse response) {
+		try {
+			messageStore.complete(messageId, response, expireMillis);
+		} catch (RuntimeException e) {
+			logger.warn("save duplicate message record error", e);
+		} finally {
+			CompletableFuture<WeixinResponse> pending = pendings
+					.remove(messageId);
+			if (pending != null) {
+				pending.complete(response);
+			}
+		}
+	}
+
+	/**
+	 * 消息未能处理(如处理失败或被拒绝),移除排重记录以便微信重试时重新处理
+	 *
+	 * @param messageId
+	 *            排重标识
+	 */
+	public void release(String messageId) {
+		try {
+			messageStore.release(messageId);
+		} catch (RuntimeException e) {
+			logger.warn("release duplicate message record error", e);
+		} finally {
+			CompletableFuture<WeixinResponse> pending = pendings
+					.remove(messageId);
+			if (pending != null) {
+				pending.complete(null);
+			}
+		}
+	}
+
+	public long getWaitMillis() {
+		return waitMillis;
+	}
+
+	public DuplicateMessageStore getMessageStore() {
+		return messageStore;
+	}
+}
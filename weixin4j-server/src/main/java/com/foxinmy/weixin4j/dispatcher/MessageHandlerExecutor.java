@@ -39,6 +39,10 @@ public class MessageHandlerExecutor {
 	private final ChannelHandlerContext context;
 
 	private int interceptorIndex = -1;
+	/**
+	 * 拦截了消息的拦截器
+	 */
+	private WeixinMessageInterceptor rejectedInterceptor;
 
 	public MessageHandlerExecutor(ChannelHandlerContext context,
 			WeixinMessageHandler messageHandler,
@@ -52,6 +56,15 @@ public class MessageHandlerExecutor {
 		return messageHandler;
 	}
 
+	/**
+	 * 拦截了消息的拦截器
+	 *
+	 * @return applyPreHandle返回false时的拦截器,否则为空
+	 */
+	public WeixinMessageInterceptor getRejectedInterceptor() {
+		return rejectedInterceptor;
+	}
+
 	/**
 	 * 执行预拦截动作
 	 *
@@ -68,6 +81,7 @@ public class MessageHandlerExecutor {
 				WeixinMessageInterceptor interceptor = messageInterceptors[i];
 				if (!interceptor.preHandle(context, request, message,
 						messageHandler)) {
+					this.rejectedInterceptor = interceptor;
 					triggerAfterCompletion(request, null, message, null);
 					return false;
 				}
@@ -0,0 +1,94 @@
+package com.foxinmy.weixin4j.dispatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.foxinmy.weixin4j.handler.TypedMessageHandler;
+import com.foxinmy.weixin4j.handler.WeixinMessageHandler;
+import com.foxinmy.weixin4j.request.WeixinMessage;
+
+/**
+ * 消息处理器的路由索引:启动时按消息类型预先筛选并按权重降序排列处理器,
+ * 分发时只对候选的处理器调用canHandle,不再遍历全部处理器与排序
+ * <p>
+ * 声明了消息类型的处理器({@link TypedMessageHandler})只出现在对应类型的候选中,
+ * 其它处理器视为动态匹配,出现在所有类型的候选中;权重相同时保持注册顺序
+ * </p>
+ *
+ * @className MessageHandlerIndex
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see com.foxinmy.weixin4j.handler.TypedMessageHandler
+ */
+public class MessageHandlerIndex {
+
+	private final WeixinMessageHandler[] dynamicHandlers;
+	private final Map<Class<? extends WeixinMessage>, WeixinMessageHandler[]> typedHandlers;
+
+	public MessageHandlerIndex(WeixinMessageHandler[] messageHandlers) {
+		final Map<WeixinMessageHandler, Integer> weights = new IdentityHashMap<WeixinMessageHandler, Integer>();
+		Set<Class<? extends WeixinMessage>> messageClasses = new HashSet<Class<? extends WeixinMessage>>();
+		List<WeixinMessageHandler> dynamicList = new ArrayList<WeixinMessageHandler>();
+		for (WeixinMessageHandler handler : messageHandlers) {
+			weights.put(handler, handler.weight());
+			Set<Class<? extends WeixinMessage>> classes = getMessageClasses(handler);
+			if (classes == null) {
+				dynamicList.add(handler);
+			} else {
+				messageClasses.addAll(classes);
+			}
+		}
+		Comparator<WeixinMessageHandler> weightComparator = new Comparator<WeixinMessageHandler>() {
+			@Override
+			public int compare(WeixinMessageHandler m1, WeixinMessageHandler m2) {
+				return weights.get(m2) - weights.get(m1);
+			}
+		};
+		Collections.sort(dynamicList, weightComparator);
+		this.dynamicHandlers = dynamicList
+				.toArray(new WeixinMessageHandler[dynamicList.size()]);
+		this.typedHandlers = new HashMap<Class<? extends WeixinMessage>, WeixinMessageHandler[]>();
+		for (Class<? extends WeixinMessage> messageClass : messageClasses) {
+			List<WeixinMessageHandler> handlers = new ArrayList<WeixinMessageHandler>();
+			for (WeixinMessageHandler handler : messageHandlers) {
+				Set<Class<? extends WeixinMessage>> classes = getMessageClasses(handler);
+				if (classes == null || classes.contains(messageClass)) {
+					handlers.add(handler);
+				}
+			}
+			Collections.sort(handlers, weightComparator);
+			this.typedHandlers.put(messageClass,
+					handlers.toArray(new WeixinMessageHandler[handlers.size()]));
+		}
+	}
+
+	private static Set<Class<? extends WeixinMessage>> getMessageClasses(
+			WeixinMessageHandler handler) {
+		if (handler instanceof TypedMessageHandler) {
+			return ((TypedMessageHandler) handler).getMessageClasses();
+		}
+		return null;
+	}
+
+	/**
+	 * 获取候选的处理器
+	 *
+	 * @param messageClass
+	 *            消息类型,为空时只返回动态匹配的处理器
+	 * @return 按权重降序排列的处理器
+	 */
+	public WeixinMessageHandler[] getHandlers(
+			Class<? extends WeixinMessage> messageClass) {
+		WeixinMessageHandler[] handlers = messageClass != null ? typedHandlers
+				.get(messageClass) : null;
+		return handlers != null ? handlers : dynamicHandlers;
+	}
+}
@@ -0,0 +1,149 @@
+package com.foxinmy.weixin4j.dispatcher;
+
+import com.foxinmy.weixin4j.response.SingleResponse;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.util.Pool;
+
+/**
+ * 用Redis保存排重记录,适用于多个节点(需要自行添加客户端包,jedis)
+ * <p>
+ * 回复以消息类型与内容的形式保存,重试的请求落到其它节点时按原内容回复
+ * </p>
+ *
+ * @className RedisDuplicateMessageStore
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see DuplicateMessageStore
+ */
+public class RedisDuplicateMessageStore implements DuplicateMessageStore {
+
+	private final static String KEY_PREFIX = "weixin4j_message_";
+	private final static String PENDING = "0";
+	private final static String COMPLETED = "1";
+	private final static String RESPONDED = "2";
+
+	private final Pool<Jedis> jedisPool;
+	private final JedisCluster jedisCluster;
+
+	public RedisDuplicateMessageStore(Pool<Jedis> jedisPool) {
+		this.jedisPool = jedisPool;
+		this.jedisCluster = null;
+	}
+
+	public RedisDuplicateMessageStore(JedisCluster jedisCluster) {
+		this.jedisPool = null;
+		this.jedisCluster = jedisCluster;
+	}
+
+	@Override
+	public boolean tryAcquire(String messageId, long expireMillis) {
+		String key = KEY_PREFIX + messageId;
+		String reply;
+		if (jedisCluster != null) {
+			reply = jedisCluster.set(key, PENDING, "NX", "PX", expireMillis);
+		} else {
+			Jedis jedis = null;
+			try {
+				jedis = jedisPool.getResource();
+				reply = jedis.set(key, PENDING, "NX", "PX", expireMillis);
+			} finally {
+				if (jedis != null) {
+					jedis.close();
+				}
+			}
+		}
+		return "OK".equals(reply);
+	}
+
+	@Override
+	public void complete(String messageId, WeixinResponse response,
+			long expireMillis) {
+		String value = response == null ? COMPLETED : RESPONDED
+				+ response.getMsgType() + "\n" + response.toContent();
+		String key = KEY_PREFIX + messageId;
+		if (jedisCluster != null) {
+			jedisCluster.psetex(key, expireMillis, value);
+			return;
+		}
+		Jedis jedis = null;
+		try {
+			jedis = jedisPool.getResource();
+			jedis.psetex(key, expireMillis, value);
+		} finally {
+			if (jedis != null) {
+				jedis.close();
+			}
+		}
+	}
+
+	@Override
+	public WeixinResponse getResponse(String messageId) {
+		String key = KEY_PREFIX + messageId;
+		String value;
+		if (jedisCluster != null) {
+			value = jedisCluster.get(key);
+		} else {
+			Jedis jedis = null;
+			try {
+				jedis = jedisPool.getResource();
+				value = jedis.get(key);
+			} finally {
+				if (jedis != null) {
+					jedis.close();
+				}
+			}
+		}
+		if (value == null || !value.startsWith(RESPONDED)) {
+			return null;
+		}
+		int index = value.indexOf('\n');
+		String msgType = value.substring(1, index);
+		String content = value.substring(index + 1);
+		if ("single".equals(msgType)) {
+			return new SingleResponse(content);
+		}
+		return new StoredResponse(msgType, content);
+	}
+
+	@Override
+	public void release(String messageId) {
+		String key = KEY_PREFIX + messageId;
+		if (jedisCluster != null) {
+			jedisCluster.del(key);
+			return;
+		}
+		Jedis jedis = null;
+		try {
+			jedis = jedisPool.getResource();
+			jedis.del(key);
+		} finally {
+			if (jedis != null) {
+				jedis.close();
+			}
+		}
+	}
+
+	private static final class StoredResponse implements WeixinResponse {
+		private final String msgType;
+		private final String content;
+
+		StoredResponse(String msgType, String content) {
+			this.msgType = msgType;
+			this.content = content;
+		}
+
+		@Override
+		public String getMsgType() {
+			return msgType;
+		}
+
+		@Override
+		public String toContent() {
+			return content;
+		}
+	}
+}
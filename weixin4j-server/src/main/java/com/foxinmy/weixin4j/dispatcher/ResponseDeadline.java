@@ -0,0 +1,63 @@
+package com.foxinmy.weixin4j.dispatcher;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * 被动回复的期限:handler与期限定时器只有一方能够回复当前请求,
+ * 超过期限后由定时器回复空白消息,handler的处理结果改为异步发送
+ *
+ * @className ResponseDeadline
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinResponseSender
+ */
+public class ResponseDeadline {
+
+	private static final int PENDING = 0;
+	private static final int RESPONDED = 1;
+	private static final int EXPIRED = 2;
+
+	private final AtomicInteger state = new AtomicInteger(PENDING);
+	private volatile ScheduledFuture<?> timeout;
+
+	void setTimeout(ScheduledFuture<?> timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * 尝试回复当前请求
+	 *
+	 * @return 未超过期限时返回true,调用方负责回复;否则返回false
+	 */
+	public boolean tryRespond() {
+		if (state.compareAndSet(PENDING, RESPONDED)) {
+			ScheduledFuture<?> timeout = this.timeout;
+			if (timeout != null) {
+				timeout.cancel(false);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 到达期限
+	 *
+	 * @return 尚未回复时返回true,调用方负责回复空白消息
+	 */
+	boolean expire() {
+		return state.compareAndSet(PENDING, EXPIRED);
+	}
+
+	/**
+	 * 是否已超过期限
+	 *
+	 * @return 超过期限时返回true
+	 */
+	public boolean isExpired() {
+		return state.get() == EXPIRED;
+	}
+}
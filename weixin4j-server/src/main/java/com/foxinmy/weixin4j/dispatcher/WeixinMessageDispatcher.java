@@ -11,7 +11,13 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -20,11 +26,15 @@ import javax.xml.bind.Unmarshaller;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 
+import org.w3c.dom.Node;
+
 import com.foxinmy.weixin4j.handler.WeixinMessageHandler;
 import com.foxinmy.weixin4j.interceptor.WeixinMessageInterceptor;
+import com.foxinmy.weixin4j.metrics.ServerMetrics;
 import com.foxinmy.weixin4j.request.WeixinMessage;
 import com.foxinmy.weixin4j.request.WeixinRequest;
 import com.foxinmy.weixin4j.response.BlankResponse;
+import com.foxinmy.weixin4j.response.SingleResponse;
 import com.foxinmy.weixin4j.response.WeixinResponse;
 import com.foxinmy.weixin4j.socket.WeixinMessageTransfer;
 import com.foxinmy.weixin4j.util.ClassUtil;
@@ -32,10 +42,10 @@ import com.foxinmy.weixin4j.util.HttpUtil;
 import com.foxinmy.weixin4j.util.ServerToolkits;
 import com.foxinmy.weixin4j.xml.MessageTransferHandler;
 
-import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.util.concurrent.ScheduledFuture;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -60,7 +70,11 @@ public class WeixinMessageDispatcher {
      * 消息处理器
      */
     private List<WeixinMessageHandler> messageHandlerList;
-    private WeixinMessageHandler[] messageHandlers;
+    private volatile WeixinMessageHandler[] messageHandlers;
+    /**
+     * 消息处理器的路由索引
+     */
+    private volatile MessageHandlerIndex messageHandlerIndex;
     /**
      * 消息处理器所在的包
      */
@@ -70,7 +84,8 @@ public class WeixinMessageDispatcher {
      * 消息拦截器
      */
     private List<WeixinMessageInterceptor> messageInterceptorList;
-    private WeixinMessageInterceptor[] messageInterceptors;
+    private volatile WeixinMessageInterceptor[] messageInterceptors;
+    private volatile boolean messageInterceptorsResolved;
     /**
      * 消息拦截器所在的包
      */
@@ -86,13 +101,41 @@ public class WeixinMessageDispatcher {
      */
     private WeixinMessageMatcher messageMatcher;
     /**
-     * 消息转换
+     * 消息转换:JAXBContext是线程安全的,Unmarshaller不是,每次读取时新建
      */
-    private Map<Class<? extends WeixinMessage>, Unmarshaller> messageUnmarshaller;
+    private Map<Class<? extends WeixinMessage>, JAXBContext> messageJaxbContext;
     /**
      * 是否总是响应请求,如未匹配到MessageHandler时回复空白消息
      */
     private boolean alwaysResponse;
+    /**
+     * 执行消息处理器的业务线程池,为空时在netty的IO线程中执行
+     */
+    private Executor messageExecutor;
+    /**
+     * 按消息key指定的业务线程池
+     */
+    private Map<WeixinMessageKey, Executor> messageExecutors;
+    /**
+     * 消息排重,为空时不排重
+     */
+    private MessageDeduplicator messageDeduplicator;
+    /**
+     * 被动回复的期限(单位毫秒),超过期限时立即回复空白消息,处理结果改为异步发送;为0时不限制
+     */
+    private long responseDeadlineMillis;
+    /**
+     * 超过期限的回复发送
+     */
+    private WeixinResponseSender responseSender;
+    /**
+     * 执行回复发送的线程池,为空时在业务线程中发送
+     */
+    private Executor responseSendExecutor;
+    /**
+     * 运行指标
+     */
+    private ServerMetrics serverMetrics = ServerMetrics.NOOP;
 
     public WeixinMessageDispatcher() {
         this(new DefaultMessageMatcher());
@@ -100,7 +143,9 @@ public class WeixinMessageDispatcher {
 
     public WeixinMessageDispatcher(WeixinMessageMatcher messageMatcher) {
         this.messageMatcher = messageMatcher;
-        this.messageUnmarshaller = new ConcurrentHashMap<Class<? extends WeixinMessage>, Unmarshaller>();
+        this.messageJaxbContext = new ConcurrentHashMap<Class<? extends WeixinMessage>, JAXBContext>();
+        this.messageExecutors = new ConcurrentHashMap<WeixinMessageKey, Executor>();
+        this.messageDeduplicator = new MessageDeduplicator();
     }
 
     /**
@@ -114,31 +159,270 @@ public class WeixinMessageDispatcher {
      *            微信消息 @
      */
     public void doDispatch(final ChannelHandlerContext context, final WeixinRequest request) {
-        WeixinMessageTransfer messageTransfer = MessageTransferHandler.parser(request);
+        final long dispatchNanos = System.nanoTime();
+        final WeixinMessageTransfer messageTransfer = MessageTransferHandler.parser(request);
         context.channel().attr(ServerToolkits.MESSAGE_TRANSFER_KEY).set(messageTransfer);
-        WeixinMessageKey messageKey = defineMessageKey(messageTransfer, request);
+        final WeixinMessageKey messageKey = defineMessageKey(messageTransfer, request);
         Class<? extends WeixinMessage> targetClass = messageMatcher.match(messageKey);
-        WeixinMessage message = messageRead(request.getOriginalContent(), targetClass);
-        logger.info("define '{}' matched '{}'", messageKey, targetClass);
+        final WeixinMessage message = messageTransfer.getMessageNode() != null
+                ? messageRead(messageTransfer.getMessageNode(), targetClass)
+                : messageRead(request.getOriginalContent(), targetClass);
+        logger.debug("define '{}' matched '{}'", messageKey, targetClass);
+        final MessageDeduplicator deduplicator = this.messageDeduplicator;
+        final String messageId = deduplicator != null ? deduplicator.getMessageId(messageTransfer, message) : null;
+        if (messageId != null) {
+            CompletableFuture<WeixinResponse> firstResponse = deduplicator.acquire(messageId);
+            if (firstResponse != null) {
+                duplicateMessage(context, request, message, firstResponse);
+                return;
+            }
+        }
+        serverMetrics.incrementInFlight();
+        Executor executor = getMessageExecutor(messageKey);
+        if (executor == null) {
+            handleMessage(context, request, messageKey, message, messageTransfer.getNodeNames(), null, deduplicator,
+                    messageId, dispatchNanos);
+            return;
+        }
+        // 在业务线程中执行时才能在处理完成之前回复
+        final ResponseDeadline deadline = responseDeadline(context, message);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        handleMessage(context, request, messageKey, message, messageTransfer.getNodeNames(),
+                                deadline, deduplicator, messageId, dispatchNanos);
+                    } catch (RuntimeException e) {
+                        context.pipeline().fireExceptionCaught(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            serverMetrics.decrementInFlight();
+            serverMetrics.recordExecutionRejection(messageKey);
+            if (messageId != null) {
+                deduplicator.release(messageId);
+            }
+            if (deadline == null || deadline.tryRespond()) {
+                rejectedExecution(context, request, message);
+            }
+        }
+    }
+
+    private void handleMessage(ChannelHandlerContext context, WeixinRequest request, WeixinMessageKey messageKey,
+            WeixinMessage message, Set<String> nodeNames, ResponseDeadline deadline,
+            MessageDeduplicator deduplicator, String messageId, long dispatchNanos) {
+        WeixinResponse response = null;
+        try {
+            response = doHandle(context, request, messageKey, message, nodeNames, deadline);
+        } finally {
+            // handler抛出异常等未回复的情况:与未开启期限时一致,不再由定时器回复
+            if (deadline != null) {
+                deadline.tryRespond();
+            }
+            serverMetrics.recordDispatch(messageKey, System.nanoTime() - dispatchNanos);
+            serverMetrics.decrementInFlight();
+            if (messageId != null) {
+                if (response == null) {
+                    deduplicator.release(messageId);
+                } else if (deadline != null && deadline.isExpired()) {
+                    // 已回复空白消息,处理结果已异步发送
+                    deduplicator.complete(messageId, null);
+                } else {
+                    deduplicator.complete(messageId, response);
+                }
+            }
+        }
+    }
+
+    /**
+     * 设置被动回复的期限
+     *
+     * @param context
+     *            上下文环境
+     * @param message
+     *            微信消息
+     * @return 回复期限,未开启时为空
+     */
+    private ResponseDeadline responseDeadline(final ChannelHandlerContext context, final WeixinMessage message) {
+        if (responseDeadlineMillis <= 0l || responseSender == null || message == null) {
+            return null;
+        }
+        final ResponseDeadline deadline = new ResponseDeadline();
+        deadline.setTimeout(context.executor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (deadline.expire()) {
+                    logger.warn("message handler exceeds {}ms, reply blank for {}", responseDeadlineMillis, message);
+                    context.writeAndFlush(BlankResponse.global);
+                }
+            }
+        }, responseDeadlineMillis, TimeUnit.MILLISECONDS));
+        return deadline;
+    }
+
+    /**
+     * 匹配handler并执行
+     *
+     * @param context
+     *            上下文环境
+     * @param request
+     *            微信请求
+     * @param messageKey
+     *            消息的key
+     * @param message
+     *            微信消息
+     * @param nodeNames
+     *            节点名称集合
+     * @param deadline
+     *            被动回复的期限,为空时不限制
+     * @return 回复内容,未处理或处理失败时为空
+     */
+    protected WeixinResponse doHandle(ChannelHandlerContext context, WeixinRequest request,
+            WeixinMessageKey messageKey, WeixinMessage message, Set<String> nodeNames, ResponseDeadline deadline) {
         MessageHandlerExecutor handlerExecutor = getHandlerExecutor(context, request, messageKey, message,
-                messageTransfer.getNodeNames());
+                nodeNames);
         if (handlerExecutor == null || handlerExecutor.getMessageHandler() == null) {
-            noHandlerFound(context, request, message);
-            return;
+            if (deadline == null || deadline.tryRespond()) {
+                noHandlerFound(context, request, message);
+            }
+            return null;
         }
         if (!handlerExecutor.applyPreHandle(request, message)) {
-            return;
+            serverMetrics.recordInterceptorRejection(handlerExecutor.getRejectedInterceptor());
+            // 拦截器已自行回复(或者不回复),期限到达时不再回复空白消息
+            if (deadline != null) {
+                deadline.tryRespond();
+            }
+            return null;
         }
         Exception exception = null;
         WeixinResponse response = null;
+        WeixinMessageHandler messageHandler = handlerExecutor.getMessageHandler();
+        long handleNanos = System.nanoTime();
+        boolean handled = false;
         try {
-            response = handlerExecutor.getMessageHandler().doHandle(request, message);
+            response = messageHandler.doHandle(request, message);
+            handled = true;
+            serverMetrics.recordHandle(messageHandler, System.nanoTime() - handleNanos, true);
             handlerExecutor.applyPostHandle(request, response, message);
-            context.writeAndFlush(response);
+            if (deadline == null || deadline.tryRespond()) {
+                context.writeAndFlush(response);
+            } else {
+                sendResponse(message, response);
+            }
         } catch (Exception e) {
             exception = e;
+            if (!handled) {
+                serverMetrics.recordHandle(messageHandler, System.nanoTime() - handleNanos, false);
+            }
+            // 处理失败时同样回复空白消息,否则keep-alive连接上之后的请求会一直等待
+            if (deadline == null || deadline.tryRespond()) {
+                logger.error("message handler error, reply blank for {}", message, e);
+                context.writeAndFlush(BlankResponse.global);
+            }
         }
         handlerExecutor.triggerAfterCompletion(request, response, message, exception);
+        return exception == null ? response : null;
+    }
+
+    /**
+     * 收到微信服务器重试推送的消息时触发:不再交给handler处理,而是回复首次处理的结果;
+     * 超过等待时间仍未处理完成时回复空白消息
+     *
+     * @param context
+     *            上下文环境
+     * @param request
+     *            微信请求
+     * @param message
+     *            微信消息
+     * @param firstResponse
+     *            首次处理的回复
+     * @see MessageDeduplicator
+     */
+    protected void duplicateMessage(final ChannelHandlerContext context, WeixinRequest request,
+            WeixinMessage message, CompletableFuture<WeixinResponse> firstResponse) {
+        logger.info("duplicate message {}", message);
+        final AtomicBoolean responded = new AtomicBoolean();
+        final ScheduledFuture<?> timeout = context.executor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (responded.compareAndSet(false, true)) {
+                    context.writeAndFlush(BlankResponse.global);
+                }
+            }
+        }, messageDeduplicator.getWaitMillis(), TimeUnit.MILLISECONDS);
+        firstResponse.whenComplete(new BiConsumer<WeixinResponse, Throwable>() {
+            @Override
+            public void accept(WeixinResponse response, Throwable cause) {
+                if (responded.compareAndSet(false, true)) {
+                    timeout.cancel(false);
+                    context.writeAndFlush(response != null ? response : BlankResponse.global);
+                }
+            }
+        });
+    }
+
+    /**
+     * 超过被动回复的期限后,通过WeixinResponseSender异步发送处理结果
+     *
+     * @param message
+     *            微信消息
+     * @param response
+     *            处理结果
+     * @see WeixinResponseSender
+     */
+    protected void sendResponse(final WeixinMessage message, final WeixinResponse response) {
+        if (response == null || response instanceof SingleResponse) {
+            return;
+        }
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    responseSender.send(message, response);
+                } catch (RuntimeException e) {
+                    logger.error("send response error for {}", message, e);
+                }
+            }
+        };
+        if (responseSendExecutor == null) {
+            task.run();
+            return;
+        }
+        try {
+            responseSendExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("response sender is overloaded, discard response for {}", message);
+        }
+    }
+
+    /**
+     * 获取执行消息处理器的业务线程池
+     *
+     * @param messageKey
+     *            消息的key
+     * @return 线程池,为空时在IO线程中执行
+     */
+    protected Executor getMessageExecutor(WeixinMessageKey messageKey) {
+        Executor executor = messageExecutors.get(messageKey);
+        return executor != null ? executor : messageExecutor;
+    }
+
+    /**
+     * 业务线程池已满时触发:立即回复空白消息,避免微信服务器在超时后重复推送
+     *
+     * @param context
+     *            上下文环境
+     * @param request
+     *            微信请求
+     * @param message
+     *            微信消息
+     */
+    protected void rejectedExecution(ChannelHandlerContext context, WeixinRequest request, WeixinMessage message) {
+        logger.warn("message executor is overloaded, reply blank for {}", message);
+        context.writeAndFlush(BlankResponse.global);
     }
 
     /**
@@ -168,11 +452,11 @@ public class WeixinMessageDispatcher {
     protected void noHandlerFound(ChannelHandlerContext context, WeixinRequest request, WeixinMessage message) {
         logger.warn("no handler found for {}", request);
         if (alwaysResponse) {
-            context.write(BlankResponse.global);
+            context.writeAndFlush(BlankResponse.global);
         } else {
             FullHttpResponse response = new DefaultFullHttpResponse(request.getProtocolVersion(), NOT_FOUND);
             HttpUtil.resolveHeaders(response);
-            context.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            context.writeAndFlush(response);
         }
     }
 
@@ -194,28 +478,41 @@ public class WeixinMessageDispatcher {
      */
     protected MessageHandlerExecutor getHandlerExecutor(ChannelHandlerContext context, WeixinRequest request,
             WeixinMessageKey messageKey, WeixinMessage message, Set<String> nodeNames) {
-        WeixinMessageHandler[] messageHandlers = getMessageHandlers();
-        if (messageHandlers == null) {
+        MessageHandlerIndex handlerIndex = getMessageHandlerIndex();
+        if (handlerIndex == null) {
             return null;
         }
-        logger.info("resolve message handlers '{}'", this.messageHandlerList);
-        List<WeixinMessageHandler> matchedMessageHandlers = new ArrayList<WeixinMessageHandler>();
-        for (WeixinMessageHandler handler : messageHandlers) {
+        for (WeixinMessageHandler handler : handlerIndex.getHandlers(message != null ? message.getClass() : null)) {
             if (handler.canHandle(request, message, nodeNames)) {
-                matchedMessageHandlers.add(handler);
+                logger.debug("matched message handler '{}'", handler);
+                return new MessageHandlerExecutor(context, handler, getMessageInterceptors());
             }
         }
-        if (matchedMessageHandlers.isEmpty()) {
-            return null;
-        }
-        Collections.sort(matchedMessageHandlers, new Comparator<WeixinMessageHandler>() {
-            @Override
-            public int compare(WeixinMessageHandler m1, WeixinMessageHandler m2) {
-                return m2.weight() - m1.weight();
+        return null;
+    }
+
+    /**
+     * 获取消息处理器的路由索引,在首次分发时构建
+     *
+     * @return 路由索引,没有handler时为空
+     * @see MessageHandlerIndex
+     */
+    protected MessageHandlerIndex getMessageHandlerIndex() {
+        MessageHandlerIndex handlerIndex = this.messageHandlerIndex;
+        if (handlerIndex == null) {
+            WeixinMessageHandler[] messageHandlers = getMessageHandlers();
+            if (messageHandlers == null) {
+                return null;
             }
-        });
-        logger.info("matched message handlers '{}'", matchedMessageHandlers);
-        return new MessageHandlerExecutor(context, matchedMessageHandlers.get(0), getMessageInterceptors());
+            synchronized (this) {
+                handlerIndex = this.messageHandlerIndex;
+                if (handlerIndex == null) {
+                    handlerIndex = new MessageHandlerIndex(messageHandlers);
+                    this.messageHandlerIndex = handlerIndex;
+                }
+            }
+        }
+        return handlerIndex;
     }
 
     /**
@@ -225,6 +522,13 @@ public class WeixinMessageDispatcher {
      * @see com.foxinmy.weixin4j.handler.WeixinMessageHandler @
      */
     public WeixinMessageHandler[] getMessageHandlers() {
+        if (this.messageHandlers == null) {
+            resolveMessageHandlers();
+        }
+        return this.messageHandlers;
+    }
+
+    private synchronized void resolveMessageHandlers() {
         if (this.messageHandlers == null) {
             if (messageHandlerPackages != null) {
                 List<Class<?>> messageHandlerClass = new ArrayList<Class<?>>();
@@ -267,9 +571,9 @@ public class WeixinMessageDispatcher {
             if (messageHandlerList != null && !this.messageHandlerList.isEmpty()) {
                 this.messageHandlers = this.messageHandlerList
                         .toArray(new WeixinMessageHandler[this.messageHandlerList.size()]);
+                logger.info("resolve message handlers '{}'", this.messageHandlerList);
             }
         }
-        return this.messageHandlers;
     }
 
     /**
@@ -279,7 +583,14 @@ public class WeixinMessageDispatcher {
      * @ @see com.foxinmy.weixin4j.interceptor.WeixinMessageInterceptor
      */
     public WeixinMessageInterceptor[] getMessageInterceptors() {
-        if (this.messageInterceptors == null) {
+        if (!this.messageInterceptorsResolved) {
+            resolveMessageInterceptors();
+        }
+        return this.messageInterceptors;
+    }
+
+    private synchronized void resolveMessageInterceptors() {
+        if (!this.messageInterceptorsResolved) {
             if (this.messageInterceptorPackages != null) {
                 List<Class<?>> messageInterceptorClass = new ArrayList<Class<?>>();
                 for (String packageName : messageInterceptorPackages) {
@@ -328,9 +639,9 @@ public class WeixinMessageDispatcher {
                 this.messageInterceptors = this.messageInterceptorList
                         .toArray(new WeixinMessageInterceptor[this.messageInterceptorList.size()]);
             }
+            logger.info("resolve message interceptors '{}'", this.messageInterceptorList);
+            this.messageInterceptorsResolved = true;
         }
-        logger.info("resolve message interceptors '{}'", this.messageInterceptorList);
-        return this.messageInterceptors;
     }
 
     /**
@@ -356,32 +667,57 @@ public class WeixinMessageDispatcher {
     }
 
     /**
-     * xml消息转换器
+     * jaxb从已解析的节点读取微信消息
+     *
+     * @param messageNode
+     *            消息节点
+     * @param clazz
+     *            消息类型
+     * @return 消息对象
+     * @see MessageTransferHandler
+     */
+    protected <M extends WeixinMessage> M messageRead(Node messageNode, Class<M> clazz) {
+        if (clazz == null) {
+            return null;
+        }
+        try {
+            JAXBElement<M> jaxbElement = getUnmarshaller(clazz).unmarshal(messageNode, clazz);
+            return jaxbElement.getValue();
+        } catch (JAXBException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * xml消息转换器(Unmarshaller非线程安全,每次调用返回新的实例)
      *
      * @param clazz
      *            消息类型
      * @return 消息转换器 @
      */
     protected Unmarshaller getUnmarshaller(Class<? extends WeixinMessage> clazz) {
-        Unmarshaller unmarshaller = messageUnmarshaller.get(clazz);
-        if (unmarshaller == null) {
-            try {
-                JAXBContext jaxbContext = JAXBContext.newInstance(clazz);
-                unmarshaller = jaxbContext.createUnmarshaller();
-                messageUnmarshaller.put(clazz, unmarshaller);
-            } catch (JAXBException e) {
-                throw new RuntimeException(e);
+        JAXBContext jaxbContext = messageJaxbContext.get(clazz);
+        try {
+            if (jaxbContext == null) {
+                jaxbContext = JAXBContext.newInstance(clazz);
+                messageJaxbContext.put(clazz, jaxbContext);
             }
+            return jaxbContext.createUnmarshaller();
+        } catch (JAXBException e) {
+            throw new RuntimeException(e);
         }
-        return unmarshaller;
     }
 
-    public void setMessageHandlerList(List<WeixinMessageHandler> messageHandlerList) {
+    public synchronized void setMessageHandlerList(List<WeixinMessageHandler> messageHandlerList) {
         this.messageHandlerList = messageHandlerList;
+        this.messageHandlers = null;
+        this.messageHandlerIndex = null;
     }
 
-    public void setMessageInterceptorList(List<WeixinMessageInterceptor> messageInterceptorList) {
+    public synchronized void setMessageInterceptorList(List<WeixinMessageInterceptor> messageInterceptorList) {
         this.messageInterceptorList = messageInterceptorList;
+        this.messageInterceptors = null;
+        this.messageInterceptorsResolved = false;
     }
 
     public String[] getMessageHandlerPackages() {
@@ -416,6 +752,84 @@ public class WeixinMessageDispatcher {
         return this.messageMatcher;
     }
 
+    public ServerMetrics getServerMetrics() {
+        return serverMetrics;
+    }
+
+    /**
+     * 设置运行指标
+     *
+     * @param serverMetrics
+     *            运行指标,为空时不记录
+     */
+    public void setServerMetrics(ServerMetrics serverMetrics) {
+        this.serverMetrics = serverMetrics != null ? serverMetrics : ServerMetrics.NOOP;
+    }
+
+    /**
+     * 按消息key指定的业务线程池
+     *
+     * @return
+     */
+    public Map<WeixinMessageKey, Executor> getMessageExecutors() {
+        return Collections.unmodifiableMap(messageExecutors);
+    }
+
+    public Executor getMessageExecutor() {
+        return messageExecutor;
+    }
+
+    public void setMessageExecutor(Executor messageExecutor) {
+        this.messageExecutor = messageExecutor;
+    }
+
+    public void registMessageExecutor(WeixinMessageKey messageKey, Executor messageExecutor) {
+        messageExecutors.put(messageKey, messageExecutor);
+    }
+
+    public MessageDeduplicator getMessageDeduplicator() {
+        return messageDeduplicator;
+    }
+
+    /**
+     * 设置消息排重,为空时关闭排重
+     *
+     * @param messageDeduplicator
+     *            消息排重
+     */
+    public void setMessageDeduplicator(MessageDeduplicator messageDeduplicator) {
+        this.messageDeduplicator = messageDeduplicator;
+    }
+
+    public long getResponseDeadlineMillis() {
+        return responseDeadlineMillis;
+    }
+
+    public WeixinResponseSender getResponseSender() {
+        return responseSender;
+    }
+
+    public Executor getResponseSendExecutor() {
+        return responseSendExecutor;
+    }
+
+    /**
+     * 开启被动回复的期限:handler在业务线程中执行超过期限时立即回复空白消息,处理结果改为异步发送
+     *
+     * @param responseDeadlineMillis
+     *            期限(单位毫秒),应小于微信服务器的5秒超时,为0时关闭
+     * @param responseSender
+     *            回复发送
+     * @param responseSendExecutor
+     *            执行回复发送的线程池,为空时在业务线程中发送
+     */
+    public void setResponseDeadline(long responseDeadlineMillis, WeixinResponseSender responseSender,
+            Executor responseSendExecutor) {
+        this.responseDeadlineMillis = responseDeadlineMillis;
+        this.responseSender = responseSender;
+        this.responseSendExecutor = responseSendExecutor;
+    }
+
     /**
      * 打开总是响应开关,如未匹配到MessageHandler时回复空白消息
      */
@@ -0,0 +1,29 @@
+package com.foxinmy.weixin4j.dispatcher;
+
+import com.foxinmy.weixin4j.request.WeixinMessage;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+
+/**
+ * 回复发送:被动回复超过期限时,处理结果改为通过客服消息等接口主动发送
+ * <p>
+ * 如公众号使用weixin4j-mp的NotifyApi(客服消息),企业号使用weixin4j-qy的NotifyApi(应用消息)
+ * </p>
+ *
+ * @className WeixinResponseSender
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see ResponseDeadline
+ */
+public interface WeixinResponseSender {
+
+	/**
+	 * 发送回复
+	 *
+	 * @param message
+	 *            微信消息(回复给消息的发送者)
+	 * @param response
+	 *            handler的处理结果
+	 */
+	public void send(WeixinMessage message, WeixinResponse response);
+}
@@ -1,5 +1,6 @@
 package com.foxinmy.weixin4j.handler;
 
+import java.util.Collections;
 import java.util.Set;
 
 import com.foxinmy.weixin4j.request.WeixinMessage;
@@ -18,16 +19,26 @@ import com.foxinmy.weixin4j.util.ClassUtil;
  */
 @SuppressWarnings("unchecked")
 public abstract class MessageHandlerAdapter<M extends WeixinMessage> implements
-		WeixinMessageHandler {
+		TypedMessageHandler {
+
+	private final Class<?> messageClass = ClassUtil.getGenericType(getClass());
 
 	@Override
 	public boolean canHandle(WeixinRequest request, WeixinMessage message,
 			Set<String> nodeNames) {
-		return message != null
-				&& message.getClass() == ClassUtil.getGenericType(getClass())
+		return message != null && message.getClass() == messageClass
 				&& canHandle0(request, (M) message);
 	}
 
+	@Override
+	public Set<Class<? extends WeixinMessage>> getMessageClasses() {
+		if (messageClass == null) {
+			return null;
+		}
+		return Collections
+				.<Class<? extends WeixinMessage>> singleton((Class<? extends WeixinMessage>) messageClass);
+	}
+
 	/**
 	 * 能否处理请求
 	 *
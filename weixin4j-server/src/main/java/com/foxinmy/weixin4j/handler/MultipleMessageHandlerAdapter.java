@@ -1,5 +1,6 @@
 package com.foxinmy.weixin4j.handler;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -15,7 +16,7 @@ import com.foxinmy.weixin4j.request.WeixinRequest;
  * @since JDK 1.6
  * @see
  */
-public abstract class MultipleMessageHandlerAdapter implements WeixinMessageHandler {
+public abstract class MultipleMessageHandlerAdapter implements TypedMessageHandler {
 
     private final Set<Class<? extends WeixinMessage>> messageClasses;
 
@@ -35,6 +36,11 @@ public abstract class MultipleMessageHandlerAdapter implements WeixinMessageHand
         return message != null && messageClasses.contains(message.getClass()) && canHandle0(request, message);
     }
 
+    @Override
+    public Set<Class<? extends WeixinMessage>> getMessageClasses() {
+        return Collections.unmodifiableSet(messageClasses);
+    }
+
     /**
      * 能否处理请求
      *
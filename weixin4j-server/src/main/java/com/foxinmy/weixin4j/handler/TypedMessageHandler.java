@@ -0,0 +1,27 @@
+package com.foxinmy.weixin4j.handler;
+
+import java.util.Set;
+
+import com.foxinmy.weixin4j.request.WeixinMessage;
+
+/**
+ * 声明了消息类型的处理器:分发时只对消息类型匹配的处理器调用canHandle,
+ * 未实现此接口(或返回空)的处理器视为动态匹配,每个消息都会调用canHandle
+ *
+ * @className TypedMessageHandler
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see MessageHandlerAdapter
+ * @see MultipleMessageHandlerAdapter
+ * @see com.foxinmy.weixin4j.dispatcher.MessageHandlerIndex
+ */
+public interface TypedMessageHandler extends WeixinMessageHandler {
+
+	/**
+	 * 能处理的消息类型
+	 *
+	 * @return 消息类型集合,为空时视为动态匹配
+	 */
+	public Set<Class<? extends WeixinMessage>> getMessageClasses();
+}
@@ -0,0 +1,424 @@
+package com.foxinmy.weixin4j.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageKey;
+import com.foxinmy.weixin4j.handler.WeixinMessageHandler;
+import com.foxinmy.weixin4j.interceptor.WeixinMessageInterceptor;
+import com.foxinmy.weixin4j.type.EncryptType;
+
+/**
+ * 默认的运行指标:计数使用LongAdder,耗时使用无锁的LatencyHistogram,记录时不加锁
+ * <p>
+ * 可注册到JMX({@link #registerMBean(String)}),或者通过{@link #toText()}
+ * 输出Prometheus的文本格式(如WeixinServerBootstrap.openMetricsRoute开启的/metrics)
+ * </p>
+ *
+ * @className DefaultServerMetrics
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see ServerMetricsMXBean
+ */
+public class DefaultServerMetrics implements ServerMetrics, ServerMetricsMXBean {
+
+	/**
+	 * JMX的域名
+	 */
+	public static final String JMX_DOMAIN = "com.foxinmy.weixin4j";
+
+	private final LongAdder inFlight = new LongAdder();
+	private final LongAdder signatureFailures = new LongAdder();
+	private final LongAdder handlerErrors = new LongAdder();
+	private final LongAdder replies = new LongAdder();
+	private final LongAdder replyBytes = new LongAdder();
+	private final ConcurrentMap<String, LongAdder> interceptorRejections = new ConcurrentHashMap<String, LongAdder>();
+	private final ConcurrentMap<WeixinMessageKey, LongAdder> executionRejections = new ConcurrentHashMap<WeixinMessageKey, LongAdder>();
+	private final ConcurrentMap<EncryptType, LatencyHistogram> decodeLatencies = new ConcurrentHashMap<EncryptType, LatencyHistogram>();
+	private final ConcurrentMap<WeixinMessageKey, LatencyHistogram> dispatchLatencies = new ConcurrentHashMap<WeixinMessageKey, LatencyHistogram>();
+	private final ConcurrentMap<String, LatencyHistogram> handlerLatencies = new ConcurrentHashMap<String, LatencyHistogram>();
+	private final ConcurrentMap<String, ThreadPoolExecutor> executors = new ConcurrentHashMap<String, ThreadPoolExecutor>();
+
+	private volatile ObjectName objectName;
+
+	@Override
+	public void recordDecode(EncryptType encryptType, long nanos) {
+		histogram(decodeLatencies, encryptType).record(nanos);
+	}
+
+	@Override
+	public void recordSignatureFailure() {
+		signatureFailures.increment();
+	}
+
+	@Override
+	public void recordDispatch(WeixinMessageKey messageKey, long nanos) {
+		histogram(dispatchLatencies, messageKey).record(nanos);
+	}
+
+	@Override
+	public void recordHandle(WeixinMessageHandler messageHandler, long nanos,
+			boolean success) {
+		histogram(handlerLatencies, messageHandler.getClass().getName())
+				.record(nanos);
+		if (!success) {
+			handlerErrors.increment();
+		}
+	}
+
+	@Override
+	public void recordInterceptorRejection(
+			WeixinMessageInterceptor messageInterceptor) {
+		counter(interceptorRejections,
+				messageInterceptor.getClass().getName()).increment();
+	}
+
+	@Override
+	public void recordExecutionRejection(WeixinMessageKey messageKey) {
+		counter(executionRejections, messageKey).increment();
+	}
+
+	@Override
+	public void incrementInFlight() {
+		inFlight.increment();
+	}
+
+	@Override
+	public void decrementInFlight() {
+		inFlight.decrement();
+	}
+
+	@Override
+	public void recordReply(long bytes) {
+		replies.increment();
+		replyBytes.add(bytes);
+	}
+
+	/**
+	 * 统计业务线程池的排队数,非ThreadPoolExecutor的线程池忽略
+	 *
+	 * @param name
+	 *            线程池名称
+	 * @param executor
+	 *            线程池
+	 */
+	public void registerExecutor(String name, Executor executor) {
+		if (executor instanceof ThreadPoolExecutor) {
+			executors.put(name, (ThreadPoolExecutor) executor);
+		}
+	}
+
+	/**
+	 * 注册到JMX:com.foxinmy.weixin4j:type=ServerMetrics,name=?
+	 *
+	 * @param name
+	 *            名称,如服务端口
+	 * @return
+	 */
+	public ObjectName registerMBean(String name) {
+		try {
+			ObjectName objectName = new ObjectName(String.format(
+					"%s:type=ServerMetrics,name=%s", JMX_DOMAIN,
+					ObjectName.quote(name)));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+					objectName);
+			this.objectName = objectName;
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("register ServerMetrics MBean fail:"
+					+ e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 从JMX注销
+	 */
+	public void unregisterMBean() {
+		ObjectName objectName = this.objectName;
+		if (objectName == null) {
+			return;
+		}
+		this.objectName = null;
+		MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (mbeanServer.isRegistered(objectName)) {
+				mbeanServer.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			;
+		}
+	}
+
+	@Override
+	public long getInFlight() {
+		return inFlight.sum();
+	}
+
+	@Override
+	public long getSignatureFailures() {
+		return signatureFailures.sum();
+	}
+
+	@Override
+	public long getHandlerErrors() {
+		return handlerErrors.sum();
+	}
+
+	@Override
+	public long getReplies() {
+		return replies.sum();
+	}
+
+	@Override
+	public long getReplyBytes() {
+		return replyBytes.sum();
+	}
+
+	@Override
+	public Map<String, Long> getInterceptorRejections() {
+		Map<String, Long> result = new TreeMap<String, Long>();
+		for (Entry<String, LongAdder> entry : interceptorRejections.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().sum());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getExecutionRejections() {
+		Map<String, Long> result = new TreeMap<String, Long>();
+		for (Entry<WeixinMessageKey, LongAdder> entry : executionRejections
+				.entrySet()) {
+			result.put(keyName(entry.getKey()), entry.getValue().sum());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Integer> getQueueDepths() {
+		Map<String, Integer> result = new TreeMap<String, Integer>();
+		for (Entry<String, ThreadPoolExecutor> entry : executors.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().getQueue().size());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, LatencySnapshot> getDecodeLatencies() {
+		Map<String, LatencySnapshot> result = new TreeMap<String, LatencySnapshot>();
+		for (Entry<EncryptType, LatencyHistogram> entry : decodeLatencies
+				.entrySet()) {
+			result.put(entry.getKey().name(), entry.getValue().snapshot());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, LatencySnapshot> getDispatchLatencies() {
+		Map<String, LatencySnapshot> result = new TreeMap<String, LatencySnapshot>();
+		for (Entry<WeixinMessageKey, LatencyHistogram> entry : dispatchLatencies
+				.entrySet()) {
+			result.put(keyName(entry.getKey()), entry.getValue().snapshot());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, LatencySnapshot> getHandlerLatencies() {
+		Map<String, LatencySnapshot> result = new TreeMap<String, LatencySnapshot>();
+		for (Entry<String, LatencyHistogram> entry : handlerLatencies
+				.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		return result;
+	}
+
+	/**
+	 * 输出Prometheus的文本格式
+	 *
+	 * @return
+	 */
+	public String toText() {
+		StringBuilder text = new StringBuilder(1024);
+		gauge(text, "weixin4j_in_flight", "messages in process",
+				getInFlight());
+		counter(text, "weixin4j_signature_failures_total",
+				"requests with invalid signature", getSignatureFailures());
+		counter(text, "weixin4j_handler_errors_total",
+				"message handlers threw exception", getHandlerErrors());
+		counter(text, "weixin4j_replies_total", "replies written", getReplies());
+		counter(text, "weixin4j_reply_bytes_total", "reply content bytes",
+				getReplyBytes());
+		header(text, "weixin4j_interceptor_rejections_total",
+				"messages rejected by interceptor", "counter");
+		for (Entry<String, LongAdder> entry : interceptorRejections.entrySet()) {
+			sample(text, "weixin4j_interceptor_rejections_total",
+					label("interceptor", entry.getKey()), entry.getValue()
+							.sum());
+		}
+		header(text, "weixin4j_execution_rejections_total",
+				"messages rejected by business executor", "counter");
+		for (Entry<WeixinMessageKey, LongAdder> entry : executionRejections
+				.entrySet()) {
+			sample(text, "weixin4j_execution_rejections_total",
+					keyLabels(entry.getKey()), entry.getValue().sum());
+		}
+		header(text, "weixin4j_executor_queue_depth",
+				"business executor queue depth", "gauge");
+		for (Entry<String, ThreadPoolExecutor> entry : executors.entrySet()) {
+			sample(text, "weixin4j_executor_queue_depth",
+					label("executor", entry.getKey()), entry.getValue()
+							.getQueue().size());
+		}
+		header(text, "weixin4j_decode_seconds",
+				"request decode and decrypt time", "summary");
+		for (Entry<EncryptType, LatencyHistogram> entry : decodeLatencies
+				.entrySet()) {
+			summary(text, "weixin4j_decode_seconds",
+					label("encrypt_type", entry.getKey().name()), entry
+							.getValue().snapshot());
+		}
+		header(text, "weixin4j_dispatch_seconds",
+				"dispatch time including executor queueing", "summary");
+		for (Entry<WeixinMessageKey, LatencyHistogram> entry : dispatchLatencies
+				.entrySet()) {
+			summary(text, "weixin4j_dispatch_seconds",
+					keyLabels(entry.getKey()), entry.getValue().snapshot());
+		}
+		header(text, "weixin4j_handler_seconds", "message handler time",
+				"summary");
+		for (Entry<String, LatencyHistogram> entry : handlerLatencies
+				.entrySet()) {
+			summary(text, "weixin4j_handler_seconds",
+					label("handler", entry.getKey()), entry.getValue()
+							.snapshot());
+		}
+		return text.toString();
+	}
+
+	private static void header(StringBuilder text, String name, String help,
+			String type) {
+		text.append("# HELP ").append(name).append(' ').append(help)
+				.append('\n');
+		text.append("# TYPE ").append(name).append(' ').append(type)
+				.append('\n');
+	}
+
+	private static void gauge(StringBuilder text, String name, String help,
+			long value) {
+		header(text, name, help, "gauge");
+		sample(text, name, null, value);
+	}
+
+	private static void counter(StringBuilder text, String name, String help,
+			long value) {
+		header(text, name, help, "counter");
+		sample(text, name, null, value);
+	}
+
+	private static void summary(StringBuilder text, String name,
+			String labels, LatencySnapshot snapshot) {
+		String prefix = labels + ",";
+		sample(text, name, prefix + "quantile=\"0.5\"",
+				seconds(snapshot.getP50Nanos()));
+		sample(text, name, prefix + "quantile=\"0.9\"",
+				seconds(snapshot.getP90Nanos()));
+		sample(text, name, prefix + "quantile=\"0.99\"",
+				seconds(snapshot.getP99Nanos()));
+		sample(text, name, prefix + "quantile=\"0.999\"",
+				seconds(snapshot.getP999Nanos()));
+		sample(text, name + "_sum", labels, seconds(snapshot.getSumNanos()));
+		sample(text, name + "_count", labels, snapshot.getCount());
+		sample(text, name + "_max", labels, seconds(snapshot.getMaxNanos()));
+	}
+
+	private static void sample(StringBuilder text, String name,
+			String labels, Object value) {
+		text.append(name);
+		if (labels != null) {
+			text.append('{').append(labels).append('}');
+		}
+		text.append(' ').append(value).append('\n');
+	}
+
+	private static String seconds(long nanos) {
+		return String.format(Locale.ROOT, "%.6f", nanos / 1e9d);
+	}
+
+	private static String label(String name, String value) {
+		StringBuilder label = new StringBuilder(name).append("=\"");
+		if (value != null) {
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c == '\\' || c == '"') {
+					label.append('\\').append(c);
+				} else if (c == '\n') {
+					label.append("\\n");
+				} else {
+					label.append(c);
+				}
+			}
+		}
+		return label.append('"').toString();
+	}
+
+	private static String keyLabels(WeixinMessageKey messageKey) {
+		return label("message_type", messageKey.getMessageType())
+				+ ","
+				+ label("event_type", messageKey.getEventType())
+				+ ","
+				+ label("account_type",
+						messageKey.getAccountType() != null ? messageKey
+								.getAccountType().name() : null);
+	}
+
+	private static String keyName(WeixinMessageKey messageKey) {
+		StringBuilder name = new StringBuilder(
+				String.valueOf(messageKey.getMessageType()));
+		if (messageKey.getEventType() != null) {
+			name.append('/').append(messageKey.getEventType());
+		}
+		if (messageKey.getAccountType() != null) {
+			name.append('@').append(messageKey.getAccountType().name());
+		}
+		return name.toString();
+	}
+
+	private static <K> LatencyHistogram histogram(
+			ConcurrentMap<K, LatencyHistogram> histograms, K key) {
+		LatencyHistogram histogram = histograms.get(key);
+		if (histogram == null) {
+			histogram = new LatencyHistogram();
+			LatencyHistogram existing = histograms.putIfAbsent(key, histogram);
+			if (existing != null) {
+				histogram = existing;
+			}
+		}
+		return histogram;
+	}
+
+	private static <K> LongAdder counter(ConcurrentMap<K, LongAdder> counters,
+			K key) {
+		LongAdder counter = counters.get(key);
+		if (counter == null) {
+			counter = new LongAdder();
+			LongAdder existing = counters.putIfAbsent(key, counter);
+			if (existing != null) {
+				counter = existing;
+			}
+		}
+		return counter;
+	}
+}
@@ -0,0 +1,112 @@
+package com.foxinmy.weixin4j.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * 无锁的耗时分布:以微秒为单位按2的幂分段,每段再等分为8个桶(类似HdrHistogram,相对误差不超过12.5%)
+ *
+ * @className LatencyHistogram
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see LatencySnapshot
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+		@Override
+		public long applyAsLong(long left, long right) {
+			return Math.max(left, right);
+		}
+	};
+
+	private final AtomicLongArray buckets;
+	private final LongAdder count;
+	private final LongAdder sumNanos;
+	private final LongAccumulator maxNanos;
+
+	public LatencyHistogram() {
+		this.buckets = new AtomicLongArray(BUCKETS);
+		this.count = new LongAdder();
+		this.sumNanos = new LongAdder();
+		this.maxNanos = new LongAccumulator(MAX, 0l);
+	}
+
+	/**
+	 * 记录一次耗时
+	 *
+	 * @param nanos
+	 *            耗时(单位纳秒)
+	 */
+	public void record(long nanos) {
+		if (nanos < 0l) {
+			nanos = 0l;
+		}
+		buckets.incrementAndGet(bucketIndex(nanos / 1000l));
+		count.increment();
+		sumNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	/**
+	 * 当前的统计快照(统计过程中的记录可能部分计入)
+	 *
+	 * @return
+	 */
+	public LatencySnapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		long total = 0l;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		long max = maxNanos.get();
+		return new LatencySnapshot(count.sum(), sumNanos.sum(), max,
+				percentile(counts, total, 0.5d, max), percentile(counts,
+						total, 0.9d, max), percentile(counts, total, 0.99d,
+						max), percentile(counts, total, 0.999d, max));
+	}
+
+	private static long percentile(long[] counts, long total, double quantile,
+			long max) {
+		if (total == 0l) {
+			return 0l;
+		}
+		long rank = (long) Math.ceil(total * quantile);
+		long seen = 0l;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(bucketUpperMicros(i) * 1000l, max);
+			}
+		}
+		return max;
+	}
+
+	static int bucketIndex(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS))
+				& (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long bucketUpperMicros(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = index % SUB_BUCKETS;
+		long width = 1l << (exponent - SUB_BUCKET_BITS);
+		return ((SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS))
+				+ width - 1;
+	}
+}
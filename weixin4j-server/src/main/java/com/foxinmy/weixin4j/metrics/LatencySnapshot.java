@@ -0,0 +1,72 @@
+package com.foxinmy.weixin4j.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * 耗时分布的快照
+ *
+ * @className LatencySnapshot
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see LatencyHistogram
+ */
+public class LatencySnapshot {
+
+	private final long count;
+	private final long sumNanos;
+	private final long maxNanos;
+	private final long p50Nanos;
+	private final long p90Nanos;
+	private final long p99Nanos;
+	private final long p999Nanos;
+
+	@ConstructorProperties({ "count", "sumNanos", "maxNanos", "p50Nanos",
+			"p90Nanos", "p99Nanos", "p999Nanos" })
+	public LatencySnapshot(long count, long sumNanos, long maxNanos,
+			long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos) {
+		this.count = count;
+		this.sumNanos = sumNanos;
+		this.maxNanos = maxNanos;
+		this.p50Nanos = p50Nanos;
+		this.p90Nanos = p90Nanos;
+		this.p99Nanos = p99Nanos;
+		this.p999Nanos = p999Nanos;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getSumNanos() {
+		return sumNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	public long getP50Nanos() {
+		return p50Nanos;
+	}
+
+	public long getP90Nanos() {
+		return p90Nanos;
+	}
+
+	public long getP99Nanos() {
+		return p99Nanos;
+	}
+
+	public long getP999Nanos() {
+		return p999Nanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"count=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, max=%.3fms",
+				count, count == 0l ? 0d : sumNanos / 1e6d / count,
+				p50Nanos / 1e6d, p99Nanos / 1e6d, maxNanos / 1e6d);
+	}
+}
@@ -0,0 +1,109 @@
+package com.foxinmy.weixin4j.metrics;
+
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageKey;
+import com.foxinmy.weixin4j.handler.WeixinMessageHandler;
+import com.foxinmy.weixin4j.interceptor.WeixinMessageInterceptor;
+import com.foxinmy.weixin4j.type.EncryptType;
+
+/**
+ * 服务的运行指标:各个方法在IO线程或业务线程中调用,实现需要线程安全并且不能阻塞
+ * <p>
+ * 方法默认不做任何记录,可只实现关心的指标(如对接Micrometer、Prometheus客户端)
+ * </p>
+ *
+ * @className ServerMetrics
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see DefaultServerMetrics
+ */
+public interface ServerMetrics {
+
+	/**
+	 * 不做任何记录
+	 */
+	ServerMetrics NOOP = new ServerMetrics() {
+	};
+
+	/**
+	 * 请求解码(包括密文的解密)
+	 *
+	 * @param encryptType
+	 *            加密类型
+	 * @param nanos
+	 *            耗时(单位纳秒)
+	 */
+	default void recordDecode(EncryptType encryptType, long nanos) {
+	}
+
+	/**
+	 * 签名校验失败
+	 */
+	default void recordSignatureFailure() {
+	}
+
+	/**
+	 * 消息分发:从开始分发到handler处理完成,包括在业务线程池中的排队时间
+	 *
+	 * @param messageKey
+	 *            消息的key
+	 * @param nanos
+	 *            耗时(单位纳秒)
+	 */
+	default void recordDispatch(WeixinMessageKey messageKey, long nanos) {
+	}
+
+	/**
+	 * handler处理
+	 *
+	 * @param messageHandler
+	 *            消息处理器
+	 * @param nanos
+	 *            耗时(单位纳秒)
+	 * @param success
+	 *            是否处理成功(未抛出异常)
+	 */
+	default void recordHandle(WeixinMessageHandler messageHandler, long nanos,
+			boolean success) {
+	}
+
+	/**
+	 * 消息被拦截器拦截
+	 *
+	 * @param messageInterceptor
+	 *            拦截器
+	 */
+	default void recordInterceptorRejection(
+			WeixinMessageInterceptor messageInterceptor) {
+	}
+
+	/**
+	 * 业务线程池拒绝执行(如队列已满)
+	 *
+	 * @param messageKey
+	 *            消息的key
+	 */
+	default void recordExecutionRejection(WeixinMessageKey messageKey) {
+	}
+
+	/**
+	 * 开始处理消息
+	 */
+	default void incrementInFlight() {
+	}
+
+	/**
+	 * 消息处理结束
+	 */
+	default void decrementInFlight() {
+	}
+
+	/**
+	 * 写出回复
+	 *
+	 * @param bytes
+	 *            回复内容的字节数
+	 */
+	default void recordReply(long bytes) {
+	}
+}
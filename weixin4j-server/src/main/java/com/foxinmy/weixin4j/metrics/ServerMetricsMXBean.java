@@ -0,0 +1,58 @@
+package com.foxinmy.weixin4j.metrics;
+
+import java.util.Map;
+
+/**
+ * 运行指标的JMX接口
+ *
+ * @className ServerMetricsMXBean
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see DefaultServerMetrics
+ */
+public interface ServerMetricsMXBean {
+
+	/**
+	 * 处理中的消息数
+	 */
+	long getInFlight();
+
+	long getSignatureFailures();
+
+	long getHandlerErrors();
+
+	long getReplies();
+
+	long getReplyBytes();
+
+	/**
+	 * 按拦截器类名统计的拦截数
+	 */
+	Map<String, Long> getInterceptorRejections();
+
+	/**
+	 * 按消息key统计的业务线程池拒绝数
+	 */
+	Map<String, Long> getExecutionRejections();
+
+	/**
+	 * 业务线程池的排队数
+	 */
+	Map<String, Integer> getQueueDepths();
+
+	/**
+	 * 按加密类型统计的解码耗时
+	 */
+	Map<String, LatencySnapshot> getDecodeLatencies();
+
+	/**
+	 * 按消息key统计的分发耗时
+	 */
+	Map<String, LatencySnapshot> getDispatchLatencies();
+
+	/**
+	 * 按handler类名统计的处理耗时
+	 */
+	Map<String, LatencySnapshot> getHandlerLatencies();
+}
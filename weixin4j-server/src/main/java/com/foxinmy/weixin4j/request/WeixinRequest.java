@@ -75,6 +75,10 @@ public class WeixinRequest implements HttpMessage {
 	 * xml消息密文主体(AES时存在)
 	 */
 	private String encryptContent;
+	/**
+	 * 读取请求时按密文计算出的签名(流式解码时存在,此时不保留密文主体)
+	 */
+	private String encryptSignature;
 	/**
 	 * aes & token
 	 */
@@ -140,10 +144,24 @@ public class WeixinRequest implements HttpMessage {
 		return originalContent;
 	}
 
+	/**
+	 * xml消息密文主体:流式解码时为空
+	 *
+	 * @return 密文
+	 * @see #getEncryptSignature()
+	 */
 	public String getEncryptContent() {
 		return encryptContent;
 	}
 
+	public String getEncryptSignature() {
+		return encryptSignature;
+	}
+
+	public void setEncryptSignature(String encryptSignature) {
+		this.encryptSignature = encryptSignature;
+	}
+
 	public AesToken getAesToken() {
 		return aesToken;
 	}
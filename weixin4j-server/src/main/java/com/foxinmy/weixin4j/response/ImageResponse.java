@@ -22,8 +22,13 @@ public class ImageResponse implements WeixinResponse {
 
 	@Override
 	public String toContent() {
-		return String.format(
-				"<Image><MediaId><![CDATA[%s]]></MediaId></Image>", mediaId);
+		return ResponseWriter.toContent(this);
+	}
+
+	@Override
+	public void writeContent(ResponseWriter writer) {
+		writer.startElement("Image").writeElement("MediaId", mediaId)
+				.endElement("Image");
 	}
 
 	public String getMediaId() {
@@ -38,21 +38,18 @@ public class MusicResponse implements WeixinResponse {
 
 	@Override
 	public String toContent() {
-		StringBuilder content = new StringBuilder();
-		content.append("<Music>");
-		content.append(String.format(
-				"<ThumbMediaId><![CDATA[%s]]></ThumbMediaId>", thumbMediaId));
-		content.append(String.format("<Title><![CDATA[%s]]></Title>",
-				title != null ? title : ""));
-		content.append(String.format(
-				"<Description><![CDATA[%s]]></Description>",
-				desc != null ? desc : ""));
-		content.append(String.format("<MusicUrl><![CDATA[%s]]></MusicUrl>",
-				musicUrl != null ? musicUrl : ""));
-		content.append(String.format("<HQMusicUrl><![CDATA[%s]]></HQMusicUrl>",
-				hqMusicUrl != null ? hqMusicUrl : ""));
-		content.append("</Music>");
-		return content.toString();
+		return ResponseWriter.toContent(this);
+	}
+
+	@Override
+	public void writeContent(ResponseWriter writer) {
+		writer.startElement("Music");
+		writer.writeElement("ThumbMediaId", thumbMediaId);
+		writer.writeElement("Title", title);
+		writer.writeElement("Description", desc);
+		writer.writeElement("MusicUrl", musicUrl);
+		writer.writeElement("HQMusicUrl", hqMusicUrl);
+		writer.endElement("Music");
 	}
 
 	public String getThumbMediaId() {
@@ -54,25 +54,22 @@ public class NewsResponse implements WeixinResponse {
 
 	@Override
 	public String toContent() {
-		StringBuilder content = new StringBuilder();
-		content.append(String.format("<ArticleCount>%d</ArticleCount>",
-				articleList.size()));
-		content.append("<Articles>");
+		return ResponseWriter.toContent(this);
+	}
+
+	@Override
+	public void writeContent(ResponseWriter writer) {
+		writer.writeElement("ArticleCount", articleList.size());
+		writer.startElement("Articles");
 		for (Article article : articleList) {
-			content.append("<item>");
-			content.append(String.format("<Title><![CDATA[%s]]></Title>",
-					article.getTitle() != null ? article.getTitle() : ""));
-			content.append(String.format(
-					"<Description><![CDATA[%s]]></Description>",
-					article.getDesc() != null ? article.getDesc() : ""));
-			content.append(String.format("<Url><![CDATA[%s]]></Url>",
-					article.getUrl() != null ? article.getUrl() : ""));
-			content.append(String.format("<PicUrl><![CDATA[%s]]></PicUrl>",
-					article.getPicUrl() != null ? article.getPicUrl() : ""));
-			content.append("</item>");
+			writer.startElement("item");
+			writer.writeElement("Title", article.getTitle());
+			writer.writeElement("Description", article.getDesc());
+			writer.writeElement("Url", article.getUrl());
+			writer.writeElement("PicUrl", article.getPicUrl());
+			writer.endElement("item");
 		}
-		content.append("</Articles>");
-		return content.toString();
+		writer.endElement("Articles");
 	}
 
 	@Override
@@ -0,0 +1,155 @@
+package com.foxinmy.weixin4j.response;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+
+/**
+ * 被动回复的写出:把xml节点直接以UTF-8写入ByteBuf,不再拼接中间字符串
+ * <p>
+ * CDATA内容中的<code>]]&gt;</code>会被拆分为两段CDATA
+ * </p>
+ *
+ * @className ResponseWriter
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinResponse#writeContent(ResponseWriter)
+ */
+public final class ResponseWriter {
+
+	private static final String CDATA_START = "<![CDATA[";
+	private static final String CDATA_END = "]]>";
+	private static final String CDATA_SPLIT = "]]]]><![CDATA[>";
+
+	private final ByteBuf buffer;
+
+	/**
+	 *
+	 * @param buffer
+	 *            写入的缓冲区,一般由channel的allocator分配
+	 */
+	public ResponseWriter(ByteBuf buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * 写入开始标签
+	 *
+	 * @param name
+	 *            节点名称
+	 * @return
+	 */
+	public ResponseWriter startElement(String name) {
+		buffer.writeByte('<');
+		ByteBufUtil.writeAscii(buffer, name);
+		buffer.writeByte('>');
+		return this;
+	}
+
+	/**
+	 * 写入结束标签
+	 *
+	 * @param name
+	 *            节点名称
+	 * @return
+	 */
+	public ResponseWriter endElement(String name) {
+		buffer.writeByte('<').writeByte('/');
+		ByteBufUtil.writeAscii(buffer, name);
+		buffer.writeByte('>');
+		return this;
+	}
+
+	/**
+	 * 写入CDATA节点:&lt;name&gt;&lt;![CDATA[value]]&gt;&lt;/name&gt;
+	 *
+	 * @param name
+	 *            节点名称
+	 * @param value
+	 *            节点内容,为空时写入空的CDATA
+	 * @return
+	 */
+	public ResponseWriter writeElement(String name, String value) {
+		startElement(name);
+		ByteBufUtil.writeAscii(buffer, CDATA_START);
+		if (value != null) {
+			int start = 0;
+			int index;
+			while ((index = value.indexOf(CDATA_END, start)) >= 0) {
+				ByteBufUtil.writeUtf8(buffer, value.substring(start, index));
+				ByteBufUtil.writeAscii(buffer, CDATA_SPLIT);
+				start = index + CDATA_END.length();
+			}
+			ByteBufUtil.writeUtf8(buffer,
+					start == 0 ? value : value.substring(start));
+		}
+		ByteBufUtil.writeAscii(buffer, CDATA_END);
+		return endElement(name);
+	}
+
+	/**
+	 * 写入数字节点:&lt;name&gt;value&lt;/name&gt;
+	 *
+	 * @param name
+	 *            节点名称
+	 * @param value
+	 *            数值
+	 * @return
+	 */
+	public ResponseWriter writeElement(String name, long value) {
+		startElement(name);
+		if (value == Long.MIN_VALUE) {
+			ByteBufUtil.writeAscii(buffer, Long.toString(value));
+			return endElement(name);
+		}
+		if (value < 0) {
+			buffer.writeByte('-');
+			value = -value;
+		}
+		long divisor = 1l;
+		while (value / divisor >= 10l) {
+			divisor *= 10l;
+		}
+		for (; divisor > 0l; divisor /= 10l) {
+			buffer.writeByte((int) ('0' + value / divisor % 10l));
+		}
+		return endElement(name);
+	}
+
+	/**
+	 * 写入原始的xml片段
+	 *
+	 * @param xml
+	 *            xml片段
+	 * @return
+	 */
+	public ResponseWriter writeRaw(CharSequence xml) {
+		if (xml != null) {
+			ByteBufUtil.writeUtf8(buffer, xml);
+		}
+		return this;
+	}
+
+	public ByteBuf buffer() {
+		return buffer;
+	}
+
+	/**
+	 * 把回复内容写为字符串,供toContent使用
+	 *
+	 * @param response
+	 *            被动回复
+	 * @return 回复内容
+	 */
+	public static String toContent(WeixinResponse response) {
+		ByteBuf buffer = Unpooled.buffer();
+		try {
+			response.writeContent(new ResponseWriter(buffer));
+			return buffer.toString(CharsetUtil.UTF_8);
+		} finally {
+			buffer.release();
+		}
+	}
+}
@@ -22,7 +22,12 @@ public class TextResponse implements WeixinResponse {
 
 	@Override
 	public String toContent() {
-		return String.format("<Content><![CDATA[%s]]></Content>", content);
+		return ResponseWriter.toContent(this);
+	}
+
+	@Override
+	public void writeContent(ResponseWriter writer) {
+		writer.writeElement("Content", content);
 	}
 
 	@Override
@@ -27,13 +27,15 @@ public class TransferCustomerResponse implements WeixinResponse {
 
 	@Override
 	public String toContent() {
-		String content = "";
+		return ResponseWriter.toContent(this);
+	}
+
+	@Override
+	public void writeContent(ResponseWriter writer) {
 		if (kfAccount != null && !kfAccount.trim().isEmpty()) {
-			content = String
-					.format("<TransInfo><KfAccount><![CDATA[%s]]></KfAccount></TransInfo>",
-							kfAccount);
+			writer.startElement("TransInfo").writeElement("KfAccount", kfAccount)
+					.endElement("TransInfo");
 		}
-		return content;
 	}
 
 	@Override
@@ -36,17 +36,16 @@ public class VideoResponse implements WeixinResponse {
 
 	@Override
 	public String toContent() {
-		StringBuilder content = new StringBuilder();
-		content.append("<Video>");
-		content.append(String.format("<MediaId><![CDATA[%s]]></MediaId>",
-				mediaId));
-		content.append(String.format("<Title><![CDATA[%s]]></Title>",
-				title != null ? title : ""));
-		content.append(String.format(
-				"<Description><![CDATA[%s]]></Description>",
-				desc != null ? desc : ""));
-		content.append("</Video>");
-		return content.toString();
+		return ResponseWriter.toContent(this);
+	}
+
+	@Override
+	public void writeContent(ResponseWriter writer) {
+		writer.startElement("Video");
+		writer.writeElement("MediaId", mediaId);
+		writer.writeElement("Title", title);
+		writer.writeElement("Description", desc);
+		writer.endElement("Video");
 	}
 
 	public String getMediaId() {
@@ -22,8 +22,13 @@ public class VoiceResponse implements WeixinResponse {
 
 	@Override
 	public String toContent() {
-		return String.format(
-				"<Voice><MediaId><![CDATA[%s]]></MediaId></Voice>", mediaId);
+		return ResponseWriter.toContent(this);
+	}
+
+	@Override
+	public void writeContent(ResponseWriter writer) {
+		writer.startElement("Voice").writeElement("MediaId", mediaId)
+				.endElement("Voice");
 	}
 
 	public String getMediaId() {
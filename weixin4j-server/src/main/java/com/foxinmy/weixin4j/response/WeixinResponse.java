@@ -36,4 +36,14 @@ public interface WeixinResponse {
 	 * @return
 	 */
 	public String toContent();
+
+	/**
+	 * 把回复的消息内容直接写入缓冲区,默认写入toContent的结果
+	 * 
+	 * @param writer
+	 *            回复的写出
+	 */
+	public default void writeContent(ResponseWriter writer) {
+		writer.writeRaw(toContent());
+	}
 }
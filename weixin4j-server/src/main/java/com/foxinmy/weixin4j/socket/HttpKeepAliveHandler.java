@@ -0,0 +1,176 @@
+package com.foxinmy.weixin4j.socket;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * HTTP持久连接的管理:按请求的Connection头保持连接,在以下情况下回复完成后关闭连接
+ * <ul>
+ * <li>请求声明了Connection: close(或HTTP/1.0未声明keep-alive)</li>
+ * <li>连接上的请求数达到上限</li>
+ * <li>服务正在关闭({@link #DRAIN})</li>
+ * </ul>
+ * 连接空闲({@link IdleStateEvent})时直接关闭:空闲时间远大于微信服务器的5秒超时,
+ * 仍未回复的请求(如handler抛出异常)不会再有回复
+ * <p>
+ * 同一连接上的请求逐个处理:前一个请求还未回复时,管道化(pipelining)的后续请求暂存在队列中并停止读取,
+ * 回复写出后再交给后续的handler.这样回复按请求的顺序写出,
+ * 编码回复时读取的消息({@link com.foxinmy.weixin4j.util.ServerToolkits#MESSAGE_TRANSFER_KEY})也总是当前请求的
+ * </p>
+ *
+ * @className HttpKeepAliveHandler
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinServerInitializer
+ */
+public class HttpKeepAliveHandler extends ChannelDuplexHandler {
+
+    /**
+     * 服务关闭时发送给各个连接的事件
+     */
+    public static final Object DRAIN = new Object() {
+        @Override
+        public String toString() {
+            return "DRAIN";
+        }
+    };
+
+    private final int maxRequests;
+    private int requests;
+    /**
+     * 已收到但还未回复的请求数
+     */
+    private int pendingResponses;
+    private boolean persistent = true;
+    private boolean keepAliveHeader;
+    /**
+     * 等待前一个请求回复的后续请求(包括请求内容)
+     */
+    private final Queue<Object> pipelined = new ArrayDeque<Object>();
+
+    /**
+     *
+     * @param maxRequests
+     *            每个连接上的最大请求数,小于等于0时不限制
+     * @param draining
+     *            服务是否已经在关闭
+     */
+    public HttpKeepAliveHandler(int maxRequests, boolean draining) {
+        this.maxRequests = maxRequests;
+        this.persistent = !draining;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!pipelined.isEmpty() || (msg instanceof HttpRequest && pendingResponses > 0)) {
+            pipelined.add(msg);
+            ctx.channel().config().setAutoRead(false);
+            return;
+        }
+        forward(ctx, msg);
+    }
+
+    private void forward(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            requests++;
+            pendingResponses++;
+            if (!HttpUtil.isKeepAlive(request) || (maxRequests > 0 && requests >= maxRequests)) {
+                persistent = false;
+            }
+            // HTTP/1.0默认关闭连接,声明了keep-alive时需要在回复中带上
+            keepAliveHeader = request.protocolVersion() == HttpVersion.HTTP_1_0;
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof HttpResponse && !isInformational((HttpResponse) msg)) {
+            HttpResponse response = (HttpResponse) msg;
+            pendingResponses--;
+            if (!HttpUtil.isKeepAlive(response)) {
+                persistent = false;
+            }
+            if (!persistent) {
+                response.headers().set(CONNECTION, HttpHeaderValues.CLOSE);
+                if (pendingResponses <= 0) {
+                    promise = promise.unvoid();
+                    promise.addListener(ChannelFutureListener.CLOSE);
+                }
+            } else if (keepAliveHeader) {
+                response.headers().set(CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+            }
+            ctx.write(msg, promise);
+            if (persistent) {
+                forwardPipelined(ctx);
+            }
+            return;
+        }
+        ctx.write(msg, promise);
+    }
+
+    /**
+     * 前一个请求回复后,把暂存的下一个请求交给后续的handler
+     */
+    private void forwardPipelined(ChannelHandlerContext ctx) {
+        for (Object msg = pipelined.peek(); msg != null; msg = pipelined.peek()) {
+            if (msg instanceof HttpRequest && pendingResponses > 0) {
+                return;
+            }
+            forward(ctx, pipelined.poll());
+        }
+        ctx.channel().config().setAutoRead(true);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releasePipelined();
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        releasePipelined();
+    }
+
+    private void releasePipelined() {
+        for (Object msg = pipelined.poll(); msg != null; msg = pipelined.poll()) {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            ctx.close();
+        } else if (evt == DRAIN) {
+            persistent = false;
+            if (pendingResponses <= 0) {
+                ctx.close();
+            }
+        } else {
+            ctx.fireUserEventTriggered(evt);
+        }
+    }
+
+    private static boolean isInformational(HttpResponse response) {
+        return response.status().codeClass() == HttpStatusClass.INFORMATIONAL;
+    }
+}
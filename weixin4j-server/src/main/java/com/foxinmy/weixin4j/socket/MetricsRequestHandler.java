@@ -0,0 +1,51 @@
+package com.foxinmy.weixin4j.socket;
+
+import com.foxinmy.weixin4j.metrics.DefaultServerMetrics;
+import com.foxinmy.weixin4j.util.HttpUtil;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * 运行指标的查询:GET指定路径时回复Prometheus的文本格式,其它请求交给后续的handler
+ *
+ * @className MetricsRequestHandler
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see DefaultServerMetrics#toText()
+ */
+@ChannelHandler.Sharable
+public class MetricsRequestHandler extends ChannelInboundHandlerAdapter {
+
+    private static final String CONTENTTYPE$PROMETHEUS = "text/plain;version=0.0.4";
+
+    private final String path;
+    private final DefaultServerMetrics serverMetrics;
+
+    public MetricsRequestHandler(String path, DefaultServerMetrics serverMetrics) {
+        this.path = path;
+        this.serverMetrics = serverMetrics;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        // 流式解码时只收到请求头,之后的请求内容由解码器忽略
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            if (request.method() == HttpMethod.GET && path.equals(new QueryStringDecoder(request.uri()).path())) {
+                ReferenceCountUtil.release(request);
+                ctx.writeAndFlush(HttpUtil.createHttpResponse(ByteBufUtil.writeUtf8(ctx.alloc(), serverMetrics.toText()),
+                        CONTENTTYPE$PROMETHEUS));
+                return;
+            }
+        }
+        ctx.fireChannelRead(msg);
+    }
+}
@@ -2,10 +2,13 @@ package com.foxinmy.weixin4j.socket;
 
 import java.util.List;
 
+import com.foxinmy.weixin4j.metrics.ServerMetrics;
 import com.foxinmy.weixin4j.response.SingleResponse;
 import com.foxinmy.weixin4j.util.HttpUtil;
 import com.foxinmy.weixin4j.util.ServerToolkits;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
@@ -26,10 +29,22 @@ public class SingleResponseEncoder extends MessageToMessageEncoder<SingleRespons
 
     private final InternalLogger logger = InternalLoggerFactory.getInstance(getClass());
 
+    private final ServerMetrics serverMetrics;
+
+    public SingleResponseEncoder() {
+        this(ServerMetrics.NOOP);
+    }
+
+    public SingleResponseEncoder(ServerMetrics serverMetrics) {
+        this.serverMetrics = serverMetrics;
+    }
+
     @Override
     protected void encode(ChannelHandlerContext ctx, SingleResponse response, List<Object> out) {
         String content = response.toContent();
-        ctx.writeAndFlush(HttpUtil.createHttpResponse(content, ServerToolkits.CONTENTTYPE$TEXT_PLAIN));
-        logger.info("encode single response:{}", content);
+        ByteBuf buffer = ByteBufUtil.writeUtf8(ctx.alloc(), content);
+        serverMetrics.recordReply(buffer.readableBytes());
+        out.add(HttpUtil.createHttpResponse(buffer, ServerToolkits.CONTENTTYPE$TEXT_PLAIN));
+        logger.debug("encode single response:{}", content);
     }
 }
\ No newline at end of file
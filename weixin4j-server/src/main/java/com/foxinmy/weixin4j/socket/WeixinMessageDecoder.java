@@ -5,19 +5,22 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.foxinmy.weixin4j.metrics.ServerMetrics;
 import com.foxinmy.weixin4j.request.WeixinRequest;
 import com.foxinmy.weixin4j.type.EncryptType;
+import com.foxinmy.weixin4j.util.AesCipher;
 import com.foxinmy.weixin4j.util.AesToken;
-import com.foxinmy.weixin4j.util.MessageUtil;
 import com.foxinmy.weixin4j.util.ServerToolkits;
 import com.foxinmy.weixin4j.xml.EncryptMessageHandler;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import io.netty.handler.codec.http.FullHttpRequest;
-import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.QueryStringDecoder;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -37,8 +40,14 @@ public class WeixinMessageDecoder extends MessageToMessageDecoder<FullHttpReques
     private final InternalLogger logger = InternalLoggerFactory.getInstance(getClass());
 
     private Map<String, AesToken> aesTokenMap = new ConcurrentHashMap<String, AesToken>();
+    private final ServerMetrics serverMetrics;
 
     public WeixinMessageDecoder(final Map<String, AesToken> aesTokenMap) {
+        this(aesTokenMap, ServerMetrics.NOOP);
+    }
+
+    public WeixinMessageDecoder(final Map<String, AesToken> aesTokenMap, ServerMetrics serverMetrics) {
+        this.serverMetrics = serverMetrics;
         for (Entry<String, AesToken> entry : aesTokenMap.entrySet()) {
             this.aesTokenMap.put(entry.getKey() == null ? "" : entry.getKey(), entry.getValue());
         }
@@ -49,42 +58,88 @@ public class WeixinMessageDecoder extends MessageToMessageDecoder<FullHttpReques
         aesTokenMap.put(asetoken.getWeixinId(), asetoken);
     }
 
+    /**
+     * 按url上的weixin_id查找aes & token
+     */
+    AesToken getAesToken(String weixinId) {
+        return aesTokenMap.get(weixinId);
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, FullHttpRequest req, List<Object> out) {
-        String messageContent = req.content().toString(ServerToolkits.UTF_8);
-        QueryStringDecoder queryDecoder = new QueryStringDecoder(req.uri(), true);
-        HttpMethod method = req.method();
-        logger.info("decode request:{} use {} method invoking", req.uri(), method);
-        Map<String, List<String>> parameters = queryDecoder.parameters();
-        EncryptType encryptType = parameters.containsKey("encrypt_type")
-                ? EncryptType.valueOf(parameters.get("encrypt_type").get(0).toUpperCase()) : EncryptType.RAW;
-        String echoStr = parameters.containsKey("echostr") ? parameters.get("echostr").get(0) : "";
-        String timeStamp = parameters.containsKey("timestamp") ? parameters.get("timestamp").get(0) : "";
-        String nonce = parameters.containsKey("nonce") ? parameters.get("nonce").get(0) : "";
-        String signature = parameters.containsKey("signature") ? parameters.get("signature").get(0) : "";
-        String msgSignature = parameters.containsKey("msg_signature") ? parameters.get("msg_signature").get(0) : "";
-        String weixinId = parameters.containsKey("weixin_id") ? parameters.get("weixin_id").get(0) : "";
-        AesToken aesToken = aesTokenMap.get(weixinId);
+        long startNanos = System.nanoTime();
+        ByteBuf content = req.content();
+        logger.debug("decode request:{} use {} method invoking", req.uri(), req.method());
+        WeixinRequestParameters parameters = new WeixinRequestParameters(req.uri());
+        EncryptType encryptType = parameters.encryptType;
+        AesToken aesToken = getAesToken(parameters.weixinId);
+        String messageContent;
         String encryptContent = null;
-        if (!ServerToolkits.isBlank(messageContent) && encryptType == EncryptType.AES) {
+        if (content.isReadable() && encryptType == EncryptType.AES) {
             if (ServerToolkits.isBlank(aesToken.getAesKey())) {
                 throw new RuntimeException("EncodingAESKey not be empty in safety(AES) mode");
             }
-            EncryptMessageHandler encryptHandler = EncryptMessageHandler.parser(messageContent);
+            // 直接从请求的ByteBuf中读取密文,不必先把整个请求转换为字符串
+            EncryptMessageHandler encryptHandler = EncryptMessageHandler.parser(new ByteBufInputStream(content.duplicate()));
             encryptContent = encryptHandler.getEncryptContent();
-            /**
-             * 企业号第三方套件 ╮（╯_╰）╭
-             */
-            if (aesToken.getWeixinId().startsWith("tj")) {
-                aesToken = new AesToken(encryptHandler.getToUserName(), aesToken.getToken(), aesToken.getAesKey());
-            }
-            messageContent = MessageUtil.aesDecrypt(aesToken.getWeixinId(), aesToken.getAesKey(), encryptContent);
+            aesToken = resolveAesToken(aesToken, encryptHandler.getToUserName());
+            messageContent = aesDecrypt(ctx.alloc(), aesToken, encryptContent);
+        } else {
+            messageContent = content.toString(ServerToolkits.UTF_8);
         }
-        logger.info("read original message {}", messageContent);
-        WeixinRequest request = new WeixinRequest(req.headers(), method, req.uri(), encryptType, echoStr, timeStamp,
-                nonce, signature, msgSignature, messageContent, encryptContent, aesToken);
-        request.setDecoderResult(req.decoderResult());
-        request.setProtocolVersion(req.protocolVersion());
+        // 明文消息包含用户的内容,只在debug时输出
+        logger.debug("read original message {}", messageContent);
+        WeixinRequest request = parameters.newRequest(req, messageContent, encryptContent, aesToken);
+        serverMetrics.recordDecode(encryptType, System.nanoTime() - startNanos);
         out.add(request);
     }
+
+    /**
+     * 企业号第三方套件 ╮（╯_╰）╭
+     */
+    static AesToken resolveAesToken(AesToken aesToken, String toUserName) {
+        if (aesToken.getWeixinId().startsWith("tj")) {
+            return new AesToken(toUserName, aesToken.getToken(), aesToken.getAesKey());
+        }
+        return aesToken;
+    }
+
+    /**
+     * 在池化的缓冲区中解码与解密,只有解密后的明文转换为字符串
+     *
+     * @param allocator
+     *            缓冲区分配
+     * @param aesToken
+     *            aes & token
+     * @param encryptContent
+     *            base64编码的密文
+     * @return 明文消息
+     * @see AesCipher
+     */
+    private String aesDecrypt(ByteBufAllocator allocator, AesToken aesToken, String encryptContent) {
+        ByteBuf encrypted = ByteBufUtil.writeAscii(allocator, encryptContent);
+        try {
+            return aesDecrypt(aesToken, encrypted);
+        } finally {
+            encrypted.release();
+        }
+    }
+
+    /**
+     * 解密缓冲区中的密文
+     *
+     * @param aesToken
+     *            aes & token
+     * @param encrypted
+     *            base64编码的密文(读取位置不变)
+     * @return 明文消息
+     */
+    static String aesDecrypt(AesToken aesToken, ByteBuf encrypted) {
+        ByteBuf original = AesCipher.getInstance(aesToken.getAesKey()).decrypt(aesToken.getWeixinId(), encrypted);
+        try {
+            return original.toString(ServerToolkits.UTF_8);
+        } finally {
+            original.release();
+        }
+    }
 }
@@ -0,0 +1,260 @@
+package com.foxinmy.weixin4j.socket;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
+import static io.netty.handler.codec.http.HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.List;
+
+import com.foxinmy.weixin4j.metrics.ServerMetrics;
+import com.foxinmy.weixin4j.request.WeixinRequest;
+import com.foxinmy.weixin4j.type.EncryptType;
+import com.foxinmy.weixin4j.util.AesToken;
+import com.foxinmy.weixin4j.util.HttpUtil;
+import com.foxinmy.weixin4j.util.ServerToolkits;
+import com.foxinmy.weixin4j.util.SignatureDigest;
+import com.foxinmy.weixin4j.xml.EncryptMessageStreamParser;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+/**
+ * 微信消息的流式解码:不聚合整个请求,请求内容分段到达时即解码
+ * <ul>
+ * <li>明文消息直接解码为字符,不再保留请求的字节</li>
+ * <li>密文消息由{@link EncryptMessageStreamParser}逐段解析,密文写入缓冲区的同时计算签名</li>
+ * </ul>
+ * 请求内容超过上限时回复413并关闭连接;每个连接一个实例
+ *
+ * @className WeixinMessageStreamDecoder
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinMessageDecoder
+ * @see com.foxinmy.weixin4j.request.WeixinRequest#getEncryptSignature()
+ */
+public class WeixinMessageStreamDecoder extends MessageToMessageDecoder<HttpObject> {
+    private final InternalLogger logger = InternalLoggerFactory.getInstance(getClass());
+
+    /**
+     * 请求没有Content-Length时缓冲区的初始大小
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    private final WeixinMessageDecoder messageDecoder;
+    private final int maxContentLength;
+    private final ServerMetrics serverMetrics;
+
+    private HttpRequest request;
+    private WeixinRequestParameters parameters;
+    private AesToken aesToken;
+    private int initialCapacity;
+    private long receivedLength;
+    private long decodeNanos;
+    private EncryptMessageStreamParser encryptParser;
+    private SignatureDigest signatureDigest;
+    private CharsetDecoder charsetDecoder;
+    private CharBuffer text;
+    /**
+     * 分段时未解码的UTF-8字节
+     */
+    private final ByteBuffer remainder = ByteBuffer.allocate(4);
+
+    /**
+     *
+     * @param messageDecoder
+     *            提供aes & token
+     * @param maxContentLength
+     *            请求内容的上限(字节)
+     * @param serverMetrics
+     *            运行指标
+     */
+    public WeixinMessageStreamDecoder(WeixinMessageDecoder messageDecoder, int maxContentLength,
+            ServerMetrics serverMetrics) {
+        this.messageDecoder = messageDecoder;
+        this.maxContentLength = maxContentLength;
+        this.serverMetrics = serverMetrics;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, HttpObject msg, List<Object> out) {
+        long startNanos = System.nanoTime();
+        try {
+            if (msg instanceof HttpRequest) {
+                startRequest(ctx, (HttpRequest) msg);
+            }
+            // 没有对应请求的内容(如已回复413)直接忽略
+            if (msg instanceof HttpContent && request != null) {
+                readContent(ctx, (HttpContent) msg);
+                // 超过上限时已放弃该请求
+                if (msg instanceof LastHttpContent && request != null) {
+                    WeixinRequest weixinRequest = finishRequest();
+                    serverMetrics.recordDecode(weixinRequest.getEncryptType(),
+                            decodeNanos + System.nanoTime() - startNanos);
+                    reset();
+                    out.add(weixinRequest);
+                    return;
+                }
+            }
+            decodeNanos += System.nanoTime() - startNanos;
+        } catch (RuntimeException e) {
+            reset();
+            throw e;
+        }
+    }
+
+    private void startRequest(ChannelHandlerContext ctx, HttpRequest req) {
+        reset();
+        logger.debug("decode request:{} use {} method invoking", req.uri(), req.method());
+        long contentLength = io.netty.handler.codec.http.HttpUtil.getContentLength(req, -1L);
+        if (contentLength > maxContentLength) {
+            tooLarge(ctx, req);
+            return;
+        }
+        this.request = req;
+        this.parameters = new WeixinRequestParameters(req.uri());
+        this.aesToken = messageDecoder.getAesToken(parameters.weixinId);
+        this.initialCapacity = contentLength < 0 ? DEFAULT_INITIAL_CAPACITY : (int) contentLength;
+    }
+
+    private void readContent(ChannelHandlerContext ctx, HttpContent httpContent) {
+        ByteBuf content = httpContent.content();
+        boolean last = httpContent instanceof LastHttpContent;
+        if (!content.isReadable() && !last) {
+            return;
+        }
+        receivedLength += content.readableBytes();
+        if (receivedLength > maxContentLength) {
+            tooLarge(ctx, request);
+            reset();
+            return;
+        }
+        if (parameters.encryptType == EncryptType.AES && aesToken != null) {
+            if (content.isReadable() && encryptParser == null) {
+                if (ServerToolkits.isBlank(aesToken.getAesKey())) {
+                    throw new RuntimeException("EncodingAESKey not be empty in safety(AES) mode");
+                }
+                signatureDigest = new SignatureDigest(aesToken.getToken(), parameters.timeStamp, parameters.nonce);
+                encryptParser = new EncryptMessageStreamParser(ctx.alloc(), signatureDigest, initialCapacity);
+            }
+            if (encryptParser != null) {
+                encryptParser.parse(content);
+                return;
+            }
+        }
+        decodeText(content, last);
+    }
+
+    private WeixinRequest finishRequest() {
+        AesToken aesToken = this.aesToken;
+        String messageContent;
+        String encryptSignature = null;
+        if (encryptParser != null) {
+            encryptParser.finish();
+            aesToken = WeixinMessageDecoder.resolveAesToken(aesToken, encryptParser.getToUserName());
+            encryptSignature = signatureDigest.digest();
+            messageContent = WeixinMessageDecoder.aesDecrypt(aesToken, encryptParser.getEncryptContent());
+        } else if (text != null) {
+            text.flip();
+            messageContent = text.toString();
+        } else {
+            messageContent = "";
+        }
+        // 明文消息包含用户的内容,只在debug时输出
+        logger.debug("read original message {}", messageContent);
+        WeixinRequest weixinRequest = parameters.newRequest(request, messageContent, null, aesToken);
+        weixinRequest.setEncryptSignature(encryptSignature);
+        return weixinRequest;
+    }
+
+    /**
+     * 按UTF-8逐段解码,分段处被截断的字符留到下一段
+     */
+    private void decodeText(ByteBuf content, boolean last) {
+        if (charsetDecoder == null) {
+            charsetDecoder = ServerToolkits.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            text = CharBuffer.allocate(Math.max(initialCapacity, 16));
+        }
+        ByteBuffer in = content.nioBuffer();
+        while (remainder.position() > 0 && in.hasRemaining()) {
+            remainder.put(in.get());
+            remainder.flip();
+            decodeText(remainder, false);
+            remainder.compact();
+        }
+        decodeText(in, false);
+        remainder.put(in);
+        if (last) {
+            remainder.flip();
+            decodeText(remainder, true);
+            remainder.clear();
+            while (charsetDecoder.flush(text) == CoderResult.OVERFLOW) {
+                expandText();
+            }
+        }
+    }
+
+    private void decodeText(ByteBuffer in, boolean endOfInput) {
+        while (charsetDecoder.decode(in, text, endOfInput) == CoderResult.OVERFLOW) {
+            expandText();
+        }
+    }
+
+    private void expandText() {
+        CharBuffer expanded = CharBuffer.allocate(text.capacity() << 1);
+        text.flip();
+        expanded.put(text);
+        text = expanded;
+    }
+
+    private void tooLarge(ChannelHandlerContext ctx, HttpRequest req) {
+        logger.warn("request content exceeds {} bytes:{}", maxContentLength, req.uri());
+        FullHttpResponse response = new DefaultFullHttpResponse(req.protocolVersion(), REQUEST_ENTITY_TOO_LARGE);
+        response.headers().set(CONNECTION, HttpHeaderValues.CLOSE);
+        HttpUtil.resolveHeaders(response);
+        ctx.writeAndFlush(response);
+    }
+
+    private void reset() {
+        request = null;
+        parameters = null;
+        aesToken = null;
+        receivedLength = 0;
+        decodeNanos = 0;
+        if (encryptParser != null) {
+            encryptParser.release();
+            encryptParser = null;
+        }
+        signatureDigest = null;
+        charsetDecoder = null;
+        text = null;
+        remainder.clear();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        reset();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        reset();
+        super.handlerRemoved(ctx);
+    }
+}
@@ -3,6 +3,8 @@ package com.foxinmy.weixin4j.socket;
 import java.io.Serializable;
 import java.util.Set;
 
+import org.w3c.dom.Node;
+
 import com.foxinmy.weixin4j.type.AccountType;
 import com.foxinmy.weixin4j.type.EncryptType;
 import com.foxinmy.weixin4j.util.AesToken;
@@ -48,14 +50,38 @@ public class WeixinMessageTransfer implements Serializable {
 	 * 事件类型
 	 */
 	private String eventType;
+	/**
+	 * 事件key(如菜单事件的EventKey),非事件消息时为空
+	 */
+	private String eventKey;
 	/**
 	 * 节点集合
 	 */
 	private Set<String> nodeNames;
+	/**
+	 * 解析后的消息节点,用于绑定消息对象
+	 */
+	private transient Node messageNode;
 
 	public WeixinMessageTransfer(AesToken aesToken, EncryptType encryptType,
 			String toUserName, String fromUserName, AccountType accountType,
 			String msgType, String eventType, Set<String> nodeNames) {
+		this(aesToken, encryptType, toUserName, fromUserName, accountType,
+				msgType, eventType, nodeNames, null);
+	}
+
+	public WeixinMessageTransfer(AesToken aesToken, EncryptType encryptType,
+			String toUserName, String fromUserName, AccountType accountType,
+			String msgType, String eventType, Set<String> nodeNames,
+			Node messageNode) {
+		this(aesToken, encryptType, toUserName, fromUserName, accountType,
+				msgType, eventType, null, nodeNames, messageNode);
+	}
+
+	public WeixinMessageTransfer(AesToken aesToken, EncryptType encryptType,
+			String toUserName, String fromUserName, AccountType accountType,
+			String msgType, String eventType, String eventKey,
+			Set<String> nodeNames, Node messageNode) {
 		this.aesToken = aesToken;
 		this.encryptType = encryptType;
 		this.toUserName = toUserName;
@@ -63,7 +89,9 @@ public class WeixinMessageTransfer implements Serializable {
 		this.accountType = accountType;
 		this.msgType = msgType;
 		this.eventType = eventType;
+		this.eventKey = eventKey;
 		this.nodeNames = nodeNames;
+		this.messageNode = messageNode;
 	}
 
 	public AesToken getAesToken() {
@@ -94,16 +122,24 @@ public class WeixinMessageTransfer implements Serializable {
 		return eventType;
 	}
 
+	public String getEventKey() {
+		return eventKey;
+	}
+
 	public Set<String> getNodeNames() {
 		return nodeNames;
 	}
 
+	public Node getMessageNode() {
+		return messageNode;
+	}
+
 	@Override
 	public String toString() {
 		return "WeixinMessageTransfer [aesToken=" + aesToken + ", encryptType="
 				+ encryptType + ", toUserName=" + toUserName
 				+ ", fromUserName=" + fromUserName + ", accountType="
 				+ accountType + ", msgType=" + msgType + ", eventType="
-				+ eventType + ", nodeNames=" + nodeNames + "]";
+				+ eventType + ", eventKey=" + eventKey + ", nodeNames=" + nodeNames + "]";
 	}
 }
@@ -13,7 +13,6 @@ import com.foxinmy.weixin4j.util.HttpUtil;
 import com.foxinmy.weixin4j.util.MessageUtil;
 import com.foxinmy.weixin4j.util.ServerToolkits;
 
-import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
@@ -57,7 +56,7 @@ public class WeixinRequestHandler extends SimpleChannelInboundHandler<WeixinRequ
         // 消息字段不完整返回400
         if (aesToken == null || (ServerToolkits.isBlank(request.getSignature())
                 && ServerToolkits.isBlank(request.getMsgSignature()))) {
-            ctx.writeAndFlush(resolveResponse(BAD_REQUEST, request)).addListener(ChannelFutureListener.CLOSE);
+            ctx.writeAndFlush(resolveResponse(BAD_REQUEST, request));
             return;
         }
         /**
@@ -81,31 +80,44 @@ public class WeixinRequestHandler extends SimpleChannelInboundHandler<WeixinRequ
                         new SingleResponse(MessageUtil.aesDecrypt(null, aesToken.getAesKey(), request.getEchoStr())));
                 return;
             }
-            ctx.writeAndFlush(resolveResponse(FORBIDDEN, request)).addListener(ChannelFutureListener.CLOSE);
+            messageDispatcher.getServerMetrics().recordSignatureFailure();
+            ctx.writeAndFlush(resolveResponse(FORBIDDEN, request));
             return;
         } else if (request.getMethod() == HttpMethod.POST) {
             // URL参数签名验证
             if (!ServerToolkits.isBlank(request.getSignature())
                     && !MessageUtil.signature(aesToken.getToken(), request.getTimeStamp(), request.getNonce())
                             .equals(request.getSignature())) {
-                ctx.writeAndFlush(resolveResponse(FORBIDDEN, request)).addListener(ChannelFutureListener.CLOSE);
+                messageDispatcher.getServerMetrics().recordSignatureFailure();
+                ctx.writeAndFlush(resolveResponse(FORBIDDEN, request));
                 return;
             }
             // XML消息签名验证
             if (request.getEncryptType() == EncryptType.AES
-                    && !MessageUtil.signature(aesToken.getToken(), request.getTimeStamp(), request.getNonce(),
-                            request.getEncryptContent()).equals(request.getMsgSignature())) {
-                ctx.writeAndFlush(resolveResponse(FORBIDDEN, request)).addListener(ChannelFutureListener.CLOSE);
+                    && !encryptSignature(aesToken, request).equals(request.getMsgSignature())) {
+                messageDispatcher.getServerMetrics().recordSignatureFailure();
+                ctx.writeAndFlush(resolveResponse(FORBIDDEN, request));
                 return;
             }
         } else {
             // 访问其它URL
-            ctx.writeAndFlush(resolveResponse(METHOD_NOT_ALLOWED, request)).addListener(ChannelFutureListener.CLOSE);
+            ctx.writeAndFlush(resolveResponse(METHOD_NOT_ALLOWED, request));
             return;
         }
         messageDispatcher.doDispatch(ctx, request);
     }
 
+    /**
+     * 按密文计算签名:流式解码时已在读取请求时计算
+     */
+    private String encryptSignature(AesToken aesToken, WeixinRequest request) {
+        if (request.getEncryptSignature() != null) {
+            return request.getEncryptSignature();
+        }
+        return MessageUtil.signature(aesToken.getToken(), request.getTimeStamp(), request.getNonce(),
+                request.getEncryptContent());
+    }
+
     private FullHttpResponse resolveResponse(HttpResponseStatus responseStatus, WeixinRequest request) {
         FullHttpResponse response = new DefaultFullHttpResponse(request.getProtocolVersion(), responseStatus);
         HttpUtil.resolveHeaders(response);
@@ -0,0 +1,56 @@
+package com.foxinmy.weixin4j.socket;
+
+import java.util.List;
+import java.util.Map;
+
+import com.foxinmy.weixin4j.request.WeixinRequest;
+import com.foxinmy.weixin4j.type.EncryptType;
+import com.foxinmy.weixin4j.util.AesToken;
+
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+/**
+ * 微信请求的url参数
+ *
+ * @className WeixinRequestParameters
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinMessageDecoder
+ * @see WeixinMessageStreamDecoder
+ */
+final class WeixinRequestParameters {
+
+    final EncryptType encryptType;
+    final String echoStr;
+    final String timeStamp;
+    final String nonce;
+    final String signature;
+    final String msgSignature;
+    final String weixinId;
+
+    WeixinRequestParameters(String uri) {
+        Map<String, List<String>> parameters = new QueryStringDecoder(uri, true).parameters();
+        this.encryptType = parameters.containsKey("encrypt_type")
+                ? EncryptType.valueOf(parameters.get("encrypt_type").get(0).toUpperCase()) : EncryptType.RAW;
+        this.echoStr = getParameter(parameters, "echostr");
+        this.timeStamp = getParameter(parameters, "timestamp");
+        this.nonce = getParameter(parameters, "nonce");
+        this.signature = getParameter(parameters, "signature");
+        this.msgSignature = getParameter(parameters, "msg_signature");
+        this.weixinId = getParameter(parameters, "weixin_id");
+    }
+
+    private static String getParameter(Map<String, List<String>> parameters, String name) {
+        return parameters.containsKey(name) ? parameters.get(name).get(0) : "";
+    }
+
+    WeixinRequest newRequest(HttpRequest req, String messageContent, String encryptContent, AesToken aesToken) {
+        WeixinRequest request = new WeixinRequest(req.headers(), req.method(), req.uri(), encryptType, echoStr,
+                timeStamp, nonce, signature, msgSignature, messageContent, encryptContent, aesToken);
+        request.setDecoderResult(req.decoderResult());
+        request.setProtocolVersion(req.protocolVersion());
+        return request;
+    }
+}
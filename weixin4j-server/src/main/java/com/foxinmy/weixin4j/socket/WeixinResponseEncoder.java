@@ -2,16 +2,24 @@ package com.foxinmy.weixin4j.socket;
 
 import java.util.List;
 
+import com.foxinmy.weixin4j.metrics.ServerMetrics;
+import com.foxinmy.weixin4j.response.ResponseWriter;
 import com.foxinmy.weixin4j.response.WeixinResponse;
 import com.foxinmy.weixin4j.type.EncryptType;
+import com.foxinmy.weixin4j.util.AesCipher;
 import com.foxinmy.weixin4j.util.AesToken;
 import com.foxinmy.weixin4j.util.HttpUtil;
 import com.foxinmy.weixin4j.util.MessageUtil;
 import com.foxinmy.weixin4j.util.ServerToolkits;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.util.CharsetUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -31,46 +39,69 @@ public class WeixinResponseEncoder extends MessageToMessageEncoder<WeixinRespons
 
     protected final InternalLogger logger = InternalLoggerFactory.getInstance(getClass());
 
-    private final String XML_START = "<xml>";
     // ---------------明文节点
-    private final String ELEMENT_TOUSERNAME = "<ToUserName><![CDATA[%s]]></ToUserName>";
-    private final String ELEMENT_FROMUSERNAME = "<FromUserName><![CDATA[%s]]></FromUserName>";
-    private final String ELEMENT_CREATETIME = "<CreateTime><![CDATA[%d]]></CreateTime>";
-    private final String ELEMENT_MSGTYPE = "<MsgType><![CDATA[%s]]></MsgType>";
+    private static final String ELEMENT_XML = "xml";
+    private static final String ELEMENT_TOUSERNAME = "ToUserName";
+    private static final String ELEMENT_FROMUSERNAME = "FromUserName";
+    private static final String ELEMENT_CREATETIME = "CreateTime";
+    private static final String ELEMENT_MSGTYPE = "MsgType";
     // ---------------密文节点
-    private final String ELEMENT_MSGSIGNATURE = "<MsgSignature><![CDATA[%s]]></MsgSignature>";
-    private final String ELEMENT_ENCRYPT = "<Encrypt><![CDATA[%s]]></Encrypt>";
-    private final String ELEMENT_TIMESTAMP = "<TimeStamp><![CDATA[%s]]></TimeStamp>";
-    private final String ELEMENT_NONCE = "<Nonce><![CDATA[%s]]></Nonce>";
-    private final String XML_END = "</xml>";
+    private static final String ELEMENT_MSGSIGNATURE = "MsgSignature";
+    private static final String ELEMENT_TIMESTAMP = "TimeStamp";
+    private static final String ELEMENT_NONCE = "Nonce";
+    private static final String ELEMENT_ENCRYPT_START = "<Encrypt><![CDATA[";
+    private static final ByteBuf ELEMENT_ENCRYPT_END = Unpooled.unreleasableBuffer(
+            Unpooled.copiedBuffer("]]></Encrypt></xml>", CharsetUtil.US_ASCII));
+
+    private final ServerMetrics serverMetrics;
+
+    public WeixinResponseEncoder() {
+        this(ServerMetrics.NOOP);
+    }
+
+    public WeixinResponseEncoder(ServerMetrics serverMetrics) {
+        this.serverMetrics = serverMetrics;
+    }
 
     @Override
     protected void encode(ChannelHandlerContext ctx, WeixinResponse response, List<Object> out) {
         WeixinMessageTransfer messageTransfer = ctx.channel().attr(ServerToolkits.MESSAGE_TRANSFER_KEY).get();
         EncryptType encryptType = messageTransfer.getEncryptType();
-        StringBuilder content = new StringBuilder();
-        content.append(XML_START);
-        content.append(String.format(ELEMENT_TOUSERNAME, messageTransfer.getFromUserName()));
-        content.append(String.format(ELEMENT_FROMUSERNAME, messageTransfer.getToUserName()));
-        content.append(String.format(ELEMENT_CREATETIME, System.currentTimeMillis() / 1000l));
-        content.append(String.format(ELEMENT_MSGTYPE, response.getMsgType()));
-        content.append(response.toContent());
-        content.append(XML_END);
+        // 回复直接写入池化的缓冲区
+        ByteBuf content = ctx.alloc().buffer();
+        ResponseWriter writer = new ResponseWriter(content);
+        writer.startElement(ELEMENT_XML);
+        writer.writeElement(ELEMENT_TOUSERNAME, messageTransfer.getFromUserName());
+        writer.writeElement(ELEMENT_FROMUSERNAME, messageTransfer.getToUserName());
+        writer.writeElement(ELEMENT_CREATETIME, System.currentTimeMillis() / 1000l);
+        writer.writeElement(ELEMENT_MSGTYPE, response.getMsgType());
+        response.writeContent(writer);
+        writer.endElement(ELEMENT_XML);
         if (encryptType == EncryptType.AES) {
             AesToken aesToken = messageTransfer.getAesToken();
             String nonce = ServerToolkits.generateRandomString(32);
             String timestamp = Long.toString(System.currentTimeMillis() / 1000l);
-            String encrtypt = MessageUtil.aesEncrypt(aesToken.getWeixinId(), aesToken.getAesKey(), content.toString());
-            String msgSignature = MessageUtil.signature(aesToken.getToken(), nonce, timestamp, encrtypt);
-            content.delete(0, content.length());
-            content.append(XML_START);
-            content.append(String.format(ELEMENT_NONCE, nonce));
-            content.append(String.format(ELEMENT_TIMESTAMP, timestamp));
-            content.append(String.format(ELEMENT_MSGSIGNATURE, msgSignature));
-            content.append(String.format(ELEMENT_ENCRYPT, encrtypt));
-            content.append(XML_END);
+            // 密文同样在池化的缓冲区中处理,不再转换为字符串
+            ByteBuf encrypt;
+            try {
+                encrypt = AesCipher.getInstance(aesToken.getAesKey()).encrypt(aesToken.getWeixinId(), content,
+                        ctx.alloc());
+            } finally {
+                content.release();
+            }
+            String msgSignature = MessageUtil.signature(aesToken.getToken(), nonce, timestamp, encrypt);
+            ByteBuf header = ctx.alloc().buffer();
+            new ResponseWriter(header).startElement(ELEMENT_XML).writeElement(ELEMENT_NONCE, nonce)
+                    .writeElement(ELEMENT_TIMESTAMP, timestamp).writeElement(ELEMENT_MSGSIGNATURE, msgSignature)
+                    .writeRaw(ELEMENT_ENCRYPT_START);
+            CompositeByteBuf body = ctx.alloc().compositeBuffer(3);
+            body.addComponents(true, header, encrypt, ELEMENT_ENCRYPT_END.duplicate());
+            content = body;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} encode weixin response:{}", encryptType, content.toString(ServerToolkits.UTF_8));
         }
-        ctx.writeAndFlush(HttpUtil.createHttpResponse(content.toString(), ServerToolkits.CONTENTTYPE$APPLICATION_XML));
-        logger.info("{} encode weixin response:{}", encryptType, content);
+        serverMetrics.recordReply(content.readableBytes());
+        out.add(HttpUtil.createHttpResponse(content, ServerToolkits.CONTENTTYPE$APPLICATION_XML));
     }
 }
\ No newline at end of file
@@ -3,13 +3,22 @@ package com.foxinmy.weixin4j.socket;
 import java.util.Map;
 
 import com.foxinmy.weixin4j.dispatcher.WeixinMessageDispatcher;
+import com.foxinmy.weixin4j.metrics.DefaultServerMetrics;
+import com.foxinmy.weixin4j.metrics.ServerMetrics;
 import com.foxinmy.weixin4j.util.AesToken;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.ChannelGroupFuture;
+import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerExpectContinueHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.GlobalEventExecutor;
 
 /**
  * 微信消息服务器初始化
@@ -22,26 +31,153 @@ import io.netty.handler.codec.http.HttpServerCodec;
  */
 public class WeixinServerInitializer extends ChannelInitializer<SocketChannel> {
 
+    /**
+     * 默认的连接空闲时间(单位秒):需要大于客户端(如nginx的upstream keepalive_timeout)的空闲时间
+     */
+    public static final int DEFAULT_IDLE_SECONDS = 75;
+    /**
+     * 默认的每个连接上的最大请求数
+     */
+    public static final int DEFAULT_MAX_REQUESTS = 1000;
+    /**
+     * 默认的请求内容上限(字节)
+     */
+    public static final int DEFAULT_MAX_CONTENT_LENGTH = 65536;
+
     private final WeixinMessageDispatcher messageDispatcher;
     private final WeixinMessageDecoder messageDecoder;
+    private final WeixinResponseEncoder responseEncoder;
+    private final SingleResponseEncoder singleResponseEncoder;
+    private final ServerMetrics serverMetrics;
+    /**
+     * 运行指标的查询,为空时不开启
+     */
+    private volatile MetricsRequestHandler metricsHandler;
+    private final int idleSeconds;
+    private final int maxRequests;
+    private int maxContentLength = DEFAULT_MAX_CONTENT_LENGTH;
+    /**
+     * 是否流式解码请求,否则先聚合整个请求
+     */
+    private boolean streamingDecode;
+    /**
+     * 当前打开的连接
+     */
+    private final ChannelGroup channels;
+    private volatile boolean draining;
 
     public WeixinServerInitializer(Map<String, AesToken> aesTokenMap, WeixinMessageDispatcher messageDispatcher) {
+        this(aesTokenMap, messageDispatcher, DEFAULT_IDLE_SECONDS, DEFAULT_MAX_REQUESTS);
+    }
+
+    /**
+     *
+     * @param aesTokenMap
+     *            aes and token
+     * @param messageDispatcher
+     *            消息分发器
+     * @param idleSeconds
+     *            连接空闲时间(单位秒),超过时关闭连接,小于等于0时不检测
+     * @param maxRequests
+     *            每个连接上的最大请求数,小于等于0时不限制
+     */
+    public WeixinServerInitializer(Map<String, AesToken> aesTokenMap, WeixinMessageDispatcher messageDispatcher,
+            int idleSeconds, int maxRequests) {
         this.messageDispatcher = messageDispatcher;
-        this.messageDecoder = new WeixinMessageDecoder(aesTokenMap);
+        this.serverMetrics = messageDispatcher.getServerMetrics();
+        this.messageDecoder = new WeixinMessageDecoder(aesTokenMap, serverMetrics);
+        this.responseEncoder = new WeixinResponseEncoder(serverMetrics);
+        this.singleResponseEncoder = new SingleResponseEncoder(serverMetrics);
+        this.idleSeconds = idleSeconds;
+        this.maxRequests = maxRequests;
+        this.channels = new DefaultChannelGroup("weixin4j-connections", GlobalEventExecutor.INSTANCE);
     }
 
     public void addAesToken(AesToken asetoken) {
         messageDecoder.addAesToken(asetoken);
     }
 
+    /**
+     * 在同一端口上开启运行指标的查询
+     *
+     * @param path
+     *            查询路径,如/metrics
+     * @param serverMetrics
+     *            运行指标
+     */
+    public void openMetricsRoute(String path, DefaultServerMetrics serverMetrics) {
+        this.metricsHandler = new MetricsRequestHandler(path, serverMetrics);
+    }
+
+    /**
+     * 设置请求内容的上限,超过时回复413并关闭连接
+     *
+     * @param maxContentLength
+     *            请求内容的上限(字节)
+     */
+    public void setMaxContentLength(int maxContentLength) {
+        this.maxContentLength = maxContentLength;
+    }
+
+    /**
+     * 设置是否流式解码请求:请求内容分段到达时即解码,不再聚合整个请求
+     *
+     * @param streamingDecode
+     *            是否流式解码
+     * @see WeixinMessageStreamDecoder
+     */
+    public void setStreamingDecode(boolean streamingDecode) {
+        this.streamingDecode = streamingDecode;
+    }
+
     @Override
     protected void initChannel(SocketChannel channel) {
+        channels.add(channel);
         ChannelPipeline pipeline = channel.pipeline();
+        if (idleSeconds > 0) {
+            pipeline.addLast(new IdleStateHandler(0, 0, idleSeconds));
+        }
         pipeline.addLast(new HttpServerCodec());
-        pipeline.addLast(new HttpObjectAggregator(65536));
-        pipeline.addLast(messageDecoder);
-        pipeline.addLast(new WeixinResponseEncoder());
-        pipeline.addLast(new SingleResponseEncoder());
+        pipeline.addLast(new HttpKeepAliveHandler(maxRequests, draining));
+        if (streamingDecode) {
+            pipeline.addLast(new HttpServerExpectContinueHandler());
+        } else {
+            pipeline.addLast(new HttpObjectAggregator(maxContentLength));
+        }
+        MetricsRequestHandler metricsHandler = this.metricsHandler;
+        if (metricsHandler != null) {
+            pipeline.addLast(metricsHandler);
+        }
+        if (streamingDecode) {
+            pipeline.addLast(new WeixinMessageStreamDecoder(messageDecoder, maxContentLength, serverMetrics));
+        } else {
+            pipeline.addLast(messageDecoder);
+        }
+        pipeline.addLast(responseEncoder);
+        pipeline.addLast(singleResponseEncoder);
         pipeline.addLast(new WeixinRequestHandler(messageDispatcher));
     }
+
+    /**
+     * 开始关闭连接:空闲的连接立即关闭,处理中的连接在回复后关闭
+     *
+     * @return 所有连接关闭的future
+     */
+    public ChannelGroupFuture drain() {
+        draining = true;
+        ChannelGroupFuture closeFuture = channels.newCloseFuture();
+        for (Channel channel : channels) {
+            channel.pipeline().fireUserEventTriggered(HttpKeepAliveHandler.DRAIN);
+        }
+        return closeFuture;
+    }
+
+    /**
+     * 当前打开的连接
+     *
+     * @return
+     */
+    public ChannelGroup getChannels() {
+        return channels;
+    }
 }
@@ -0,0 +1,125 @@
+package com.foxinmy.weixin4j.startup;
+
+import java.util.concurrent.ThreadFactory;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+
+/**
+ * 服务的网络传输实现
+ * <p>
+ * EPOLL需要引入netty-transport-native-epoll(linux-x86_64),并且只在linux上可用;
+ * 支持SO_REUSEPORT,可以在同一端口上绑定多个acceptor,由内核分发新连接
+ * </p>
+ *
+ * @className ServerTransport
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see WeixinServerBootstrap#transport(ServerTransport)
+ */
+public enum ServerTransport {
+	/**
+	 * java nio,任何平台可用
+	 */
+	NIO {
+		@Override
+		public boolean isAvailable() {
+			return true;
+		}
+
+		@Override
+		public boolean isReusePortSupported() {
+			return false;
+		}
+
+		@Override
+		EventLoopGroup createEventLoopGroup(int threads,
+				ThreadFactory threadFactory) {
+			return new NioEventLoopGroup(threads, threadFactory);
+		}
+
+		@Override
+		Class<? extends ServerChannel> serverChannelClass() {
+			return NioServerSocketChannel.class;
+		}
+	},
+	/**
+	 * linux原生的epoll
+	 */
+	EPOLL {
+		@Override
+		public boolean isAvailable() {
+			try {
+				return Epoll.isAvailable();
+			} catch (LinkageError e) {
+				// 未引入netty-transport-native-epoll
+				return false;
+			}
+		}
+
+		@Override
+		public boolean isReusePortSupported() {
+			return true;
+		}
+
+		@Override
+		EventLoopGroup createEventLoopGroup(int threads,
+				ThreadFactory threadFactory) {
+			return new EpollEventLoopGroup(threads, threadFactory);
+		}
+
+		@Override
+		Class<? extends ServerChannel> serverChannelClass() {
+			return EpollServerSocketChannel.class;
+		}
+
+		@Override
+		void reusePort(ServerBootstrap bootstrap) {
+			bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+		}
+	};
+
+	/**
+	 * 当前环境是否可用
+	 *
+	 * @return
+	 */
+	public abstract boolean isAvailable();
+
+	/**
+	 * 是否支持SO_REUSEPORT
+	 *
+	 * @return
+	 */
+	public abstract boolean isReusePortSupported();
+
+	abstract EventLoopGroup createEventLoopGroup(int threads,
+			ThreadFactory threadFactory);
+
+	abstract Class<? extends ServerChannel> serverChannelClass();
+
+	/**
+	 * 开启SO_REUSEPORT,只在{@link #isReusePortSupported()}时调用,不支持的实现不做任何设置
+	 *
+	 * @param bootstrap
+	 */
+	void reusePort(ServerBootstrap bootstrap) {
+	}
+
+	/**
+	 * 选择当前环境可用的传输实现:优先epoll,否则nio
+	 *
+	 * @return
+	 */
+	public static ServerTransport select() {
+		return EPOLL.isAvailable() ? EPOLL : NIO;
+	}
+}
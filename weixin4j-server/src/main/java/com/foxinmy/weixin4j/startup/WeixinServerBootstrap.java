@@ -5,25 +5,41 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.foxinmy.weixin4j.dispatcher.BeanFactory;
 import com.foxinmy.weixin4j.dispatcher.DefaultMessageMatcher;
+import com.foxinmy.weixin4j.dispatcher.DuplicateMessageStore;
+import com.foxinmy.weixin4j.dispatcher.MessageDeduplicator;
 import com.foxinmy.weixin4j.dispatcher.WeixinMessageDispatcher;
 import com.foxinmy.weixin4j.dispatcher.WeixinMessageKey;
 import com.foxinmy.weixin4j.dispatcher.WeixinMessageMatcher;
+import com.foxinmy.weixin4j.dispatcher.WeixinResponseSender;
 import com.foxinmy.weixin4j.handler.WeixinMessageHandler;
 import com.foxinmy.weixin4j.interceptor.WeixinMessageInterceptor;
+import com.foxinmy.weixin4j.metrics.DefaultServerMetrics;
+import com.foxinmy.weixin4j.metrics.ServerMetrics;
 import com.foxinmy.weixin4j.request.WeixinMessage;
 import com.foxinmy.weixin4j.socket.WeixinServerInitializer;
 import com.foxinmy.weixin4j.util.AesToken;
+import com.foxinmy.weixin4j.util.ServerToolkits;
 
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.bootstrap.ServerBootstrapConfig;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.logging.LoggingHandler;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.group.ChannelGroupFuture;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.FutureListener;
 import io.netty.util.internal.logging.InternalLogger;
@@ -47,7 +63,7 @@ public final class WeixinServerBootstrap {
     private final InternalLogger logger = InternalLoggerFactory.getInstance(getClass());
 
     /**
-     * boss线程数,默认设置为cpu的核数
+     * boss线程数(开启SO_REUSEPORT时为同一端口上的acceptor数,否则只使用1个),默认设置为cpu的核数
      */
     public final static int DEFAULT_BOSSTHREADS;
     /**
@@ -58,6 +74,10 @@ public final class WeixinServerBootstrap {
      * 服务启动的默认端口
      */
     public final static int DEFAULT_SERVERPORT = 30000;
+    /**
+     * 阻塞关闭时默认等待处理中消息的时间(单位毫秒):微信服务器的超时时间为5秒
+     */
+    public final static long DEFAULT_DRAIN_MILLIS = 5000l;
     /**
      * 消息分发器
      */
@@ -76,8 +96,36 @@ public final class WeixinServerBootstrap {
      *
      */
     private final Map<String, AesToken> aesTokenMap;
+    /**
+     * 由本类创建的业务线程池,关闭服务时一并关闭
+     */
+    private final List<ExecutorService> businessExecutors;
 
     private ServerBootstrap bootstrap;
+    /**
+     * 网络传输实现,为空时自动选择
+     */
+    private ServerTransport transport;
+    /**
+     * 是否开启SO_REUSEPORT
+     */
+    private boolean reusePort;
+    private boolean tcpNoDelay = true;
+    private WriteBufferWaterMark writeBufferWaterMark;
+    private ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+    private int idleSeconds = WeixinServerInitializer.DEFAULT_IDLE_SECONDS;
+    private int maxRequests = WeixinServerInitializer.DEFAULT_MAX_REQUESTS;
+    private int maxContentLength = WeixinServerInitializer.DEFAULT_MAX_CONTENT_LENGTH;
+    private boolean streamingDecode;
+    /**
+     * 监听端口的channel
+     */
+    private final List<Channel> serverChannels = new CopyOnWriteArrayList<Channel>();
+    private final AtomicBoolean closing = new AtomicBoolean();
+    /**
+     * 运行指标的查询路径,为空时不开启
+     */
+    private String metricsPath;
 
     static {
         DEFAULT_BOSSTHREADS = Runtime.getRuntime().availableProcessors();
@@ -166,6 +214,7 @@ public final class WeixinServerBootstrap {
         this.messageHandlerList = new ArrayList<WeixinMessageHandler>();
         this.messageInterceptorList = new ArrayList<WeixinMessageInterceptor>();
         this.messageDispatcher = new WeixinMessageDispatcher(messageMatcher);
+        this.businessExecutors = new ArrayList<ExecutorService>();
     }
 
     /**
@@ -188,7 +237,7 @@ public final class WeixinServerBootstrap {
      * 接受参数启动服务
      *
      * @param bossThreads
-     *            boss线程数
+     *            boss线程数,开启SO_REUSEPORT时为绑定的acceptor数,否则只使用1个
      * @param workerThreads
      *            worker线程数
      * @param serverPort
@@ -199,23 +248,63 @@ public final class WeixinServerBootstrap {
     public void startup(int bossThreads, int workerThreads, final int serverPort) {
         messageDispatcher.setMessageHandlerList(messageHandlerList);
         messageDispatcher.setMessageInterceptorList(messageInterceptorList);
+        ServerTransport transport = this.transport != null ? this.transport : ServerTransport.select();
+        int acceptors = 1;
+        if (reusePort) {
+            if (transport.isReusePortSupported()) {
+                acceptors = Math.max(1, bossThreads);
+            } else {
+                logger.warn("SO_REUSEPORT not supported by {} transport, bind only one acceptor", transport);
+            }
+        }
+        WeixinServerInitializer initializer = new WeixinServerInitializer(aesTokenMap, messageDispatcher,
+                idleSeconds, maxRequests);
+        initializer.setMaxContentLength(maxContentLength);
+        initializer.setStreamingDecode(streamingDecode);
+        ServerMetrics serverMetrics = messageDispatcher.getServerMetrics();
+        if (serverMetrics instanceof DefaultServerMetrics) {
+            registerMetrics((DefaultServerMetrics) serverMetrics, serverPort);
+            if (metricsPath != null) {
+                initializer.openMetricsRoute(metricsPath, (DefaultServerMetrics) serverMetrics);
+            }
+        }
         try {
             bootstrap = new ServerBootstrap();
-            bootstrap.option(ChannelOption.SO_BACKLOG, 1024);
-            bootstrap.group(new NioEventLoopGroup(bossThreads), new NioEventLoopGroup(workerThreads))
-                    .channel(NioServerSocketChannel.class).handler(new LoggingHandler())
-                    .childHandler(new WeixinServerInitializer(aesTokenMap, messageDispatcher));
-            Channel ch = bootstrap.bind(serverPort).addListener(new FutureListener<Void>() {
+            bootstrap.option(ChannelOption.SO_BACKLOG, 1024).option(ChannelOption.ALLOCATOR, allocator)
+                    .childOption(ChannelOption.ALLOCATOR, allocator)
+                    .childOption(ChannelOption.TCP_NODELAY, tcpNoDelay);
+            if (writeBufferWaterMark != null) {
+                bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark);
+            }
+            if (acceptors > 1) {
+                transport.reusePort(bootstrap);
+            }
+            bootstrap
+                    .group(transport.createEventLoopGroup(acceptors, new DefaultThreadFactory("weixin4j-boss")),
+                            transport.createEventLoopGroup(workerThreads,
+                                    new DefaultThreadFactory("weixin4j-worker")))
+                    .channel(transport.serverChannelClass())
+                    .childHandler(initializer);
+            final int acceptorCount = acceptors;
+            final String transportName = transport.name();
+            FutureListener<Void> bindListener = new FutureListener<Void>() {
                 @Override
                 public void operationComplete(Future<Void> future) throws Exception {
                     if (future.isSuccess()) {
-                        logger.info("weixin4j server startup OK:{}", serverPort);
+                        logger.info("weixin4j server startup OK:{} ({} x {})", serverPort, transportName,
+                                acceptorCount);
                     } else {
                         logger.info("weixin4j server startup FAIL:{}", serverPort);
                     }
                 }
-            }).sync().channel();
-            ch.closeFuture().sync();
+            };
+            // SO_REUSEPORT时每次bind都会在boss group中的下一个线程上创建新的acceptor
+            for (int i = 0; i < acceptors; i++) {
+                serverChannels.add(bootstrap.bind(serverPort).addListener(bindListener).sync().channel());
+            }
+            for (Channel ch : serverChannels) {
+                ch.closeFuture().sync();
+            }
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         } finally {
@@ -227,20 +316,51 @@ public final class WeixinServerBootstrap {
      * 关闭微信服务
      *
      * @param blocking
-     *            阻塞关闭
+     *            阻塞关闭:停止接收新连接,等待处理中的消息回复后再关闭连接与线程(最多等待DEFAULT_DRAIN_MILLIS)
      * @return
      */
     public boolean shutdown(boolean blocking) {
-        if (bootstrap == null) {
+        return shutdown(blocking, DEFAULT_DRAIN_MILLIS);
+    }
+
+    /**
+     * 关闭微信服务
+     *
+     * @param blocking
+     *            阻塞关闭
+     * @param drainMillis
+     *            阻塞关闭时等待处理中消息的时间(单位毫秒),超时后强制关闭连接
+     * @return
+     */
+    public boolean shutdown(boolean blocking, long drainMillis) {
+        if (bootstrap == null || !closing.compareAndSet(false, true)) {
             return false;
         }
         ServerBootstrapConfig c = bootstrap.config();
+        if (blocking) {
+            drain((WeixinServerInitializer) c.childHandler(), drainMillis);
+        }
         Future<?> bossF = c.group().shutdownGracefully();
         Future<?> workerF = c.childGroup().shutdownGracefully();
+        for (ExecutorService executor : businessExecutors) {
+            executor.shutdown();
+        }
         if (blocking) {
             bossF.awaitUninterruptibly();
             workerF.awaitUninterruptibly();
+            try {
+                for (ExecutorService executor : businessExecutors) {
+                    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (messageDispatcher.getServerMetrics() instanceof DefaultServerMetrics) {
+            ((DefaultServerMetrics) messageDispatcher.getServerMetrics()).unregisterMBean();
         }
+        businessExecutors.clear();
+        serverChannels.clear();
         messageHandlerList = null;
         messageInterceptorList = null;
         messageDispatcher = null;
@@ -248,6 +368,32 @@ public final class WeixinServerBootstrap {
         return true;
     }
 
+    /**
+     * 停止接收新连接,等待业务线程池中的消息处理完成、各个连接回复完成后关闭
+     */
+    private void drain(WeixinServerInitializer initializer, long drainMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainMillis);
+        for (Channel ch : serverChannels) {
+            ch.close().awaitUninterruptibly();
+        }
+        ChannelGroupFuture connectionsF = initializer.drain();
+        for (ExecutorService executor : businessExecutors) {
+            executor.shutdown();
+        }
+        try {
+            for (ExecutorService executor : businessExecutors) {
+                executor.awaitTermination(Math.max(0l, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            if (!connectionsF.await(Math.max(0l, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                logger.warn("weixin4j server drain timeout, {} connections closed forcibly",
+                        initializer.getChannels().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        initializer.getChannels().close().awaitUninterruptibly();
+    }
+
     /**
      * 添加一个或者多个消息处理器
      *
@@ -343,6 +489,301 @@ public final class WeixinServerBootstrap {
         return this;
     }
 
+    /**
+     * 微信服务器重试推送的消息排重(默认开启,排重记录保存在内存中)
+     *
+     * @param messageStore
+     *            排重存储,多个节点时使用RedisDuplicateMessageStore
+     * @return
+     */
+    public WeixinServerBootstrap resolveDuplicateStore(DuplicateMessageStore messageStore) {
+        messageDispatcher.setMessageDeduplicator(new MessageDeduplicator(messageStore));
+        return this;
+    }
+
+    /**
+     * 关闭消息排重,重试推送的消息将再次交给handler处理
+     *
+     * @return
+     */
+    public WeixinServerBootstrap closeDuplicateCheck() {
+        messageDispatcher.setMessageDeduplicator(null);
+        return this;
+    }
+
+    /**
+     * 声明执行消息处理器的业务线程池,避免耗时的handler阻塞netty的IO线程;
+     * 线程池拒绝任务(如队列已满)时立即回复空白消息.未声明时在IO线程中执行
+     *
+     * @param executor
+     *            业务线程池,如有界的ThreadPoolExecutor
+     * @return
+     */
+    public WeixinServerBootstrap businessExecutor(Executor executor) {
+        messageDispatcher.setMessageExecutor(executor);
+        return this;
+    }
+
+    /**
+     * 声明执行消息处理器的业务线程池
+     *
+     * @param threads
+     *            线程数
+     * @param queueCapacity
+     *            等待队列的长度,队列已满时立即回复空白消息
+     * @return
+     */
+    public WeixinServerBootstrap businessExecutor(int threads, int queueCapacity) {
+        return businessExecutor(createBusinessExecutor("weixin4j-business", threads, queueCapacity));
+    }
+
+    /**
+     * 为某类消息声明单独的业务线程池,避免慢消息占满公共的线程池
+     *
+     * @param messageKey
+     *            消息key
+     * @param executor
+     *            业务线程池
+     * @return
+     */
+    public WeixinServerBootstrap businessExecutor(WeixinMessageKey messageKey, Executor executor) {
+        messageDispatcher.registMessageExecutor(messageKey, executor);
+        return this;
+    }
+
+    /**
+     * 为某类消息声明单独的业务线程池
+     *
+     * @param messageKey
+     *            消息key
+     * @param threads
+     *            线程数
+     * @param queueCapacity
+     *            等待队列的长度,队列已满时立即回复空白消息
+     * @return
+     */
+    public WeixinServerBootstrap businessExecutor(WeixinMessageKey messageKey, int threads, int queueCapacity) {
+        return businessExecutor(messageKey,
+                createBusinessExecutor("weixin4j-business-" + messageKey.getMessageType(), threads, queueCapacity));
+    }
+
+    /**
+     * 开启被动回复的期限:handler执行超过期限时立即回复空白消息,处理结果改为通过客服消息等接口异步发送
+     * (需同时声明businessExecutor,在IO线程中执行的handler不受期限限制)
+     *
+     * @param deadlineMillis
+     *            期限(单位毫秒),应小于微信服务器的5秒超时,如3000
+     * @param responseSender
+     *            回复发送,如调用weixin4j-mp或weixin4j-qy的NotifyApi
+     * @return
+     */
+    public WeixinServerBootstrap asyncResponse(long deadlineMillis, WeixinResponseSender responseSender) {
+        return asyncResponse(deadlineMillis, responseSender,
+                createBusinessExecutor("weixin4j-response-sender", 2, 1000));
+    }
+
+    /**
+     * 开启被动回复的期限
+     *
+     * @param deadlineMillis
+     *            期限(单位毫秒),应小于微信服务器的5秒超时
+     * @param responseSender
+     *            回复发送
+     * @param sendExecutor
+     *            执行回复发送的线程池
+     * @return
+     * @see #asyncResponse(long, WeixinResponseSender)
+     */
+    public WeixinServerBootstrap asyncResponse(long deadlineMillis, WeixinResponseSender responseSender,
+            Executor sendExecutor) {
+        if (responseSender == null) {
+            throw new IllegalArgumentException("responseSender not be null");
+        }
+        messageDispatcher.setResponseDeadline(deadlineMillis, responseSender, sendExecutor);
+        return this;
+    }
+
+    /**
+     * 指定网络传输实现,默认在epoll可用时(linux且引入了netty-transport-native-epoll)使用epoll,否则使用nio
+     *
+     * @param transport
+     *            网络传输实现
+     * @return
+     */
+    public WeixinServerBootstrap transport(ServerTransport transport) {
+        if (transport == null) {
+            throw new IllegalArgumentException("transport not be null");
+        }
+        if (!transport.isAvailable()) {
+            throw new IllegalArgumentException(transport + " transport not available");
+        }
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * 开启SO_REUSEPORT(仅epoll支持):在同一端口上绑定bossThreads个acceptor,由内核把新连接分发到各个acceptor
+     *
+     * @return
+     */
+    public WeixinServerBootstrap reusePort() {
+        this.reusePort = true;
+        return this;
+    }
+
+    /**
+     * 设置TCP_NODELAY,默认开启:被动回复一般只有一个小包,不需要等待合并
+     *
+     * @param tcpNoDelay
+     * @return
+     */
+    public WeixinServerBootstrap tcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+        return this;
+    }
+
+    /**
+     * 设置连接写缓冲区的高低水位,超过高水位时channel变为不可写
+     *
+     * @param low
+     *            低水位(单位字节)
+     * @param high
+     *            高水位(单位字节)
+     * @return
+     */
+    public WeixinServerBootstrap writeBufferWaterMark(int low, int high) {
+        this.writeBufferWaterMark = new WriteBufferWaterMark(low, high);
+        return this;
+    }
+
+    /**
+     * 设置缓冲区的分配器,默认为池化的PooledByteBufAllocator.DEFAULT(平台支持时优先使用直接内存)
+     *
+     * @param allocator
+     *            缓冲区分配器
+     * @return
+     */
+    public WeixinServerBootstrap allocator(ByteBufAllocator allocator) {
+        if (allocator == null) {
+            throw new IllegalArgumentException("allocator not be null");
+        }
+        this.allocator = allocator;
+        return this;
+    }
+
+    /**
+     * 设置HTTP持久连接:默认空闲75秒后关闭,每个连接最多处理1000个请求
+     *
+     * @param idleSeconds
+     *            连接空闲时间(单位秒),超过时关闭连接,小于等于0时不检测
+     * @param maxRequests
+     *            每个连接上的最大请求数,达到后回复Connection: close并关闭连接,小于等于0时不限制
+     * @return
+     */
+    public WeixinServerBootstrap keepAlive(int idleSeconds, int maxRequests) {
+        this.idleSeconds = idleSeconds;
+        this.maxRequests = maxRequests;
+        return this;
+    }
+
+    /**
+     * 设置请求内容的上限:默认64KB,超过时回复413并关闭连接;批量任务、第三方平台等较大的回调需要调大
+     *
+     * @param maxContentLength
+     *            请求内容的上限(字节)
+     * @return
+     */
+    public WeixinServerBootstrap maxContentLength(int maxContentLength) {
+        if (maxContentLength <= 0) {
+            throw new IllegalArgumentException("maxContentLength must be greater than 0");
+        }
+        this.maxContentLength = maxContentLength;
+        return this;
+    }
+
+    /**
+     * 开启流式解码:不再聚合整个请求,请求内容分段到达时即解码为明文或解析出密文,并在读取密文时计算签名,
+     * 请求内容只缓冲一次;适合并发较高或请求较大的场景
+     *
+     * @return
+     * @see com.foxinmy.weixin4j.socket.WeixinMessageStreamDecoder
+     */
+    public WeixinServerBootstrap streamingDecode() {
+        this.streamingDecode = true;
+        return this;
+    }
+
+    /**
+     * 开启运行指标:记录解码、分发、handler的耗时以及签名失败、拦截、处理中的消息数等,
+     * 并注册到JMX(com.foxinmy.weixin4j:type=ServerMetrics,name="端口")
+     *
+     * @return
+     * @see DefaultServerMetrics
+     */
+    public WeixinServerBootstrap openMetrics() {
+        return metrics(new DefaultServerMetrics());
+    }
+
+    /**
+     * 声明运行指标的实现,如对接Micrometer等监控系统
+     *
+     * @param serverMetrics
+     *            运行指标
+     * @return
+     */
+    public WeixinServerBootstrap metrics(ServerMetrics serverMetrics) {
+        if (serverMetrics == null) {
+            throw new IllegalArgumentException("serverMetrics not be null");
+        }
+        messageDispatcher.setServerMetrics(serverMetrics);
+        return this;
+    }
+
+    /**
+     * 在服务端口上开启运行指标的查询(Prometheus的文本格式),未开启运行指标时一并开启;
+     * 注意该路径与消息服务在同一端口,应只对内网开放
+     *
+     * @param path
+     *            查询路径,如/metrics
+     * @return
+     */
+    public WeixinServerBootstrap openMetricsRoute(String path) {
+        if (ServerToolkits.isBlank(path) || !path.startsWith("/")) {
+            throw new IllegalArgumentException("metrics path must start with '/'");
+        }
+        if (!(messageDispatcher.getServerMetrics() instanceof DefaultServerMetrics)) {
+            openMetrics();
+        }
+        this.metricsPath = path;
+        return this;
+    }
+
+    private void registerMetrics(DefaultServerMetrics serverMetrics, int serverPort) {
+        if (messageDispatcher.getMessageExecutor() != null) {
+            serverMetrics.registerExecutor("default", messageDispatcher.getMessageExecutor());
+        }
+        for (Entry<WeixinMessageKey, Executor> entry : messageDispatcher.getMessageExecutors().entrySet()) {
+            WeixinMessageKey messageKey = entry.getKey();
+            serverMetrics.registerExecutor(messageKey.getEventType() != null
+                    ? messageKey.getMessageType() + "/" + messageKey.getEventType() : messageKey.getMessageType(),
+                    entry.getValue());
+        }
+        try {
+            serverMetrics.registerMBean(Integer.toString(serverPort));
+        } catch (IllegalStateException e) {
+            logger.warn(e.getMessage());
+        }
+    }
+
+    private ExecutorService createBusinessExecutor(String poolName, int threads, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new DefaultThreadFactory(poolName),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        businessExecutors.add(executor);
+        return executor;
+    }
+
     /**
      * 动态添加aesToken
      *
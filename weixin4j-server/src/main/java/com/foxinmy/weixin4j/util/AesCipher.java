@@ -0,0 +1,212 @@
+package com.foxinmy.weixin4j.util;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.base64.Base64;
+
+/**
+ * 微信消息的AES加解密:密钥与向量按EncodingAESKey缓存,Cipher在每个线程中复用,
+ * 密文与明文直接在ByteBuf(可以是池化的)上处理
+ * <p>
+ * msg_encrypt=Base64_Encode(AES_Encrypt [random(16B)+ msg_len(4B) + msg + $AppId])
+ * </p>
+ *
+ * @className AesCipher
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see MessageUtil
+ */
+public final class AesCipher {
+
+	private static final String TRANSFORMATION = "AES/CBC/NoPadding";
+	private static final String RANDOM_CHARS = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+	private static final int RANDOM_LENGTH = 16;
+	private static final int HEADER_LENGTH = RANDOM_LENGTH + 4;
+	private static final int BLOCK_SIZE = 32;
+
+	private static final ConcurrentMap<String, AesCipher> CIPHERS = new ConcurrentHashMap<String, AesCipher>();
+
+	private final SecretKeySpec keySpec;
+	private final IvParameterSpec iv;
+	private final ThreadLocal<Cipher> encryptCipher;
+	private final ThreadLocal<Cipher> decryptCipher;
+
+	private AesCipher(String encodingAesKey) {
+		byte[] aesKey = com.foxinmy.weixin4j.base64.Base64
+				.decodeBase64(encodingAesKey + "=");
+		this.keySpec = new SecretKeySpec(aesKey, ServerToolkits.AES);
+		this.iv = new IvParameterSpec(aesKey, 0, 16);
+		this.encryptCipher = new CipherHolder(Cipher.ENCRYPT_MODE);
+		this.decryptCipher = new CipherHolder(Cipher.DECRYPT_MODE);
+	}
+
+	/**
+	 * 获取EncodingAESKey对应的加解密实例
+	 *
+	 * @param encodingAesKey
+	 *            加密密钥
+	 * @return 加解密实例
+	 */
+	public static AesCipher getInstance(String encodingAesKey) {
+		AesCipher cipher = CIPHERS.get(encodingAesKey);
+		if (cipher == null) {
+			cipher = new AesCipher(encodingAesKey);
+			AesCipher existing = CIPHERS.putIfAbsent(encodingAesKey, cipher);
+			if (existing != null) {
+				cipher = existing;
+			}
+		}
+		return cipher;
+	}
+
+	/**
+	 * 加密消息
+	 *
+	 * @param appId
+	 *            应用ID
+	 * @param xmlContent
+	 *            原始消息体(读取位置不变)
+	 * @param allocator
+	 *            缓冲区分配
+	 * @return base64编码的密文,由调用方释放
+	 */
+	public ByteBuf encrypt(String appId, ByteBuf xmlContent,
+			ByteBufAllocator allocator) {
+		byte[] appIdBytes = ServerToolkits.getBytesUtf8(appId);
+		int xmlLength = xmlContent.readableBytes();
+		int length = HEADER_LENGTH + xmlLength + appIdBytes.length;
+		// 使用自定义的填充方式对明文进行补位填充
+		int pad = BLOCK_SIZE - (length % BLOCK_SIZE);
+		ByteBuf unencrypted = allocator.buffer(length + pad);
+		ByteBuf encrypted = null;
+		try {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for (int i = 0; i < RANDOM_LENGTH; i++) {
+				unencrypted.writeByte(RANDOM_CHARS.charAt(random
+						.nextInt(RANDOM_CHARS.length())));
+			}
+			unencrypted.writeInt(xmlLength);
+			unencrypted.writeBytes(xmlContent, xmlContent.readerIndex(),
+					xmlLength);
+			unencrypted.writeBytes(appIdBytes);
+			for (int i = 0; i < pad; i++) {
+				unencrypted.writeByte(pad);
+			}
+			encrypted = allocator.buffer(unencrypted.readableBytes());
+			doFinal(encryptCipher.get(), unencrypted, encrypted);
+			return Base64.encode(encrypted, false);
+		} catch (GeneralSecurityException e) {
+			encryptCipher.remove();
+			throw new RuntimeException("-40006,AES加密失败:" + e.getMessage());
+		} finally {
+			unencrypted.release();
+			if (encrypted != null) {
+				encrypted.release();
+			}
+		}
+	}
+
+	/**
+	 * 解密消息
+	 *
+	 * @param appId
+	 *            应用ID,为空时不校验
+	 * @param encryptContent
+	 *            base64编码的密文(读取位置不变)
+	 * @return 解密后的消息体,由调用方释放
+	 */
+	public ByteBuf decrypt(String appId, ByteBuf encryptContent) {
+		ByteBuf encrypted = null;
+		ByteBuf original = null;
+		try {
+			// 使用BASE64对密文进行解码
+			encrypted = Base64.decode(encryptContent,
+					encryptContent.readerIndex(),
+					encryptContent.readableBytes());
+			original = encrypted.alloc().buffer(encrypted.readableBytes());
+			doFinal(decryptCipher.get(), encrypted, original);
+		} catch (Exception e) {
+			if (original != null) {
+				original.release();
+			}
+			if (e instanceof GeneralSecurityException) {
+				decryptCipher.remove();
+			}
+			throw new RuntimeException("-40007,AES解密失败:" + e.getMessage());
+		} finally {
+			if (encrypted != null) {
+				encrypted.release();
+			}
+		}
+		String fromAppId;
+		try {
+			// 去除补位字符
+			int pad = original.getByte(original.writerIndex() - 1);
+			if (pad < 1 || pad > BLOCK_SIZE) {
+				pad = 0;
+			}
+			int end = original.writerIndex() - pad;
+			// 获取xml消息主体的长度(网络字节序)
+			int xmlLength = original.getInt(RANDOM_LENGTH);
+			if (xmlLength < 0 || HEADER_LENGTH + xmlLength > end) {
+				throw new IndexOutOfBoundsException("msg_len " + xmlLength);
+			}
+			fromAppId = appId == null ? null : original.toString(
+					HEADER_LENGTH + xmlLength, end - HEADER_LENGTH
+							- xmlLength, ServerToolkits.UTF_8);
+			original.setIndex(HEADER_LENGTH, HEADER_LENGTH + xmlLength);
+		} catch (RuntimeException e) {
+			original.release();
+			throw new RuntimeException("-40008,xml内容不合法:" + e.getMessage());
+		}
+		// 校验appId是否一致
+		if (appId != null && !fromAppId.trim().equals(appId)) {
+			original.release();
+			throw new RuntimeException("-40005,校验AppID失败,expect " + appId
+					+ ",but actual is " + fromAppId);
+		}
+		return original;
+	}
+
+	private static void doFinal(Cipher cipher, ByteBuf input, ByteBuf output)
+			throws GeneralSecurityException {
+		int length = input.readableBytes();
+		output.ensureWritable(length);
+		ByteBuffer outBuffer = output.nioBuffer(output.writerIndex(),
+				output.writableBytes());
+		int written = cipher.doFinal(input.nioBuffer(), outBuffer);
+		output.writerIndex(output.writerIndex() + written);
+	}
+
+	private final class CipherHolder extends ThreadLocal<Cipher> {
+		private final int mode;
+
+		CipherHolder(int mode) {
+			this.mode = mode;
+		}
+
+		@Override
+		protected Cipher initialValue() {
+			try {
+				// 设置为AES的CBC模式,doFinal之后恢复到初始化时的状态,可以重复使用
+				Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+				cipher.init(mode, keySpec, iv);
+				return cipher;
+			} catch (GeneralSecurityException e) {
+				throw new RuntimeException((mode == Cipher.ENCRYPT_MODE ? "-40006,AES加密失败:"
+						: "-40007,AES解密失败:") + e.getMessage());
+			}
+		}
+	}
+}
@@ -1,15 +1,14 @@
 package com.foxinmy.weixin4j.util;
 
-import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
 import static io.netty.handler.codec.http.HttpHeaderNames.DATE;
 import static io.netty.handler.codec.http.HttpHeaderNames.USER_AGENT;
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.FullHttpResponse;
-import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 
@@ -42,27 +41,43 @@ public class HttpUtil {
 	 */
 	public static HttpResponse createHttpResponse(String content,
 			String contentType) {
+		return createHttpResponse(
+				Unpooled.copiedBuffer(content, ServerToolkits.UTF_8),
+				contentType);
+	}
+
+	/**
+	 * 创建有内容的HttpResponse响应
+	 *
+	 * @param content
+	 *            响应内容(UTF-8),写出后释放
+	 * @param contentType
+	 *            响应类型
+	 * @return HttpResponse
+	 */
+	public static HttpResponse createHttpResponse(ByteBuf content,
+			String contentType) {
 		FullHttpResponse httpResponse = new DefaultFullHttpResponse(HTTP_1_1,
-				HttpResponseStatus.OK, Unpooled.copiedBuffer(content,
-						ServerToolkits.UTF_8));
+				HttpResponseStatus.OK, content);
 		httpResponse.headers().set(
 				CONTENT_TYPE,
 				String.format("%s;encoding=%s", contentType,
 						ServerToolkits.UTF_8.displayName()));
-		httpResponse.headers().set(CONTENT_LENGTH,
-				content.getBytes(ServerToolkits.UTF_8).length);
 		resolveHeaders(httpResponse);
 		return httpResponse;
 	}
 
+	/**
+	 * 设置公共的响应头;Connection头由HttpKeepAliveHandler按请求设置,
+	 * 所以这里总是设置Content-Length以便在持久连接上区分响应
+	 *
+	 * @param httpResponse
+	 *            响应
+	 * @see com.foxinmy.weixin4j.socket.HttpKeepAliveHandler
+	 */
 	public static void resolveHeaders(FullHttpResponse httpResponse) {
-		/*
-		 * if (HttpHeaders.isKeepAlive(httpRequest)) {
-		 * httpResponse.headers().set(CONNECTION, Values.KEEP_ALIVE); } if
-		 * (HttpHeaders.isTransferEncodingChunked(httpRequest)) {
-		 * httpResponse.headers().set(TRANSFER_ENCODING, Values.CHUNKED); }
-		 */
-		httpResponse.headers().set(CONNECTION, HttpHeaderValues.CLOSE);
+		httpResponse.headers().setInt(CONTENT_LENGTH,
+				httpResponse.content().readableBytes());
 		httpResponse.headers().set(DATE, new Date());
 		httpResponse.headers().set(SERVER, SERVER);
 		httpResponse.headers()
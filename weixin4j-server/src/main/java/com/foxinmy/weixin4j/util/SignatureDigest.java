@@ -0,0 +1,113 @@
+package com.foxinmy.weixin4j.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * 分段计算消息签名:密文(ASCII)可以边读取边计算,不必先得到完整的密文
+ * <p>
+ * 签名是token、timestamp、nonce与密文排序后拼接的SHA1值,
+ * 密文只需读取到能确定它与其它参数的排序位置为止(最多比最长的参数多一个字符),之后即可直接计算摘要
+ * </p>
+ *
+ * @className SignatureDigest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see MessageUtil#signature(String, String, String, ByteBuf)
+ */
+public class SignatureDigest {
+
+	private final String[] para;
+	private final MessageDigest digest;
+	/**
+	 * 排在密文之前的参数个数,在确定排序位置之前为-1
+	 */
+	private int position = -1;
+	/**
+	 * 确定排序位置之前读取的密文
+	 */
+	private final ByteBuf prefix;
+	private final int prefixLimit;
+
+	/**
+	 *
+	 * @param token
+	 *            开发者的token
+	 * @param timestamp
+	 *            时间戳
+	 * @param nonce
+	 *            随机数
+	 */
+	public SignatureDigest(String token, String timestamp, String nonce) {
+		this.para = new String[] { token, timestamp, nonce };
+		Arrays.sort(para);
+		try {
+			this.digest = MessageDigest.getInstance(ServerToolkits.SHA1);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		int prefixLimit = 0;
+		for (String str : para) {
+			prefixLimit = Math.max(prefixLimit, str.length());
+		}
+		this.prefixLimit = prefixLimit + 1;
+		this.prefix = Unpooled.buffer(this.prefixLimit);
+	}
+
+	/**
+	 * 读取一段密文
+	 *
+	 * @param encrypt
+	 *            base64编码的密文片段(读取位置不变)
+	 */
+	public void update(ByteBuf encrypt) {
+		int index = encrypt.readerIndex();
+		int length = encrypt.readableBytes();
+		if (position < 0) {
+			int n = Math.min(length, prefixLimit - prefix.readableBytes());
+			prefix.writeBytes(encrypt, index, n);
+			index += n;
+			length -= n;
+			if (prefix.readableBytes() < prefixLimit) {
+				return;
+			}
+			resolve();
+		}
+		if (length > 0) {
+			digest.update(encrypt.nioBuffer(index, length));
+		}
+	}
+
+	/**
+	 * 密文读取完毕,计算签名
+	 *
+	 * @return 签名
+	 */
+	public String digest() {
+		if (position < 0) {
+			resolve();
+		}
+		for (int i = position; i < para.length; i++) {
+			digest.update(ServerToolkits.getBytesUtf8(para[i]));
+		}
+		return HexUtil.encodeHexString(digest.digest());
+	}
+
+	/**
+	 * 按已读取的密文确定排序位置,先计算排在密文之前的参数与已读取的密文
+	 */
+	private void resolve() {
+		position = 0;
+		while (position < para.length
+				&& MessageUtil.compare(para[position], prefix) <= 0) {
+			digest.update(ServerToolkits.getBytesUtf8(para[position++]));
+		}
+		digest.update(prefix.nioBuffer());
+		prefix.clear();
+	}
+}
@@ -1,58 +1,26 @@
 package com.foxinmy.weixin4j.xml;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.InputStream;
 
-import org.xml.sax.Attributes;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.DefaultHandler;
-import org.xml.sax.helpers.XMLReaderFactory;
-
-import com.foxinmy.weixin4j.util.ServerToolkits;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * 获取加密的密文内容
- * 
+ *
  * @className EncryptMessageHandler
  * @author jinyu(foxinmy@gmail.com)
  * @date 2015年5月17日
  * @since JDK 1.6
  * @see
  */
-public class EncryptMessageHandler extends DefaultHandler {
+public class EncryptMessageHandler {
 
 	private String toUserName;
 	private String encryptContent;
-	private String content;
-
-	@Override
-	public void startDocument() throws SAXException {
-		toUserName = null;
-		encryptContent = null;
-	}
-
-	@Override
-	public void startElement(String uri, String localName, String qName,
-			Attributes attributes) throws SAXException {
-
-	}
-
-	@Override
-	public void endElement(String uri, String localName, String qName)
-			throws SAXException {
-		if (localName.equalsIgnoreCase("encrypt")) {
-			encryptContent = content;
-		} else if (localName.equalsIgnoreCase("tousername")) {
-			toUserName = content;
-		}
-	}
 
-	@Override
-	public void characters(char[] ch, int start, int length)
-			throws SAXException {
-		this.content = new String(ch, start, length);
+	private EncryptMessageHandler() {
 	}
 
 	public String getToUserName() {
@@ -63,20 +31,50 @@ public class EncryptMessageHandler extends DefaultHandler {
 		return encryptContent;
 	}
 
-	private final static EncryptMessageHandler global = new EncryptMessageHandler();
-
+	/**
+	 * 解析加密消息,每次调用返回新的实例;读取到Encrypt与ToUserName后即停止解析
+	 *
+	 * @param xmlContent
+	 *            加密的xml消息
+	 * @return 密文内容
+	 */
 	public static EncryptMessageHandler parser(String xmlContent)
 			throws RuntimeException {
+		return parser(StaxReaders.createReader(xmlContent));
+	}
+
+	/**
+	 * 直接从字节流(如请求的ByteBuf)解析加密消息,不必先转换为字符串
+	 *
+	 * @param xmlContent
+	 *            加密的xml消息(UTF-8)
+	 * @return 密文内容
+	 */
+	public static EncryptMessageHandler parser(InputStream xmlContent)
+			throws RuntimeException {
+		return parser(StaxReaders.createReader(xmlContent));
+	}
+
+	private static EncryptMessageHandler parser(XMLStreamReader reader) {
+		EncryptMessageHandler handler = new EncryptMessageHandler();
 		try {
-			XMLReader xmlReader = XMLReaderFactory.createXMLReader();
-			xmlReader.setContentHandler(global);
-			xmlReader.parse(new InputSource(new ByteArrayInputStream(xmlContent
-					.getBytes(ServerToolkits.UTF_8))));
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		} catch (SAXException e) {
+			while (reader.hasNext()
+					&& (handler.encryptContent == null || handler.toUserName == null)) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				String localName = reader.getLocalName();
+				if (localName.equalsIgnoreCase("encrypt")) {
+					handler.encryptContent = reader.getElementText();
+				} else if (localName.equalsIgnoreCase("tousername")) {
+					handler.toUserName = reader.getElementText();
+				}
+			}
+		} catch (XMLStreamException e) {
 			throw new RuntimeException(e);
+		} finally {
+			StaxReaders.close(reader);
 		}
-		return global;
+		return handler;
 	}
 }
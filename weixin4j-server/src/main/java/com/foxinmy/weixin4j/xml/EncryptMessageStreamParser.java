@@ -0,0 +1,327 @@
+package com.foxinmy.weixin4j.xml;
+
+import com.foxinmy.weixin4j.util.ServerToolkits;
+import com.foxinmy.weixin4j.util.SignatureDigest;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
+
+/**
+ * 非阻塞地解析加密消息:请求内容分段到达时逐段解析,密文直接写入缓冲区并同时计算签名,不必先聚合整个请求
+ * <p>
+ * 与{@link EncryptMessageHandler}一样只读取Encrypt与ToUserName节点,读取到之后即忽略剩余的内容;
+ * 不支持DTD
+ * </p>
+ *
+ * @className EncryptMessageStreamParser
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see EncryptMessageHandler
+ */
+public class EncryptMessageStreamParser {
+
+	private static final AsciiString ENCRYPT = AsciiString.cached("Encrypt");
+	private static final AsciiString TOUSERNAME = AsciiString
+			.cached("ToUserName");
+	private static final AsciiString CDATA = AsciiString.cached("![CDATA[");
+	private static final AsciiString COMMENT = AsciiString.cached("!--");
+	/**
+	 * 标签的最大长度
+	 */
+	private static final int MAX_MARKUP_LENGTH = 1024;
+
+	private enum State {
+		TEXT, MARKUP, CDATA, COMMENT, INSTRUCTION, DONE
+	}
+
+	private final ByteBufAllocator allocator;
+	private final SignatureDigest signatureDigest;
+	private final int initialCapacity;
+	private State state = State.TEXT;
+	private final ByteBuf markup = Unpooled.buffer(64);
+	private byte quote;
+	/**
+	 * CDATA或注释结束符前已读取的字符数
+	 */
+	private int terminators;
+	private int depth;
+	/**
+	 * 正在读取的节点及其深度
+	 */
+	private AsciiString capturing;
+	private int captureDepth;
+	private ByteBuf encryptContent;
+	private ByteBuf toUserName;
+	private boolean encryptFound;
+	private boolean toUserNameFound;
+
+	/**
+	 *
+	 * @param allocator
+	 *            密文缓冲区的分配
+	 * @param signatureDigest
+	 *            签名计算,为空时不计算
+	 * @param initialCapacity
+	 *            密文缓冲区的初始大小,如请求的Content-Length
+	 */
+	public EncryptMessageStreamParser(ByteBufAllocator allocator,
+			SignatureDigest signatureDigest, int initialCapacity) {
+		this.allocator = allocator;
+		this.signatureDigest = signatureDigest;
+		this.initialCapacity = initialCapacity;
+	}
+
+	/**
+	 * 解析一段内容
+	 *
+	 * @param content
+	 *            请求内容片段(读取位置不变)
+	 */
+	public void parse(ByteBuf content) {
+		int index = content.readerIndex();
+		int end = content.writerIndex();
+		while (index < end && state != State.DONE) {
+			switch (state) {
+			case TEXT:
+				index = parseText(content, index, end);
+				break;
+			case CDATA:
+				index = parseCdata(content, index, end);
+				break;
+			case MARKUP:
+				parseMarkup(content.getByte(index++));
+				break;
+			case COMMENT:
+				byte b = content.getByte(index++);
+				if (b == '>' && terminators >= 2) {
+					state = State.TEXT;
+				}
+				terminators = b == '-' ? terminators + 1 : 0;
+				break;
+			case INSTRUCTION:
+				b = content.getByte(index++);
+				if (b == '>' && terminators > 0) {
+					state = State.TEXT;
+				}
+				terminators = b == '?' ? 1 : 0;
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	/**
+	 * 内容解析完毕
+	 *
+	 * @throws RuntimeException
+	 *             没有读取到密文
+	 */
+	public void finish() throws RuntimeException {
+		if (!encryptFound) {
+			throw new RuntimeException("Encrypt element not found");
+		}
+	}
+
+	/**
+	 * base64编码的密文,由解析器负责释放
+	 *
+	 * @return 密文
+	 * @see #release()
+	 */
+	public ByteBuf getEncryptContent() {
+		if (encryptContent == null) {
+			encryptContent = allocator.buffer(initialCapacity);
+		}
+		return encryptContent;
+	}
+
+	public String getToUserName() {
+		return toUserNameFound ? unescape(toUserName
+				.toString(ServerToolkits.UTF_8)) : null;
+	}
+
+	/**
+	 * 释放密文缓冲区
+	 */
+	public void release() {
+		if (encryptContent != null) {
+			encryptContent.release();
+			encryptContent = null;
+		}
+	}
+
+	private int parseText(ByteBuf content, int index, int end) {
+		int n = content.bytesBefore(index, end - index, (byte) '<');
+		int length = n < 0 ? end - index : n;
+		capture(content, index, length);
+		if (n >= 0) {
+			state = State.MARKUP;
+			markup.clear();
+			quote = 0;
+			length++;
+		}
+		return index + length;
+	}
+
+	private int parseCdata(ByteBuf content, int index, int end) {
+		if (terminators > 0) {
+			byte b = content.getByte(index);
+			if (b == ']') {
+				terminators++;
+				return index + 1;
+			}
+			if (b == '>' && terminators >= 2) {
+				captureBrackets(terminators - 2);
+				terminators = 0;
+				state = State.TEXT;
+				return index + 1;
+			}
+			captureBrackets(terminators);
+			terminators = 0;
+		}
+		int n = content.bytesBefore(index, end - index, (byte) ']');
+		int length = n < 0 ? end - index : n;
+		capture(content, index, length);
+		if (n >= 0) {
+			terminators = 1;
+			length++;
+		}
+		return index + length;
+	}
+
+	private void parseMarkup(byte b) {
+		if (quote != 0) {
+			if (b == quote) {
+				quote = 0;
+			}
+		} else if (b == '>') {
+			endMarkup();
+			state = state == State.DONE ? State.DONE : State.TEXT;
+			return;
+		} else if (b == '"' || b == '\'') {
+			quote = b;
+		}
+		if (markup.readableBytes() >= MAX_MARKUP_LENGTH) {
+			throw new RuntimeException("xml tag too long");
+		}
+		markup.writeByte(b);
+		if (markup.getByte(0) == '?') {
+			state = State.INSTRUCTION;
+			terminators = 0;
+		} else if (markup.getByte(0) == '!') {
+			if (startsWith(CDATA)) {
+				if (markup.readableBytes() == CDATA.length()) {
+					state = State.CDATA;
+					terminators = 0;
+				}
+			} else if (startsWith(COMMENT)) {
+				if (markup.readableBytes() == COMMENT.length()) {
+					state = State.COMMENT;
+					terminators = 0;
+				}
+			} else {
+				throw new RuntimeException("DOCTYPE is not allowed");
+			}
+		}
+	}
+
+	private void endMarkup() {
+		int length = markup.readableBytes();
+		if (length > 0 && markup.getByte(0) == '/') {
+			if (capturing != null && depth == captureDepth) {
+				endCapture();
+			}
+			depth--;
+			return;
+		}
+		if (capturing != null) {
+			throw new RuntimeException("unexpected element in <" + capturing
+					+ ">");
+		}
+		boolean empty = length > 0 && markup.getByte(length - 1) == '/';
+		int nameLength = 0;
+		while (nameLength < length) {
+			byte b = markup.getByte(nameLength);
+			if (b == '/' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+				break;
+			}
+			nameLength++;
+		}
+		AsciiString name = new AsciiString(markup.array(),
+				markup.arrayOffset(), nameLength, false);
+		if (!encryptFound && ENCRYPT.contentEqualsIgnoreCase(name)) {
+			capturing = ENCRYPT;
+		} else if (!toUserNameFound && TOUSERNAME.contentEqualsIgnoreCase(name)) {
+			capturing = TOUSERNAME;
+			toUserName = Unpooled.buffer(32);
+		}
+		if (empty) {
+			if (capturing != null) {
+				captureDepth = depth;
+				endCapture();
+			}
+		} else {
+			depth++;
+			captureDepth = depth;
+		}
+	}
+
+	private void endCapture() {
+		if (capturing == ENCRYPT) {
+			encryptFound = true;
+		} else {
+			toUserNameFound = true;
+		}
+		capturing = null;
+		if (encryptFound && toUserNameFound) {
+			state = State.DONE;
+		}
+	}
+
+	private void capture(ByteBuf content, int index, int length) {
+		if (capturing == null || length == 0) {
+			return;
+		}
+		if (capturing == ENCRYPT) {
+			getEncryptContent().writeBytes(content, index, length);
+			if (signatureDigest != null) {
+				signatureDigest.update(content.slice(index, length));
+			}
+		} else {
+			toUserName.writeBytes(content, index, length);
+		}
+	}
+
+	private void captureBrackets(int count) {
+		if (count > 0) {
+			ByteBuf brackets = Unpooled.buffer(count);
+			for (int i = 0; i < count; i++) {
+				brackets.writeByte(']');
+			}
+			capture(brackets, 0, count);
+		}
+	}
+
+	private boolean startsWith(AsciiString prefix) {
+		int length = Math.min(markup.readableBytes(), prefix.length());
+		for (int i = 0; i < length; i++) {
+			if (markup.getByte(i) != prefix.byteAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String unescape(String text) {
+		if (text.indexOf('&') < 0) {
+			return text;
+		}
+		return text.replace("&lt;", "<").replace("&gt;", ">")
+				.replace("&quot;", "\"").replace("&apos;", "'")
+				.replace("&amp;", "&");
+	}
+}
@@ -1,15 +1,18 @@
 package com.foxinmy.weixin4j.xml;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.DefaultHandler;
-import org.xml.sax.helpers.XMLReaderFactory;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 import com.foxinmy.weixin4j.request.WeixinRequest;
 import com.foxinmy.weixin4j.socket.WeixinMessageTransfer;
@@ -18,6 +21,10 @@ import com.foxinmy.weixin4j.util.ServerToolkits;
 
 /**
  * 微信消息
+ * <p>
+ * 一次StAX解析同时读取路由字段(MsgType、Event、EventKey、ToUserName、节点名称)并构建DOM节点,
+ * 消息对象直接从DOM节点绑定,不再重复解析xml;每次调用使用独立的状态,可被多个线程同时调用
+ * </p>
  *
  * @className MessageTransferHandler
  * @author jinyu(foxinmy@gmail.com)
@@ -25,30 +32,34 @@ import com.foxinmy.weixin4j.util.ServerToolkits;
  * @since JDK 1.6
  * @see
  */
-public class MessageTransferHandler extends DefaultHandler {
+public class MessageTransferHandler {
+
+	private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>() {
+		@Override
+		protected DocumentBuilder initialValue() {
+			try {
+				DocumentBuilderFactory factory = DocumentBuilderFactory
+						.newInstance();
+				factory.setNamespaceAware(true);
+				return factory.newDocumentBuilder();
+			} catch (ParserConfigurationException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	};
 
 	private String fromUserName;
 	private String toUserName;
 	private String msgType;
 	private String eventType;
+	private String eventKey;
 	private boolean isQY;
-	private Set<String> nodeNames;
-
-	private String content;
+	private final Set<String> nodeNames = new HashSet<String>();
 
-	@Override
-	public void startDocument() throws SAXException {
-		fromUserName = null;
-		toUserName = null;
-		msgType = null;
-		eventType = null;
-		isQY = false;
-		nodeNames = new HashSet<String>();
+	private MessageTransferHandler() {
 	}
 
-	@Override
-	public void endElement(String uri, String localName, String qName)
-			throws SAXException {
+	private void endElement(String localName, String content) {
 		nodeNames.add(localName);
 		localName = localName.toLowerCase();
 		if (localName.equals("fromusername")) {
@@ -59,6 +70,8 @@ public class MessageTransferHandler extends DefaultHandler {
 			msgType = content.toLowerCase();
 		} else if (localName.equals("event")) {
 			eventType = content.toLowerCase();
+		} else if (localName.equals("eventkey")) {
+			eventKey = content;
 		} else if (localName.startsWith("agent") // 应用信息
 				|| localName.startsWith("suite") // 套件信息
 				|| localName.equals("batchjob")) { // 批量任务
@@ -66,12 +79,6 @@ public class MessageTransferHandler extends DefaultHandler {
 		}
 	}
 
-	@Override
-	public void characters(char[] ch, int start, int length)
-			throws SAXException {
-		this.content = new String(ch, start, length);
-	}
-
 	private AccountType getAccountType() {
 		if (isQY) {
 			return AccountType.QY;
@@ -83,23 +90,56 @@ public class MessageTransferHandler extends DefaultHandler {
 		return AccountType.MP;
 	}
 
-	private static MessageTransferHandler global = new MessageTransferHandler();
-
 	public static WeixinMessageTransfer parser(WeixinRequest request)
 			throws RuntimeException {
+		MessageTransferHandler handler = new MessageTransferHandler();
+		Document document = DOCUMENT_BUILDER.get().newDocument();
+		XMLStreamReader reader = StaxReaders.createReader(request
+				.getOriginalContent());
 		try {
-			XMLReader xmlReader = XMLReaderFactory.createXMLReader();
-			xmlReader.setContentHandler(global);
-			xmlReader.parse(new InputSource(new ByteArrayInputStream(request
-					.getOriginalContent().getBytes(ServerToolkits.UTF_8))));
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		} catch (SAXException e) {
+			Node current = document;
+			StringBuilder content = new StringBuilder();
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					Element element = document.createElementNS(null,
+							reader.getLocalName());
+					for (int i = 0; i < reader.getAttributeCount(); i++) {
+						element.setAttributeNS(null,
+								reader.getAttributeLocalName(i),
+								reader.getAttributeValue(i));
+					}
+					current.appendChild(element);
+					current = element;
+					content.setLength(0);
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					content.append(reader.getText());
+					current.appendChild(document.createTextNode(reader
+							.getText()));
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					handler.endElement(reader.getLocalName(),
+							content.toString());
+					content.setLength(0);
+					current = current.getParentNode();
+					break;
+				default:
+					break;
+				}
+			}
+		} catch (XMLStreamException e) {
 			throw new RuntimeException(e);
+		} finally {
+			StaxReaders.close(reader);
 		}
 		return new WeixinMessageTransfer(request.getAesToken(),
-				request.getEncryptType(), global.toUserName,
-				global.fromUserName, global.getAccountType(), global.msgType,
-				global.eventType, global.nodeNames);
+				request.getEncryptType(), handler.toUserName,
+				handler.fromUserName, handler.getAccountType(),
+				handler.msgType, handler.eventType, handler.eventKey,
+				handler.nodeNames,
+				document.getDocumentElement());
 	}
 }
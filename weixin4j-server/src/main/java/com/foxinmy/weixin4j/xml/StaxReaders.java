@@ -0,0 +1,63 @@
+package com.foxinmy.weixin4j.xml;
+
+import java.io.InputStream;
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * StAX解析器:XMLInputFactory并不保证线程安全,每个线程使用自己的实例;同时禁用DTD与外部实体
+ *
+ * @className StaxReaders
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ * @see MessageTransferHandler
+ * @see EncryptMessageHandler
+ */
+final class StaxReaders {
+
+	private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = new ThreadLocal<XMLInputFactory>() {
+		@Override
+		protected XMLInputFactory initialValue() {
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+			factory.setProperty(
+					XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+					Boolean.FALSE);
+			return factory;
+		}
+	};
+
+	private StaxReaders() {
+	}
+
+	static XMLStreamReader createReader(String xmlContent) {
+		try {
+			return INPUT_FACTORY.get().createXMLStreamReader(
+					new StringReader(xmlContent));
+		} catch (XMLStreamException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	static XMLStreamReader createReader(InputStream xmlContent) {
+		try {
+			return INPUT_FACTORY.get().createXMLStreamReader(xmlContent,
+					"UTF-8");
+		} catch (XMLStreamException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	static void close(XMLStreamReader reader) {
+		try {
+			reader.close();
+		} catch (XMLStreamException e) {
+			; // ignore
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.foxinmy.weixin4j.server.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.util.AesCipher;
+import com.foxinmy.weixin4j.util.MessageUtil;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.CharsetUtil;
+
+/**
+ * 消息加解密测试
+ *
+ * @className AesCipherTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class AesCipherTest {
+
+	private final String appId = "wxa652fc930afe9b22";
+	private final String aesKey = "3XItJRSSkTqH7etjBUbLfLBecLdFfGjbGPfmIHuGftD";
+	private final String xml = "<xml><Content><![CDATA[你好,weixin4j]]></Content></xml>";
+
+	@Test
+	public void pooledRoundTrip() {
+		PooledByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+		AesCipher cipher = AesCipher.getInstance(aesKey);
+		Assert.assertSame(cipher, AesCipher.getInstance(aesKey));
+		ByteBuf original = ByteBufUtil.writeUtf8(allocator, xml);
+		ByteBuf encrypted = cipher.encrypt(appId, original, allocator);
+		ByteBuf decrypted = cipher.decrypt(appId, encrypted);
+		try {
+			Assert.assertEquals(xml, decrypted.toString(CharsetUtil.UTF_8));
+			// 与字符串形式的加解密兼容
+			Assert.assertEquals(xml, MessageUtil.aesDecrypt(appId, aesKey,
+					encrypted.toString(CharsetUtil.US_ASCII)));
+			Assert.assertEquals(MessageUtil.signature("token", "1", "2",
+					encrypted.toString(CharsetUtil.US_ASCII)), MessageUtil
+					.signature("token", "1", "2", encrypted));
+		} finally {
+			original.release();
+			encrypted.release();
+			decrypted.release();
+		}
+		Assert.assertEquals(0, original.refCnt());
+	}
+
+	@Test
+	public void stringRoundTrip() {
+		String encrypted = MessageUtil.aesEncrypt(appId, aesKey, xml);
+		Assert.assertEquals(xml, MessageUtil.aesDecrypt(appId, aesKey, encrypted));
+		try {
+			MessageUtil.aesDecrypt("wx_other", aesKey, encrypted);
+			Assert.fail();
+		} catch (RuntimeException e) {
+			Assert.assertTrue(e.getMessage().startsWith("-40005"));
+		}
+	}
+}
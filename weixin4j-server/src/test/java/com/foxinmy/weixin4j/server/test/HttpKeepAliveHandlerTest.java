@@ -0,0 +1,245 @@
+package com.foxinmy.weixin4j.server.test;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageDispatcher;
+import com.foxinmy.weixin4j.handler.MessageHandlerAdapter;
+import com.foxinmy.weixin4j.handler.WeixinMessageHandler;
+import com.foxinmy.weixin4j.interceptor.WeixinMessageInterceptor;
+import com.foxinmy.weixin4j.message.TextMessage;
+import com.foxinmy.weixin4j.response.TextResponse;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+import com.foxinmy.weixin4j.socket.HttpKeepAliveHandler;
+import com.foxinmy.weixin4j.socket.SingleResponseEncoder;
+import com.foxinmy.weixin4j.socket.WeixinMessageDecoder;
+import com.foxinmy.weixin4j.socket.WeixinRequestHandler;
+import com.foxinmy.weixin4j.socket.WeixinResponseEncoder;
+import com.foxinmy.weixin4j.util.AesToken;
+import com.foxinmy.weixin4j.util.MessageUtil;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * 持久连接测试
+ *
+ * @className HttpKeepAliveHandlerTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class HttpKeepAliveHandlerTest {
+
+	@Test
+	public void closeAfterMaxRequests() {
+		EmbeddedChannel channel = new EmbeddedChannel(new HttpKeepAliveHandler(
+				2, false));
+		Assert.assertNull(exchange(channel, HttpVersion.HTTP_1_1));
+		Assert.assertTrue(channel.isOpen());
+		Assert.assertEquals(HttpHeaderValues.CLOSE.toString(),
+				exchange(channel, HttpVersion.HTTP_1_1));
+		Assert.assertFalse(channel.isOpen());
+	}
+
+	@Test
+	public void http10KeepAlive() {
+		EmbeddedChannel channel = new EmbeddedChannel(new HttpKeepAliveHandler(
+				0, false));
+		FullHttpRequest request = new DefaultFullHttpRequest(
+				HttpVersion.HTTP_1_0, HttpMethod.POST, "/");
+		request.headers().set(CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+		channel.writeInbound(request);
+		ReferenceCountUtil.release(channel.readInbound());
+		Assert.assertEquals(HttpHeaderValues.KEEP_ALIVE.toString(),
+				respond(channel));
+		Assert.assertTrue(channel.isOpen());
+	}
+
+	@Test
+	public void drainWaitsForPendingResponse() throws Exception {
+		EmbeddedChannel channel = new EmbeddedChannel(new HttpKeepAliveHandler(
+				0, false));
+		channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+				HttpMethod.POST, "/"));
+		ReferenceCountUtil.release(channel.readInbound());
+		channel.pipeline().fireUserEventTriggered(HttpKeepAliveHandler.DRAIN);
+		Assert.assertTrue(channel.isOpen());
+		Assert.assertEquals(HttpHeaderValues.CLOSE.toString(),
+				respond(channel));
+		Assert.assertFalse(channel.isOpen());
+	}
+
+	@Test
+	public void closeWhenIdle() {
+		EmbeddedChannel channel = new EmbeddedChannel(new HttpKeepAliveHandler(
+				0, false));
+		channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+				HttpMethod.POST, "/"));
+		ReferenceCountUtil.release(channel.readInbound());
+		// 未回复的请求不再阻止空闲连接的关闭
+		channel.pipeline().fireUserEventTriggered(
+				IdleStateEvent.ALL_IDLE_STATE_EVENT);
+		Assert.assertFalse(channel.isOpen());
+	}
+
+	@Test
+	public void pipelinedRequestWaitsForResponse() {
+		EmbeddedChannel channel = new EmbeddedChannel(new HttpKeepAliveHandler(
+				0, false));
+		channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+				HttpMethod.POST, "/1"), new DefaultFullHttpRequest(
+				HttpVersion.HTTP_1_1, HttpMethod.POST, "/2"));
+		FullHttpRequest first = channel.readInbound();
+		Assert.assertEquals("/1", first.uri());
+		first.release();
+		// 第1个请求回复之前,第2个请求暂存并停止读取
+		Assert.assertNull(channel.readInbound());
+		Assert.assertFalse(channel.config().isAutoRead());
+		Assert.assertNull(respond(channel));
+		FullHttpRequest second = channel.readInbound();
+		Assert.assertEquals("/2", second.uri());
+		second.release();
+		Assert.assertTrue(channel.config().isAutoRead());
+		Assert.assertNull(respond(channel));
+		Assert.assertTrue(channel.isOpen());
+	}
+
+	@Test
+	public void pipelinedRepliesInOrder() {
+		Queue<Runnable> tasks = new LinkedList<Runnable>();
+		EmbeddedChannel channel = messageChannel(tasks);
+		// 两个请求在同一个数据包中到达
+		channel.writeInbound(Unpooled.copiedBuffer(
+				push("user_1", "first") + push("user_2", "second"),
+				CharsetUtil.UTF_8));
+		Assert.assertEquals(1, tasks.size());
+		tasks.poll().run();
+		Assert.assertEquals(1, tasks.size());
+		tasks.poll().run();
+		String replies = replies(channel);
+		int first = replies
+				.indexOf("<ToUserName><![CDATA[user_1]]></ToUserName>");
+		int second = replies
+				.indexOf("<ToUserName><![CDATA[user_2]]></ToUserName>");
+		Assert.assertTrue(replies.toString(), first > 0 && second > first);
+		Assert.assertTrue(replies.indexOf("<![CDATA[first]]>") > first);
+		Assert.assertTrue(replies.indexOf("<![CDATA[second]]>") > second);
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void pipelinedAfterHandlerError() {
+		Queue<Runnable> tasks = new LinkedList<Runnable>();
+		EmbeddedChannel channel = messageChannel(tasks);
+		channel.writeInbound(Unpooled.copiedBuffer(
+				push("user_1", "error") + push("user_2", "second"),
+				CharsetUtil.UTF_8));
+		Assert.assertEquals(1, tasks.size());
+		tasks.poll().run();
+		// 处理失败的请求回复空白消息,之后的请求不会一直等待
+		Assert.assertEquals(1, tasks.size());
+		tasks.poll().run();
+		String replies = replies(channel);
+		int blank = replies.indexOf("success");
+		int second = replies.indexOf("<![CDATA[second]]>");
+		Assert.assertTrue(replies, blank > 0 && second > blank);
+		Assert.assertTrue(channel.isOpen());
+		channel.finishAndReleaseAll();
+	}
+
+	private static EmbeddedChannel messageChannel(final Queue<Runnable> tasks) {
+		WeixinMessageDispatcher dispatcher = new WeixinMessageDispatcher();
+		dispatcher.setMessageHandlerList(new ArrayList<WeixinMessageHandler>(
+				Collections.<WeixinMessageHandler> singletonList(
+						new MessageHandlerAdapter<TextMessage>() {
+							@Override
+							protected WeixinResponse doHandle0(
+									TextMessage message) {
+								if ("error".equals(message.getContent())) {
+									throw new IllegalStateException();
+								}
+								return new TextResponse(message.getContent());
+							}
+						})));
+		dispatcher.setMessageInterceptorList(new ArrayList<WeixinMessageInterceptor>());
+		dispatcher.setMessageExecutor(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		});
+		return new EmbeddedChannel(new HttpServerCodec(),
+				new HttpKeepAliveHandler(0, false), new HttpObjectAggregator(
+						65536), new WeixinMessageDecoder(
+						Collections.singletonMap("", new AesToken("weixin4j"))),
+				new WeixinResponseEncoder(), new SingleResponseEncoder(),
+				new WeixinRequestHandler(dispatcher));
+	}
+
+	private static String replies(EmbeddedChannel channel) {
+		StringBuilder replies = new StringBuilder();
+		for (ByteBuf buf = channel.readOutbound(); buf != null; buf = channel
+				.readOutbound()) {
+			replies.append(buf.toString(CharsetUtil.UTF_8));
+			buf.release();
+		}
+		return replies.toString();
+	}
+
+	private static String push(String fromUserName, String content) {
+		String timestamp = Long.toString(System.currentTimeMillis() / 1000l);
+		String nonce = fromUserName;
+		String xml = "<xml><ToUserName><![CDATA[gh_test]]></ToUserName>"
+				+ "<FromUserName><![CDATA[" + fromUserName
+				+ "]]></FromUserName>" + "<CreateTime>" + timestamp
+				+ "</CreateTime><MsgType><![CDATA[text]]></MsgType>"
+				+ "<Content><![CDATA[" + content + "]]></Content>"
+				+ "<MsgId>" + System.nanoTime() + "</MsgId></xml>";
+		return "POST /?signature="
+				+ MessageUtil.signature("weixin4j", timestamp, nonce)
+				+ "&timestamp=" + timestamp + "&nonce=" + nonce
+				+ " HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+				+ xml.getBytes(CharsetUtil.UTF_8).length + "\r\n\r\n" + xml;
+	}
+
+	private String exchange(EmbeddedChannel channel, HttpVersion version) {
+		channel.writeInbound(new DefaultFullHttpRequest(version,
+				HttpMethod.POST, "/"));
+		ReferenceCountUtil.release(channel.readInbound());
+		return respond(channel);
+	}
+
+	private String respond(EmbeddedChannel channel) {
+		channel.writeOutbound(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+				HttpResponseStatus.OK));
+		FullHttpResponse response = channel.readOutbound();
+		try {
+			return response.headers().get(CONNECTION);
+		} finally {
+			response.release();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.foxinmy.weixin4j.server.test;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.metrics.LatencyHistogram;
+import com.foxinmy.weixin4j.metrics.LatencySnapshot;
+
+/**
+ * 耗时统计测试
+ *
+ * @className LatencyHistogramTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void quantiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long micros = 1; micros <= 1000; micros++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+		}
+		LatencySnapshot snapshot = histogram.snapshot();
+		Assert.assertEquals(1000, snapshot.getCount());
+		Assert.assertEquals(TimeUnit.MICROSECONDS.toNanos(1000),
+				snapshot.getMaxNanos());
+		Assert.assertEquals(TimeUnit.MICROSECONDS.toNanos(500500),
+				snapshot.getSumNanos());
+		// 每个2的幂区间分8段,误差在1/8以内
+		assertNear(500, snapshot.getP50Nanos());
+		assertNear(900, snapshot.getP90Nanos());
+		assertNear(990, snapshot.getP99Nanos());
+	}
+
+	@Test
+	public void empty() {
+		LatencySnapshot snapshot = new LatencyHistogram().snapshot();
+		Assert.assertEquals(0, snapshot.getCount());
+		Assert.assertEquals(0, snapshot.getP99Nanos());
+	}
+
+	private void assertNear(long expectedMicros, long actualNanos) {
+		long expected = TimeUnit.MICROSECONDS.toNanos(expectedMicros);
+		Assert.assertEquals(expected, actualNanos, expected / 8d);
+	}
+}
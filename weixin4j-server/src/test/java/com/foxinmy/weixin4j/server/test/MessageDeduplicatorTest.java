@@ -0,0 +1,106 @@
+package com.foxinmy.weixin4j.server.test;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.dispatcher.MemoryDuplicateMessageStore;
+import com.foxinmy.weixin4j.dispatcher.MessageDeduplicator;
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageDispatcher;
+import com.foxinmy.weixin4j.request.WeixinMessage;
+import com.foxinmy.weixin4j.request.WeixinRequest;
+import com.foxinmy.weixin4j.response.TextResponse;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+import com.foxinmy.weixin4j.socket.WeixinMessageTransfer;
+import com.foxinmy.weixin4j.type.EncryptType;
+import com.foxinmy.weixin4j.xml.MessageTransferHandler;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * 消息排重测试
+ *
+ * @className MessageDeduplicatorTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class MessageDeduplicatorTest {
+
+	private final MessageDeduplicator deduplicator = new MessageDeduplicator(
+			new MemoryDuplicateMessageStore(16));
+
+	@Test
+	public void retryWaitsForFirstResponse() {
+		Assert.assertNull(deduplicator.acquire("gh_1_1001"));
+		CompletableFuture<WeixinResponse> retry = deduplicator
+				.acquire("gh_1_1001");
+		Assert.assertNotNull(retry);
+		Assert.assertFalse(retry.isDone());
+		WeixinResponse response = new TextResponse("hello");
+		deduplicator.complete("gh_1_1001", response);
+		Assert.assertSame(response, retry.getNow(null));
+		// 处理完成后的重试直接取保存的回复
+		Assert.assertSame(response, deduplicator.acquire("gh_1_1001")
+				.getNow(null));
+	}
+
+	@Test
+	public void releaseAllowsReprocess() {
+		Assert.assertNull(deduplicator.acquire("gh_1_1002"));
+		CompletableFuture<WeixinResponse> retry = deduplicator
+				.acquire("gh_1_1002");
+		deduplicator.release("gh_1_1002");
+		Assert.assertTrue(retry.isDone());
+		Assert.assertNull(retry.getNow(null));
+		Assert.assertNull(deduplicator.acquire("gh_1_1002"));
+	}
+
+	@Test
+	public void oldestRecordEvicted() {
+		for (int i = 0; i < 17; i++) {
+			String messageId = "gh_1_" + i;
+			Assert.assertNull(deduplicator.acquire(messageId));
+			deduplicator.complete(messageId, null);
+		}
+		Assert.assertNull(deduplicator.acquire("gh_1_0"));
+		Assert.assertNotNull(deduplicator.acquire("gh_1_16"));
+	}
+
+	@Test
+	public void eventKeyInMessageId() {
+		String click1 = messageId("CLICK", "menu_1");
+		// 同一用户在同一秒内点击了不同的菜单
+		Assert.assertFalse(click1.equals(messageId("CLICK", "menu_2")));
+		Assert.assertFalse(click1.equals(messageId("VIEW", "menu_1")));
+		// 重试推送的事件内容完全相同
+		Assert.assertEquals(click1, messageId("CLICK", "menu_1"));
+	}
+
+	private String messageId(String event, String eventKey) {
+		StringBuilder xmlSb = new StringBuilder();
+		xmlSb.append("<xml>");
+		xmlSb.append("<ToUserName><![CDATA[gh_1]]></ToUserName>");
+		xmlSb.append("<FromUserName><![CDATA[user]]></FromUserName>");
+		xmlSb.append("<CreateTime>1348831860</CreateTime>");
+		xmlSb.append("<MsgType><![CDATA[event]]></MsgType>");
+		xmlSb.append("<Event><![CDATA[" + event + "]]></Event>");
+		xmlSb.append("<EventKey><![CDATA[" + eventKey + "]]></EventKey>");
+		xmlSb.append("</xml>");
+		WeixinMessageTransfer transfer = MessageTransferHandler
+				.parser(new WeixinRequest(null, HttpMethod.POST, "/",
+						EncryptType.RAW, "", "", "", "", "", xmlSb.toString(),
+						null, null));
+		return deduplicator.getMessageId(transfer,
+				new BindingDispatcher().bind(transfer));
+	}
+
+	private static class BindingDispatcher extends WeixinMessageDispatcher {
+
+		WeixinMessage bind(WeixinMessageTransfer transfer) {
+			return messageRead(transfer.getMessageNode(), getMessageMatcher()
+					.match(defineMessageKey(transfer, null)));
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.foxinmy.weixin4j.server.test;
+
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.dispatcher.MessageHandlerIndex;
+import com.foxinmy.weixin4j.handler.MessageHandlerAdapter;
+import com.foxinmy.weixin4j.handler.MultipleMessageHandlerAdapter;
+import com.foxinmy.weixin4j.handler.WeixinMessageHandler;
+import com.foxinmy.weixin4j.message.ImageMessage;
+import com.foxinmy.weixin4j.message.TextMessage;
+import com.foxinmy.weixin4j.message.VoiceMessage;
+import com.foxinmy.weixin4j.request.WeixinMessage;
+import com.foxinmy.weixin4j.request.WeixinRequest;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+
+/**
+ * 消息处理器路由索引测试
+ *
+ * @className MessageHandlerIndexTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class MessageHandlerIndexTest {
+
+	private final WeixinMessageHandler text = new TextHandler(1);
+	private final WeixinMessageHandler heavyText = new TextHandler(5);
+	private final WeixinMessageHandler textOrImage = new TextOrImageHandler();
+	private final WeixinMessageHandler dynamic = new DynamicHandler(3);
+	private final WeixinMessageHandler dynamicDefault = new DynamicHandler(0);
+
+	private final MessageHandlerIndex index = new MessageHandlerIndex(
+			new WeixinMessageHandler[] { text, dynamicDefault, textOrImage,
+					heavyText, dynamic });
+
+	@Test
+	public void typedHandlersSortedByWeight() {
+		Assert.assertArrayEquals(new WeixinMessageHandler[] { heavyText,
+				dynamic, text, textOrImage, dynamicDefault },
+				index.getHandlers(TextMessage.class));
+		Assert.assertArrayEquals(new WeixinMessageHandler[] { dynamic,
+				textOrImage, dynamicDefault },
+				index.getHandlers(ImageMessage.class));
+	}
+
+	@Test
+	public void fallbackToDynamicHandlers() {
+		Assert.assertArrayEquals(new WeixinMessageHandler[] { dynamic,
+				dynamicDefault }, index.getHandlers(VoiceMessage.class));
+		Assert.assertArrayEquals(new WeixinMessageHandler[] { dynamic,
+				dynamicDefault }, index.getHandlers(null));
+	}
+
+	private static class TextHandler extends MessageHandlerAdapter<TextMessage> {
+		private final int weight;
+
+		TextHandler(int weight) {
+			this.weight = weight;
+		}
+
+		@Override
+		protected WeixinResponse doHandle0(TextMessage message) {
+			return null;
+		}
+
+		@Override
+		public int weight() {
+			return weight;
+		}
+	}
+
+	private static class TextOrImageHandler extends
+			MultipleMessageHandlerAdapter {
+		@SuppressWarnings("unchecked")
+		TextOrImageHandler() {
+			super(TextMessage.class, ImageMessage.class);
+		}
+
+		@Override
+		public WeixinResponse doHandle(WeixinRequest request,
+				WeixinMessage message) {
+			return null;
+		}
+	}
+
+	private static class DynamicHandler implements WeixinMessageHandler {
+		private final int weight;
+
+		DynamicHandler(int weight) {
+			this.weight = weight;
+		}
+
+		@Override
+		public boolean canHandle(WeixinRequest request, WeixinMessage message,
+				Set<String> nodeNames) {
+			return true;
+		}
+
+		@Override
+		public WeixinResponse doHandle(WeixinRequest request,
+				WeixinMessage message) {
+			return null;
+		}
+
+		@Override
+		public int weight() {
+			return weight;
+		}
+	}
+}
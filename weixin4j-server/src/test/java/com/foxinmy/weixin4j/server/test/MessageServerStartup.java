@@ -5,6 +5,7 @@ import io.netty.channel.ChannelHandlerContext;
 import org.springframework.context.ApplicationContext;
 
 import com.foxinmy.weixin4j.dispatcher.BeanFactory;
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageKey;
 import com.foxinmy.weixin4j.handler.DebugMessageHandler;
 import com.foxinmy.weixin4j.handler.MessageHandlerAdapter;
 import com.foxinmy.weixin4j.handler.MultipleMessageHandlerAdapter;
@@ -19,6 +20,7 @@ import com.foxinmy.weixin4j.response.TextResponse;
 import com.foxinmy.weixin4j.response.WeixinResponse;
 import com.foxinmy.weixin4j.spring.SpringBeanFactory;
 import com.foxinmy.weixin4j.startup.WeixinServerBootstrap;
+import com.foxinmy.weixin4j.type.AccountType;
 
 /**
  * 服务启动测试类
@@ -142,6 +144,17 @@ public class MessageServerStartup {
         new WeixinServerBootstrap(token).addInterceptor(interceptor).openAlwaysResponse().startup();
     }
 
+    /**
+     * 业务线程池:handler中有数据库或接口调用时不阻塞IO线程
+     *
+     */
+    public void test6() {
+        // 公共线程池:16个线程,最多排队1000个消息,队列已满时立即回复空白消息
+        // 文本消息使用单独的线程池,避免占满公共线程池
+        new WeixinServerBootstrap(token).addHandler(DebugMessageHandler.global).businessExecutor(16, 1000)
+                .businessExecutor(new WeixinMessageKey("text", null, AccountType.MP), 4, 200).startup();
+    }
+
     /**
      * main方法入口
      *
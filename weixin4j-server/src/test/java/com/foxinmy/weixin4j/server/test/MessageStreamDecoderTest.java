@@ -0,0 +1,137 @@
+package com.foxinmy.weixin4j.server.test;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.metrics.ServerMetrics;
+import com.foxinmy.weixin4j.request.WeixinRequest;
+import com.foxinmy.weixin4j.socket.WeixinMessageDecoder;
+import com.foxinmy.weixin4j.socket.WeixinMessageStreamDecoder;
+import com.foxinmy.weixin4j.util.AesToken;
+import com.foxinmy.weixin4j.util.MessageUtil;
+import com.foxinmy.weixin4j.util.SignatureDigest;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+
+/**
+ * 流式解码测试:请求内容在任意位置分段时与整体解码的结果一致
+ *
+ * @className MessageStreamDecoderTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class MessageStreamDecoderTest {
+
+	private final String appId = "wxa652fc930afe9b22";
+	private final String aesKey = "3XItJRSSkTqH7etjBUbLfLBecLdFfGjbGPfmIHuGftD";
+	private final String token = "weixin4j";
+	private final String xml = "<xml><ToUserName><![CDATA[gh_1]]></ToUserName><Content><![CDATA[你好,]]weixin4j]]></Content></xml>";
+
+	@Test
+	public void raw() {
+		byte[] content = xml.getBytes(CharsetUtil.UTF_8);
+		for (int split = 0; split <= content.length; split++) {
+			WeixinRequest request = decode("/?signature=s&timestamp=1&nonce=2",
+					content, split, 1 << 16);
+			Assert.assertEquals(xml, request.getOriginalContent());
+			Assert.assertNull(request.getEncryptSignature());
+		}
+	}
+
+	@Test
+	public void aes() {
+		String encrypt = MessageUtil.aesEncrypt(appId, aesKey, xml);
+		byte[] content = ("<?xml version=\"1.0\"?><xml><!-- callback -->"
+				+ "<ToUserName><![CDATA[gh_1]]></ToUserName>\n<Encrypt><![CDATA["
+				+ encrypt + "]]></Encrypt><AgentID>1</AgentID></xml>")
+				.getBytes(CharsetUtil.UTF_8);
+		String signature = MessageUtil.signature(token, "1", "2", encrypt);
+		for (int split = 0; split <= content.length; split++) {
+			WeixinRequest request = decode(
+					"/?encrypt_type=aes&msg_signature=s&timestamp=1&nonce=2",
+					content, split, 1 << 16);
+			Assert.assertEquals(xml, request.getOriginalContent());
+			Assert.assertEquals(signature, request.getEncryptSignature());
+		}
+	}
+
+	@Test
+	public void tooLarge() {
+		EmbeddedChannel channel = newChannel(16);
+		HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1,
+				HttpMethod.POST, "/");
+		request.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, 100);
+		channel.writeInbound(request, new DefaultLastHttpContent(
+				Unpooled.wrappedBuffer(new byte[100])));
+		Assert.assertNull(channel.readInbound());
+		FullHttpResponse response = channel.readOutbound();
+		Assert.assertEquals(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE,
+				response.status());
+		response.release();
+		// 没有Content-Length时按读取到的内容计算
+		request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST,
+				"/");
+		channel.writeInbound(request,
+				new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[10])),
+				new DefaultLastHttpContent(Unpooled.wrappedBuffer(new byte[10])));
+		Assert.assertNull(channel.readInbound());
+		response = channel.readOutbound();
+		Assert.assertEquals(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE,
+				response.status());
+		response.release();
+		Assert.assertFalse(channel.finish());
+	}
+
+	@Test
+	public void signatureDigest() {
+		String[] encrypts = { "", "a", "ab", "abc", "abcd", "abd", "abda",
+				"zz", "A" };
+		for (String encrypt : encrypts) {
+			SignatureDigest digest = new SignatureDigest("abc", "abd", "ab");
+			for (byte b : encrypt.getBytes(CharsetUtil.US_ASCII)) {
+				digest.update(Unpooled.wrappedBuffer(new byte[] { b }));
+			}
+			Assert.assertEquals(encrypt,
+					MessageUtil.signature("abc", "abd", "ab", encrypt),
+					digest.digest());
+		}
+	}
+
+	private WeixinRequest decode(String uri, byte[] content, int split,
+			int maxContentLength) {
+		EmbeddedChannel channel = newChannel(maxContentLength);
+		ByteBuf first = Unpooled.wrappedBuffer(content, 0, split);
+		ByteBuf second = Unpooled.wrappedBuffer(content, split, content.length
+				- split);
+		channel.writeInbound(new DefaultHttpRequest(HttpVersion.HTTP_1_1,
+				HttpMethod.POST, uri), new DefaultHttpContent(first),
+				new DefaultLastHttpContent(second));
+		WeixinRequest request = channel.readInbound();
+		Assert.assertNotNull("split at " + split, request);
+		Assert.assertFalse(channel.finish());
+		return request;
+	}
+
+	private EmbeddedChannel newChannel(int maxContentLength) {
+		WeixinMessageDecoder messageDecoder = new WeixinMessageDecoder(
+				Collections.singletonMap((String) null, new AesToken(appId,
+						token, aesKey)));
+		return new EmbeddedChannel(new WeixinMessageStreamDecoder(
+				messageDecoder, maxContentLength, ServerMetrics.NOOP));
+	}
+}
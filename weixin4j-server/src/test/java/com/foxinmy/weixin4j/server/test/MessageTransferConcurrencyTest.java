@@ -0,0 +1,151 @@
+package com.foxinmy.weixin4j.server.test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageDispatcher;
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageKey;
+import com.foxinmy.weixin4j.message.TextMessage;
+import com.foxinmy.weixin4j.message.event.MenuEventMessage;
+import com.foxinmy.weixin4j.request.WeixinMessage;
+import com.foxinmy.weixin4j.request.WeixinRequest;
+import com.foxinmy.weixin4j.socket.WeixinMessageTransfer;
+import com.foxinmy.weixin4j.type.AccountType;
+import com.foxinmy.weixin4j.type.EncryptType;
+import com.foxinmy.weixin4j.xml.EncryptMessageHandler;
+import com.foxinmy.weixin4j.xml.MessageTransferHandler;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * 多线程同时解析消息,验证各线程之间的解析结果互不干扰
+ *
+ * @className MessageTransferConcurrencyTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class MessageTransferConcurrencyTest {
+
+	private static final int THREADS = 16;
+	private static final int ITERATIONS = 500;
+
+	private final BindingDispatcher dispatcher = new BindingDispatcher();
+
+	@Test
+	public void parseWithoutCrossTalk() throws Exception {
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(THREADS);
+		final List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int i = 0; i < ITERATIONS; i++) {
+							String id = thread + "_" + i;
+							switch (i % 3) {
+							case 0:
+								assertText(id);
+								break;
+							case 1:
+								assertEvent(id);
+								break;
+							default:
+								assertEncrypt(id);
+								break;
+							}
+						}
+					} catch (Throwable e) {
+						errors.add(e);
+					} finally {
+						done.countDown();
+					}
+				}
+			}.start();
+		}
+		start.countDown();
+		done.await();
+		if (!errors.isEmpty()) {
+			throw new AssertionError(errors.get(0));
+		}
+	}
+
+	private void assertText(String id) {
+		StringBuilder xmlSb = new StringBuilder();
+		xmlSb.append("<xml>");
+		xmlSb.append("<ToUserName><![CDATA[to_" + id + "]]></ToUserName>");
+		xmlSb.append("<FromUserName><![CDATA[from_" + id + "]]></FromUserName>");
+		xmlSb.append("<CreateTime>1348831860</CreateTime>");
+		xmlSb.append("<MsgType><![CDATA[text]]></MsgType>");
+		xmlSb.append("<Content><![CDATA[content <" + id + ">]]></Content>");
+		xmlSb.append("<MsgId>1234567890123456</MsgId>");
+		xmlSb.append("</xml>");
+		WeixinMessageTransfer transfer = MessageTransferHandler
+				.parser(request(xmlSb.toString()));
+		Assert.assertEquals("to_" + id, transfer.getToUserName());
+		Assert.assertEquals("from_" + id, transfer.getFromUserName());
+		Assert.assertEquals("text", transfer.getMsgType());
+		Assert.assertNull(transfer.getEventType());
+		Assert.assertEquals(AccountType.MP, transfer.getAccountType());
+		Assert.assertTrue(transfer.getNodeNames().contains("Content"));
+		TextMessage message = (TextMessage) dispatcher.bind(transfer);
+		Assert.assertEquals("from_" + id, message.getFromUserName());
+		Assert.assertEquals("content <" + id + ">", message.getContent());
+	}
+
+	private void assertEvent(String id) {
+		StringBuilder xmlSb = new StringBuilder();
+		xmlSb.append("<xml>");
+		xmlSb.append("<ToUserName><![CDATA[to_" + id + "]]></ToUserName>");
+		xmlSb.append("<FromUserName><![CDATA[from_" + id + "]]></FromUserName>");
+		xmlSb.append("<CreateTime>1348831860</CreateTime>");
+		xmlSb.append("<MsgType><![CDATA[event]]></MsgType>");
+		xmlSb.append("<Event><![CDATA[CLICK]]></Event>");
+		xmlSb.append("<EventKey><![CDATA[key_" + id + "]]></EventKey>");
+		xmlSb.append("<AgentID>1</AgentID>");
+		xmlSb.append("</xml>");
+		WeixinMessageTransfer transfer = MessageTransferHandler
+				.parser(request(xmlSb.toString()));
+		Assert.assertEquals("from_" + id, transfer.getFromUserName());
+		Assert.assertEquals("event", transfer.getMsgType());
+		Assert.assertEquals("click", transfer.getEventType());
+		Assert.assertEquals(AccountType.QY, transfer.getAccountType());
+		MenuEventMessage message = (MenuEventMessage) dispatcher
+				.bind(transfer);
+		Assert.assertEquals("to_" + id, message.getToUserName());
+		Assert.assertEquals("key_" + id, message.getEventKey());
+	}
+
+	private void assertEncrypt(String id) {
+		StringBuilder xmlSb = new StringBuilder();
+		xmlSb.append("<xml>");
+		xmlSb.append("<ToUserName><![CDATA[to_" + id + "]]></ToUserName>");
+		xmlSb.append("<Encrypt><![CDATA[encrypt_" + id + "]]></Encrypt>");
+		xmlSb.append("</xml>");
+		EncryptMessageHandler handler = EncryptMessageHandler.parser(xmlSb
+				.toString());
+		Assert.assertEquals("to_" + id, handler.getToUserName());
+		Assert.assertEquals("encrypt_" + id, handler.getEncryptContent());
+	}
+
+	private static WeixinRequest request(String xml) {
+		return new WeixinRequest(null, HttpMethod.POST, "/", EncryptType.RAW,
+				"", "", "", "", "", xml, null, null);
+	}
+
+	private static class BindingDispatcher extends WeixinMessageDispatcher {
+
+		WeixinMessage bind(WeixinMessageTransfer transfer) {
+			WeixinMessageKey messageKey = defineMessageKey(transfer, null);
+			return messageRead(transfer.getMessageNode(), getMessageMatcher()
+					.match(messageKey));
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.foxinmy.weixin4j.server.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.dispatcher.WeixinMessageDispatcher;
+import com.foxinmy.weixin4j.dispatcher.WeixinResponseSender;
+import com.foxinmy.weixin4j.handler.MessageHandlerAdapter;
+import com.foxinmy.weixin4j.handler.WeixinMessageHandler;
+import com.foxinmy.weixin4j.interceptor.MessageInterceptorAdapter;
+import com.foxinmy.weixin4j.interceptor.WeixinMessageInterceptor;
+import com.foxinmy.weixin4j.message.TextMessage;
+import com.foxinmy.weixin4j.request.WeixinMessage;
+import com.foxinmy.weixin4j.request.WeixinRequest;
+import com.foxinmy.weixin4j.response.BlankResponse;
+import com.foxinmy.weixin4j.response.TextResponse;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+import com.foxinmy.weixin4j.type.EncryptType;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * 被动回复期限测试:业务线程池的任务与期限定时器均在测试线程中手动执行
+ *
+ * @className ResponseDeadlineTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class ResponseDeadlineTest {
+
+	private static final long DEADLINE_MILLIS = 20l;
+
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+	private final List<WeixinResponse> sent = new CopyOnWriteArrayList<WeixinResponse>();
+
+	private WeixinMessageDispatcher dispatcher;
+	private EmbeddedChannel channel;
+
+	@Before
+	public void setUp() {
+		dispatcher = new WeixinMessageDispatcher();
+		dispatcher.setMessageHandlerList(new ArrayList<WeixinMessageHandler>(
+				Collections.<WeixinMessageHandler> singletonList(
+						new MessageHandlerAdapter<TextMessage>() {
+							@Override
+							protected WeixinResponse doHandle0(
+									TextMessage message) {
+								if ("error".equals(message.getContent())) {
+									throw new IllegalStateException();
+								}
+								return new TextResponse(message.getContent());
+							}
+						})));
+		dispatcher.setMessageInterceptorList(new ArrayList<WeixinMessageInterceptor>());
+		dispatcher.setMessageExecutor(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		});
+		dispatcher.setResponseDeadline(DEADLINE_MILLIS,
+				new WeixinResponseSender() {
+					@Override
+					public void send(WeixinMessage message,
+							WeixinResponse response) {
+						sent.add(response);
+					}
+				}, null);
+		channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+	}
+
+	@Test
+	public void respondBeforeDeadline() throws InterruptedException {
+		dispatch("hello");
+		runTasks();
+		expireDeadline();
+		TextResponse response = channel.readOutbound();
+		Assert.assertEquals("hello", response.getContent());
+		Assert.assertNull(channel.readOutbound());
+		Assert.assertTrue(sent.isEmpty());
+	}
+
+	@Test
+	public void expireThenNotify() throws InterruptedException {
+		dispatch("slow");
+		expireDeadline();
+		Assert.assertSame(BlankResponse.global, channel.readOutbound());
+		runTasks();
+		// 处理结果改为通过WeixinResponseSender发送
+		Assert.assertNull(channel.readOutbound());
+		Assert.assertEquals(1, sent.size());
+		Assert.assertEquals("slow", ((TextResponse) sent.get(0)).getContent());
+	}
+
+	@Test
+	public void interceptorRejected() throws InterruptedException {
+		dispatcher.setMessageInterceptorList(new ArrayList<WeixinMessageInterceptor>(
+				Collections.<WeixinMessageInterceptor> singletonList(
+						new MessageInterceptorAdapter() {
+							@Override
+							public boolean preHandle(
+									ChannelHandlerContext context,
+									WeixinRequest request,
+									WeixinMessage message,
+									WeixinMessageHandler handler) {
+								context.writeAndFlush(new TextResponse("denied"));
+								return false;
+							}
+						})));
+		dispatch("hello");
+		runTasks();
+		expireDeadline();
+		TextResponse response = channel.readOutbound();
+		Assert.assertEquals("denied", response.getContent());
+		// 拦截器回复后定时器不再回复空白消息
+		Assert.assertNull(channel.readOutbound());
+		Assert.assertTrue(sent.isEmpty());
+	}
+
+	@Test
+	public void handlerThrows() throws InterruptedException {
+		dispatch("error");
+		runTasks();
+		expireDeadline();
+		// 处理失败时回复空白消息,定时器不再重复回复
+		Assert.assertSame(BlankResponse.global, channel.readOutbound());
+		Assert.assertNull(channel.readOutbound());
+		Assert.assertTrue(sent.isEmpty());
+	}
+
+	private void dispatch(String content) {
+		StringBuilder xmlSb = new StringBuilder();
+		xmlSb.append("<xml>");
+		xmlSb.append("<ToUserName><![CDATA[gh_1]]></ToUserName>");
+		xmlSb.append("<FromUserName><![CDATA[user]]></FromUserName>");
+		xmlSb.append("<CreateTime>1348831860</CreateTime>");
+		xmlSb.append("<MsgType><![CDATA[text]]></MsgType>");
+		xmlSb.append("<Content><![CDATA[" + content + "]]></Content>");
+		xmlSb.append("<MsgId>" + System.nanoTime() + "</MsgId>");
+		xmlSb.append("</xml>");
+		dispatcher.doDispatch(channel.pipeline().firstContext(),
+				new WeixinRequest(null, HttpMethod.POST, "/", EncryptType.RAW,
+						"", "", "", "", "", xmlSb.toString(), null, null));
+	}
+
+	private void runTasks() {
+		for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+			task.run();
+		}
+	}
+
+	private void expireDeadline() throws InterruptedException {
+		Thread.sleep(DEADLINE_MILLIS * 5);
+		channel.runScheduledPendingTasks();
+	}
+}
@@ -0,0 +1,59 @@
+package com.foxinmy.weixin4j.server.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.response.NewsResponse;
+import com.foxinmy.weixin4j.response.ResponseWriter;
+import com.foxinmy.weixin4j.response.TextResponse;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.CharsetUtil;
+
+/**
+ * 被动回复写出测试
+ *
+ * @className ResponseWriterTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class ResponseWriterTest {
+
+	@Test
+	public void escapeCDATA() {
+		Assert.assertEquals(
+				"<Content><![CDATA[a]]]]><![CDATA[>b]]]]><![CDATA[>]]></Content>",
+				new TextResponse("a]]>b]]>").toContent());
+		Assert.assertEquals("<Content><![CDATA[]]></Content>",
+				new TextResponse(null).toContent());
+	}
+
+	@Test
+	public void writeNumberAndUtf8() {
+		ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer();
+		try {
+			new ResponseWriter(buffer).startElement("xml")
+					.writeElement("CreateTime", 1433903433l)
+					.writeElement("Zero", 0).writeElement("Negative", -12)
+					.writeElement("Title", "微信").endElement("xml");
+			Assert.assertEquals(
+					"<xml><CreateTime>1433903433</CreateTime><Zero>0</Zero><Negative>-12</Negative><Title><![CDATA[微信]]></Title></xml>",
+					buffer.toString(CharsetUtil.UTF_8));
+		} finally {
+			buffer.release();
+		}
+	}
+
+	@Test
+	public void newsContent() {
+		NewsResponse news = new NewsResponse(new NewsResponse.Article("title",
+				null, "http://url", "http://pic"));
+		Assert.assertEquals(
+				"<ArticleCount>1</ArticleCount><Articles><item><Title><![CDATA[title]]></Title>"
+						+ "<Description><![CDATA[]]></Description><Url><![CDATA[http://url]]></Url>"
+						+ "<PicUrl><![CDATA[http://pic]]></PicUrl></item></Articles>",
+				news.toContent());
+	}
+}
@@ -0,0 +1,176 @@
+package com.foxinmy.weixin4j.server.test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import com.foxinmy.weixin4j.handler.MessageHandlerAdapter;
+import com.foxinmy.weixin4j.message.TextMessage;
+import com.foxinmy.weixin4j.response.TextResponse;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+import com.foxinmy.weixin4j.startup.ServerTransport;
+import com.foxinmy.weixin4j.startup.WeixinServerBootstrap;
+import com.foxinmy.weixin4j.util.MessageUtil;
+import com.foxinmy.weixin4j.util.ServerToolkits;
+
+/**
+ * 服务压测:分别以nio、epoll、epoll + SO_REUSEPORT启动服务,统计每秒处理的文本消息数
+ *
+ * <pre>
+ * mvn -pl weixin4j-server -Pload-test test-compile exec:java
+ * </pre>
+ *
+ * @className ServerLoadTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class ServerLoadTest {
+
+	private static final String TOKEN = "weixin4j";
+	private static final int PORT = 30010;
+	private static final int WARMUP_SECONDS = 3;
+
+	private final int connections;
+	private final int seconds;
+	private final AtomicLong msgId = new AtomicLong();
+
+	public ServerLoadTest(int connections, int seconds) {
+		this.connections = connections;
+		this.seconds = seconds;
+	}
+
+	public void run(String name, final WeixinServerBootstrap bootstrap)
+			throws Exception {
+		bootstrap.addHandler(new MessageHandlerAdapter<TextMessage>() {
+			@Override
+			protected WeixinResponse doHandle0(TextMessage message) {
+				return new TextResponse(message.getContent());
+			}
+		});
+		Thread server = new Thread("weixin4j-loadtest-server") {
+			@Override
+			public void run() {
+				bootstrap.startup(WeixinServerBootstrap.DEFAULT_BOSSTHREADS,
+						WeixinServerBootstrap.DEFAULT_WORKERTHREADS, PORT);
+			}
+		};
+		server.start();
+		awaitListening();
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(connections);
+		connectionManager.setDefaultMaxPerRoute(connections);
+		CloseableHttpClient httpClient = HttpClients.custom()
+				.setConnectionManager(connectionManager).build();
+		try {
+			drive(httpClient, WARMUP_SECONDS);
+			long[] result = drive(httpClient, seconds);
+			System.out.println(String.format(
+					"%-20s %10.1f requests/sec (%d requests, %d errors)", name,
+					result[0] / (double) seconds, result[0], result[1]));
+		} finally {
+			httpClient.close();
+			bootstrap.shutdown(true);
+			server.join();
+		}
+	}
+
+	private long[] drive(final CloseableHttpClient httpClient, int seconds)
+			throws InterruptedException {
+		final long deadline = System.nanoTime() + seconds * 1000000000l;
+		final AtomicLong requests = new AtomicLong();
+		final AtomicLong errors = new AtomicLong();
+		final CountDownLatch done = new CountDownLatch(connections);
+		for (int i = 0; i < connections; i++) {
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						while (System.nanoTime() < deadline) {
+							if (push(httpClient)) {
+								requests.incrementAndGet();
+							} else {
+								errors.incrementAndGet();
+							}
+						}
+					} finally {
+						done.countDown();
+					}
+				}
+			}.start();
+		}
+		done.await();
+		return new long[] { requests.get(), errors.get() };
+	}
+
+	private boolean push(CloseableHttpClient httpClient) {
+		String timestamp = Long.toString(System.currentTimeMillis() / 1000l);
+		String nonce = Long.toString(System.nanoTime());
+		HttpPost httpPost = new HttpPost(String.format(
+				"http://127.0.0.1:%d/?signature=%s&timestamp=%s&nonce=%s",
+				PORT, MessageUtil.signature(TOKEN, timestamp, nonce),
+				timestamp, nonce));
+		httpPost.setEntity(new StringEntity(
+				"<xml><ToUserName><![CDATA[gh_loadtest]]></ToUserName>"
+						+ "<FromUserName><![CDATA[loadtest]]></FromUserName>"
+						+ "<CreateTime>" + timestamp + "</CreateTime>"
+						+ "<MsgType><![CDATA[text]]></MsgType>"
+						+ "<Content><![CDATA[hello]]></Content>" + "<MsgId>"
+						+ msgId.incrementAndGet() + "</MsgId></xml>",
+				ServerToolkits.UTF_8));
+		try {
+			HttpResponse httpResponse = httpClient.execute(httpPost);
+			EntityUtils.consume(httpResponse.getEntity());
+			return httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_OK;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private void awaitListening() throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			Socket socket = new Socket();
+			try {
+				socket.connect(new InetSocketAddress("127.0.0.1", PORT), 100);
+				return;
+			} catch (IOException e) {
+				Thread.sleep(100l);
+			} finally {
+				try {
+					socket.close();
+				} catch (IOException e) {
+					;
+				}
+			}
+		}
+		throw new IllegalStateException("server not startup:" + PORT);
+	}
+
+	public static void main(String[] args) throws Exception {
+		ServerLoadTest loadTest = new ServerLoadTest(Integer.getInteger(
+				"weixin4j.loadtest.connections", 64), Integer.getInteger(
+				"weixin4j.loadtest.seconds", 15));
+		loadTest.run("NIO", new WeixinServerBootstrap(TOKEN)
+				.transport(ServerTransport.NIO));
+		if (ServerTransport.EPOLL.isAvailable()) {
+			loadTest.run("EPOLL", new WeixinServerBootstrap(TOKEN)
+					.transport(ServerTransport.EPOLL));
+			loadTest.run("EPOLL + SO_REUSEPORT", new WeixinServerBootstrap(
+					TOKEN).transport(ServerTransport.EPOLL).reusePort());
+		} else {
+			System.out.println("EPOLL not available on "
+					+ System.getProperty("os.name"));
+		}
+	}
+}
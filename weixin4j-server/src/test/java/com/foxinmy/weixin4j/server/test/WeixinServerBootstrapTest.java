@@ -0,0 +1,219 @@
+package com.foxinmy.weixin4j.server.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.foxinmy.weixin4j.handler.MessageHandlerAdapter;
+import com.foxinmy.weixin4j.message.TextMessage;
+import com.foxinmy.weixin4j.response.TextResponse;
+import com.foxinmy.weixin4j.response.WeixinResponse;
+import com.foxinmy.weixin4j.startup.ServerTransport;
+import com.foxinmy.weixin4j.startup.WeixinServerBootstrap;
+import com.foxinmy.weixin4j.util.MessageUtil;
+import com.foxinmy.weixin4j.util.ServerToolkits;
+
+/**
+ * 服务启动测试:业务线程池已满时回复空白消息,阻塞关闭时等待处理中的消息回复
+ *
+ * @className WeixinServerBootstrapTest
+ * @author jinyu(foxinmy@gmail.com)
+ * @date 2026年10月17日
+ * @since JDK 1.8
+ */
+public class WeixinServerBootstrapTest {
+
+	private static final String TOKEN = "weixin4j";
+
+	private final AtomicLong msgId = new AtomicLong();
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private int port;
+	private WeixinServerBootstrap bootstrap;
+	private Thread server;
+	private ExecutorService clients;
+
+	@Before
+	public void setUp() throws IOException {
+		ServerSocket socket = new ServerSocket(0);
+		try {
+			port = socket.getLocalPort();
+		} finally {
+			socket.close();
+		}
+		clients = Executors.newCachedThreadPool();
+		bootstrap = new WeixinServerBootstrap(TOKEN).transport(
+				ServerTransport.NIO).addHandler(
+				new MessageHandlerAdapter<TextMessage>() {
+					@Override
+					protected WeixinResponse doHandle0(TextMessage message) {
+						started.countDown();
+						try {
+							release.await(10, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						return new TextResponse(message.getContent());
+					}
+				});
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		release.countDown();
+		bootstrap.shutdown(true);
+		server.join(10000l);
+		clients.shutdownNow();
+	}
+
+	private void startup() throws InterruptedException {
+		server = new Thread("weixin4j-bootstrap-test") {
+			@Override
+			public void run() {
+				bootstrap.startup(1, 2, port);
+			}
+		};
+		server.start();
+		for (int i = 0; i < 100; i++) {
+			if (isListening()) {
+				return;
+			}
+			Thread.sleep(100l);
+		}
+		throw new IllegalStateException("server not startup:" + port);
+	}
+
+	@Test(timeout = 30000)
+	public void rejectedExecution() throws Exception {
+		// 1个线程、队列长度为1:第1条消息执行中,第2条排队,第3条被拒绝
+		bootstrap.businessExecutor(1, 1);
+		startup();
+		Future<String> first = clients.submit(push("first"));
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+		CompletionService<String> pending = new ExecutorCompletionService<String>(
+				clients);
+		pending.submit(push("second"));
+		pending.submit(push("third"));
+		// 被拒绝的消息不等待执行中的handler,立即回复空白消息
+		Future<String> rejected = pending.poll(5, TimeUnit.SECONDS);
+		Assert.assertNotNull(rejected);
+		Assert.assertEquals("success", rejected.get());
+		Assert.assertNull(pending.poll(200, TimeUnit.MILLISECONDS));
+		Assert.assertFalse(first.isDone());
+		release.countDown();
+		Assert.assertTrue(first.get().contains("<![CDATA[first]]>"));
+		String queued = pending.take().get();
+		Assert.assertTrue(queued, queued.contains("<![CDATA[second]]>")
+				|| queued.contains("<![CDATA[third]]>"));
+	}
+
+	@Test(timeout = 30000)
+	public void shutdownDrainsInFlight() throws Exception {
+		bootstrap.businessExecutor(2, 10);
+		startup();
+		Future<String> inFlight = clients.submit(push("in-flight"));
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+		Future<Boolean> shutdown = clients.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return bootstrap.shutdown(true, 5000l);
+			}
+		});
+		// 关闭时不再接收新连接,但等待处理中的消息回复
+		for (int i = 0; i < 50 && isListening(); i++) {
+			Thread.sleep(100l);
+		}
+		Assert.assertFalse(isListening());
+		Assert.assertFalse(shutdown.isDone());
+		Assert.assertFalse(inFlight.isDone());
+		release.countDown();
+		Assert.assertTrue(inFlight.get().contains("<![CDATA[in-flight]]>"));
+		Assert.assertTrue(shutdown.get());
+		server.join(10000l);
+		Assert.assertFalse(server.isAlive());
+	}
+
+	private boolean isListening() {
+		Socket socket = new Socket();
+		try {
+			socket.connect(new InetSocketAddress("127.0.0.1", port), 100);
+			return true;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				;
+			}
+		}
+	}
+
+	private Callable<String> push(final String content) {
+		final long id = msgId.incrementAndGet();
+		return new Callable<String>() {
+			@Override
+			public String call() throws IOException {
+				String timestamp = Long.toString(System.currentTimeMillis() / 1000l);
+				String nonce = Long.toString(System.nanoTime());
+				HttpURLConnection connection = (HttpURLConnection) new URL(
+						String.format(
+								"http://127.0.0.1:%d/?signature=%s&timestamp=%s&nonce=%s",
+								port,
+								MessageUtil.signature(TOKEN, timestamp, nonce),
+								timestamp, nonce)).openConnection();
+				connection.setRequestMethod("POST");
+				connection.setDoOutput(true);
+				connection.setConnectTimeout(5000);
+				connection.setReadTimeout(15000);
+				OutputStream output = connection.getOutputStream();
+				try {
+					output.write(ServerToolkits.getBytesUtf8("<xml>"
+							+ "<ToUserName><![CDATA[gh_test]]></ToUserName>"
+							+ "<FromUserName><![CDATA[test]]></FromUserName>"
+							+ "<CreateTime>" + timestamp + "</CreateTime>"
+							+ "<MsgType><![CDATA[text]]></MsgType>"
+							+ "<Content><![CDATA[" + content + "]]></Content>"
+							+ "<MsgId>" + id + "</MsgId></xml>"));
+				} finally {
+					output.close();
+				}
+				Assert.assertEquals(HttpURLConnection.HTTP_OK,
+						connection.getResponseCode());
+				InputStream input = connection.getInputStream();
+				try {
+					ByteArrayOutputStream body = new ByteArrayOutputStream();
+					byte[] buffer = new byte[1024];
+					for (int n = input.read(buffer); n != -1; n = input
+							.read(buffer)) {
+						body.write(buffer, 0, n);
+					}
+					return new String(body.toByteArray(), ServerToolkits.UTF_8);
+				} finally {
+					input.close();
+				}
+			}
+		};
+	}
+}
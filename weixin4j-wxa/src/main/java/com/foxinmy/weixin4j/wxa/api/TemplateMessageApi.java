@@ -2,6 +2,9 @@ package com.foxinmy.weixin4j.wxa.api;
 
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 import com.foxinmy.weixin4j.exception.WeixinException;
 import com.foxinmy.weixin4j.token.TokenManager;
@@ -53,4 +56,40 @@ public class TemplateMessageApi extends TokenManagerApi {
 		r.checkErrCode();
 	}
 
+	/**
+	 * 异步发送模板消息，参数同 {@link #sendTemplateMessage(String, String, String, String, Map, String)}。
+	 *
+	 * @return the future completes exceptionally with {@link WeixinException}
+	 * (wrapped in {@link CompletionException}) if sending template message failed.
+	 * @throws WeixinException indicates getting access token failed.
+	 * @since 1.9
+	 */
+	public CompletableFuture<Void> sendTemplateMessageAsync(
+		final String toUser,
+		final String templateId,
+		final String page,
+		final String formId,
+		final Map<String, String> data,
+		final String emphasisKeyword
+	) throws WeixinException {
+		final TemplateMessageParameter message = new TemplateMessageParameter(
+			toUser, templateId, page, formId, data, emphasisKeyword
+		);
+		return this.postAsync(
+			"wxopen_template_message_send",
+			message,
+			WxaApiResult.TYPE_REFERENCE
+		).thenApply(new Function<WxaApiResult, Void>() {
+			@Override
+			public Void apply(WxaApiResult r) {
+				try {
+					r.checkErrCode();
+				} catch (WeixinException e) {
+					throw new CompletionException(e);
+				}
+				return null;
+			}
+		});
+	}
+
 }
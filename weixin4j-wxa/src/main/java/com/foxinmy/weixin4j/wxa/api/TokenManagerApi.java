@@ -1,6 +1,8 @@
 package com.foxinmy.weixin4j.wxa.api;
 
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.TypeReference;
@@ -28,6 +30,17 @@ abstract class TokenManagerApi extends WxaApi {
 		return response.getAsObject(typeReference);
 	}
 
+	<T> CompletableFuture<T> postAsync(String key, Object params, final TypeReference<T> typeReference) throws WeixinException {
+		final String uri = this.getAccessTokenRequestUri(key);
+		final String body = JSON.toJSONString(params);
+		return this.weixinExecutor.postAsync(uri, body).thenApply(new Function<WeixinResponse, T>() {
+			@Override
+			public T apply(WeixinResponse response) {
+				return response.getAsObject(typeReference);
+			}
+		});
+	}
+
 	String getAccessTokenRequestUri(String key) throws WeixinException {
 		final String accessToken = tokenManager.getAccessToken();
 		final String uri = this.getRequestUri(key, accessToken);